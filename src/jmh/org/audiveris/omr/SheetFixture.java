@@ -0,0 +1,128 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     S h e e t F i x t u r e                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.step.Step;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Class {@code SheetFixture} provides real sheets, processed up to a given step, for use
+ * by benchmarks.
+ * <p>
+ * Input paths are resolved against the current directory, which is the project root when
+ * benchmarks are launched through the 'jmh' Gradle task.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class SheetFixture
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    static {
+        // We need class WellKnowns to be elaborated before anything else
+        WellKnowns.ensureLoaded();
+    }
+
+    //~ Constructors -------------------------------------------------------------------------------
+    private SheetFixture ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Release the book of provided sheet, with its temporary folder, as well as the
+     * executors.
+     *
+     * @param sheet the sheet provided by {@link #load}
+     */
+    public static void close (Sheet sheet)
+    {
+        if (sheet != null) {
+            final Book book = sheet.getStub().getBook();
+            final Path folder = book.getBookPath().getParent();
+            book.close();
+
+            try {
+                FileUtil.deleteDirectory(folder);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not delete " + folder, ex);
+            }
+        }
+
+        OmrExecutors.shutdown();
+    }
+
+    //------//
+    // load //
+    //------//
+    /**
+     * Load the first valid sheet of provided input file, and process it until the
+     * provided step.
+     * <p>
+     * As in batch mode, the book is saved after each step, here into a temporary folder.
+     *
+     * @param input path to input file, such as "data/examples/chula.png"
+     * @param step  the step to reach
+     * @return the sheet processed
+     */
+    public static Sheet load (String input,
+                              Step step)
+    {
+        OmrExecutors.restart();
+
+        if (OMR.engine == null) {
+            OMR.engine = BookManager.getInstance();
+        }
+
+        final Path path = Paths.get(input).toAbsolutePath();
+        final Book book = OMR.engine.loadInput(path);
+        book.createStubs(null);
+
+        try {
+            final Path folder = Files.createTempDirectory("bench-");
+            book.store(folder.resolve(book.getRadix() + OMR.BOOK_EXTENSION), false);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create temporary book folder", ex);
+        }
+
+        final SheetStub stub = book.getFirstValidStub();
+
+        if ((stub == null) || !stub.reachStep(step, false)) {
+            throw new IllegalStateException("Could not reach " + step + " on " + input);
+        }
+
+        return stub.getSheet();
+    }
+}
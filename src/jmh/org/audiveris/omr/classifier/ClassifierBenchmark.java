@@ -0,0 +1,112 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                              C l a s s i f i e r B e n c h m a r k                             //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.WellKnowns;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code ClassifierBenchmark} measures {@link Classifier#getNaturalEvaluations}
+ * on real samples, for both the basic and the deep classifiers.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassifierBenchmark
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    static {
+        // We need class WellKnowns to be elaborated before anything else
+        WellKnowns.ensureLoaded();
+    }
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Samples file, relative to project root. */
+    @Param({"data/train/samples.zip"})
+    public String samplesFile;
+
+    /** Maximum number of samples processed per invocation. */
+    @Param({"1000"})
+    public int maxSamples;
+
+    /** Classifier. */
+    @Param({"basic", "deep"})
+    public String classifierName;
+
+    private Classifier classifier;
+
+    private Sample[] samples;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public double evaluations ()
+    {
+        double sum = 0;
+
+        for (Sample sample : samples) {
+            sum += classifier.getNaturalEvaluations(sample, sample.getInterline())[0].grade;
+        }
+
+        return sum;
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        classifier = "deep".equals(classifierName) ? DeepClassifier.getInstance()
+                : BasicClassifier.getInstance();
+
+        final List<Sample> all = SampleRepository.getInstance(
+                Paths.get(samplesFile).toAbsolutePath(),
+                true).getAllSamples();
+        final int count = Math.min(maxSamples, all.size());
+        samples = new Sample[count];
+
+        for (int i = 0; i < count; i++) {
+            // Spread selection over the whole repository
+            samples[i] = all.get((int) (((long) i * all.size()) / count));
+        }
+    }
+}
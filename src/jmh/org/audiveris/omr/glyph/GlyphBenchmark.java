@@ -0,0 +1,112 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   G l y p h B e n c h m a r k                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import org.audiveris.omr.SheetFixture;
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.run.RunTableFactory;
+import org.audiveris.omr.sheet.Picture;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.Step;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code GlyphBenchmark} measures {@link GlyphFactory#buildGlyphs} and
+ * {@link Glyphs#buildLinks} on the no-staff image of a whole sheet.
+ * <p>
+ * Links use the maximum gap of SymbolsBuilder (half an interline), but on all sheet glyphs at
+ * once rather than system per system.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GlyphBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input file, relative to project root. */
+    @Param({"data/examples/chula.png", "data/examples/allegretto.png"})
+    public String input;
+
+    private Sheet sheet;
+
+    /** Vertical runs of no-staff image. */
+    private RunTable table;
+
+    /** Glyphs built from table. */
+    private List<Glyph> glyphs;
+
+    /** Maximum gap between linked glyphs. */
+    private double maxGap;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public List<Glyph> buildGlyphs ()
+    {
+        return GlyphFactory.buildGlyphs(table, new Point(0, 0));
+    }
+
+    @Benchmark
+    public GlyphGraph buildLinks ()
+    {
+        return Glyphs.buildLinks(glyphs, maxGap);
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        sheet = SheetFixture.load(input, Step.GRID);
+        table = new RunTableFactory(Orientation.VERTICAL).createTable(
+                sheet.getPicture().getSource(Picture.SourceKey.NO_STAFF));
+        glyphs = GlyphFactory.buildGlyphs(table, new Point(0, 0));
+        maxGap = 0.5 * sheet.getScale().getInterline();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown ()
+    {
+        SheetFixture.close(sheet);
+    }
+}
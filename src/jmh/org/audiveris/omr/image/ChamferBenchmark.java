@@ -0,0 +1,99 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 C h a m f e r B e n c h m a r k                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.SheetFixture;
+import org.audiveris.omr.sheet.Picture;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.Step;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ij.process.ByteProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code ChamferBenchmark} measures the distance transform to foreground of a
+ * whole binary sheet image, by plain {@link ChamferDistance} processing and by banded processing
+ * (as used by DistancesBuilder).
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChamferBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input file, relative to project root. */
+    @Param({"data/examples/chula.png", "data/examples/allegretto.png"})
+    public String input;
+
+    private Sheet sheet;
+
+    /** Binary source. */
+    private ByteProcessor binary;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public DistanceTable banded ()
+    {
+        return new ChamferDistance.Short().computeToFore(binary, OmrExecutors.getNumberOfCpus());
+    }
+
+    @Benchmark
+    public DistanceTable plain ()
+    {
+        return new ChamferDistance.Short().computeToFore(binary);
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        sheet = SheetFixture.load(input, Step.BINARY);
+        binary = sheet.getPicture().getSource(Picture.SourceKey.BINARY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown ()
+    {
+        SheetFixture.close(sheet);
+    }
+}
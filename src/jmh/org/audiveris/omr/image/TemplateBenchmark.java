@@ -0,0 +1,200 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                T e m p l a t e B e n c h m a r k                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.SheetFixture;
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.glyph.ShapeSet;
+import org.audiveris.omr.image.Anchored.Anchor;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.Staff;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sheet.grid.LineInfo;
+import org.audiveris.omr.sheet.note.DistancesBuilder;
+import org.audiveris.omr.step.Step;
+
+import static org.audiveris.omr.util.HorizontalSide.LEFT;
+import static org.audiveris.omr.util.HorizontalSide.RIGHT;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code TemplateBenchmark} compares plain {@link Template#evaluate} with
+ * {@link CompiledTemplate#evaluate} on real staves.
+ * <p>
+ * The probes mimic HEADS scanning: every abscissa of every staff line, both on line and between
+ * lines, for every template shape, using the MIDDLE_LEFT anchor.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TemplateBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input file, relative to project root. */
+    @Param({"data/examples/chula.png", "data/examples/allegretto.png"})
+    public String input;
+
+    private Sheet sheet;
+
+    private DistanceTable distances;
+
+    private PackedTable packedTable;
+
+    /** Probe abscissae. */
+    private int[] xs;
+
+    /** Probe ordinates. */
+    private int[] ys;
+
+    /** Plain template for each probe. */
+    private Template[] templates;
+
+    /** Compiled template for each probe. */
+    private CompiledTemplate[] compileds;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public double compiled ()
+    {
+        double sum = 0;
+
+        for (int i = 0; i < xs.length; i++) {
+            sum += compileds[i].evaluate(xs[i], ys[i], Anchor.MIDDLE_LEFT, packedTable);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public double compiledEarlyExit ()
+    {
+        final double threshold = Template.maxDistanceLow();
+        double sum = 0;
+
+        for (int i = 0; i < xs.length; i++) {
+            sum += compileds[i].evaluate(
+                    xs[i],
+                    ys[i],
+                    Anchor.MIDDLE_LEFT,
+                    packedTable,
+                    threshold);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public PackedTable packing ()
+    {
+        return new PackedTable(distances);
+    }
+
+    @Benchmark
+    public double plain ()
+    {
+        double sum = 0;
+
+        for (int i = 0; i < xs.length; i++) {
+            sum += templates[i].evaluate(xs[i], ys[i], Anchor.MIDDLE_LEFT, distances);
+        }
+
+        return sum;
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        sheet = SheetFixture.load(input, Step.LEDGERS);
+        distances = new DistancesBuilder(sheet).buildDistances();
+        packedTable = new PackedTable(distances);
+
+        final List<int[]> locs = new ArrayList<int[]>();
+        final List<ShapeDescriptor> descs = new ArrayList<ShapeDescriptor>();
+
+        for (SystemInfo system : sheet.getSystems()) {
+            for (Staff staff : system.getStaves()) {
+                final TemplateFactory.Catalog catalog = TemplateFactory.getInstance().getCatalog(
+                        staff.getHeadPointSize());
+                final int halfInterline = staff.getSpecificInterline() / 2;
+
+                for (LineInfo line : staff.getLines()) {
+                    final int xMin = (int) Math.ceil(line.getEndPoint(LEFT).getX());
+                    final int xMax = (int) Math.floor(line.getEndPoint(RIGHT).getX());
+
+                    for (int x = xMin; x <= xMax; x++) {
+                        final int y = line.yAt(x);
+
+                        for (Shape shape : ShapeSet.TemplateNotes) {
+                            final ShapeDescriptor desc = catalog.getDescriptor(shape);
+                            locs.add(new int[]{x, y});
+                            descs.add(desc);
+                            locs.add(new int[]{x, y + halfInterline});
+                            descs.add(desc);
+                        }
+                    }
+                }
+            }
+        }
+
+        final int count = locs.size();
+        xs = new int[count];
+        ys = new int[count];
+        templates = new Template[count];
+        compileds = new CompiledTemplate[count];
+
+        for (int i = 0; i < count; i++) {
+            xs[i] = locs.get(i)[0];
+            ys[i] = locs.get(i)[1];
+            templates[i] = descs.get(i).getTemplate();
+            compileds[i] = descs.get(i).getCompiled();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown ()
+    {
+        SheetFixture.close(sheet);
+    }
+}
@@ -0,0 +1,144 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     A r t B e n c h m a r k                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.moments;
+
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.classifier.Sample;
+import org.audiveris.omr.classifier.SampleRepository;
+import org.audiveris.omr.math.PointsCollector;
+import org.audiveris.omr.run.RunTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code ArtBenchmark} compares the point-based {@link BasicARTExtractor} with
+ * the run-based {@link RunARTExtractor}, on real samples.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArtBenchmark
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    static {
+        // We need class WellKnowns to be elaborated before anything else
+        WellKnowns.ensureLoaded();
+    }
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Samples file, relative to project root. */
+    @Param({"data/train/samples.zip"})
+    public String samplesFile;
+
+    /** Maximum number of samples processed per invocation. */
+    @Param({"2000"})
+    public int maxSamples;
+
+    /** Run table of each sample. */
+    private RunTable[] tables;
+
+    /** Top-left corner of each sample. */
+    private Point[] corners;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Former extraction: points collection, then BasicARTExtractor.
+     */
+    @Benchmark
+    public double basic ()
+    {
+        double sum = 0;
+
+        for (int i = 0; i < tables.length; i++) {
+            final RunTable table = tables[i];
+            final PointsCollector collector = new PointsCollector(null, table.getWeight());
+            table.cumulate(collector, corners[i]);
+
+            final ARTMoments moments = new BasicARTMoments();
+            final BasicARTExtractor extractor = new BasicARTExtractor();
+            extractor.setDescriptor(moments);
+            extractor.extract(
+                    collector.getXValues(),
+                    collector.getYValues(),
+                    collector.getSize());
+            sum += moments.getMoment(1, 1);
+        }
+
+        return sum;
+    }
+
+    /**
+     * Current extraction: RunARTExtractor, called on runs.
+     */
+    @Benchmark
+    public double runs ()
+    {
+        double sum = 0;
+
+        for (int i = 0; i < tables.length; i++) {
+            sum += tables[i].computeArtMoments(corners[i].x, corners[i].y).getMoment(1, 1);
+        }
+
+        return sum;
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        final List<Sample> samples = SampleRepository.getInstance(
+                Paths.get(samplesFile).toAbsolutePath(),
+                true).getAllSamples();
+        final int count = Math.min(maxSamples, samples.size());
+        tables = new RunTable[count];
+        corners = new Point[count];
+
+        for (int i = 0; i < count; i++) {
+            // Spread selection over the whole repository
+            final Sample sample = samples.get((int) (((long) i * samples.size()) / count));
+            tables[i] = sample.getRunTable();
+            corners[i] = sample.getTopLeft();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               G e o m e t r i c B e n c h m a r k                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.moments;
+
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.classifier.Sample;
+import org.audiveris.omr.classifier.SampleRepository;
+import org.audiveris.omr.math.PointsCollector;
+import org.audiveris.omr.run.RunTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code GeometricBenchmark} measures the computation of {@link GeometricMoments}
+ * on the points of real samples.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeometricBenchmark
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    static {
+        // We need class WellKnowns to be elaborated before anything else
+        WellKnowns.ensureLoaded();
+    }
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Samples file, relative to project root. */
+    @Param({"data/train/samples.zip"})
+    public String samplesFile;
+
+    /** Maximum number of samples processed per invocation. */
+    @Param({"2000"})
+    public int maxSamples;
+
+    /** Points of each sample. */
+    private PointsCollector[] collectors;
+
+    /** Interline of each sample. */
+    private int[] interlines;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public double moments ()
+    {
+        double sum = 0;
+
+        for (int i = 0; i < collectors.length; i++) {
+            final PointsCollector collector = collectors[i];
+            final GeometricMoments moments = new GeometricMoments(
+                    collector.getXValues(),
+                    collector.getYValues(),
+                    collector.getSize(),
+                    interlines[i]);
+            sum += moments.getN11();
+        }
+
+        return sum;
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        final List<Sample> samples = SampleRepository.getInstance(
+                Paths.get(samplesFile).toAbsolutePath(),
+                true).getAllSamples();
+        final int count = Math.min(maxSamples, samples.size());
+        collectors = new PointsCollector[count];
+        interlines = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            // Spread selection over the whole repository
+            final Sample sample = samples.get((int) (((long) i * samples.size()) / count));
+            final RunTable table = sample.getRunTable();
+            collectors[i] = new PointsCollector(null, table.getWeight());
+            table.cumulate(collectors[i], sample.getTopLeft());
+            interlines[i] = sample.getInterline();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                R u n T a b l e B e n c h m a r k                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import org.audiveris.omr.SheetFixture;
+import org.audiveris.omr.sheet.Picture;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.Step;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ij.process.ByteProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code RunTableBenchmark} measures {@link RunTableFactory#createTable} on a
+ * whole binary sheet image, in both orientations.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RunTableBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input file, relative to project root. */
+    @Param({"data/examples/chula.png", "data/examples/allegretto.png"})
+    public String input;
+
+    /** Runs orientation. */
+    @Param({"HORIZONTAL", "VERTICAL"})
+    public String orientation;
+
+    private Sheet sheet;
+
+    /** Binary source. */
+    private ByteProcessor binary;
+
+    private RunTableFactory factory;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public RunTable createTable ()
+    {
+        return factory.createTable(binary);
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        sheet = SheetFixture.load(input, Step.BINARY);
+        binary = sheet.getPicture().getSource(Picture.SourceKey.BINARY);
+        factory = new RunTableFactory(Orientation.valueOf(orientation));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown ()
+    {
+        SheetFixture.close(sheet);
+    }
+}
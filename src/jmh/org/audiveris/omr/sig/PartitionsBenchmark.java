@@ -0,0 +1,131 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                              P a r t i t i o n s B e n c h m a r k                             //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sig;
+
+import org.audiveris.omr.SheetFixture;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sig.inter.Inter;
+import org.audiveris.omr.sig.relation.Support;
+import org.audiveris.omr.step.Step;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code PartitionsBenchmark} measures {@link SIGraph#getPartitions} on the
+ * supporting partners of every inter, as done by contextual grade computation.
+ * <p>
+ * The sheet is processed until STEMS step, that is before conflicts get reduced.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PartitionsBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input file, relative to project root. */
+    @Param({"data/examples/chula.png", "data/examples/allegretto.png"})
+    public String input;
+
+    private Sheet sheet;
+
+    /** SIG of each focus. */
+    private final List<SIGraph> sigs = new ArrayList<SIGraph>();
+
+    /** Focus inters. */
+    private final List<Inter> foci = new ArrayList<Inter>();
+
+    /** Supporting partners of each focus. */
+    private final List<List<Inter>> partners = new ArrayList<List<Inter>>();
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Benchmark
+    public int partitions ()
+    {
+        int count = 0;
+
+        for (int i = 0; i < foci.size(); i++) {
+            count += sigs.get(i).getPartitions(foci.get(i), partners.get(i)).size();
+        }
+
+        return count;
+    }
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        sheet = SheetFixture.load(input, Step.STEMS);
+
+        for (SystemInfo system : sheet.getSystems()) {
+            final SIGraph sig = system.getSig();
+
+            for (Inter inter : sig.vertexSet()) {
+                final List<Inter> list = new ArrayList<Inter>();
+
+                for (Support support : sig.getSupports(inter)) {
+                    if (inter == sig.getEdgeTarget(support)) {
+                        if (support.getTargetRatio() > 1) {
+                            list.add(sig.getEdgeSource(support));
+                        }
+                    } else if (support.getSourceRatio() > 1) {
+                        list.add(sig.getEdgeTarget(support));
+                    }
+                }
+
+                // Partitions matter only when there are several partners
+                if (list.size() > 1) {
+                    sigs.add(sig);
+                    foci.add(inter);
+                    partners.add(list);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown ()
+    {
+        SheetFixture.close(sheet);
+    }
+}
@@ -28,6 +28,7 @@ import org.audiveris.omr.sheet.BookManager;
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.RunClass;
 import org.audiveris.omr.step.Step;
+import org.audiveris.omr.step.StepException;
 import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.FileUtil;
 
@@ -164,17 +165,56 @@ public class CLI
         return params.outputFolder;
     }
 
+    //----------------//
+    // getSpoolFolder //
+    //----------------//
+    /**
+     * Report the spool folder if present on the CLI (daemon mode).
+     *
+     * @return the CLI spool path, or null
+     */
+    public Path getSpoolFolder ()
+    {
+        return params.spoolFolder;
+    }
+
     //-------------//
     // isBatchMode //
     //-------------//
     /**
      * Report whether we are running in batch (that is with no UI).
+     * Daemon mode implies batch mode.
      *
      * @return true for batch mode
      */
     public boolean isBatchMode ()
     {
-        return params.batchMode;
+        return params.batchMode || (params.spoolFolder != null);
+    }
+
+    //--------------//
+    // isExportOnly //
+    //--------------//
+    /**
+     * Report whether the CLI tasks are mere exports of existing books, with no other
+     * processing requested.
+     *
+     * @return true if all arguments are book files and export is the only action
+     */
+    public boolean isExportOnly ()
+    {
+        if (!params.export || (params.step != null) || params.transcribe || params.print
+            || params.sample || params.annotate || (params.runClass != null)) {
+            return false;
+        }
+
+        for (Path argument : params.arguments) {
+            if (!argument.toString().trim().endsWith(OMR.BOOK_EXTENSION)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     //------------//
@@ -253,6 +293,7 @@ public class CLI
         buf.append("\n");
         buf.append("\nSyntax:");
         buf.append("\n    audiveris [OPTIONS] [--] [INPUT_FILES]\n");
+        buf.append("\n    audiveris -daemon <spool-folder> [OPTIONS]\n");
 
         buf.append("\n@file:");
         buf.append("\n    Content of file to be extended in line");
@@ -269,6 +310,13 @@ public class CLI
         buf.append("\n    [any other] : image file (input)");
         buf.append("\n");
 
+        buf.append("\nDaemon jobs:");
+        buf.append("\n    <name>.job    : job file put in spool folder, one CLI item per line");
+        buf.append("\n                    (-option, -output, -daemon and -help are not allowed)");
+        buf.append("\n    <name>.status : job status and timings, written by the daemon");
+        buf.append("\n    stop          : file put in spool folder to stop the daemon");
+        buf.append("\n");
+
         // Print all steps
         buf.append("\nSheet steps are in order:");
 
@@ -363,6 +411,7 @@ public class CLI
         protected abstract Book loadBook (Path path);
 
         /** Processing the book instance.
+         * A processing failure is reported by an exception, so that caller can flag the task.
          *
          * @param book the book to process
          */
@@ -502,6 +551,10 @@ public class CLI
         @Option(name = "-batch", usage = "Run with no graphic user interface")
         boolean batchMode;
 
+        /** Spool folder, for daemon mode. */
+        @Option(name = "-daemon", usage = "Run as a daemon on jobs from spool folder", metaVar = "<spool-folder>")
+        Path spoolFolder;
+
         /** Should MusicXML data be produced?. */
         @Option(name = "-export", usage = "Export MusicXML")
         boolean export;
@@ -753,7 +806,8 @@ public class CLI
                     boolean ok = book.reachBookStep(params.step, params.force, sheetIds);
 
                     if (!ok) {
-                        return;
+                        // Let the caller know (exit code in batch, job status in daemon)
+                        throw new StepException("Could not reach " + params.step + " on " + book);
                     }
                 }
 
@@ -811,6 +865,9 @@ public class CLI
                 logger.warn("Cancelled " + book);
                 cancelled = true;
                 throw pce;
+            } catch (StepException ex) {
+                logger.warn(ex.getMessage());
+                throw new RuntimeException(ex.getMessage(), ex);
             } catch (Throwable ex) {
                 logger.warn("Exception occurred " + ex, ex);
                 throw new RuntimeException(ex);
@@ -0,0 +1,553 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                           D a e m o n                                          //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.CLI.CliTask;
+import org.audiveris.omr.classifier.ShapeClassifier;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.image.jai.JaiLoader;
+import org.audiveris.omr.score.PartwiseBuilder;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code Daemon} runs OMR as a resident service, processing the jobs dropped into
+ * a spool folder, so that the costly initializations (constants, JAXB contexts, classifier
+ * models, music font, ...) are paid only once for all jobs.
+ * <p>
+ * A job is a file named {@code <name>.job}, whose content follows the CLI syntax with one item
+ * per line (blank lines and lines starting with '#' are ignored), for example:
+ * <pre>
+ * -transcribe
+ * -export
+ * /path/to/scan.png
+ * </pre>
+ * To avoid reading a partly written job, a client should write the job file under another name
+ * and then rename it. Options that apply to the whole daemon (-option, -output, -daemon, -help)
+ * are not allowed in a job.
+ * <p>
+ * The daemon claims a job by renaming it {@code <name>.running}, writes its status and timings
+ * into {@code <name>.status} and finally renames it {@code <name>.done} or
+ * {@code <name>.failed}.
+ * Jobs are run on the shared {@link OmrExecutors} pools, with at most
+ * {@code maxParallelJobs} jobs at a time.
+ * <p>
+ * The daemon stops, once all claimed jobs are completed, when a file named {@code stop} appears
+ * in the spool folder. Jobs not yet claimed are left in the spool folder.
+ *
+ * @author Hervé Bitteur
+ */
+public class Daemon
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(Daemon.class);
+
+    /** Extension for a job to process. */
+    public static final String JOB_EXTENSION = ".job";
+
+    /** Extension for a job being processed. */
+    public static final String RUNNING_EXTENSION = ".running";
+
+    /** Extension for a successful job. */
+    public static final String DONE_EXTENSION = ".done";
+
+    /** Extension for a failed job. */
+    public static final String FAILED_EXTENSION = ".failed";
+
+    /** Extension for a job status. */
+    public static final String STATUS_EXTENSION = ".status";
+
+    /** Name of the file that stops the daemon. */
+    public static final String STOP_FILE_NAME = "stop";
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Folder watched for jobs. */
+    private final Path spool;
+
+    /** File that requests daemon stop. */
+    private final Path stop;
+
+    /** Available job slots. */
+    private final Semaphore slots;
+
+    /** Jobs submitted and not yet known as completed. */
+    private final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code Daemon} object.
+     *
+     * @param spool the folder to watch for jobs
+     */
+    public Daemon (Path spool)
+    {
+        this.spool = spool;
+        stop = spool.resolve(STOP_FILE_NAME);
+        slots = new Semaphore(Math.max(1, constants.maxParallelJobs.getValue()));
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Process the spool jobs, until a stop file is found.
+     *
+     * @return true if the spool folder could not be watched
+     */
+    public boolean run ()
+    {
+        boolean failure = false;
+        logger.info("Daemon watching jobs in {}", spool.toAbsolutePath());
+
+        try {
+            if (!Files.exists(spool)) {
+                Files.createDirectories(spool);
+            }
+
+            try (WatchService watcher = spool.getFileSystem().newWatchService()) {
+                spool.register(
+                        watcher,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+
+                while (true) {
+                    submitJobs();
+
+                    if (Files.exists(stop)) {
+                        Files.delete(stop);
+                        logger.info("Daemon stop requested");
+
+                        break;
+                    }
+
+                    // Directory scan on any event, or periodically anyway
+                    WatchKey key = watcher.poll(
+                            constants.pollPeriod.getValue(),
+                            TimeUnit.SECONDS);
+
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            logger.info("Daemon interrupted");
+        } catch (IOException ex) {
+            logger.warn("Daemon error on spool {} {}", spool, ex.toString(), ex);
+            failure = true;
+        }
+
+        waitForJobs();
+
+        return failure;
+    }
+
+    //--------//
+    // warmUp //
+    //--------//
+    /**
+     * Launch the loading of costly packages, before any job arrives.
+     */
+    public void warmUp ()
+    {
+        ShapeClassifier.preload();
+        JaiLoader.preload();
+        PartwiseBuilder.preload();
+    }
+
+    //-------------//
+    // acquireSlot //
+    //-------------//
+    /**
+     * Wait for a free job slot, unless daemon stop is requested meanwhile.
+     *
+     * @return true if a slot was acquired, false if stop was requested
+     */
+    private boolean acquireSlot ()
+            throws InterruptedException
+    {
+        while (!Files.exists(stop)) {
+            if (slots.tryAcquire(constants.pollPeriod.getValue(), TimeUnit.SECONDS)) {
+                return true;
+            }
+
+            pruneJobs();
+        }
+
+        return false;
+    }
+
+    //---------//
+    // getName //
+    //---------//
+    private static String getName (Path job)
+    {
+        final String fileName = job.getFileName().toString();
+
+        return fileName.substring(0, fileName.length() - JOB_EXTENSION.length());
+    }
+
+    //----------//
+    // listJobs //
+    //----------//
+    /**
+     * Report the pending jobs, oldest first.
+     *
+     * @return the job files
+     */
+    private List<Path> listJobs ()
+            throws IOException
+    {
+        final List<Path> jobs = new ArrayList<Path>();
+        final Map<Path, Long> times = new HashMap<Path, Long>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spool, "*" + JOB_EXTENSION)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    try {
+                        times.put(path, Files.getLastModifiedTime(path).toMillis());
+                        jobs.add(path);
+                    } catch (IOException ex) {
+                        // Job vanished, or was claimed by someone else
+                        logger.debug("Could not read job {} {}", path, ex.toString());
+                    }
+                }
+            }
+        }
+
+        Collections.sort(
+                jobs,
+                new Comparator<Path>()
+        {
+            @Override
+            public int compare (Path p1,
+                                Path p2)
+            {
+                final int comp = times.get(p1).compareTo(times.get(p2));
+
+                return (comp != 0) ? comp : p1.compareTo(p2);
+            }
+        });
+
+        return jobs;
+    }
+
+    //-----------//
+    // pruneJobs //
+    //-----------//
+    /**
+     * Forget about the submitted jobs already completed.
+     */
+    private void pruneJobs ()
+    {
+        for (Iterator<Future<Boolean>> it = futures.iterator(); it.hasNext();) {
+            final Future<Boolean> future = it.next();
+
+            if (future.isDone()) {
+                waitForJob(future);
+                it.remove();
+            }
+        }
+    }
+
+    //------------//
+    // submitJobs //
+    //------------//
+    /**
+     * Claim and submit the pending jobs, until stop is requested.
+     */
+    private void submitJobs ()
+            throws IOException, InterruptedException
+    {
+        pruneJobs();
+
+        for (Path job : listJobs()) {
+            if (!acquireSlot()) {
+                return; // Stop requested
+            }
+
+            pruneJobs();
+
+            final String name = getName(job);
+            final Path running = spool.resolve(name + RUNNING_EXTENSION);
+            final long submitted;
+
+            try {
+                submitted = Files.getLastModifiedTime(job).toMillis();
+                Files.move(job, running, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                // Job vanished, or was claimed by someone else
+                logger.debug("Could not claim job {} {}", job, ex.toString());
+                slots.release();
+
+                continue;
+            }
+
+            logger.info("Daemon submitting job {}", name);
+            futures.add(
+                    OmrExecutors.getCachedLowExecutor().submit(new Job(name, running, submitted)));
+        }
+    }
+
+    //------------//
+    // waitForJob //
+    //------------//
+    /**
+     * Wait for completion of a submitted job.
+     *
+     * @param future the job future
+     */
+    private void waitForJob (Future<Boolean> future)
+    {
+        try {
+            future.get();
+        } catch (Exception ex) {
+            logger.warn("Daemon job error {}", ex.toString(), ex);
+        }
+    }
+
+    //-------------//
+    // waitForJobs //
+    //-------------//
+    /**
+     * Wait for completion of all submitted jobs.
+     */
+    private void waitForJobs ()
+    {
+        for (Future<Boolean> future : futures) {
+            waitForJob(future);
+        }
+
+        futures.clear();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Integer maxParallelJobs = new Constant.Integer(
+                "Jobs",
+                2,
+                "Maximum number of daemon jobs processed in parallel");
+
+        private final Constant.Integer pollPeriod = new Constant.Integer(
+                "Seconds",
+                5,
+                "Maximum delay between two scans of daemon spool folder");
+    }
+
+    //-----//
+    // Job //
+    //-----//
+    /**
+     * Processing of one claimed job file.
+     */
+    private class Job
+            implements Callable<Boolean>
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Job name. */
+        private final String name;
+
+        /** Claimed job file. */
+        private final Path running;
+
+        /** Time of job submission. */
+        private final long submitted;
+
+        /** Status report lines. */
+        private final List<String> report = new ArrayList<String>();
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Job (String name,
+                    Path running,
+                    long submitted)
+        {
+            this.name = name;
+            this.running = running;
+            this.submitted = submitted;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public Boolean call ()
+        {
+            final long start = System.currentTimeMillis();
+            boolean ok = false;
+
+            try {
+                writeStatus("RUNNING", start, -1);
+                ok = processTasks(parseJob());
+            } catch (Exception ex) {
+                logger.warn("Job {} error {}", name, ex.toString());
+                report.add("error: " + ex.getLocalizedMessage());
+            } finally {
+                final long duration = System.currentTimeMillis() - start;
+                logger.info("Job {} {} in {} ms", name, ok ? "done" : "failed", duration);
+
+                try {
+                    writeStatus(ok ? "DONE" : "FAILED", start, duration);
+                    Files.move(
+                            running,
+                            spool.resolve(name + (ok ? DONE_EXTENSION : FAILED_EXTENSION)),
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException ex) {
+                    logger.warn("Job {} status error {}", name, ex.toString(), ex);
+                }
+
+                slots.release();
+            }
+
+            return ok;
+        }
+
+        /**
+         * Read the job file and build its tasks.
+         *
+         * @return the job tasks
+         */
+        private List<CliTask> parseJob ()
+                throws Exception
+        {
+            final List<String> args = new ArrayList<String>();
+
+            for (String line : Files.readAllLines(running, StandardCharsets.UTF_8)) {
+                final String item = line.trim();
+
+                if (!item.isEmpty() && !item.startsWith("#")) {
+                    args.add(item);
+                }
+            }
+
+            final CLI cli = new CLI(name);
+            cli.parseParameters(args.toArray(new String[args.size()]));
+
+            if ((cli.getOptions() != null) || (cli.getOutputFolder() != null)
+                || (cli.getSpoolFolder() != null) || cli.isHelpMode()) {
+                throw new IllegalArgumentException(
+                        "-option, -output, -daemon and -help are not allowed in a job");
+            }
+
+            final List<CliTask> tasks = cli.getCliTasks();
+
+            if (tasks.isEmpty()) {
+                throw new IllegalArgumentException("No input in job");
+            }
+
+            return tasks;
+        }
+
+        /**
+         * Run the job tasks, one after the other.
+         *
+         * @param tasks the tasks to run
+         * @return true if all tasks succeeded
+         */
+        private boolean processTasks (List<CliTask> tasks)
+        {
+            boolean ok = true;
+
+            for (CliTask task : tasks) {
+                final long start = System.currentTimeMillis();
+                String result = "OK";
+
+                try {
+                    task.call();
+                } catch (ProcessingCancellationException ex) {
+                    result = "CANCELLED";
+                    ok = false;
+                } catch (Exception ex) {
+                    result = "FAILED " + ex;
+                    ok = false;
+                }
+
+                final long duration = System.currentTimeMillis() - start;
+                report.add(String.format("task: %s %s %d ms", task, result, duration));
+            }
+
+            return ok;
+        }
+
+        /**
+         * Write the job status file.
+         *
+         * @param state    job state
+         * @param start    start time
+         * @param duration job duration, or -1 if not yet known
+         */
+        private void writeStatus (String state,
+                                  long start,
+                                  long duration)
+                throws IOException
+        {
+            final List<String> lines = new ArrayList<String>();
+            lines.add("job: " + name);
+            lines.add("state: " + state);
+            lines.add(String.format("submitted: %tFT%<tT", submitted));
+            lines.add(String.format("started: %tFT%<tT", start));
+            lines.add(String.format("wait: %d ms", Math.max(0, start - submitted)));
+
+            if (duration >= 0) {
+                lines.add(String.format("duration: %d ms", duration));
+            }
+
+            lines.addAll(report);
+            Files.write(spool.resolve(name + STATUS_EXTENSION), lines, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -40,6 +40,7 @@ import org.kohsuke.args4j.CmdLineException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.Callable;
@@ -50,6 +51,7 @@ import java.util.concurrent.Future;
  * <p>
  * It deals with the main routine and its command line parameters.
  * It launches the User Interface, unless batch mode is selected.
+ * In daemon mode, it processes the jobs submitted to a spool folder (see {@link Daemon}).
  *
  * @see CLI
  *
@@ -146,13 +148,23 @@ public class Main
             Application.launch(MainGui.class, args);
         } else {
             ///System.setProperty("java.awt.headless", "true"); //TODO: Useful?
-            logger.info("Running in batch mode");
+            final Path spool = cli.getSpoolFolder();
+            logger.info("Running in {} mode", (spool != null) ? "daemon" : "batch");
 
             // Check MusicFont is loaded
             MusicFont.checkMusicFont();
 
-            // Run the required tasks, if any (and remember if at least one task failed)
-            boolean failure = runBatchTasks();
+            final boolean failure;
+
+            if (spool != null) {
+                // Process the spool jobs until stopped (and remember if spool failed)
+                final Daemon daemon = new Daemon(spool);
+                daemon.warmUp();
+                failure = daemon.run();
+            } else {
+                // Run the required tasks, if any (and remember if at least one task failed)
+                failure = runBatchTasks();
+            }
 
             // At this point all tasks have completed (except timeout...)
             // So shutdown gracefully the executors
@@ -284,7 +296,9 @@ public class Main
 
         if (!tasks.isEmpty()) {
             // Run all tasks in parallel? (or one task at a time)
-            if (constants.runBatchTasksInParallel.isSet()) {
+            // Exports of existing books are independent of each other
+            if (constants.runBatchTasksInParallel.isSet()
+                || ((tasks.size() > 1) && cli.isExportOnly() && BookManager.useParallelExport())) {
                 try {
                     logTasks(tasks, true);
 
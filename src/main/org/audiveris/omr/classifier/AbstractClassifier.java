@@ -29,13 +29,16 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.glyph.ShapeChecker;
+import org.audiveris.omr.math.Population;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.util.UriUtil;
 import org.audiveris.omr.util.ZipFileSystem;
 
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 
 import org.slf4j.Logger;
@@ -159,32 +162,27 @@ public abstract class AbstractClassifier<M extends Object>
     //---------------//
     /**
      * Build a raw (non normalized) dataset out of the provided collection of samples.
+     * <p>
+     * Features are extracted in parallel, and those of global repository samples are cached.
      *
      * @param samples the provided samples
      * @return a raw DataSet for use by a MultiLayerNetwork
      */
     public DataSet getRawDataSet (Collection<Sample> samples)
     {
-        final double[][] inputs = new double[samples.size()][];
-        final double[][] desiredOutputs = new double[samples.size()][];
-        int ig = 0;
-
-        for (Sample sample : samples) {
-            double[] ins = descriptor.getFeatures(sample, sample.getInterline());
-            inputs[ig] = ins;
-
-            double[] des = new double[SHAPE_COUNT];
-            Arrays.fill(des, 0);
-
-            des[sample.getShape().getPhysicalShape().ordinal()] = 1;
-            desiredOutputs[ig] = des;
-
-            ig++;
+        final List<Sample> list = new ArrayList<Sample>(samples);
+        final int count = list.size();
+        final float[] inputs = getRawFeatures(list);
+        final float[] desiredOutputs = new float[count * SHAPE_COUNT];
+
+        for (int ig = 0; ig < count; ig++) {
+            final Shape physical = list.get(ig).getShape().getPhysicalShape();
+            desiredOutputs[(ig * SHAPE_COUNT) + physical.ordinal()] = 1;
         }
 
         // Build the collection of features from the glyph data
-        final INDArray features = Nd4j.create(inputs);
-        final INDArray labels = Nd4j.create(desiredOutputs);
+        final INDArray features = Nd4j.create(inputs, new int[]{count, descriptor.length()});
+        final INDArray labels = Nd4j.create(desiredOutputs, new int[]{count, SHAPE_COUNT});
 
         return new DataSet(features, labels, null, null);
     }
@@ -208,6 +206,79 @@ public abstract class AbstractClassifier<M extends Object>
         return weight >= constants.minWeight.getValue();
     }
 
+    //--------------//
+    // computeNorms //
+    //--------------//
+    /**
+     * Compute the norms of the provided raw features, in one pass.
+     *
+     * @param features raw features, one row per sample
+     * @param global   true for a single norm on all features, false for one norm per feature
+     * @return the norms, with standard deviations slightly increased to avoid division by 0
+     */
+    protected static Norms computeNorms (INDArray features,
+                                         boolean global)
+    {
+        final Population[] pops = createPopulations(global ? 1 : features.columns());
+        includeFeatures(pops, features);
+
+        return normsOf(pops);
+    }
+
+    //--------------//
+    // computeNorms //
+    //--------------//
+    /**
+     * Compute the norms of the raw features provided by an iterator, in one pass,
+     * without keeping the whole features in memory.
+     *
+     * @param iterator iterator on raw features batches, with no pre-processing
+     * @param global   true for a single norm on all features, false for one norm per feature
+     * @return the norms, with standard deviations slightly increased to avoid division by 0
+     */
+    protected static Norms computeNorms (DataSetIterator iterator,
+                                         boolean global)
+    {
+        final Population[] pops = createPopulations(global ? 1 : iterator.inputColumns());
+
+        while (iterator.hasNext()) {
+            includeFeatures(pops, iterator.next().getFeatures());
+        }
+
+        return normsOf(pops);
+    }
+
+    //----------------//
+    // getRawFeatures //
+    //----------------//
+    /**
+     * Report the raw features of the provided samples, extracted in parallel.
+     * <p>
+     * The feature cache of the global repository is used, if this repository is available.
+     *
+     * @param samples the provided samples
+     * @return the raw features, one row of descriptor length per sample
+     */
+    protected float[] getRawFeatures (List<Sample> samples)
+    {
+        if (SampleRepository.hasInstance()) {
+            final SampleRepository repository = SampleRepository.getGlobalInstance(false);
+
+            return repository.getFeatureCache(descriptor).getFeatures(samples);
+        }
+
+        final float[] features = new float[samples.size() * descriptor.length()];
+        final int[] indices = new int[samples.size()];
+
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        FeatureCache.extractFeatures(descriptor, samples, indices, features);
+
+        return features;
+    }
+
     //----------------------//
     // getSortedEvaluations //
     //----------------------//
@@ -473,6 +544,20 @@ public abstract class AbstractClassifier<M extends Object>
         }
     }
 
+    //-------------------//
+    // createPopulations //
+    //-------------------//
+    private static Population[] createPopulations (int count)
+    {
+        final Population[] pops = new Population[count];
+
+        for (int i = 0; i < count; i++) {
+            pops[i] = new Population();
+        }
+
+        return pops;
+    }
+
     //----------//
     // evaluate //
     //----------//
@@ -518,6 +603,50 @@ public abstract class AbstractClassifier<M extends Object>
         return bests.toArray(new Evaluation[bests.size()]);
     }
 
+    //-----------------//
+    // includeFeatures //
+    //-----------------//
+    /**
+     * Include raw features into populations.
+     *
+     * @param pops     one population for all features, or one population per feature
+     * @param features raw features, one row per sample
+     */
+    private static void includeFeatures (Population[] pops,
+                                         INDArray features)
+    {
+        final int rows = features.rows();
+        final int cols = features.columns();
+        final INDArray array = ((features.ordering() == 'c') && (features.offset() == 0))
+                ? features : features.dup('c');
+        final DataBuffer data = array.data();
+        final boolean global = pops.length == 1;
+
+        for (int r = 0; r < rows; r++) {
+            final int offset = r * cols;
+
+            for (int c = 0; c < cols; c++) {
+                pops[global ? 0 : c].includeValue(data.getDouble(offset + c));
+            }
+        }
+    }
+
+    //---------//
+    // normsOf //
+    //---------//
+    private static Norms normsOf (Population[] pops)
+    {
+        final double[] means = new double[pops.length];
+        final double[] stds = new double[pops.length];
+
+        for (int i = 0; i < pops.length; i++) {
+            means[i] = pops[i].getMeanValue();
+            stds[i] = pops[i].getStandardDeviation() + Nd4j.EPS_THRESHOLD;
+        }
+
+        return new Norms(Nd4j.create(means), Nd4j.create(stds));
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
     //-------//
     // Norms //
@@ -30,6 +30,7 @@ import org.audiveris.omr.math.NeuralNetwork;
 
 import org.deeplearning4j.optimize.api.IterationListener;
 
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
@@ -245,8 +246,7 @@ public class BasicClassifier
         final INDArray features = dataSet.getFeatures();
 
         // Record mean and standard deviation for every feature
-        norms = new Norms(features.mean(0), features.std(0));
-        norms.stds.addi(Nd4j.scalar(Nd4j.EPS_THRESHOLD)); // Safer, to avoid later division by 0
+        norms = computeNorms(features, false);
         normalize(features);
 
         // Convert features for NeuralNetwork data format
@@ -255,29 +255,32 @@ public class BasicClassifier
         logger.info("samples: {}", rows);
         logger.info("features: {}", cols);
 
-        INDArray labels = dataSet.getLabels();
+        // (Both arrays are row-major, as created by getRawDataSet)
+        final DataBuffer featureData = features.data();
+        final DataBuffer labelData = dataSet.getLabels().data();
         double[][] inputs = new double[newSamples.size()][];
         double[][] desiredOutputs = new double[newSamples.size()][];
 
         for (int ig = 0; ig < rows; ig++) {
-            INDArray featureRow = features.getRow(ig);
             double[] ins = new double[cols];
             inputs[ig] = ins;
 
             for (int j = 0; j < cols; j++) {
-                ins[j] = featureRow.getDouble(j);
+                ins[j] = featureData.getDouble((ig * cols) + j);
             }
 
-            INDArray labelRow = labels.getRow(ig);
             double[] des = new double[SHAPE_COUNT];
             desiredOutputs[ig] = des;
 
             for (int j = 0; j < SHAPE_COUNT; j++) {
-                des[j] = labelRow.getDouble(j);
+                des[j] = labelData.getDouble((ig * SHAPE_COUNT) + j);
             }
         }
 
-        // Train
+        // Train, using current training parameters
+        model.setLearningRate(constants.learningRate.getValue());
+        model.setMomentum(constants.momentum.getValue());
+        model.setBatchSize(constants.batchSize.getValue());
         model.train(inputs, desiredOutputs, listener, listener.getIterationPeriod());
 
         // Store
@@ -392,7 +395,14 @@ public class BasicClassifier
                 0.5,
                 "Initial weight amplitude");
 
-        private final Constant.Ratio learningRate = new Constant.Ratio(0.1, "Learning Rate");
+        private final Constant.Integer batchSize = new Constant.Integer(
+                "Patterns",
+                16,
+                "Number of patterns per training mini-batch");
+
+        private final Constant.Ratio learningRate = new Constant.Ratio(
+                1.0,
+                "Learning Rate (applied to mini-batch mean gradient)");
 
         private final Constant.Integer maxEpochs = new Constant.Integer(
                 "Epochs",
@@ -27,8 +27,8 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.glyph.ShapeSet;
-import org.audiveris.omr.math.Population;
 
+import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -46,6 +46,8 @@ import org.deeplearning4j.optimize.api.IterationListener;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
@@ -58,7 +60,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Class {@code DeepClassifier} is a shape classifier implemented by a deep
@@ -279,42 +284,31 @@ public class DeepClassifier
             return;
         }
 
-        // Shuffle the collection of samples
-        final List<Sample> newSamples = new ArrayList<Sample>(samples);
-        Collections.shuffle(newSamples);
-
-        // Build raw dataset
-        final DataSet dataSet = getRawDataSet(newSamples);
+        // Hold out a validation subset
+        final List<Sample> trainSamples = new ArrayList<Sample>();
+        final List<Sample> validSamples = new ArrayList<Sample>();
+        splitSamples(samples, trainSamples, validSamples);
+        logger.info(
+                "Training samples:{} validation samples:{}",
+                trainSamples.size(),
+                validSamples.size());
+
+        // Samples are shuffled again for each epoch, features are extracted batch per batch
+        final SampleIterator iterator = new SampleIterator(
+                descriptor,
+                trainSamples,
+                constants.batchSize.getValue(),
+                new Random());
+        final int prefetch = constants.prefetch.getValue();
 
         // Record mean and standard deviation for *ALL* pixels
-        final INDArray features = dataSet.getFeatures();
-        logger.info("features rows:{} cols:{}", features.rows(), features.columns());
-
-        Population pop = new Population();
-        final int rows = features.rows();
-        final int cols = features.columns();
-
-        for (int r = 0; r < rows; r++) {
-            INDArray row = features.getRow(r);
-
-            for (int c = 0; c < cols; c++) {
-                pop.includeValue(row.getDouble(c));
-            }
-        }
-
-        logger.info("pop: {}", pop);
-
-        INDArray mean = Nd4j.create(new double[]{pop.getMeanValue()});
-        INDArray std = Nd4j.create(
-                new double[]{pop.getStandardDeviation() + Nd4j.EPS_THRESHOLD});
-        norms = new Norms(mean, std);
+        norms = computeNorms(new AsyncDataSetIterator(iterator, prefetch), true);
 
         logger.info("norms.means: {}", norms.means);
         logger.info("norms.stds: {}", norms.stds);
 
-        // Normalize
-        ///dataSet.normalizeZeroMeanZeroUnitVariance();
-        normalize(features);
+        // Normalize each batch
+        iterator.setPreProcessor(new Normalizer(norms));
 
         logger.info("Training network...");
 
@@ -323,17 +317,13 @@ public class DeepClassifier
         for (int epoch = 1; epoch <= epochs; epoch++) {
             epochStarted(epoch);
 
-            model.fit(dataSet);
+            model.fit(new AsyncDataSetIterator(iterator, prefetch));
 
             // Evaluate
-            logger.info("Epoch:{} evaluating on training set...", epoch);
-
-            final List<String> names = Arrays.asList(
-                    ShapeSet.getPhysicalShapeNames());
-            org.deeplearning4j.eval.Evaluation eval = new org.deeplearning4j.eval.Evaluation(names);
-            INDArray guesses = model.output(dataSet.getFeatureMatrix());
-            eval.eval(dataSet.getLabels(), guesses);
-            logger.info(eval.stats(true));
+            if (!validSamples.isEmpty()) {
+                logger.info("Epoch:{} evaluating on validation set...", epoch);
+                logger.info(validate(validSamples).stats(true));
+            }
 
             // Store
             store(FILE_NAME);
@@ -348,6 +338,45 @@ public class DeepClassifier
         stopping = false;
     }
 
+    //----------//
+    // validate //
+    //----------//
+    /**
+     * Evaluate the model on the provided samples, processed by mini-batches.
+     *
+     * @param samples the (labelled) samples to evaluate
+     * @return the resulting evaluation
+     */
+    public org.deeplearning4j.eval.Evaluation validate (Collection<Sample> samples)
+    {
+        final SampleIterator iterator = new SampleIterator(
+                descriptor,
+                samples,
+                constants.batchSize.getValue(),
+                null);
+        iterator.setPreProcessor(new Normalizer(norms));
+
+        final DataSetIterator batches = new AsyncDataSetIterator(
+                iterator,
+                constants.prefetch.getValue());
+        final List<String> names = Arrays.asList(ShapeSet.getPhysicalShapeNames());
+        final org.deeplearning4j.eval.Evaluation eval = new org.deeplearning4j.eval.Evaluation(
+                names);
+
+        while (batches.hasNext()) {
+            final DataSet batch = batches.next();
+            final INDArray guesses;
+
+            synchronized (this) {
+                guesses = model.output(batch.getFeatureMatrix());
+            }
+
+            eval.eval(batch.getLabels(), guesses);
+        }
+
+        return eval;
+    }
+
     //--------------//
     // isCompatible //
     //--------------//
@@ -512,6 +541,48 @@ public class DeepClassifier
         }
     }
 
+    //--------------//
+    // splitSamples //
+    //--------------//
+    /**
+     * Split the provided samples into training and validation subsets.
+     * <p>
+     * The validation ratio is applied shape per shape, so that rare shapes remain represented in
+     * training.
+     *
+     * @param samples      the samples to split
+     * @param trainSamples (output) the training samples
+     * @param validSamples (output) the held-out validation samples
+     */
+    private void splitSamples (Collection<Sample> samples,
+                               List<Sample> trainSamples,
+                               List<Sample> validSamples)
+    {
+        final double ratio = constants.validationRatio.getValue();
+        final Map<Shape, List<Sample>> map = new EnumMap<Shape, List<Sample>>(Shape.class);
+
+        for (Sample sample : samples) {
+            final Shape physical = sample.getShape().getPhysicalShape();
+            List<Sample> list = map.get(physical);
+
+            if (list == null) {
+                map.put(physical, list = new ArrayList<Sample>());
+            }
+
+            list.add(sample);
+        }
+
+        final Random random = new Random();
+
+        for (List<Sample> list : map.values()) {
+            Collections.shuffle(list, random);
+
+            final int held = (int) (ratio * list.size());
+            validSamples.addAll(list.subList(0, held));
+            trainSamples.addAll(list.subList(held, list.size()));
+        }
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
     //-----------//
     // Constants //
@@ -532,5 +603,57 @@ public class DeepClassifier
                 "Iterations",
                 2,
                 "Number of iterations on each minibatch");
+
+        private final Constant.Integer batchSize = new Constant.Integer(
+                "Samples",
+                64,
+                "Number of samples per minibatch");
+
+        private final Constant.Integer prefetch = new Constant.Integer(
+                "Batches",
+                2,
+                "Number of minibatches prepared in advance, on a separate thread");
+
+        private final Constant.Ratio validationRatio = new Constant.Ratio(
+                0.1,
+                "Ratio of samples (per shape) held out for validation");
+    }
+
+    //------------//
+    // Normalizer //
+    //------------//
+    /**
+     * Pre-processor which normalizes raw features, using the provided norms.
+     */
+    private static class Normalizer
+            implements DataSetPreProcessor
+    {
+        //~ Static fields/initializers -------------------------------------------------------------
+
+        private static final long serialVersionUID = 1L;
+
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Mean of all features. */
+        private final double mean;
+
+        /** Standard deviation of all features. */
+        private final double std;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Normalizer (Norms norms)
+        {
+            mean = norms.means.getDouble(0);
+            std = norms.stds.getDouble(0);
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public void preProcess (org.nd4j.linalg.dataset.api.DataSet dataSet)
+        {
+            final INDArray features = dataSet.getFeatures();
+            features.subi(mean);
+            features.divi(std);
+        }
     }
 }
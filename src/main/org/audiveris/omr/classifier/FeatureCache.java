@@ -0,0 +1,586 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     F e a t u r e C a c h e                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code FeatureCache} keeps on disk the features computed by a
+ * {@link GlyphDescriptor} for the samples of a {@link SampleRepository}, so that a retraining
+ * only has to extract the features of new samples.
+ * <p>
+ * The cache file is located next to the repository samples archive, and is read through a
+ * memory mapping. It begins with a header (magic, format, descriptor version, features count,
+ * records count), followed by one record per sample: the sample key (a hash of sheet name and
+ * sample id), a check value (based on sample bounds, weight and interline) and the features stored
+ * as floats.
+ * New records are appended at the end of the file. A record whose check value no longer matches
+ * its sample is simply ignored and superseded by a new record.
+ * When superseded records outnumber the live ones, the file is rewritten with live records only.
+ * <p>
+ * The cache file is discarded as a whole when descriptor version or features count differ.
+ * Artificial (font-based) samples are never cached.
+ *
+ * @author Hervé Bitteur
+ */
+public class FeatureCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureCache.class);
+
+    /** File magic number. */
+    private static final int MAGIC = 0x4F4D5246; // "OMRF"
+
+    /** File format version. */
+    private static final int FORMAT = 1;
+
+    /** Header size in bytes. */
+    private static final int HEADER_SIZE = 5 * 4;
+
+    /** Position of records count in header. */
+    private static final int COUNT_POSITION = 4 * 4;
+
+    /** Number of samples per extraction task. */
+    private static final int SLICE = 64;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Path to cache file. */
+    private final Path file;
+
+    /** Descriptor used to compute features. */
+    private final GlyphDescriptor descriptor;
+
+    /** Repository of cached samples. */
+    private final SampleRepository repository;
+
+    /** Number of features per sample. */
+    private final int length;
+
+    /** Record size in bytes. */
+    private final int recordSize;
+
+    /** Record number, indexed by sample key. */
+    private final Map<Long, Integer> records = new HashMap<Long, Integer>();
+
+    /** Read-only mapping of cache file, if any. */
+    private MappedByteBuffer map;
+
+    /** Number of records in cache file. */
+    private int count;
+
+    /** True once cache file has been opened. */
+    private boolean opened;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code FeatureCache} object.
+     *
+     * @param file       path to cache file
+     * @param descriptor the features descriptor
+     * @param repository the repository the samples belong to
+     */
+    public FeatureCache (Path file,
+                         GlyphDescriptor descriptor,
+                         SampleRepository repository)
+    {
+        this.file = file;
+        this.descriptor = descriptor;
+        this.repository = repository;
+
+        length = descriptor.length();
+        recordSize = 8 + 4 + (4 * length);
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-----------------//
+    // extractFeatures //
+    //-----------------//
+    /**
+     * Extract the features of selected samples, in parallel.
+     *
+     * @param descriptor the features descriptor
+     * @param samples    the samples
+     * @param indices    indices in samples list of the samples to process
+     * @param features   (output) features of all samples, one row of descriptor length per
+     *                   sample, only the rows of selected samples are written
+     */
+    public static void extractFeatures (final GlyphDescriptor descriptor,
+                                        final List<Sample> samples,
+                                        final int[] indices,
+                                        final float[] features)
+    {
+        final int length = descriptor.length();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+        for (int start = 0; start < indices.length; start += SLICE) {
+            final int from = start;
+            final int to = Math.min(indices.length, start + SLICE);
+            tasks.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                        throws Exception
+                {
+                    for (int i = from; i < to; i++) {
+                        final int index = indices[i];
+                        final Sample sample = samples.get(index);
+                        final double[] ins = descriptor.getFeatures(
+                                sample,
+                                sample.getInterline());
+
+                        for (int j = 0; j < length; j++) {
+                            features[(index * length) + j] = (float) ins[j];
+                        }
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        try {
+            if ((tasks.size() < 2) || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            } else {
+                for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ex) {
+            throw new ProcessingCancellationException(ex);
+        } catch (ProcessingCancellationException pce) {
+            throw pce;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //-------------//
+    // getFeatures //
+    //-------------//
+    /**
+     * Report the features of the provided samples, using cached features when available
+     * and extracting (and caching) the missing ones.
+     *
+     * @param samples the samples
+     * @return the features, one row of descriptor length per sample
+     */
+    public synchronized float[] getFeatures (List<Sample> samples)
+    {
+        if (!opened) {
+            open();
+        }
+
+        final float[] features = new float[samples.size() * length];
+        final long[] keys = new long[samples.size()];
+        final int[] checks = new int[samples.size()];
+        final int[] missing = new int[samples.size()];
+        int missingCount = 0;
+
+        for (int index = 0; index < samples.size(); index++) {
+            final Sample sample = samples.get(index);
+            keys[index] = keyOf(sample);
+            checks[index] = checkOf(sample);
+
+            if (!read(keys[index], checks[index], features, index * length)) {
+                missing[missingCount++] = index;
+            }
+        }
+
+        logger.info(
+                "Features {} cached: {}, to extract: {}",
+                descriptor.getName(),
+                samples.size() - missingCount,
+                missingCount);
+
+        if (missingCount > 0) {
+            final int[] indices = new int[missingCount];
+            System.arraycopy(missing, 0, indices, 0, missingCount);
+            extractFeatures(descriptor, samples, indices, features);
+            append(indices, keys, checks, features);
+        }
+
+        return features;
+    }
+
+    //--------//
+    // append //
+    //--------//
+    /**
+     * Append records for the provided (cacheable) samples, and remap the file.
+     *
+     * @param indices  indices of the samples to append
+     * @param keys     keys of all samples
+     * @param checks   check values of all samples
+     * @param features features of all samples
+     */
+    private void append (int[] indices,
+                         long[] keys,
+                         int[] checks,
+                         float[] features)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(indices.length * recordSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        int added = 0;
+
+        for (int index : indices) {
+            if (keys[index] != 0) {
+                buffer.putLong(keys[index]);
+                buffer.putInt(checks[index]);
+
+                for (int j = 0; j < length; j++) {
+                    buffer.putFloat(features[(index * length) + j]);
+                }
+
+                records.put(keys[index], count + added);
+                added++;
+            }
+        }
+
+        if (added == 0) {
+            return;
+        }
+
+        buffer.flip();
+
+        final int stale = (count + added) - records.size();
+        final ByteBuffer data = (stale > records.size()) ? compact(buffer) : buffer;
+        final int written = data.remaining() / recordSize;
+
+        try {
+            // Former mapping, if any, can't be released explicitly, it is left to garbage collector
+            map = null;
+
+            if (count == 0) {
+                // A file still mapped can be neither truncated nor deleted on Windows.
+                // So, the whole content is written to a new file, which then replaces the former
+                // one (this may still fail on Windows, the cache is then left unchanged).
+                final Path temp = Files.createTempFile(
+                        file.toAbsolutePath().getParent(),
+                        file.getFileName().toString(),
+                        ".tmp");
+
+                try {
+                    FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+
+                    try {
+                        writeHeader(channel);
+                        writeRecords(channel, data, written);
+                    } finally {
+                        channel.close();
+                    }
+
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } else {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+
+                try {
+                    writeRecords(channel, data, written);
+                } finally {
+                    channel.close();
+                }
+            }
+
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+            try {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                map.order(ByteOrder.LITTLE_ENDIAN);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not write feature cache " + file + " " + ex, ex);
+            records.clear();
+            count = 0;
+        }
+    }
+
+    //---------//
+    // checkOf //
+    //---------//
+    /**
+     * Report a check value, meant to detect a sample modified since it got cached.
+     *
+     * @param sample the sample to check
+     * @return the check value
+     */
+    private static int checkOf (Sample sample)
+    {
+        int check = sample.getInterline();
+        check = (31 * check) + sample.getLeft();
+        check = (31 * check) + sample.getTop();
+        check = (31 * check) + sample.getWidth();
+        check = (31 * check) + sample.getHeight();
+        check = (31 * check) + sample.getWeight();
+
+        return check;
+    }
+
+    //---------//
+    // compact //
+    //---------//
+    /**
+     * Gather all live records, the mapped ones followed by the provided new ones,
+     * and renumber them.
+     * Cache file is then to be rewritten from scratch.
+     *
+     * @param added the new records
+     * @return all live records
+     */
+    private ByteBuffer compact (ByteBuffer added)
+    {
+        logger.info("Compacting feature cache {}", file);
+
+        // Mapped records still live, in file order
+        final List<Integer> live = new ArrayList<Integer>();
+
+        for (int record : records.values()) {
+            if (record < count) {
+                live.add(record);
+            }
+        }
+
+        Collections.sort(live);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                (live.size() * recordSize) + added.remaining());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        records.clear();
+
+        for (int record : live) {
+            final int position = HEADER_SIZE + (record * recordSize);
+            final ByteBuffer source = map.duplicate();
+            source.limit(position + recordSize).position(position);
+            records.put(map.getLong(position), buffer.position() / recordSize);
+            buffer.put(source);
+        }
+
+        final int addedCount = added.remaining() / recordSize;
+
+        for (int i = 0; i < addedCount; i++) {
+            records.put(added.getLong(i * recordSize), buffer.position() / recordSize);
+            buffer.put(added.array(), i * recordSize, recordSize);
+        }
+
+        buffer.flip();
+        count = 0;
+
+        return buffer;
+    }
+
+    //-------//
+    // keyOf //
+    //-------//
+    /**
+     * Report the cache key for the provided sample.
+     *
+     * @param sample the sample to cache
+     * @return the key, or 0 if sample cannot be cached
+     */
+    private long keyOf (Sample sample)
+    {
+        if (sample.isSymbol() || (sample.getId() == 0)) {
+            return 0;
+        }
+
+        final String sheetName = repository.getSheetName(sample);
+
+        if (sheetName == null) {
+            return 0;
+        }
+
+        // 64-bit FNV-1a hash of "sheetName/id"
+        final String str = sheetName + "/" + sample.getId();
+        long hash = 0xCBF29CE484222325L;
+
+        for (int i = 0; i < str.length(); i++) {
+            hash ^= str.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        return (hash != 0) ? hash : 1;
+    }
+
+    //------//
+    // open //
+    //------//
+    /**
+     * Map the cache file if it exists and is compatible, and index its records.
+     */
+    private void open ()
+    {
+        opened = true;
+
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+            try {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                map.order(ByteOrder.LITTLE_ENDIAN);
+            } finally {
+                channel.close();
+            }
+
+            if ((map.capacity() < HEADER_SIZE) || (map.getInt(0) != MAGIC)
+                || (map.getInt(4) != FORMAT) || (map.getInt(8) != descriptor.getVersion())
+                || (map.getInt(12) != length)) {
+                logger.info("Discarding obsolete feature cache {}", file);
+                map = null;
+
+                return;
+            }
+
+            // Ignore any incomplete record
+            count = Math.min(
+                    map.getInt(COUNT_POSITION),
+                    (map.capacity() - HEADER_SIZE) / recordSize);
+
+            for (int record = 0; record < count; record++) {
+                records.put(map.getLong(HEADER_SIZE + (record * recordSize)), record);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not read feature cache " + file + " " + ex, ex);
+            map = null;
+            records.clear();
+            count = 0;
+        }
+    }
+
+    //------//
+    // read //
+    //------//
+    /**
+     * Read the cached features for the provided key, if any and if still valid.
+     *
+     * @param key      sample key
+     * @param check    sample check value
+     * @param features (output) features of all samples
+     * @param offset   offset of sample features
+     * @return true if features were read
+     */
+    private boolean read (long key,
+                          int check,
+                          float[] features,
+                          int offset)
+    {
+        if ((key == 0) || (map == null)) {
+            return false;
+        }
+
+        final Integer record = records.get(key);
+
+        if (record == null) {
+            return false;
+        }
+
+        final int position = HEADER_SIZE + (record * recordSize);
+
+        if (map.getInt(position + 8) != check) {
+            return false;
+        }
+
+        for (int j = 0; j < length; j++) {
+            features[offset + j] = map.getFloat(position + 12 + (4 * j));
+        }
+
+        return true;
+    }
+
+    //-------------//
+    // writeHeader //
+    //-------------//
+    private void writeHeader (FileChannel channel)
+            throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT);
+        header.putInt(descriptor.getVersion());
+        header.putInt(length);
+        header.putInt(0);
+        header.flip();
+        channel.write(header, 0);
+    }
+
+    //--------------//
+    // writeRecords //
+    //--------------//
+    /**
+     * Write the provided records after the current ones, then update records count.
+     *
+     * @param channel the file channel
+     * @param data    the records to write
+     * @param written the number of records to write
+     */
+    private void writeRecords (FileChannel channel,
+                               ByteBuffer data,
+                               int written)
+            throws IOException
+    {
+        channel.position(HEADER_SIZE + ((long) count * recordSize));
+
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+
+        count += written;
+
+        // Records count is updated last
+        ByteBuffer countBuffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        countBuffer.putInt(count).flip();
+        channel.write(countBuffer, COUNT_POSITION);
+    }
+}
@@ -126,6 +126,19 @@ public abstract class GlyphDescriptor
     public abstract double[] getFeatures (Glyph glyph,
                                           int interline);
 
+    /**
+     * Report the version of features computation.
+     * <p>
+     * This version is recorded with cached features. It must be increased whenever a change in
+     * feature computation makes previously cached features obsolete.
+     *
+     * @return the features version
+     */
+    public int getVersion ()
+    {
+        return 1;
+    }
+
     /**
      * Report a name for this descriptor
      *
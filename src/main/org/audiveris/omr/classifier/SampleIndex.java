@@ -0,0 +1,457 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                      S a m p l e I n d e x                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.classifier.SheetContainer.Descriptor;
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.run.RunTable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class {@code SampleIndex} is a binary and indexed image of a samples archive, meant to
+ * load a sample repository quickly.
+ * <p>
+ * The index file is memory-mapped, it contains:
+ * <ol>
+ * <li>A header, with a signature of the {@link Shape} enumeration, since shapes are recorded by
+ * ordinal, and the size and modification time of the samples archive it derives from.</li>
+ * <li>The table of sheets: for each sheet, its descriptor, the range of its samples and, since the
+ * samples of a sheet are sorted by shape, the count of samples for each shape.
+ * These counts are checked against the samples ranges when the index is opened.</li>
+ * <li>The table of samples offsets.</li>
+ * <li>The samples records: shape, interline, id, location, pitch and run table.</li>
+ * </ol>
+ * Only the header and the table of sheets are read when the index is opened, the samples of a
+ * sheet are decoded when they are first needed.
+ * <p>
+ * The samples archive (XML) remains the reference: an index which no longer matches its archive
+ * or the current shapes is ignored, and rebuilt from the archive.
+ *
+ * @author Hervé Bitteur
+ */
+class SampleIndex
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleIndex.class);
+
+    /** Magic number for index files. */
+    private static final int MAGIC = 0x534D5049; // "SMPI"
+
+    /** Current file format. */
+    private static final int FORMAT = 2;
+
+    /**
+     * Header size: magic, format, shapes signature, archive size, archive time, sheet count,
+     * sample count and position of samples offsets.
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Mapped index file. */
+    private final ByteBuffer buffer;
+
+    /** Descriptors of all sheets. */
+    private final List<Descriptor> descriptors = new ArrayList<Descriptor>();
+
+    /** Does each sheet have samples material?. */
+    private final List<Boolean> withSamples = new ArrayList<Boolean>();
+
+    /** Rank of first sample, per sheet. */
+    private final List<Integer> firsts = new ArrayList<Integer>();
+
+    /** Shapes present, per sheet. */
+    private final List<Set<Shape>> shapes = new ArrayList<Set<Shape>>();
+
+    /** Total number of samples. */
+    private final int sampleCount;
+
+    /** Position of the table of samples offsets. */
+    private final int offsetsPosition;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code SampleIndex} object, by reading the index header and table
+     * of sheets.
+     *
+     * @param buffer          the mapped index file, positioned after its header
+     * @param count           number of sheets
+     * @param sampleCount     number of samples
+     * @param offsetsPosition position of the table of samples offsets
+     */
+    private SampleIndex (ByteBuffer buffer,
+                         int count,
+                         int sampleCount,
+                         int offsetsPosition)
+    {
+        this.buffer = buffer;
+        this.sampleCount = sampleCount;
+        this.offsetsPosition = offsetsPosition;
+
+        final Shape[] allShapes = Shape.values();
+        final int[] totals = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            final String name = readString(buffer);
+            final Integer hash = (buffer.get() != 0) ? buffer.getInt() : null;
+            final List<String> aliases = new ArrayList<String>();
+
+            for (int a = buffer.getInt(); a > 0; a--) {
+                aliases.add(readString(buffer));
+            }
+
+            descriptors.add(new Descriptor(name, hash, aliases));
+            withSamples.add(buffer.get() != 0);
+            firsts.add(buffer.getInt());
+
+            final Set<Shape> sheetShapes = EnumSet.noneOf(Shape.class);
+
+            for (int s = buffer.getInt(); s > 0; s--) {
+                sheetShapes.add(allShapes[buffer.getShort()]);
+                totals[i] += buffer.getInt(); // Count of samples for this shape
+            }
+
+            shapes.add(sheetShapes);
+        }
+
+        // Check shape counts against samples ranges
+        for (int i = 0; i < count; i++) {
+            final int last = (i < (count - 1)) ? firsts.get(i + 1) : sampleCount;
+
+            if (totals[i] != (last - firsts.get(i))) {
+                throw new IllegalStateException(
+                        "Inconsistent samples count in sheet " + descriptors.get(i).getName());
+            }
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //----------------//
+    // getDescriptors //
+    //----------------//
+    /**
+     * Report the descriptors of all sheets, in index order.
+     *
+     * @return the sheets descriptors
+     */
+    public List<Descriptor> getDescriptors ()
+    {
+        return Collections.unmodifiableList(descriptors);
+    }
+
+    //-----------//
+    // getShapes //
+    //-----------//
+    /**
+     * Report the shapes of samples in a sheet.
+     *
+     * @param rank sheet rank in index
+     * @return the sheet shapes
+     */
+    public Set<Shape> getShapes (int rank)
+    {
+        return Collections.unmodifiableSet(shapes.get(rank));
+    }
+
+    //------------//
+    // hasSamples //
+    //------------//
+    /**
+     * Tell whether the sheet at provided rank has samples material.
+     *
+     * @param rank sheet rank in index
+     * @return true if so
+     */
+    public boolean hasSamples (int rank)
+    {
+        return withSamples.get(rank);
+    }
+
+    //------//
+    // open //
+    //------//
+    /**
+     * Open the index file, if it exists and matches the samples archive.
+     *
+     * @param indexFile   path to index file
+     * @param samplesFile path to samples archive
+     * @return the opened index, or null if the index file is absent, stale or unreadable
+     */
+    public static SampleIndex open (Path indexFile,
+                                    Path samplesFile)
+    {
+        if (!Files.exists(indexFile) || !Files.exists(samplesFile)) {
+            return null;
+        }
+
+        try {
+            final MappedByteBuffer buffer;
+
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            if ((buffer.capacity() < HEADER_SIZE)
+                || (buffer.getInt() != MAGIC)
+                || (buffer.getInt() != FORMAT)
+                || (buffer.getLong() != getShapesSignature())
+                || (buffer.getLong() != Files.size(samplesFile))
+                || (buffer.getLong() != Files.getLastModifiedTime(samplesFile).toMillis())) {
+                logger.info("Index {} is obsolete", indexFile);
+
+                return null;
+            }
+
+            final int count = buffer.getInt();
+            final int sampleCount = buffer.getInt();
+            final int offsetsPosition = buffer.getInt();
+
+            return new SampleIndex(buffer, count, sampleCount, offsetsPosition);
+        } catch (Exception ex) {
+            logger.warn("Error opening index " + indexFile + " " + ex, ex);
+
+            return null;
+        }
+    }
+
+    //-------------//
+    // readSamples //
+    //-------------//
+    /**
+     * Decode the samples of a sheet.
+     *
+     * @param rank sheet rank in index
+     * @return the sheet samples, sorted by shape
+     */
+    public List<Sample> readSamples (int rank)
+    {
+        final int first = firsts.get(rank);
+        final int last = (rank < (firsts.size() - 1)) ? firsts.get(rank + 1) : sampleCount;
+        final List<Sample> samples = new ArrayList<Sample>(last - first);
+        final ByteBuffer buf = buffer.duplicate(); // Private position, for concurrent reads
+        final Shape[] allShapes = Shape.values();
+
+        for (int i = first; i < last; i++) {
+            buf.position(buffer.getInt(offsetsPosition + (4 * i)));
+
+            final Shape shape = allShapes[buf.getShort()];
+            final int interline = buf.getInt();
+            final int id = buf.getInt();
+            final int left = buf.getInt();
+            final int top = buf.getInt();
+            final double pitch = buf.getDouble();
+            final RunTable runTable = RunTable.read(buf);
+            samples.add(
+                    new Sample(
+                            left,
+                            top,
+                            runTable,
+                            interline,
+                            id,
+                            shape,
+                            Double.isNaN(pitch) ? null : pitch));
+        }
+
+        return samples;
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the index of the provided repository material, using a temporary file which
+     * then replaces the index file.
+     *
+     * @param indexFile   path to index file
+     * @param samplesFile path to the samples archive, already written
+     * @param descriptors all sheets descriptors
+     * @param sheets      the sample sheets, by sheet name
+     * @throws IOException if anything goes wrong
+     */
+    public static void write (Path indexFile,
+                              Path samplesFile,
+                              List<Descriptor> descriptors,
+                              Map<String, SampleSheet> sheets)
+            throws IOException
+    {
+        // Records and their offsets (relative to the records area)
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream records = new DataOutputStream(bytes);
+        final List<Integer> offsets = new ArrayList<Integer>();
+
+        // Sheets table
+        final ByteArrayOutputStream sheetBytes = new ByteArrayOutputStream();
+        final DataOutputStream sheetTable = new DataOutputStream(sheetBytes);
+
+        for (Descriptor desc : descriptors) {
+            writeString(sheetTable, desc.getName());
+            sheetTable.writeBoolean(desc.getHash() != null);
+
+            if (desc.getHash() != null) {
+                sheetTable.writeInt(desc.getHash());
+            }
+
+            sheetTable.writeInt(desc.getAliases().size());
+
+            for (String alias : desc.getAliases()) {
+                writeString(sheetTable, alias);
+            }
+
+            final SampleSheet sampleSheet = sheets.get(desc.getName());
+            sheetTable.writeBoolean(sampleSheet != null);
+            sheetTable.writeInt(offsets.size());
+
+            if (sampleSheet == null) {
+                sheetTable.writeInt(0);
+
+                continue;
+            }
+
+            final Set<Shape> sheetShapes = EnumSet.copyOf(sampleSheet.getShapes());
+            sheetTable.writeInt(sheetShapes.size());
+
+            for (Shape shape : sheetShapes) {
+                final List<Sample> samples = sampleSheet.getSamples(shape);
+                sheetTable.writeShort(shape.ordinal());
+                sheetTable.writeInt(samples.size());
+
+                for (Sample sample : samples) {
+                    offsets.add(records.size());
+                    records.writeShort(sample.getShape().ordinal());
+                    records.writeInt(sample.getInterline());
+                    records.writeInt(sample.getId());
+                    records.writeInt(sample.getLeft());
+                    records.writeInt(sample.getTop());
+                    records.writeDouble(
+                            (sample.getPitch() != null) ? sample.getPitch() : Double.NaN);
+                    sample.getRunTable().write(records);
+                }
+            }
+        }
+
+        sheetTable.flush();
+        records.flush();
+
+        final long size = HEADER_SIZE + sheetBytes.size() + (4L * offsets.size())
+                          + bytes.size();
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index too large: " + size);
+        }
+
+        final int offsetsPosition = HEADER_SIZE + sheetBytes.size();
+        final int recordsPosition = offsetsPosition + (4 * offsets.size());
+        final Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(getShapesSignature());
+            out.writeLong(Files.size(samplesFile));
+            out.writeLong(Files.getLastModifiedTime(samplesFile).toMillis());
+            out.writeInt(descriptors.size());
+            out.writeInt(offsets.size());
+            out.writeInt(offsetsPosition);
+            sheetBytes.writeTo(out);
+
+            for (int offset : offsets) {
+                out.writeInt(recordsPosition + offset);
+            }
+
+            bytes.writeTo(out);
+        }
+
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Stored {}", indexFile);
+    }
+
+    //--------------------//
+    // getShapesSignature //
+    //--------------------//
+    /**
+     * Report a signature of the current shapes, in ordinal order.
+     * Any shape added, removed, renamed or moved modifies the signature.
+     *
+     * @return the 64-bit FNV-1a hash of shape names
+     */
+    static long getShapesSignature ()
+    {
+        long hash = 0xCBF29CE484222325L;
+
+        for (Shape shape : Shape.values()) {
+            final String name = shape.name() + "\n";
+
+            for (int i = 0; i < name.length(); i++) {
+                hash ^= name.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+        }
+
+        return hash;
+    }
+
+    //------------//
+    // readString //
+    //------------//
+    private static String readString (ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //-------------//
+    // writeString //
+    //-------------//
+    private static void writeString (DataOutputStream out,
+                                     String str)
+            throws IOException
+    {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,303 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   S a m p l e I t e r a t o r                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import static org.audiveris.omr.classifier.Classifier.SHAPE_COUNT;
+import org.audiveris.omr.glyph.ShapeSet;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Class {@code SampleIterator} is a {@link DataSetIterator} on a list of samples, which
+ * provides mini-batches of raw features and labels.
+ * <p>
+ * Features are extracted on the fly, batch per batch, so that only the current batches (and the
+ * batches prefetched by a wrapping {@code AsyncDataSetIterator}) are present in memory, whatever
+ * the number of samples.
+ * If a {@link Random} is provided, samples are shuffled again on each reset.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleIterator
+        implements DataSetIterator
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final long serialVersionUID = 1L;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Features descriptor. */
+    private final GlyphDescriptor descriptor;
+
+    /** Samples to iterate upon. */
+    private final List<Sample> samples;
+
+    /** Default number of samples per batch. */
+    private final int batchSize;
+
+    /** Source of randomness for shuffling, if any. */
+    private final Random random;
+
+    /** Current order of samples. */
+    private final int[] order;
+
+    /** Index in order of the next sample. */
+    private int cursor;
+
+    /** Pre-processor to apply on each batch, if any. */
+    private DataSetPreProcessor preProcessor;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code SampleIterator} object.
+     *
+     * @param descriptor the features descriptor
+     * @param samples    the samples to iterate upon
+     * @param batchSize  the default number of samples per batch
+     * @param random     source for shuffling, or null to keep samples order
+     */
+    public SampleIterator (GlyphDescriptor descriptor,
+                           Collection<Sample> samples,
+                           int batchSize,
+                           Random random)
+    {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Illegal batch size " + batchSize);
+        }
+
+        this.descriptor = descriptor;
+        this.samples = new ArrayList<Sample>(samples);
+        this.batchSize = batchSize;
+        this.random = random;
+
+        order = new int[this.samples.size()];
+        reset();
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //----------------//
+    // asyncSupported //
+    //----------------//
+    @Override
+    public boolean asyncSupported ()
+    {
+        return true;
+    }
+
+    //-------//
+    // batch //
+    //-------//
+    @Override
+    public int batch ()
+    {
+        return batchSize;
+    }
+
+    //--------//
+    // cursor //
+    //--------//
+    @Override
+    public int cursor ()
+    {
+        return cursor;
+    }
+
+    //-----------//
+    // getLabels //
+    //-----------//
+    @Override
+    public List<String> getLabels ()
+    {
+        return Arrays.asList(ShapeSet.getPhysicalShapeNames());
+    }
+
+    //-----------------//
+    // getPreProcessor //
+    //-----------------//
+    @Override
+    public DataSetPreProcessor getPreProcessor ()
+    {
+        return preProcessor;
+    }
+
+    //---------//
+    // hasNext //
+    //---------//
+    @Override
+    public boolean hasNext ()
+    {
+        return cursor < order.length;
+    }
+
+    //--------------//
+    // inputColumns //
+    //--------------//
+    @Override
+    public int inputColumns ()
+    {
+        return descriptor.length();
+    }
+
+    //------//
+    // next //
+    //------//
+    @Override
+    public DataSet next ()
+    {
+        return next(batchSize);
+    }
+
+    //------//
+    // next //
+    //------//
+    /**
+     * Build the next batch, with features extracted in parallel.
+     *
+     * @param num the maximum number of samples in batch
+     * @return the batch, pre-processed if so desired
+     */
+    @Override
+    public DataSet next (int num)
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final int count = Math.min(num, order.length - cursor);
+        final List<Sample> batch = new ArrayList<Sample>(count);
+        final int[] indices = new int[count];
+        final float[] outputs = new float[count * SHAPE_COUNT];
+
+        for (int i = 0; i < count; i++) {
+            final Sample sample = samples.get(order[cursor + i]);
+            batch.add(sample);
+            indices[i] = i;
+            outputs[(i * SHAPE_COUNT) + sample.getShape().getPhysicalShape().ordinal()] = 1;
+        }
+
+        cursor += count;
+
+        final float[] inputs = new float[count * descriptor.length()];
+        FeatureCache.extractFeatures(descriptor, batch, indices, inputs);
+
+        final INDArray features = Nd4j.create(inputs, new int[]{count, descriptor.length()});
+        final INDArray labels = Nd4j.create(outputs, new int[]{count, SHAPE_COUNT});
+        final DataSet dataSet = new DataSet(features, labels, null, null);
+
+        if (preProcessor != null) {
+            preProcessor.preProcess(dataSet);
+        }
+
+        return dataSet;
+    }
+
+    //-------------//
+    // numExamples //
+    //-------------//
+    @Override
+    public int numExamples ()
+    {
+        return totalExamples();
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    @Override
+    public void remove ()
+    {
+        throw new UnsupportedOperationException("remove() not supported");
+    }
+
+    //-------//
+    // reset //
+    //-------//
+    /**
+     * Restart iteration from the first sample, after a new shuffling if so desired.
+     */
+    @Override
+    public final void reset ()
+    {
+        cursor = 0;
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        if (random != null) {
+            for (int i = order.length - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+    }
+
+    //----------------//
+    // resetSupported //
+    //----------------//
+    @Override
+    public boolean resetSupported ()
+    {
+        return true;
+    }
+
+    //-----------------//
+    // setPreProcessor //
+    //-----------------//
+    @Override
+    public void setPreProcessor (DataSetPreProcessor preProcessor)
+    {
+        this.preProcessor = preProcessor;
+    }
+
+    //---------------//
+    // totalExamples //
+    //---------------//
+    @Override
+    public int totalExamples ()
+    {
+        return order.length;
+    }
+
+    //---------------//
+    // totalOutcomes //
+    //---------------//
+    @Override
+    public int totalOutcomes ()
+    {
+        return SHAPE_COUNT;
+    }
+}
@@ -118,6 +118,12 @@ public class SampleRepository
     /** File name for samples material: {@value}. */
     public static final String SAMPLES_FILE_NAME = "samples.zip";
 
+    /** File name for binary index of samples material: {@value}. */
+    private static final String INDEX_FILE_NAME = "samples.bin";
+
+    /** File name prefix for features cache: {@value}. */
+    private static final String FEATURES_PREFIX = "features-";
+
     /** Special name to refer to font-based samples: {@value}. */
     private static final String SYMBOLS = "AAA_FONT_SYMBOLS";
 
@@ -137,8 +143,9 @@ public class SampleRepository
     /** Sheets, mapped by their image. */
     private final Map<RunTable, SampleSheet> imageMap = new HashMap<RunTable, SampleSheet>();
 
-    /** Sheets, mapped by their samples. */
-    private final Map<Sample, SampleSheet> sampleMap = new HashMap<Sample, SampleSheet>();
+    /** Sheets, mapped by their samples. (Sheets may be loaded lazily, by any thread) */
+    private final Map<Sample, SampleSheet> sampleMap = Collections.synchronizedMap(
+            new HashMap<Sample, SampleSheet>());
 
     /** Container for sheet descriptors. */
     private SheetContainer sheetContainer = new SheetContainer();
@@ -161,9 +168,15 @@ public class SampleRepository
     /** File path for images material: {@value}. */
     private final Path imagesFile;
 
+    /** File path for binary index of samples material. */
+    private final Path indexFile;
+
     /** To handle save on close. */
     private Application.ExitListener exitListener;
 
+    /** Feature caches, indexed by descriptor name. */
+    private final Map<String, FeatureCache> featureCaches = new HashMap<String, FeatureCache>();
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * (Private) constructor.
@@ -191,6 +204,7 @@ public class SampleRepository
         bookRadix = prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1);
         this.samplesFile = samplesFile;
         this.imagesFile = samplesFile.resolveSibling(prefix + IMAGES_FILE_NAME);
+        this.indexFile = samplesFile.resolveSibling(prefix + INDEX_FILE_NAME);
 
         // Set application exit listener
         if (OMR.gui != null) {
@@ -675,6 +689,31 @@ public class SampleRepository
         return null;
     }
 
+    //-----------------//
+    // getFeatureCache //
+    //-----------------//
+    /**
+     * Report the cache of features computed by the provided descriptor on this
+     * repository samples.
+     *
+     * @param descriptor the features descriptor
+     * @return the related feature cache
+     */
+    public synchronized FeatureCache getFeatureCache (GlyphDescriptor descriptor)
+    {
+        FeatureCache cache = featureCaches.get(descriptor.getName());
+
+        if (cache == null) {
+            final String name = FEATURES_PREFIX + descriptor.getName() + ".bin";
+            final Path file = samplesFile.resolveSibling(
+                    bookRadix.isEmpty() ? name : (bookRadix + "-" + name));
+            cache = new FeatureCache(file, descriptor, this);
+            featureCaches.put(descriptor.getName(), cache);
+        }
+
+        return cache;
+    }
+
     //-------------------//
     // getGlobalInstance //
     //-------------------//
@@ -1136,6 +1175,9 @@ public class SampleRepository
     //----------------//
     /**
      * Load the training material (font-based symbols as well as concrete samples).
+     * <p>
+     * The binary index of samples archive is used when up to date, otherwise the archive is
+     * unmarshalled and the index rebuilt.
      *
      * @param loadListener load listener, or null
      */
@@ -1145,41 +1187,57 @@ public class SampleRepository
 
         try {
             if (Files.exists(samplesFile)) {
-                watch.start("open samples.zip");
+                watch.start("open index");
 
-                final Path samplesRoot = ZipFileSystem.open(samplesFile);
+                final SampleIndex index = SampleIndex.open(indexFile, samplesFile);
 
-                watch.start("loadContainer");
+                if (index != null) {
+                    watch.start("loadIndex");
+                    loadIndex(index, loadListener);
+                }
 
-                {
-                    SheetContainer container = SheetContainer.unmarshal(samplesRoot);
+                if ((index == null) || USE_TRIBES) {
+                    watch.start("open samples.zip");
 
-                    if (container != null) {
-                        if (logger.isDebugEnabled()) {
-                            container.dump();
-                        }
+                    final Path samplesRoot = ZipFileSystem.open(samplesFile);
 
-                        sheetContainer = container;
+                    if (index == null) {
+                        watch.start("loadContainer");
 
-                        if (loadListener != null) {
-                            loadListener.totalSheets(container.getDescriptorCount());
+                        SheetContainer container = SheetContainer.unmarshal(samplesRoot);
+
+                        if (container != null) {
+                            if (logger.isDebugEnabled()) {
+                                container.dump();
+                            }
+
+                            sheetContainer = container;
+
+                            if (loadListener != null) {
+                                loadListener.totalSheets(container.getDescriptorCount());
+                            }
                         }
+
+                        //            watch.start("buildSymbols");
+                        //            buildSymbols();
+                        //
+                        watch.start("loadSamples");
+                        loadSamples(samplesRoot, loadListener);
                     }
-                }
 
-                //            watch.start("buildSymbols");
-                //            buildSymbols();
-                //
-                watch.start("loadSamples");
-                loadSamples(samplesRoot, loadListener);
+                    // Tribes?
+                    if (USE_TRIBES) {
+                        watch.start("loadTribes");
+                        loadTribes(samplesRoot);
+                    }
 
-                // Tribes?
-                if (USE_TRIBES) {
-                    watch.start("loadTribes");
-                    loadTribes(samplesRoot);
-                }
+                    samplesRoot.getFileSystem().close();
 
-                samplesRoot.getFileSystem().close();
+                    if (index == null) {
+                        watch.start("storeIndex");
+                        storeIndex();
+                    }
+                }
             } else {
                 logger.info(
                         "No {} in folder {}",
@@ -1413,6 +1471,9 @@ public class SampleRepository
 
             setModified(false);
             logger.info("{} stored to {}", this, samplesFile);
+
+            // Index, once the archive is closed
+            storeIndex();
         } catch (Throwable ex) {
             logger.warn("Error storing " + this + " to " + samplesFile + " " + ex, ex);
         }
@@ -1584,6 +1645,70 @@ public class SampleRepository
         }
     }
 
+    //-----------//
+    // loadIndex //
+    //-----------//
+    /**
+     * Register the repository sheets found in the binary index.
+     * <p>
+     * The samples of each sheet are loaded only when they are first needed.
+     *
+     * @param index        the opened index
+     * @param loadListener load listener, or null
+     */
+    private void loadIndex (final SampleIndex index,
+                            final LoadListener loadListener)
+    {
+        final List<Descriptor> descriptors = index.getDescriptors();
+        sheetContainer = new SheetContainer();
+
+        if (loadListener != null) {
+            loadListener.totalSheets(descriptors.size());
+        }
+
+        for (int i = 0; i < descriptors.size(); i++) {
+            final Descriptor desc = descriptors.get(i);
+            sheetContainer.addDescriptor(desc);
+
+            if (!index.hasSamples(i)) {
+                continue;
+            }
+
+            final int rank = i;
+            final boolean isSymbol = isSymbols(desc.getName());
+            final SampleSheet sampleSheet = new SampleSheet(
+                    desc,
+                    new SampleSheet.Loader()
+            {
+                @Override
+                public Set<Shape> getShapes ()
+                {
+                    return index.getShapes(rank);
+                }
+
+                @Override
+                public List<Sample> loadSamples (SampleSheet sampleSheet)
+                {
+                    final List<Sample> samples = index.readSamples(rank);
+
+                    for (Sample sample : samples) {
+                        sample.setSymbol(isSymbol);
+                        sampleMap.put(sample, sampleSheet);
+                    }
+
+                    return samples;
+                }
+            });
+            nameMap.put(desc.getName(), sampleSheet);
+
+            if (loadListener != null) {
+                loadListener.loadedSheet(sampleSheet);
+            }
+        }
+
+        sheetContainer.setModified(false);
+    }
+
     //-------------//
     // loadSamples //
     //-------------//
@@ -1693,6 +1818,21 @@ public class SampleRepository
         }
     }
 
+    //------------//
+    // storeIndex //
+    //------------//
+    /**
+     * Store the binary index of samples archive.
+     */
+    private void storeIndex ()
+    {
+        try {
+            SampleIndex.write(indexFile, samplesFile, sheetContainer.getAllDescriptors(), nameMap);
+        } catch (Exception ex) {
+            logger.warn("Could not store index " + indexFile + " " + ex, ex);
+        }
+    }
+
     //~ Inner Interfaces ---------------------------------------------------------------------------
     //--------------//
     // LoadListener //
@@ -119,6 +119,9 @@ public class SampleSheet
     /** Tribe being created by user. */
     private Tribe currentTribe;
 
+    /** Loader of samples, until samples are actually loaded. */
+    private Loader loader;
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates a new {@code SampleSheet} object.
@@ -130,6 +133,19 @@ public class SampleSheet
         this.descriptor = descriptor;
     }
 
+    /**
+     * Creates a new {@code SampleSheet} object, whose samples will be loaded on demand.
+     *
+     * @param descriptor related descriptor
+     * @param loader     the loader of sheet samples
+     */
+    SampleSheet (Descriptor descriptor,
+                 Loader loader)
+    {
+        this.descriptor = descriptor;
+        this.loader = loader;
+    }
+
     /**
      * Creates a new {@code SampleSheet} object from a SampleList parameter.
      *
@@ -142,14 +158,7 @@ public class SampleSheet
         this.descriptor = descriptor;
 
         for (Sample sample : value.samples) {
-            Shape shape = sample.getShape();
-            ArrayList<Sample> list = shapeMap.get(shape);
-
-            if (list == null) {
-                shapeMap.put(shape, list = new ArrayList<Sample>());
-            }
-
-            list.add(sample);
+            includeSample(sample);
         }
     }
 
@@ -235,6 +244,8 @@ public class SampleSheet
      */
     public List<Sample> getAllSamples ()
     {
+        loadSamples();
+
         List<Sample> allSamples = new ArrayList<Sample>();
 
         for (List<Sample> sampleList : shapeMap.values()) {
@@ -310,6 +321,8 @@ public class SampleSheet
      */
     public List<Sample> getSamples (Shape shape)
     {
+        loadSamples();
+
         final List<Sample> samples = shapeMap.get(shape);
 
         if (samples != null) {
@@ -324,11 +337,17 @@ public class SampleSheet
     //-----------//
     /**
      * Report all shapes for which we have concrete samples in this sheet.
+     * <p>
+     * This does not require the sheet samples to be loaded.
      *
      * @return the concrete shapes in this sheet
      */
-    public Set<Shape> getShapes ()
+    public synchronized Set<Shape> getShapes ()
     {
+        if (loader != null) {
+            return loader.getShapes();
+        }
+
         return shapeMap.keySet();
     }
 
@@ -512,14 +531,8 @@ public class SampleSheet
     {
         Objects.requireNonNull(sample, "Cannot add a null sample");
 
-        Shape shape = sample.getShape();
-        ArrayList<Sample> list = shapeMap.get(shape);
-
-        if (list == null) {
-            shapeMap.put(shape, list = new ArrayList<Sample>());
-        }
-
-        list.add(sample);
+        loadSamples();
+        includeSample(sample);
 
         if (!sample.isSymbol()) {
             setModified(true);
@@ -538,6 +551,8 @@ public class SampleSheet
      */
     void privateRemoveSample (Sample sample)
     {
+        loadSamples();
+
         Shape shape = sample.getShape();
         ArrayList<Sample> list = shapeMap.get(shape);
 
@@ -570,6 +585,65 @@ public class SampleSheet
         return jaxbContext;
     }
 
+    //---------------//
+    // includeSample //
+    //---------------//
+    private void includeSample (Sample sample)
+    {
+        Shape shape = sample.getShape();
+        ArrayList<Sample> list = shapeMap.get(shape);
+
+        if (list == null) {
+            shapeMap.put(shape, list = new ArrayList<Sample>());
+        }
+
+        list.add(sample);
+    }
+
+    //-------------//
+    // loadSamples //
+    //-------------//
+    /**
+     * Make sure the sheet samples are loaded.
+     */
+    private synchronized void loadSamples ()
+    {
+        if (loader != null) {
+            for (Sample sample : loader.loadSamples(this)) {
+                includeSample(sample);
+            }
+
+            loader = null;
+        }
+    }
+
+    //~ Inner Interfaces ---------------------------------------------------------------------------
+    //--------//
+    // Loader //
+    //--------//
+    /**
+     * Interface {@code Loader} provides the samples of a sheet on demand.
+     */
+    interface Loader
+    {
+        //~ Methods --------------------------------------------------------------------------------
+
+        /**
+         * Report the shapes of the sheet samples, without loading the samples.
+         *
+         * @return the shapes of sheet samples
+         */
+        Set<Shape> getShapes ();
+
+        /**
+         * Load the samples of the sheet.
+         *
+         * @param sampleSheet the sheet to load
+         * @return the sheet samples
+         */
+        List<Sample> loadSamples (SampleSheet sampleSheet);
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
     //------------//
     // SampleList //
@@ -596,6 +670,7 @@ public class SampleSheet
         public SampleList (SampleSheet sampleSheet)
         {
             name = sampleSheet.getDescriptor().getName();
+            sampleSheet.loadSamples();
 
             for (List<Sample> list : sampleSheet.shapeMap.values()) {
                 samples.addAll(list);
@@ -533,6 +533,11 @@ public class SheetContainer
             return sb.toString();
         }
 
+        public Integer getHash ()
+        {
+            return hash;
+        }
+
         public String getName ()
         {
             return name;
@@ -23,9 +23,6 @@ package org.audiveris.omr.glyph;
 
 import org.audiveris.omr.glyph.Symbol.Group;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.graph.SimpleGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,48 +75,6 @@ public class GlyphCluster
     }
 
     //~ Methods ------------------------------------------------------------------------------------
-    //-------------//
-    // getSubGraph //
-    //-------------//
-    /**
-     * Extract a subgraph limited to the provided set of glyphs.
-     *
-     * @param set        the provided set of glyphs
-     * @param graph      the global graph to extract from
-     * @param checkEdges true if glyph edges may point outside the provided set.
-     * @return the graph limited to glyph set and related edges
-     */
-    public static SimpleGraph<Glyph, GlyphLink> getSubGraph (Set<Glyph> set,
-                                                             SimpleGraph<Glyph, GlyphLink> graph,
-                                                             boolean checkEdges)
-    {
-        // Which edges should be extracted for this set?
-        Set<GlyphLink> setEdges = new LinkedHashSet<GlyphLink>();
-
-        for (Glyph glyph : set) {
-            Set<GlyphLink> glyphEdges = graph.edgesOf(glyph);
-
-            if (!checkEdges) {
-                setEdges.addAll(glyphEdges); // Take all edges
-            } else {
-                // Keep only the edges that link within the set
-                for (GlyphLink link : glyphEdges) {
-                    Glyph opposite = Graphs.getOppositeVertex(graph, link, glyph);
-
-                    if (set.contains(opposite)) {
-                        setEdges.add(link);
-                    }
-                }
-            }
-        }
-
-        SimpleGraph<Glyph, GlyphLink> subGraph = new SimpleGraph<Glyph, GlyphLink>(GlyphLink.class);
-        Graphs.addAllVertices(subGraph, set);
-        Graphs.addAllEdges(subGraph, graph, setEdges);
-
-        return subGraph;
-    }
-
     //-----------//
     // decompose //
     //-----------//
@@ -305,8 +260,8 @@ public class GlyphCluster
     {
         //~ Instance fields ------------------------------------------------------------------------
 
-        /** Graph of the connected glyphs, with their distance edges if any. */
-        protected final SimpleGraph<Glyph, GlyphLink> graph;
+        /** Graph of the connected glyphs, with their links if any. */
+        protected final GlyphGraph graph;
 
         // For debug only
         public int trials = 0;
@@ -327,11 +282,11 @@ public class GlyphCluster
 
         /**
          * Build an adapter for which the connectivity graph is already known (usually
-         * thanks to a ConnectivityInspector to separate sub-sets up front).
+         * thanks to connected sets separated up front).
          *
          * @param graph the ready-to-use connectivity (sub-)graph
          */
-        public AbstractAdapter (SimpleGraph<Glyph, GlyphLink> graph)
+        public AbstractAdapter (GlyphGraph graph)
         {
             this.graph = graph;
         }
@@ -340,13 +295,13 @@ public class GlyphCluster
         @Override
         public List<Glyph> getNeighbors (Glyph part)
         {
-            return Graphs.neighborListOf(graph, part);
+            return graph.getNeighbors(part);
         }
 
         @Override
         public List<Glyph> getParts ()
         {
-            return new ArrayList<Glyph>(graph.vertexSet());
+            return new ArrayList<Glyph>(graph.getGlyphs());
         }
 
         @Override
@@ -21,8 +21,6 @@
 // </editor-fold>
 package org.audiveris.omr.glyph;
 
-import org.audiveris.omr.image.ChamferDistance;
-import org.audiveris.omr.image.DistanceTable;
 import org.audiveris.omr.run.Run;
 import org.audiveris.omr.run.RunTable;
 
@@ -31,32 +29,93 @@ import java.util.Iterator;
 
 /**
  * Class {@code GlyphDistances} handles distances around a glyph.
- * It uses a chamfer distance table computed around the given glyph.
+ * <p>
+ * Distances follow the 3-4 chamfer metric (see {@link
+ * org.audiveris.omr.image.ChamferDistance#chamfer3}): two pixels separated by (dx, dy) are at
+ * distance (3 * max + min) / 3, where max and min are the larger and the smaller of |dx| and
+ * |dy|.
+ * <p>
+ * A run is a rectangle of pixels, so the minimum distance between two runs is given by the gap
+ * between their abscissa ranges and the gap between their ordinate ranges.
+ * Hence, distances are computed from glyph run boundaries, without any distance table.
  *
  * @author Hervé Bitteur
  */
 public class GlyphDistances
 {
-    //~ Instance fields ----------------------------------------------------------------------------
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Cost of a straight step. */
+    private static final int STRAIGHT = 3;
 
-    /** Table of distances around the glyph. */
-    private final DistanceTable distTable;
+    /** Cost of a diagonal step. */
+    private static final int DIAGONAL = 4;
 
-    /** Table bounds. (Generally somewhat larger than glyph bounds) */
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Rectangle of interest. (Generally somewhat larger than glyph bounds) */
     private final Rectangle tableBox;
 
+    /** Glyph bounds. */
+    private final Rectangle glyphBox;
+
+    /** Number of glyph runs. */
+    private final int count;
+
+    /** Absolute minimum abscissa of each glyph run. */
+    private final int[] xMins;
+
+    /** Absolute maximum abscissa of each glyph run. */
+    private final int[] xMaxs;
+
+    /** Absolute minimum ordinate of each glyph run. */
+    private final int[] yMins;
+
+    /** Absolute maximum ordinate of each glyph run. */
+    private final int[] yMaxs;
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates a new GlyphDistances object, around a provided glyph.
      *
      * @param glyph    the provided glyph
-     * @param tableBox the desired rectangle around the glyph
+     * @param tableBox the rectangle of interest around the glyph
      */
     public GlyphDistances (Glyph glyph,
                            Rectangle tableBox)
     {
         this.tableBox = tableBox;
-        distTable = new Distances().compute(glyph, tableBox);
+        glyphBox = glyph.getBounds();
+
+        final RunTable runTable = glyph.getRunTable();
+        final boolean vertical = runTable.getOrientation().isVertical();
+        final int xOffset = glyph.getLeft();
+        final int yOffset = glyph.getTop();
+
+        count = runTable.getTotalRunCount();
+        xMins = new int[count];
+        xMaxs = new int[count];
+        yMins = new int[count];
+        yMaxs = new int[count];
+
+        int i = 0;
+
+        for (int iSeq = 0, iBreak = runTable.getSize(); iSeq < iBreak; iSeq++) {
+            for (Iterator<Run> it = runTable.iterator(iSeq); it.hasNext();) {
+                final Run run = it.next();
+
+                if (vertical) {
+                    xMins[i] = xMaxs[i] = xOffset + iSeq;
+                    yMins[i] = yOffset + run.getStart();
+                    yMaxs[i] = yOffset + run.getStop();
+                } else {
+                    yMins[i] = yMaxs[i] = yOffset + iSeq;
+                    xMins[i] = xOffset + run.getStart();
+                    xMaxs[i] = xOffset + run.getStop();
+                }
+
+                i++;
+            }
+        }
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -65,6 +124,8 @@ public class GlyphDistances
     //------------//
     /**
      * Report the distance (from this glyph) to the provided other glyph.
+     * <p>
+     * Only the pixels of other glyph located within the rectangle of interest are considered.
      *
      * @param other the other glyph
      * @return the minimum distance measured between the two glyph instances
@@ -72,129 +133,99 @@ public class GlyphDistances
     public double distanceTo (Glyph other)
     {
         final RunTable otherTable = other.getRunTable();
+        final boolean vertical = otherTable.getOrientation().isVertical();
         final int xOffset = other.getLeft();
         final int yOffset = other.getTop();
+        final int boxXMax = (tableBox.x + tableBox.width) - 1;
+        final int boxYMax = (tableBox.y + tableBox.height) - 1;
+        final int glyphXMax = (glyphBox.x + glyphBox.width) - 1;
+        final int glyphYMax = (glyphBox.y + glyphBox.height) - 1;
         int bestDist = Integer.MAX_VALUE;
 
-        if (otherTable.getOrientation().isVertical()) {
-            // Vertical runs
-            for (int iSeq = 0, iBreak = otherTable.getSize(); iSeq < iBreak; iSeq++) {
-                final int x = xOffset + iSeq;
-
-                if (x < tableBox.x) {
-                    continue;
-                }
-
-                if (x >= (tableBox.x + tableBox.width)) {
-                    break;
+        for (int iSeq = 0, iBreak = otherTable.getSize(); iSeq < iBreak; iSeq++) {
+            for (Iterator<Run> it = otherTable.iterator(iSeq); it.hasNext();) {
+                final Run run = it.next();
+                final int x1;
+                final int x2;
+                final int y1;
+                final int y2;
+
+                // Run, clipped by rectangle of interest
+                if (vertical) {
+                    x1 = x2 = xOffset + iSeq;
+                    y1 = Math.max(tableBox.y, yOffset + run.getStart());
+                    y2 = Math.min(boxYMax, yOffset + run.getStop());
+                } else {
+                    y1 = y2 = yOffset + iSeq;
+                    x1 = Math.max(tableBox.x, xOffset + run.getStart());
+                    x2 = Math.min(boxXMax, xOffset + run.getStop());
                 }
 
-                for (Iterator<Run> it = otherTable.iterator(iSeq); it.hasNext();) {
-                    final Run run = it.next();
-                    final int runStart = yOffset + run.getStart();
-
-                    for (int ic = run.getLength() - 1; ic >= 0; ic--) {
-                        final int y = runStart + ic;
-
-                        if (tableBox.contains(x, y)) {
-                            final int dist = distTable.getValue(x - tableBox.x, y - tableBox.y);
-
-                            if (dist < bestDist) {
-                                bestDist = dist;
-                            }
-                        }
-                    }
-                }
-            }
-        } else {
-            // Horizontal runs
-            for (int iSeq = 0, iBreak = otherTable.getSize(); iSeq < iBreak; iSeq++) {
-                final int y = yOffset + iSeq;
-
-                if (y < tableBox.y) {
+                if ((x1 < tableBox.x) || (x2 > boxXMax) || (x1 > x2)
+                    || (y1 < tableBox.y) || (y2 > boxYMax) || (y1 > y2)) {
                     continue;
                 }
 
-                if (y >= (tableBox.y + tableBox.height)) {
-                    break;
+                // Quick check against the whole glyph bounds
+                if (cost(gap(x1, x2, glyphBox.x, glyphXMax), gap(y1, y2, glyphBox.y, glyphYMax))
+                    >= bestDist) {
+                    continue;
                 }
 
-                for (Iterator<Run> it = otherTable.iterator(iSeq); it.hasNext();) {
-                    final Run run = it.next();
-                    final int runStart = xOffset + run.getStart();
+                for (int i = 0; i < count; i++) {
+                    final int dist = cost(
+                            gap(x1, x2, xMins[i], xMaxs[i]),
+                            gap(y1, y2, yMins[i], yMaxs[i]));
 
-                    for (int ic = run.getLength() - 1; ic >= 0; ic--) {
-                        final int x = runStart + ic;
+                    if (dist < bestDist) {
+                        bestDist = dist;
 
-                        if (tableBox.contains(x, y)) {
-                            final int dist = distTable.getValue(x - tableBox.x, y - tableBox.y);
-
-                            if (dist < bestDist) {
-                                bestDist = dist;
-                            }
+                        if (bestDist == 0) {
+                            return 0;
                         }
                     }
                 }
             }
         }
 
-        return (double) bestDist / distTable.getNormalizer();
+        return (double) bestDist / STRAIGHT;
     }
 
-    //~ Inner Classes ------------------------------------------------------------------------------
-    //-----------//
-    // Distances //
-    //-----------//
-    private static class Distances
-            extends ChamferDistance.Short
+    //------//
+    // cost //
+    //------//
+    /**
+     * Chamfer cost of a (dx, dy) displacement.
+     */
+    private static int cost (int dx,
+                             int dy)
     {
-        //~ Methods --------------------------------------------------------------------------------
-
-        public DistanceTable compute (Glyph glyph,
-                                      Rectangle box)
-        {
-            DistanceTable output = allocateOutput(box.width, box.height, 3);
-
-            // Initialize with glyph data (0 for glyph, -1 for other pixels)
-            output.fill(-1);
-
-            final int xOffset = glyph.getLeft();
-            final int yOffset = glyph.getTop();
-            final RunTable runTable = glyph.getRunTable();
-
-            if (runTable.getOrientation().isVertical()) {
-                // Vertical runs
-                for (int iSeq = 0, iBreak = runTable.getSize(); iSeq < iBreak; iSeq++) {
-                    final int x = xOffset + iSeq;
-
-                    for (Iterator<Run> it = runTable.iterator(iSeq); it.hasNext();) {
-                        final Run run = it.next();
-                        final int runStart = yOffset + run.getStart();
-
-                        for (int ic = run.getLength() - 1; ic >= 0; ic--) {
-                            output.setValue(x - box.x, (runStart + ic) - box.y, 0);
-                        }
-                    }
-                }
-            } else {
-                // Horizontal runs
-                for (int iSeq = 0, iBreak = runTable.getSize(); iSeq < iBreak; iSeq++) {
-                    final int y = yOffset + iSeq;
-
-                    for (Iterator<Run> it = runTable.iterator(iSeq); it.hasNext();) {
-                        final Run run = it.next();
-                        final int runStart = xOffset + run.getStart();
-
-                        for (int ic = run.getLength() - 1; ic >= 0; ic--) {
-                            output.setValue((runStart + ic) - box.x, y - box.y, 0);
-                        }
-                    }
-                }
-            }
+        if (dx >= dy) {
+            return (STRAIGHT * (dx - dy)) + (DIAGONAL * dy);
+        } else {
+            return (STRAIGHT * (dy - dx)) + (DIAGONAL * dx);
+        }
+    }
 
-            process(output);
+    //-----//
+    // gap //
+    //-----//
+    /**
+     * Gap between two ranges of integers, or 0 if they overlap.
+     */
+    private static int gap (int min1,
+                            int max1,
+                            int min2,
+                            int max2)
+    {
+        if (max1 < min2) {
+            return min2 - max1;
+        }
 
-            return output;
+        if (max2 < min1) {
+            return min1 - max2;
         }
+
+        return 0;
     }
 }
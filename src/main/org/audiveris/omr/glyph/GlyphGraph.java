@@ -0,0 +1,277 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       G l y p h G r a p h                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class {@code GlyphGraph} is a compact and immutable graph of glyphs, where two glyphs
+ * are linked when they are close enough to each other.
+ * <p>
+ * Each glyph is identified by its index in the graph.
+ * Links are kept in compressed sparse row arrays: the neighbors of glyph #i are the indices found
+ * in {@code targets}, from {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive),
+ * sorted by increasing index.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphGraph
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Glyphs, by index. */
+    private final List<Glyph> glyphs;
+
+    /** Index of each glyph. */
+    private final Map<Glyph, Integer> indices;
+
+    /** Per glyph index, starting position in targets. (Size is glyphs count + 1) */
+    private final int[] offsets;
+
+    /** Neighbors indices, for each glyph in turn. */
+    private final int[] targets;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code GlyphGraph} object.
+     *
+     * @param glyphs    the glyphs, in index order
+     * @param sources   index of first glyph, for each link
+     * @param ends      index of second glyph, for each link
+     * @param linkCount number of links (the arrays may be larger)
+     */
+    public GlyphGraph (List<Glyph> glyphs,
+                       int[] sources,
+                       int[] ends,
+                       int linkCount)
+    {
+        this.glyphs = Collections.unmodifiableList(new ArrayList<Glyph>(glyphs));
+
+        final int count = glyphs.size();
+        indices = new HashMap<Glyph, Integer>(2 * count);
+
+        for (int i = 0; i < count; i++) {
+            indices.put(glyphs.get(i), i);
+        }
+
+        // Degree of each glyph
+        offsets = new int[count + 1];
+
+        for (int l = 0; l < linkCount; l++) {
+            offsets[sources[l] + 1]++;
+            offsets[ends[l] + 1]++;
+        }
+
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Both directions of each link
+        targets = new int[2 * linkCount];
+
+        final int[] positions = Arrays.copyOf(offsets, count);
+
+        for (int l = 0; l < linkCount; l++) {
+            targets[positions[sources[l]]++] = ends[l];
+            targets[positions[ends[l]]++] = sources[l];
+        }
+
+        for (int i = 0; i < count; i++) {
+            Arrays.sort(targets, offsets[i], offsets[i + 1]);
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //---------------//
+    // connectedSets //
+    //---------------//
+    /**
+     * Report the sets of connected glyphs.
+     *
+     * @return the list of connected sets, each set being ordered by glyph index
+     */
+    public List<Set<Glyph>> connectedSets ()
+    {
+        final int count = glyphs.size();
+        final List<Set<Glyph>> sets = new ArrayList<Set<Glyph>>();
+        final boolean[] visited = new boolean[count];
+        final int[] queue = new int[count];
+
+        for (int seed = 0; seed < count; seed++) {
+            if (visited[seed]) {
+                continue;
+            }
+
+            // Breadth-first browsing from seed
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            visited[seed] = true;
+
+            while (head < tail) {
+                final int i = queue[head++];
+
+                for (int t = offsets[i]; t < offsets[i + 1]; t++) {
+                    final int j = targets[t];
+
+                    if (!visited[j]) {
+                        visited[j] = true;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+
+            Arrays.sort(queue, 0, tail);
+
+            final Set<Glyph> set = new LinkedHashSet<Glyph>(2 * tail);
+
+            for (int k = 0; k < tail; k++) {
+                set.add(glyphs.get(queue[k]));
+            }
+
+            sets.add(set);
+        }
+
+        return sets;
+    }
+
+    //-----------//
+    // getGlyphs //
+    //-----------//
+    /**
+     * Report the glyphs of this graph, in index order.
+     *
+     * @return the (unmodifiable) list of glyphs
+     */
+    public List<Glyph> getGlyphs ()
+    {
+        return glyphs;
+    }
+
+    //--------------//
+    // getLinkCount //
+    //--------------//
+    /**
+     * Report the number of links in graph.
+     *
+     * @return the links count
+     */
+    public int getLinkCount ()
+    {
+        return targets.length / 2;
+    }
+
+    //--------------//
+    // getNeighbors //
+    //--------------//
+    /**
+     * Report the glyphs directly linked to the provided one.
+     *
+     * @param glyph the provided glyph
+     * @return the neighbors, in index order
+     */
+    public List<Glyph> getNeighbors (Glyph glyph)
+    {
+        final Integer index = indices.get(glyph);
+
+        if (index == null) {
+            throw new IllegalArgumentException("Glyph not in graph: " + glyph);
+        }
+
+        final int from = offsets[index];
+        final int to = offsets[index + 1];
+        final List<Glyph> neighbors = new ArrayList<Glyph>(to - from);
+
+        for (int t = from; t < to; t++) {
+            neighbors.add(glyphs.get(targets[t]));
+        }
+
+        return neighbors;
+    }
+
+    //----------//
+    // subGraph //
+    //----------//
+    /**
+     * Extract the subgraph limited to the provided glyphs and the links between them.
+     *
+     * @param set the provided glyphs, all belonging to this graph
+     * @return the subgraph, where glyphs are indexed in set order
+     */
+    public GlyphGraph subGraph (Collection<Glyph> set)
+    {
+        final List<Glyph> subGlyphs = new ArrayList<Glyph>(set);
+        final int count = subGlyphs.size();
+
+        // Sub index of each glyph, if any
+        final int[] subIndices = new int[glyphs.size()];
+        Arrays.fill(subIndices, -1);
+
+        for (int k = 0; k < count; k++) {
+            subIndices[indices.get(subGlyphs.get(k))] = k;
+        }
+
+        int[] sources = new int[count];
+        int[] ends = new int[count];
+        int linkCount = 0;
+
+        for (int k = 0; k < count; k++) {
+            final int i = indices.get(subGlyphs.get(k));
+
+            for (int t = offsets[i]; t < offsets[i + 1]; t++) {
+                final int end = subIndices[targets[t]];
+
+                if (end > k) {
+                    if (linkCount == sources.length) {
+                        sources = Arrays.copyOf(sources, Math.max(8, 2 * linkCount));
+                        ends = Arrays.copyOf(ends, Math.max(8, 2 * linkCount));
+                    }
+
+                    sources[linkCount] = k;
+                    ends[linkCount] = end;
+                    linkCount++;
+                }
+            }
+        }
+
+        return new GlyphGraph(subGlyphs, sources, ends, linkCount);
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder(getClass().getSimpleName()).append("{glyphs:")
+                .append(glyphs.size()).append(" links:").append(getLinkCount()).append("}")
+                .toString();
+    }
+}
@@ -24,15 +24,12 @@ package org.audiveris.omr.glyph;
 import org.audiveris.omr.image.Table;
 import org.audiveris.omr.util.Predicate;
 
-import org.jgrapht.graph.SimpleGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -204,57 +201,69 @@ public abstract class Glyphs
      *
      * @param glyphs the provided glyphs
      * @param maxGap maximum acceptable gap between glyphs
-     * @return the populated graph
+     * @return the populated graph, with glyphs indexed by abscissa
      */
-    public static SimpleGraph<Glyph, GlyphLink> buildLinks (Collection<Glyph> glyphs,
-                                                            double maxGap)
+    public static GlyphGraph buildLinks (Collection<Glyph> glyphs,
+                                         double maxGap)
     {
         final int gapInt = (int) Math.ceil(maxGap);
         final List<Glyph> sortedGlyphs = new ArrayList<Glyph>(glyphs);
         Collections.sort(sortedGlyphs, byAbscissa);
 
-        /** Graph of glyph instances, linked by their distance. */
-        SimpleGraph<Glyph, GlyphLink> graph = new SimpleGraph<Glyph, GlyphLink>(GlyphLink.class);
+        final int count = sortedGlyphs.size();
+        final Rectangle[] boxes = new Rectangle[count];
 
-        // Populate graph with all glyphs as vertices
-        for (Glyph glyph : sortedGlyphs) {
-            graph.addVertex(glyph);
+        for (int i = 0; i < count; i++) {
+            boxes[i] = sortedGlyphs.get(i).getBounds();
         }
 
-        // Populate edges (glyph to glyph distances) when applicable
-        for (int i = 0; i < sortedGlyphs.size(); i++) {
+        // Links (between glyphs close enough) as pairs of indices
+        int[] sources = new int[Math.max(8, count)];
+        int[] ends = new int[sources.length];
+        int linkCount = 0;
+
+        for (int i = 0; i < count; i++) {
             final Glyph glyph = sortedGlyphs.get(i);
-            final Rectangle fatBox = glyph.getBounds();
+            final Rectangle fatBox = new Rectangle(boxes[i]);
             fatBox.grow(gapInt, gapInt);
 
             final int xBreak = fatBox.x + fatBox.width; // Glyphs are sorted by abscissa
-            GlyphDistances glyphDistances = null; // Glyph-centered distance table
+            GlyphDistances glyphDistances = null; // Glyph runs, to measure distances
+
+            for (int j = i + 1; j < count; j++) {
+                final Rectangle otherBox = boxes[j];
 
-            for (Glyph other : sortedGlyphs.subList(i + 1, sortedGlyphs.size())) {
-                Rectangle otherBox = other.getBounds();
+                if (otherBox.x >= xBreak) {
+                    break;
+                }
 
                 // Rough filtering, using fat box intersection
                 if (!fatBox.intersects(otherBox)) {
                     continue;
-                } else if (otherBox.x > xBreak) {
-                    break;
                 }
 
-                // We now need the glyph distance table, if not yet computed
+                // We now need the glyph runs, if not yet done
                 if (glyphDistances == null) {
                     glyphDistances = new GlyphDistances(glyph, fatBox);
                 }
 
                 // Precise distance from glyph to other
-                double dist = glyphDistances.distanceTo(other);
+                double dist = glyphDistances.distanceTo(sortedGlyphs.get(j));
 
                 if (dist <= maxGap) {
-                    graph.addEdge(glyph, other, new GlyphLink.Nearby(dist));
+                    if (linkCount == sources.length) {
+                        sources = Arrays.copyOf(sources, 2 * linkCount);
+                        ends = Arrays.copyOf(ends, 2 * linkCount);
+                    }
+
+                    sources[linkCount] = i;
+                    ends[linkCount] = j;
+                    linkCount++;
                 }
             }
         }
 
-        return graph;
+        return new GlyphGraph(sortedGlyphs, sources, ends, linkCount);
     }
 
     //-----------------------//
@@ -638,7 +647,7 @@ public abstract class Glyphs
      * @return the glyph instances found, which may be an empty list
      */
     public static Set<Glyph> intersectedGlyphs (Collection<? extends Glyph> collection,
-                                                Area area)
+                                                java.awt.Shape area)
     {
         Set<Glyph> set = new LinkedHashSet<Glyph>();
 
@@ -807,6 +807,21 @@ public class FilamentFactory<F extends Filament>
                 }
             }
 
+            // Index section glyphs oriented bounds, by rank in list
+            final int glyphCount = sectionGlyphs.size();
+            final FilamentGrid grid = new FilamentGrid(
+                    params.gridCellCoord,
+                    params.gridCellPos,
+                    glyphCount);
+            final Rectangle[] glyphBounds = new Rectangle[glyphCount];
+
+            for (int i = 0; i < glyphCount; i++) {
+                glyphBounds[i] = orientation.oriented(sectionGlyphs.get(i).getBounds());
+                grid.include(i, glyphBounds[i]);
+            }
+
+            final boolean[] merged = new boolean[glyphCount];
+
             // List of filaments, sorted by decreasing length
             Collections.sort(filaments, Compounds.byReverseLength(orientation));
 
@@ -816,37 +831,38 @@ public class FilamentFactory<F extends Filament>
                 final Rectangle filBounds = orientation.oriented(fil.getBounds());
                 filBounds.grow(params.maxCoordGap, params.maxPosGap);
 
+                // Section glyphs that intersect the fat box, in list order
+                final int[] ranks = grid.lookup(filBounds, glyphCount);
                 boolean expanding;
 
                 do {
                     expanding = false;
 
-                    for (Iterator<Filament> it = sectionGlyphs.iterator(); it.hasNext();) {
-                        Filament sectionFil = it.next();
-                        Rectangle glyphBounds = orientation.oriented(sectionFil.getBounds());
-
-                        if (filBounds.intersects(glyphBounds)) {
-                            // Check more closely
-                            if (canMerge(fil, sectionFil, true)) {
-                                if (logger.isDebugEnabled() || fil.isVip() || sectionFil.isVip()) {
-                                    logger.info(
-                                            "VIP merging {} w/ sections{}",
-                                            fil,
-                                            Entities.ids(sectionFil.getMembers()));
-
-                                    if (sectionFil.isVip()) {
-                                        fil.setVip(true);
-                                    }
-                                }
+                    for (int rank : ranks) {
+                        if (merged[rank] || !filBounds.intersects(glyphBounds[rank])) {
+                            continue;
+                        }
 
-                                fil.stealSections(sectionFil);
-                                it.remove();
-                                expanding = true;
+                        // Check more closely
+                        Filament sectionFil = sectionGlyphs.get(rank);
 
-                                break;
+                        if (canMerge(fil, sectionFil, true)) {
+                            if (logger.isDebugEnabled() || fil.isVip() || sectionFil.isVip()) {
+                                logger.info(
+                                        "VIP merging {} w/ sections{}",
+                                        fil,
+                                        Entities.ids(sectionFil.getMembers()));
+
+                                if (sectionFil.isVip()) {
+                                    fil.setVip(true);
+                                }
                             }
-                        } else if (fil.isVip() && sectionFil.isVip()) {
-                            logger.info("No intersection between {} and {}", fil, sectionFil);
+
+                            fil.stealSections(sectionFil);
+                            merged[rank] = true;
+                            expanding = true;
+
+                            break;
                         }
                     }
                 } while (expanding);
@@ -890,9 +906,20 @@ public class FilamentFactory<F extends Filament>
     {
         Collections.sort(filaments, Compounds.byReverseLength(orientation));
 
+        // Index filaments oriented bounds, by rank in sorted list
+        final FilamentGrid grid = new FilamentGrid(
+                params.gridCellCoord,
+                params.gridCellPos,
+                filaments.size());
+
+        for (int i = 0; i < filaments.size(); i++) {
+            grid.include(i, orientation.oriented(filaments.get(i).getBounds()));
+        }
+
         // Browse by decreasing filament length
-        for (Filament current : filaments) {
-            Filament candidate = current;
+        for (int ic = 0; ic < filaments.size(); ic++) {
+            Filament candidate = filaments.get(ic);
+            int candidateRank = ic;
 
             // Keep on working while we do have a candidate to check for merge
             CandidateLoop:
@@ -900,14 +927,11 @@ public class FilamentFactory<F extends Filament>
                 final Rectangle candidateBounds = orientation.oriented(candidate.getBounds());
                 candidateBounds.grow(params.maxCoordGap, params.maxPosGap);
 
-                // Check the candidate vs all filaments until current excluded
-                HeadsLoop:
-                for (Filament head : filaments) {
-                    if (head == current) {
-                        break CandidateLoop; // Actual end of sub-list
-                    }
+                // Check the candidate vs the filaments before current, in list order
+                for (int rank : grid.lookup(candidateBounds, ic)) {
+                    final Filament head = filaments.get(rank);
 
-                    if ((head != candidate) && (head.getPartOf() == null)) {
+                    if ((rank != candidateRank) && (head.getPartOf() == null)) {
                         Rectangle headBounds = orientation.oriented(head.getBounds());
 
                         if (headBounds.intersects(candidateBounds)) {
@@ -922,18 +946,17 @@ public class FilamentFactory<F extends Filament>
                                 }
 
                                 head.stealSections(candidate);
+                                grid.include(rank, orientation.oriented(head.getBounds()));
                                 candidate = head; // This is the new candidate
+                                candidateRank = rank;
 
-                                break HeadsLoop;
+                                continue CandidateLoop;
                             }
-                        } else if (head.isVip() && candidate.isVip()) {
-                            logger.info(
-                                    "VIP no fat intersection between {} and {}",
-                                    candidate,
-                                    head);
                         }
                     }
                 }
+
+                break; // No merge found
             }
         }
 
@@ -1107,6 +1130,14 @@ public class FilamentFactory<F extends Filament>
         private final Scale.Fraction minLengthForDeltaSlope = new Scale.Fraction(
                 10,
                 "Minimum filament length to apply delta slope test");
+
+        private final Scale.Fraction gridCellCoord = new Scale.Fraction(
+                4,
+                "Grid cell length along filament, to look up merge candidates");
+
+        private final Scale.Fraction gridCellPos = new Scale.Fraction(
+                0.5,
+                "Grid cell length across filament, to look up merge candidates");
     }
 
     //----------------//
@@ -1198,6 +1229,12 @@ public class FilamentFactory<F extends Filament>
 
         public double maxDeltaSlope;
 
+        /** Grid cell length along coord, for merge candidates lookup */
+        public int gridCellCoord;
+
+        /** Grid cell length along pos, for merge candidates lookup */
+        public int gridCellPos;
+
         //~ Methods --------------------------------------------------------------------------------
         public void dump (String title)
         {
@@ -1223,6 +1260,8 @@ public class FilamentFactory<F extends Filament>
 
             minLengthForDeltaSlope = scale.toPixels(constants.minLengthForDeltaSlope);
             maxDeltaSlope = constants.maxDeltaSlope.getValue();
+            gridCellCoord = scale.toPixels(constants.gridCellCoord);
+            gridCellPos = scale.toPixels(constants.gridCellPos);
 
             probeWidth = scale.toPixels(Filament.getProbeWidth());
 
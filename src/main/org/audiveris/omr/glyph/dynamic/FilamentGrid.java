@@ -0,0 +1,227 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     F i l a m e n t G r i d                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph.dynamic;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class {@code FilamentGrid} is a grid index of filaments bounds, meant to quickly
+ * retrieve the filaments whose bounds may intersect a given rectangle.
+ * <p>
+ * All rectangles are expected in oriented coordinates (coord, pos), the grid cells being
+ * typically longer along coord than along pos.
+ * Filaments are identified by their rank in some list. A filament can be included again when its
+ * bounds have grown, only the new cells are then populated.
+ *
+ * @author Hervé Bitteur
+ */
+class FilamentGrid
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Cell length along coord. */
+    private final int cellCoord;
+
+    /** Cell length along pos. */
+    private final int cellPos;
+
+    /** Ranks registered in each cell, indexed by cell key. */
+    private final Map<Long, Cell> cells = new HashMap<Long, Cell>();
+
+    /** Cell range already registered for each rank: colMin, colMax, rowMin, rowMax. */
+    private final int[][] ranges;
+
+    /** Last lookup that reported each rank. */
+    private final int[] stamps;
+
+    /** Current lookup. */
+    private int stamp;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code FilamentGrid} object.
+     *
+     * @param cellCoord cell length along coord
+     * @param cellPos   cell length along pos
+     * @param capacity  maximum number of filaments
+     */
+    FilamentGrid (int cellCoord,
+                  int cellPos,
+                  int capacity)
+    {
+        this.cellCoord = Math.max(1, cellCoord);
+        this.cellPos = Math.max(1, cellPos);
+        ranges = new int[capacity][];
+        stamps = new int[capacity];
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //---------//
+    // include //
+    //---------//
+    /**
+     * Include (or update) the filament at provided rank, with its current bounds.
+     *
+     * @param rank  filament rank
+     * @param oRect filament oriented bounds, assumed to contain any previous bounds
+     */
+    void include (int rank,
+                  Rectangle oRect)
+    {
+        if ((oRect.width <= 0) || (oRect.height <= 0)) {
+            return;
+        }
+
+        final int colMin = floorDiv(oRect.x, cellCoord);
+        final int colMax = floorDiv((oRect.x + oRect.width) - 1, cellCoord);
+        final int rowMin = floorDiv(oRect.y, cellPos);
+        final int rowMax = floorDiv((oRect.y + oRect.height) - 1, cellPos);
+        final int[] old = ranges[rank];
+
+        for (int col = colMin; col <= colMax; col++) {
+            for (int row = rowMin; row <= rowMax; row++) {
+                if ((old != null) && (col >= old[0]) && (col <= old[1]) && (row >= old[2])
+                    && (row <= old[3])) {
+                    continue; // Already registered
+                }
+
+                final Long key = key(col, row);
+                Cell cell = cells.get(key);
+
+                if (cell == null) {
+                    cells.put(key, cell = new Cell());
+                }
+
+                cell.add(rank);
+            }
+        }
+
+        ranges[rank] = new int[]{colMin, colMax, rowMin, rowMax};
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    /**
+     * Report the ranks, lower than maxRank, of filaments registered in the cells
+     * intersected by the provided rectangle.
+     * <p>
+     * This is a superset of the filaments whose bounds intersect the rectangle, to be checked
+     * by the caller.
+     *
+     * @param oRect   oriented rectangle
+     * @param maxRank rank upper bound (excluded)
+     * @return the candidate ranks, sorted in ascending order
+     */
+    int[] lookup (Rectangle oRect,
+                  int maxRank)
+    {
+        if ((oRect.width <= 0) || (oRect.height <= 0)) {
+            return new int[0];
+        }
+
+        stamp++;
+
+        final int colMin = floorDiv(oRect.x, cellCoord);
+        final int colMax = floorDiv((oRect.x + oRect.width) - 1, cellCoord);
+        final int rowMin = floorDiv(oRect.y, cellPos);
+        final int rowMax = floorDiv((oRect.y + oRect.height) - 1, cellPos);
+        int[] found = new int[16];
+        int n = 0;
+
+        for (int col = colMin; col <= colMax; col++) {
+            for (int row = rowMin; row <= rowMax; row++) {
+                final Cell cell = cells.get(key(col, row));
+
+                if (cell == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++) {
+                    final int rank = cell.ranks[i];
+
+                    if ((rank < maxRank) && (stamps[rank] != stamp)) {
+                        stamps[rank] = stamp;
+
+                        if (n == found.length) {
+                            found = Arrays.copyOf(found, 2 * n);
+                        }
+
+                        found[n++] = rank;
+                    }
+                }
+            }
+        }
+
+        found = Arrays.copyOf(found, n);
+        Arrays.sort(found);
+
+        return found;
+    }
+
+    //----------//
+    // floorDiv //
+    //----------//
+    private static int floorDiv (int value,
+                                 int size)
+    {
+        return (value >= 0) ? (value / size) : (((value + 1) / size) - 1);
+    }
+
+    //-----//
+    // key //
+    //-----//
+    private static Long key (int col,
+                             int row)
+    {
+        return (((long) col) << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //------//
+    // Cell //
+    //------//
+    /**
+     * Ranks registered in a cell.
+     */
+    private static class Cell
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        int[] ranks = new int[4];
+
+        int size;
+
+        //~ Methods --------------------------------------------------------------------------------
+        void add (int rank)
+        {
+            if (size == ranks.length) {
+                ranks = Arrays.copyOf(ranks, 2 * size);
+            }
+
+            ranks[size++] = rank;
+        }
+    }
+}
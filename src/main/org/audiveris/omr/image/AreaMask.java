@@ -26,7 +26,7 @@ import ij.process.ByteProcessor;
 import org.audiveris.omr.util.Wrapper;
 
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.Shape;
 
 /**
  * Class {@code AreaMask} drives processing of locations using an absolute mask.
@@ -38,7 +38,7 @@ public class AreaMask
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Mask area. */
-    private final Area area;
+    private final Shape area;
 
     private final Rectangle rect;
 
@@ -48,7 +48,7 @@ public class AreaMask
      *
      * @param area the defining absolute area
      */
-    public AreaMask (Area area)
+    public AreaMask (Shape area)
     {
         this.area = area;
         rect = area.getBounds();
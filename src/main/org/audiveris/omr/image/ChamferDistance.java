@@ -7,6 +7,14 @@ package org.audiveris.omr.image;
 
 import ij.process.ByteProcessor;
 
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 /**
  * Class {@code ChamferDistance} implements a Distance Transform operation using
  * chamfer masks.
@@ -24,6 +32,9 @@ public interface ChamferDistance
     /** Value when on non-relevant/unknown location. */
     public static final int VALUE_UNKNOWN = -1;
 
+    /** Minimum height for a band processed in parallel. */
+    public static final int MIN_BAND_HEIGHT = 16;
+
     /** Chessboard mask. */
     public static final int[][] chessboard = new int[][]{
         new int[]{1, 0, 1}, new int[]{1, 1, 1}
@@ -178,6 +189,28 @@ public interface ChamferDistance
             return output;
         }
 
+        //---------------//
+        // computeToFore //
+        //---------------//
+        /**
+         * Apply the chamfer mask to the input image and return the distance transform to
+         * foreground pixels, using horizontal bands processed in parallel.
+         *
+         * @param input     the input image, where foreground pixels are taken as reference pixels
+         * @param bandCount the desired number of bands
+         * @return the distance transform image, identical to {@link #computeToFore(ByteProcessor)}
+         * @see #processBanded(DistanceTable, int)
+         */
+        public DistanceTable computeToFore (ByteProcessor input,
+                                            int bandCount)
+        {
+            DistanceTable output = allocateOutput(input.getWidth(), input.getHeight(), normalizer);
+            initializeToFore(input, output);
+            processBanded(output, bandCount);
+
+            return output;
+        }
+
         //---------//
         // process //
         //---------//
@@ -188,11 +221,167 @@ public interface ChamferDistance
          */
         public void process (DistanceTable output)
         {
-            final int width = output.getWidth();
+            process(output, 0, output.getHeight() - 1);
+        }
+
+        //---------------//
+        // processBanded //
+        //---------------//
+        /**
+         * Run the forward and backward passes on horizontal bands, in parallel, with
+         * exactly the same result as {@link #process(DistanceTable)}.
+         * <p>
+         * Each band is first processed on its own, as if it were the whole image, which gives
+         * distances to the reference pixels located within the band.
+         * Then band boundary rows are used to propagate distances to the reference pixels located
+         * in other bands: downward band after band, then upward band after band.
+         * Propagation from one row to the next stops as soon as no distance gets improved,
+         * which generally happens after a few rows.
+         * <p>
+         * Since this propagation is performed one row at a time, it is limited to 3x3 masks
+         * (chessboard and chamfer3). For larger masks, the plain sequential processing is used.
+         *
+         * @param output    the output data to process, already initialized
+         * @param bandCount the desired number of bands
+         */
+        public void processBanded (final DistanceTable output,
+                                   int bandCount)
+        {
             final int height = output.getHeight();
+            bandCount = Math.min(bandCount, height / MIN_BAND_HEIGHT);
+
+            if ((bandCount < 2) || (chamfer.length != 2) || (chamfer[1][0] != 1)
+                || (chamfer[1][1] != 1)
+                || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+                process(output);
+
+                return;
+            }
+
+            // Band limits (yMin of band i is tops[i], yMax is tops[i+1] - 1)
+            final int[] tops = new int[bandCount + 1];
+
+            for (int i = 0; i <= bandCount; i++) {
+                tops[i] = (int) (((long) height * i) / bandCount);
+            }
+
+            // Process each band on its own, in parallel
+            try {
+                List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(bandCount);
+
+                for (int i = 0; i < bandCount; i++) {
+                    final int yMin = tops[i];
+                    final int yMax = tops[i + 1] - 1;
+                    tasks.add(
+                            new Callable<Void>()
+                    {
+                        @Override
+                        public Void call ()
+                                throws Exception
+                        {
+                            process(output, yMin, yMax);
+
+                            return null;
+                        }
+                    });
+                }
+
+                // Launch the tasks and wait for their completion
+                for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                throw new ProcessingCancellationException(ex);
+            } catch (ProcessingCancellationException pce) {
+                throw pce;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+
+            // Propagate downward, from each band bottom row to the following band
+            final int[] row = new int[output.getWidth()];
+
+            for (int i = 1; i < bandCount; i++) {
+                for (int y = tops[i]; y < tops[i + 1]; y++) {
+                    if (!propagateRow(output, y - 1, y, row)) {
+                        break;
+                    }
+                }
+            }
+
+            // Propagate upward, from each band top row to the preceding band
+            for (int i = bandCount - 2; i >= 0; i--) {
+                for (int y = tops[i + 1] - 1; y >= tops[i]; y--) {
+                    if (!propagateRow(output, y + 1, y, row)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get Table instance of the proper type and size.
+         *
+         * @param width  desired width
+         * @param height desired height
+         * @param normalizer the normalizing value
+         * @return the table of proper type and dimension
+         */
+        protected abstract DistanceTable allocateOutput (int width,
+                                                         int height,
+                                                         int normalizer);
+
+        //------------------//
+        // initializeToBack //
+        //------------------//
+        private void initializeToBack (ByteProcessor input,
+                                       DistanceTable output)
+        {
+            for (int y = 0, h = input.getHeight(); y < h; y++) {
+                for (int x = 0, w = input.getWidth(); x < w; x++) {
+                    if (input.get(x, y) == 0) {
+                        output.setValue(x, y, VALUE_UNKNOWN); // non-reference pixel -> to be computed
+                    } else {
+                        output.setValue(x, y, VALUE_TARGET); // reference pixel -> distance=0
+                    }
+                }
+            }
+        }
+
+        //------------------//
+        // initializeToFore //
+        //------------------//
+        private void initializeToFore (ByteProcessor input,
+                                       DistanceTable output)
+        {
+            for (int i = (input.getWidth() * input.getHeight()) - 1; i >= 0; i--) {
+                if (input.get(i) == 0) {
+                    output.setValue(i, VALUE_TARGET); // reference pixel -> distance=0
+                } else {
+                    output.setValue(i, VALUE_UNKNOWN); // non-reference pixel -> to be computed
+                }
+            }
+        }
+
+        //---------//
+        // process //
+        //---------//
+        /**
+         * Run the forward and backward passes on the provided range of rows, as if these
+         * rows were the whole image.
+         *
+         * @param output the output data to process
+         * @param yMin   first row
+         * @param yMax   last row
+         */
+        private void process (DistanceTable output,
+                              int yMin,
+                              int yMax)
+        {
+            final int width = output.getWidth();
 
             // forward
-            for (int y = 0; y < height; y++) {
+            for (int y = yMin; y <= yMax; y++) {
                 for (int x = 0; x < width; x++) {
                     final int v = output.getValue(x, y);
 
@@ -205,17 +394,17 @@ public interface ChamferDistance
                         int dy = chamfer[k][1];
                         int dt = chamfer[k][2];
 
-                        testAndSet(output, x + dx, y + dy, v + dt);
+                        testAndSet(output, x + dx, y + dy, v + dt, yMin, yMax);
 
                         if (dy != 0) {
-                            testAndSet(output, x - dx, y + dy, v + dt);
+                            testAndSet(output, x - dx, y + dy, v + dt, yMin, yMax);
                         }
 
                         if (dx != dy) {
-                            testAndSet(output, x + dy, y + dx, v + dt);
+                            testAndSet(output, x + dy, y + dx, v + dt, yMin, yMax);
 
                             if (dy != 0) {
-                                testAndSet(output, x - dy, y + dx, v + dt);
+                                testAndSet(output, x - dy, y + dx, v + dt, yMin, yMax);
                             }
                         }
                     }
@@ -223,7 +412,7 @@ public interface ChamferDistance
             }
 
             // backward
-            for (int y = height - 1; y >= 0; y--) {
+            for (int y = yMax; y >= yMin; y--) {
                 for (int x = width - 1; x >= 0; x--) {
                     final int v = output.getValue(x, y);
 
@@ -236,17 +425,17 @@ public interface ChamferDistance
                         int dy = chamfer[k][1];
                         int dt = chamfer[k][2];
 
-                        testAndSet(output, x - dx, y - dy, v + dt);
+                        testAndSet(output, x - dx, y - dy, v + dt, yMin, yMax);
 
                         if (dy != 0) {
-                            testAndSet(output, x + dx, y - dy, v + dt);
+                            testAndSet(output, x + dx, y - dy, v + dt, yMin, yMax);
                         }
 
                         if (dx != dy) {
-                            testAndSet(output, x - dy, y - dx, v + dt);
+                            testAndSet(output, x - dy, y - dx, v + dt, yMin, yMax);
 
                             if (dy != 0) {
-                                testAndSet(output, x + dy, y - dx, v + dt);
+                                testAndSet(output, x + dy, y - dx, v + dt, yMin, yMax);
                             }
                         }
                     }
@@ -254,48 +443,75 @@ public interface ChamferDistance
             }
         }
 
+        //--------------//
+        // propagateRow //
+        //--------------//
         /**
-         * Get Table instance of the proper type and size.
+         * Update the distances of a row with the distances of an adjacent row.
+         * <p>
+         * This is meant for 3x3 masks only: a shortest path coming from the source row enters
+         * the target row by one orthogonal or diagonal step, and then moves along the target row.
          *
-         * @param width  desired width
-         * @param height desired height
-         * @param normalizer the normalizing value
-         * @return the table of proper type and dimension
+         * @param output the output data to update
+         * @param ySrc   source row
+         * @param yTgt   target row, adjacent to source row
+         * @param buf    buffer for one row
+         * @return true if at least one distance of target row was improved
          */
-        protected abstract DistanceTable allocateOutput (int width,
-                                                         int height,
-                                                         int normalizer);
-
-        //------------------//
-        // initializeToBack //
-        //------------------//
-        private void initializeToBack (ByteProcessor input,
-                                       DistanceTable output)
+        private boolean propagateRow (DistanceTable output,
+                                      int ySrc,
+                                      int yTgt,
+                                      int[] buf)
         {
-            for (int y = 0, h = input.getHeight(); y < h; y++) {
-                for (int x = 0, w = input.getWidth(); x < w; x++) {
-                    if (input.get(x, y) == 0) {
-                        output.setValue(x, y, VALUE_UNKNOWN); // non-reference pixel -> to be computed
-                    } else {
-                        output.setValue(x, y, VALUE_TARGET); // reference pixel -> distance=0
+            final int width = output.getWidth();
+            final int ortho = chamfer[0][2];
+            final int diag = chamfer[1][2];
+            boolean improved = false;
+
+            // Steps from source row
+            for (int x = 0; x < width; x++) {
+                int best = java.lang.Integer.MAX_VALUE;
+
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int xs = x + dx;
+
+                    if ((xs >= 0) && (xs < width)) {
+                        final int v = output.getValue(xs, ySrc);
+
+                        if (v != VALUE_UNKNOWN) {
+                            best = Math.min(best, v + ((dx == 0) ? ortho : diag));
+                        }
                     }
                 }
+
+                buf[x] = best;
             }
-        }
 
-        //------------------//
-        // initializeToFore //
-        //------------------//
-        private void initializeToFore (ByteProcessor input,
-                                       DistanceTable output)
-        {
-            for (int i = (input.getWidth() * input.getHeight()) - 1; i >= 0; i--) {
-                if (input.get(i) == 0) {
-                    output.setValue(i, VALUE_TARGET); // reference pixel -> distance=0
-                } else {
-                    output.setValue(i, VALUE_UNKNOWN); // non-reference pixel -> to be computed
+            // Moves along target row
+            for (int x = 1; x < width; x++) {
+                if (buf[x - 1] != java.lang.Integer.MAX_VALUE) {
+                    buf[x] = Math.min(buf[x], buf[x - 1] + ortho);
                 }
             }
+
+            for (int x = width - 2; x >= 0; x--) {
+                if (buf[x + 1] != java.lang.Integer.MAX_VALUE) {
+                    buf[x] = Math.min(buf[x], buf[x + 1] + ortho);
+                }
+            }
+
+            // Update target row
+            for (int x = 0; x < width; x++) {
+                final int v = output.getValue(x, yTgt);
+
+                if ((buf[x] != java.lang.Integer.MAX_VALUE)
+                    && ((v == VALUE_UNKNOWN) || (buf[x] < v))) {
+                    output.setValue(x, yTgt, buf[x]);
+                    improved = true;
+                }
+            }
+
+            return improved;
         }
 
         //------------//
@@ -304,13 +520,15 @@ public interface ChamferDistance
         private void testAndSet (DistanceTable output,
                                  int x,
                                  int y,
-                                 int newvalue)
+                                 int newvalue,
+                                 int yMin,
+                                 int yMax)
         {
             if ((x < 0) || (x >= output.getWidth())) {
                 return;
             }
 
-            if ((y < 0) || (y >= output.getHeight())) {
+            if ((y < yMin) || (y > yMax)) {
                 return;
             }
 
@@ -0,0 +1,330 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 C o m p i l e d T e m p l a t e                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.image.Anchored.Anchor;
+
+import java.awt.Point;
+
+/**
+ * Class {@code CompiledTemplate} is a bit-packed representation of a {@link Template},
+ * meant to be evaluated against a {@link PackedTable} using popcount arithmetic.
+ * <p>
+ * Template key points are split into three masks (foreground, exterior background, interior
+ * hole), each row of the template being packed into 64-bit words.
+ * Matching a row then boils down to a few AND / popcount operations per word, rather than a loop
+ * on every key point with a distance table lookup.
+ * <p>
+ * Results are identical to {@link Template#evaluate} and {@link Template#evaluateHole}, since
+ * these methods only consider whether a location is foreground, background or neutralized.
+ * <p>
+ * Weights are read once, when the template is compiled.
+ *
+ * @author Hervé Bitteur
+ */
+public class CompiledTemplate
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Source template. */
+    private final Template template;
+
+    /** Template height. */
+    private final int height;
+
+    /** Number of 64-bit words per template row. */
+    private final int wordsPerRow;
+
+    /** Foreground mask. */
+    private final long[] foreMasks;
+
+    /** Exterior background mask. */
+    private final long[] backMasks;
+
+    /** Interior hole mask. */
+    private final long[] holeMasks;
+
+    /** Weight of foreground key points. */
+    private final double foreWeight;
+
+    /** Weight of background key points. */
+    private final double backWeight;
+
+    /** Weight of hole key points. */
+    private final double holeWeight;
+
+    /** Maximum cumulated weight of key points located in rows [r..height[, for early exit. */
+    private final double[] maxWeightsFrom;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code CompiledTemplate} object.
+     *
+     * @param template   the template to compile
+     * @param foreWeight weight for foreground key points
+     * @param backWeight weight for exterior background key points
+     * @param holeWeight weight for interior hole key points
+     */
+    public CompiledTemplate (Template template,
+                             double foreWeight,
+                             double backWeight,
+                             double holeWeight)
+    {
+        this.template = template;
+        this.foreWeight = foreWeight;
+        this.backWeight = backWeight;
+        this.holeWeight = holeWeight;
+
+        height = template.getHeight();
+        wordsPerRow = (template.getWidth() + 63) >>> 6;
+        foreMasks = new long[height * wordsPerRow];
+        backMasks = new long[height * wordsPerRow];
+        holeMasks = new long[height * wordsPerRow];
+
+        for (PixelDistance pix : template.getKeyPoints()) {
+            final int w = (pix.y * wordsPerRow) + (pix.x >>> 6);
+            final long bit = 1L << (pix.x & 63);
+
+            if (pix.d == 0) {
+                foreMasks[w] |= bit;
+            } else if (pix.d > 0) {
+                backMasks[w] |= bit;
+            } else {
+                holeMasks[w] |= bit;
+            }
+        }
+
+        maxWeightsFrom = new double[height + 1];
+
+        for (int r = height - 1; r >= 0; r--) {
+            double rowWeight = 0;
+
+            for (int k = 0; k < wordsPerRow; k++) {
+                final int w = (r * wordsPerRow) + k;
+                rowWeight += ((foreWeight * Long.bitCount(foreMasks[w]))
+                              + (backWeight * Long.bitCount(backMasks[w])))
+                             + (holeWeight * Long.bitCount(holeMasks[w]));
+            }
+
+            maxWeightsFrom[r] = maxWeightsFrom[r + 1] + rowWeight;
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //----------//
+    // evaluate //
+    //----------//
+    /**
+     * Evaluate this template at location (x,y) in provided packed table.
+     *
+     * @param x      location abscissa
+     * @param y      location ordinate
+     * @param anchor the anchor kind to use for (x,y), null for upper left
+     * @param table  the packed table to search
+     * @return the weighted average distance computed on all key positions
+     * @see Template#evaluate(int, int, Anchor, DistanceTable)
+     */
+    public double evaluate (int x,
+                            int y,
+                            Anchor anchor,
+                            PackedTable table)
+    {
+        return evaluate(x, y, anchor, table, Double.MAX_VALUE);
+    }
+
+    //----------//
+    // evaluate //
+    //----------//
+    /**
+     * Evaluate this template at location (x,y) in provided packed table, with the
+     * ability to stop as soon as the result is known to exceed the provided threshold.
+     * <p>
+     * After each template row, a lower bound of the final distance is computed, assuming that
+     * all the remaining key points would be relevant and matched.
+     * If this lower bound is already above threshold, it is returned immediately.
+     * Hence, a returned value strictly above threshold may be just a lower bound of the actual
+     * distance, while any returned value not above threshold is the exact distance.
+     *
+     * @param x         location abscissa
+     * @param y         location ordinate
+     * @param anchor    the anchor kind to use for (x,y), null for upper left
+     * @param table     the packed table to search
+     * @param threshold the distance value above which evaluation can be abandoned
+     * @return the weighted average distance, or a lower bound of it if above threshold
+     */
+    public double evaluate (int x,
+                            int y,
+                            Anchor anchor,
+                            PackedTable table,
+                            double threshold)
+    {
+        final Point offset = (anchor != null) ? template.getOffset(anchor) : null;
+        final int ulx = (offset != null) ? (x - offset.x) : x;
+        final int uly = (offset != null) ? (y - offset.y) : y;
+        final int imgHeight = table.getHeight();
+        double weights = 0; // Sum of weights
+        double total = 0; // Sum of weighted distances
+
+        for (int r = 0; r < height; r++) {
+            final int ny = uly + r;
+
+            if ((ny < 0) || (ny >= imgHeight)) {
+                continue;
+            }
+
+            final int base = r * wordsPerRow;
+            int foreCount = 0;
+            int foreMiss = 0;
+            int backCount = 0;
+            int backMiss = 0;
+            int holeCount = 0;
+            int holeMiss = 0;
+
+            for (int k = 0; k < wordsPerRow; k++) {
+                final long foreMask = foreMasks[base + k];
+                final long backMask = backMasks[base + k];
+                final long holeMask = holeMasks[base + k];
+
+                if ((foreMask | backMask | holeMask) == 0) {
+                    continue;
+                }
+
+                final int nx = ulx + (k << 6);
+                final long known = table.knownWindow(nx, ny);
+
+                if (known == 0) {
+                    continue;
+                }
+
+                final long fore = table.foreWindow(nx, ny);
+                final long knownFore = known & fore;
+                final long knownForeMask = known & foreMask;
+                foreCount += Long.bitCount(knownForeMask);
+                foreMiss += Long.bitCount(knownForeMask & ~fore);
+                backCount += Long.bitCount(known & backMask);
+                backMiss += Long.bitCount(knownFore & backMask);
+                holeCount += Long.bitCount(known & holeMask);
+                holeMiss += Long.bitCount(knownFore & holeMask);
+            }
+
+            total += (foreWeight * foreMiss) + (backWeight * backMiss) + (holeWeight * holeMiss);
+            weights += (foreWeight * foreCount) + (backWeight * backCount)
+                       + (holeWeight * holeCount);
+
+            if (total > 0) {
+                final double lowerBound = total / (weights + maxWeightsFrom[r + 1]);
+
+                if (lowerBound > threshold) {
+                    return lowerBound;
+                }
+            }
+        }
+
+        if (weights == 0) {
+            return Double.MAX_VALUE; // Safer
+        }
+
+        return total / weights;
+    }
+
+    //--------------//
+    // evaluateHole //
+    //--------------//
+    /**
+     * Evaluate hole of this template at location (x,y) in provided packed table.
+     *
+     * @param x      location abscissa
+     * @param y      location ordinate
+     * @param anchor the anchor kind to use for (x,y), null for upper left
+     * @param table  the packed table to search
+     * @return the ratio of actual white pixels over expected ones
+     * @see Template#evaluateHole(int, int, Anchor, DistanceTable)
+     */
+    public double evaluateHole (int x,
+                                int y,
+                                Anchor anchor,
+                                PackedTable table)
+    {
+        final Point offset = (anchor != null) ? template.getOffset(anchor) : null;
+        final int ulx = (offset != null) ? (x - offset.x) : x;
+        final int uly = (offset != null) ? (y - offset.y) : y;
+        final int imgHeight = table.getHeight();
+        int expectedHoles = 0; // Expected number of white pixels in hole
+        int actualHoles = 0; // Actual number of white pixels in hole
+
+        for (int r = 0; r < height; r++) {
+            final int ny = uly + r;
+
+            if ((ny < 0) || (ny >= imgHeight)) {
+                continue;
+            }
+
+            final int base = r * wordsPerRow;
+
+            for (int k = 0; k < wordsPerRow; k++) {
+                final long holeMask = holeMasks[base + k];
+
+                if (holeMask == 0) {
+                    continue;
+                }
+
+                final int nx = ulx + (k << 6);
+                final long knownHole = table.knownWindow(nx, ny) & holeMask;
+                expectedHoles += Long.bitCount(knownHole);
+                actualHoles += Long.bitCount(knownHole & ~table.foreWindow(nx, ny));
+            }
+        }
+
+        if (expectedHoles == 0) {
+            return 0;
+        } else {
+            return (double) actualHoles / expectedHoles;
+        }
+    }
+
+    //-------------//
+    // getTemplate //
+    //-------------//
+    /**
+     * Report the source template.
+     *
+     * @return the template compiled
+     */
+    public Template getTemplate ()
+    {
+        return template;
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        StringBuilder sb = new StringBuilder("{CompiledTemplate");
+        sb.append(" ").append(template.getShape());
+        sb.append(" words:").append(wordsPerRow).append("x").append(height);
+        sb.append("}");
+
+        return sb.toString();
+    }
+}
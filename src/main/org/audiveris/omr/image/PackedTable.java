@@ -0,0 +1,191 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                      P a c k e d T a b l e                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import static org.audiveris.omr.image.ChamferDistance.VALUE_TARGET;
+import static org.audiveris.omr.image.ChamferDistance.VALUE_UNKNOWN;
+
+/**
+ * Class {@code PackedTable} is a bit-packed view of a {@link DistanceTable}, meant for
+ * fast template matching by {@link CompiledTemplate}.
+ * <p>
+ * Template matching only needs to know, for each table location, whether it is foreground
+ * (distance is {@link ChamferDistance#VALUE_TARGET}) and whether it is relevant at all (distance
+ * is not {@link ChamferDistance#VALUE_UNKNOWN}, used for neutralized staff lines, ledgers and
+ * stems).
+ * Hence the table is represented by two bit planes, each row being packed into 64-bit words:<ul>
+ * <li>The <b>fore</b> plane, with bit set for foreground locations,</li>
+ * <li>The <b>known</b> plane, with bit set for non-neutralized locations.</li>
+ * </ul>
+ * Bit {@code x} of a row is stored in word {@code x / 64} at bit position {@code x % 64}.
+ * Locations outside the table are reported as unknown, so that they get ignored by matching.
+ * <p>
+ * The packed table is a snapshot: modifications performed later on the underlying distance
+ * table are not reflected.
+ *
+ * @author Hervé Bitteur
+ */
+public class PackedTable
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Table width. */
+    private final int width;
+
+    /** Table height. */
+    private final int height;
+
+    /** Number of 64-bit words per row. */
+    private final int wordsPerRow;
+
+    /** Foreground plane. */
+    private final long[] fore;
+
+    /** Known (non-neutralized) plane. */
+    private final long[] known;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code PackedTable} object from the provided distance table.
+     *
+     * @param distances the (fully painted) distance table
+     */
+    public PackedTable (DistanceTable distances)
+    {
+        width = distances.getWidth();
+        height = distances.getHeight();
+        wordsPerRow = (width + 63) >>> 6;
+        fore = new long[wordsPerRow * height];
+        known = new long[wordsPerRow * height];
+
+        for (int y = 0; y < height; y++) {
+            final int base = y * wordsPerRow;
+
+            for (int x = 0; x < width; x++) {
+                final int val = distances.getValue(x, y);
+
+                if (val != VALUE_UNKNOWN) {
+                    final int w = base + (x >>> 6);
+                    final long bit = 1L << (x & 63);
+                    known[w] |= bit;
+
+                    if (val == VALUE_TARGET) {
+                        fore[w] |= bit;
+                    }
+                }
+            }
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //------------//
+    // foreWindow //
+    //------------//
+    /**
+     * Report the 64 foreground bits of row y, starting at abscissa x.
+     *
+     * @param x abscissa of first bit (perhaps out of table)
+     * @param y ordinate of row (assumed to be within table)
+     * @return the foreground bits, bit 0 corresponding to abscissa x
+     */
+    public long foreWindow (int x,
+                            int y)
+    {
+        return window(fore, y, x);
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    /**
+     * Report the table height.
+     *
+     * @return table height
+     */
+    public int getHeight ()
+    {
+        return height;
+    }
+
+    //----------//
+    // getWidth //
+    //----------//
+    /**
+     * Report the table width.
+     *
+     * @return table width
+     */
+    public int getWidth ()
+    {
+        return width;
+    }
+
+    //-------------//
+    // knownWindow //
+    //-------------//
+    /**
+     * Report the 64 known bits of row y, starting at abscissa x.
+     *
+     * @param x abscissa of first bit (perhaps out of table)
+     * @param y ordinate of row (assumed to be within table)
+     * @return the known bits, bit 0 corresponding to abscissa x
+     */
+    public long knownWindow (int x,
+                             int y)
+    {
+        return window(known, y, x);
+    }
+
+    //--------//
+    // window //
+    //--------//
+    /**
+     * Extract 64 consecutive bits of a plane row, starting at any abscissa.
+     * Bits located outside the table are reported as zero.
+     *
+     * @param plane the plane to read
+     * @param y     row ordinate
+     * @param x     abscissa of first bit
+     * @return the 64-bit window
+     */
+    private long window (long[] plane,
+                         int y,
+                         int x)
+    {
+        if ((x >= width) || (x <= -64)) {
+            return 0;
+        }
+
+        final int base = y * wordsPerRow;
+        final int w = x >> 6; // Floor division, even for negative x
+        final int shift = x & 63;
+        final long lo = (w >= 0) ? plane[base + w] : 0;
+
+        if (shift == 0) {
+            return lo;
+        }
+
+        final long hi = ((w + 1) < wordsPerRow) ? plane[base + w + 1] : 0;
+
+        return (lo >>> shift) | (hi << (64 - shift));
+    }
+}
@@ -98,6 +98,9 @@ public class ShapeDescriptor
 
     private final Template template;
 
+    /** Bit-packed version of template. */
+    private final CompiledTemplate compiled;
+
     /** Symbol width. */
     private int width = -1;
 
@@ -118,6 +121,7 @@ public class ShapeDescriptor
         this.pointSize = pointSize;
 
         template = createTemplate(shape, pointSize);
+        compiled = template.compile();
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -167,6 +171,30 @@ public class ShapeDescriptor
         return template.evaluate(x, y, anchor, distances);
     }
 
+    //----------//
+    // evaluate //
+    //----------//
+    /**
+     * Try the compiled template at specified location and report distance found,
+     * abandoning evaluation as soon as distance is known to exceed the provided threshold.
+     *
+     * @param x         location abscissa
+     * @param y         location ordinate
+     * @param anchor    location WRT template
+     * @param table     bit-packed table of distances
+     * @param threshold distance value above which evaluation can be abandoned
+     * @return the distance found, perhaps just a lower bound if above threshold
+     * @see CompiledTemplate#evaluate(int, int, Anchor, PackedTable, double)
+     */
+    public double evaluate (int x,
+                            int y,
+                            Anchor anchor,
+                            PackedTable table,
+                            double threshold)
+    {
+        return compiled.evaluate(x, y, anchor, table, threshold);
+    }
+
     //--------------//
     // evaluateHole //
     //--------------//
@@ -187,6 +215,26 @@ public class ShapeDescriptor
         return template.evaluateHole(x, y, anchor, distances);
     }
 
+    //--------------//
+    // evaluateHole //
+    //--------------//
+    /**
+     * Evaluate the ratio of actual white pixels in expected hole, using compiled template.
+     *
+     * @param x      location abscissa
+     * @param y      location ordinate
+     * @param anchor location WRT template
+     * @param table  bit-packed table of distances
+     * @return the ratio of white pixels found
+     */
+    public double evaluateHole (int x,
+                                int y,
+                                Anchor anchor,
+                                PackedTable table)
+    {
+        return compiled.evaluateHole(x, y, anchor, table);
+    }
+
     //-----------//
     // getBounds //
     //-----------//
@@ -201,6 +249,14 @@ public class ShapeDescriptor
         return template.getBounds(symBox);
     }
 
+    //-------------//
+    // getCompiled //
+    //-------------//
+    public CompiledTemplate getCompiled ()
+    {
+        return compiled;
+    }
+
     //-----------//
     // getHeight //
     //-----------//
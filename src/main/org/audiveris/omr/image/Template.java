@@ -253,6 +253,23 @@ public class Template
         return frm;
     }
 
+    //---------//
+    // compile //
+    //---------//
+    /**
+     * Build the bit-packed representation of this template, using current weights.
+     *
+     * @return the compiled template
+     */
+    public CompiledTemplate compile ()
+    {
+        return new CompiledTemplate(
+                this,
+                constants.foreWeight.getValue(),
+                constants.backWeight.getValue(),
+                constants.holeWeight.getValue());
+    }
+
     //------//
     // dump //
     //------//
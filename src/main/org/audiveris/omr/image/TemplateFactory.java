@@ -28,8 +28,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class {@code TemplateFactory} builds needed instances of {@link Template} class
@@ -57,7 +57,7 @@ public class TemplateFactory
      */
     private TemplateFactory ()
     {
-        allSizes = new HashMap<Integer, Catalog>();
+        allSizes = new ConcurrentHashMap<Integer, Catalog>();
     }
 
     //~ Methods ------------------------------------------------------------------------------------
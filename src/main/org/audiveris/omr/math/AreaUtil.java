@@ -25,12 +25,14 @@ import ij.process.ByteProcessor;
 
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 
 /**
- * Class {@code AreaUtil} gathers static utility methods for Area instances.
+ * Class {@code AreaUtil} gathers static utility methods for areas.
+ * <p>
+ * Simple areas (parallelograms, ribbons) are provided as {@link GeoPolygon} instances, which are
+ * much cheaper to build and query than {@link java.awt.geom.Area} instances.
  *
  * @author Hervé Bitteur
  */
@@ -54,9 +56,9 @@ public abstract class AreaUtil
      * @param height total height
      * @return the created area
      */
-    public static Area horizontalParallelogram (Point2D left,
-                                                Point2D right,
-                                                double height)
+    public static GeoPolygon horizontalParallelogram (Point2D left,
+                                                      Point2D right,
+                                                      double height)
     {
         final double dy = height / 2; // Half height
         final Path2D path = new Path2D.Double();
@@ -66,26 +68,7 @@ public abstract class AreaUtil
         path.lineTo(left.getX(), left.getY() + dy + 1); // Lower left
         path.closePath();
 
-        return new Area(path);
-    }
-
-    //--------------//
-    // intersection //
-    //--------------//
-    /**
-     * Check whether the two provided areas intersect one another.
-     *
-     * @param a1 some area
-     * @param a2 some other area
-     * @return true if there is a non-empty intersection
-     */
-    public static boolean intersection (Area a1,
-                                        Area a2)
-    {
-        Area copy = new Area(a1);
-        copy.intersect(a2);
-
-        return !copy.isEmpty();
+        return new GeoPolygon(path);
     }
 
     //--------------//
@@ -165,9 +148,9 @@ public abstract class AreaUtil
      * @param width  total width
      * @return the created area
      */
-    public static Area verticalParallelogram (Point2D top,
-                                              Point2D bottom,
-                                              double width)
+    public static GeoPolygon verticalParallelogram (Point2D top,
+                                                    Point2D bottom,
+                                                    double width)
     {
         final double dx = width / 2; // Half width
         final Path2D path = new Path2D.Double();
@@ -177,7 +160,7 @@ public abstract class AreaUtil
         path.lineTo(bottom.getX() - dx, bottom.getY() + 1); // Lower left
         path.closePath();
 
-        return new Area(path);
+        return new GeoPolygon(path);
     }
 
     //----------------//
@@ -195,8 +178,8 @@ public abstract class AreaUtil
      * @param width  ribbon width
      * @return the created area
      */
-    public static Area verticalRibbon (Shape median,
-                                       double width)
+    public static GeoPolygon verticalRibbon (Shape median,
+                                             double width)
     {
         final double dx = width / 2; // Half width
         final GeoPath path = new GeoPath();
@@ -215,7 +198,7 @@ public abstract class AreaUtil
 
         path.closePath();
 
-        return new Area(path);
+        return new GeoPolygon(path);
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -0,0 +1,582 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       G e o P o l y g o n                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Class {@code GeoPolygon} is a lightweight immutable polygon, meant to replace
+ * {@link Area} for the simple shapes used as inter areas or lookup areas: parallelograms around
+ * beams and stems, quadrilaterals and bands along a line.
+ * <p>
+ * Contrary to Area, no normalization is performed at construction time, and the containment and
+ * intersection tests allocate no object, beginning with a bounding box check.
+ * <ul>
+ * <li>Point containment uses the same insideness rule as Area.</li>
+ * <li>Intersection with a rectangle or another polygon means that interiors overlap, a mere
+ * contact along boundaries does not count (as for Area).</li>
+ * </ul>
+ *
+ * @author Hervé Bitteur
+ */
+public class GeoPolygon
+        implements Shape
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Maximum distance to curves, when flattening a curved shape. */
+    public static final double FLATNESS = 0.1;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Vertices abscissae. */
+    private final double[] xs;
+
+    /** Vertices ordinates. */
+    private final double[] ys;
+
+    /** Number of vertices. */
+    private final int n;
+
+    /** Bounding box. */
+    private final Rectangle2D bounds;
+
+    /** True for a convex polygon. */
+    private final boolean convex;
+
+    /** True for a polygon with no interior. */
+    private final boolean empty;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code GeoPolygon} object, on the outline of the provided shape.
+     * Curved segments if any are flattened.
+     *
+     * @param shape the defining shape, made of a single sub-path
+     * @throws IllegalArgumentException if the shape contains several sub-paths
+     */
+    public GeoPolygon (Shape shape)
+    {
+        double[] xArr = new double[8];
+        double[] yArr = new double[8];
+        int count = 0;
+        boolean started = false;
+        final double[] coords = new double[6];
+
+        for (PathIterator it = shape.getPathIterator(null, FLATNESS); !it.isDone(); it.next()) {
+            final int segment = it.currentSegment(coords);
+
+            if (segment == PathIterator.SEG_CLOSE) {
+                continue;
+            }
+
+            if (segment == PathIterator.SEG_MOVETO) {
+                if (started) {
+                    throw new IllegalArgumentException(
+                            "GeoPolygon cannot handle several sub-paths");
+                }
+
+                started = true;
+            }
+
+            // Skip any duplicated vertex
+            if ((count > 0) && (coords[0] == xArr[count - 1]) && (coords[1] == yArr[count - 1])) {
+                continue;
+            }
+
+            if (count == xArr.length) {
+                xArr = Arrays.copyOf(xArr, 2 * count);
+                yArr = Arrays.copyOf(yArr, 2 * count);
+            }
+
+            xArr[count] = coords[0];
+            yArr[count] = coords[1];
+            count++;
+        }
+
+        // Closing vertex, if any
+        if ((count > 1) && (xArr[count - 1] == xArr[0]) && (yArr[count - 1] == yArr[0])) {
+            count--;
+        }
+
+        n = count;
+        xs = Arrays.copyOf(xArr, count);
+        ys = Arrays.copyOf(yArr, count);
+        bounds = computeBounds();
+        empty = (n < 3) || (signedArea() == 0);
+        convex = !empty && checkConvex();
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (double x,
+                             double y)
+    {
+        if (empty || !bounds.contains(x, y)) {
+            return false;
+        }
+
+        // Crossing count of an horizontal ray towards increasing abscissae
+        boolean inside = false;
+
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            final double yi = ys[i];
+            final double yj = ys[j];
+
+            if ((yi > y) != (yj > y)) {
+                final double xCross = xs[j] + (((y - yj) * (xs[i] - xs[j])) / (yi - yj));
+
+                if (x < xCross) {
+                    inside = !inside;
+                }
+            }
+        }
+
+        return inside;
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Point2D p)
+    {
+        return contains(p.getX(), p.getY());
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (double x,
+                             double y,
+                             double w,
+                             double h)
+    {
+        if (empty || !bounds.contains(x, y, w, h)) {
+            return false;
+        }
+
+        if (crossesRectangle(x, y, x + w, y + h)) {
+            return false;
+        }
+
+        return contains(x + (w / 2), y + (h / 2));
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Rectangle2D r)
+    {
+        return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //-----------//
+    // getBounds //
+    //-----------//
+    @Override
+    public Rectangle getBounds ()
+    {
+        return bounds.getBounds();
+    }
+
+    //-------------//
+    // getBounds2D //
+    //-------------//
+    @Override
+    public Rectangle2D getBounds2D ()
+    {
+        return (Rectangle2D) bounds.clone();
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at)
+    {
+        return new VertexIterator(at);
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at,
+                                         double flatness)
+    {
+        return new VertexIterator(at);
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (double x,
+                               double y,
+                               double w,
+                               double h)
+    {
+        if (empty || !bounds.intersects(x, y, w, h)) {
+            return false;
+        }
+
+        // Either a polygon side goes through rectangle interior...
+        if (crossesRectangle(x, y, x + w, y + h)) {
+            return true;
+        }
+
+        // ...or rectangle interior is entirely inside or entirely outside
+        return contains(x + (w / 2), y + (h / 2));
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (Rectangle2D r)
+    {
+        return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    /**
+     * Check whether the interiors of this polygon and that polygon overlap.
+     *
+     * @param that the other polygon
+     * @return true if there is a non-empty intersection
+     */
+    public boolean intersects (GeoPolygon that)
+    {
+        if (empty || that.empty || !bounds.intersects(that.bounds)) {
+            return false;
+        }
+
+        if (convex && that.convex) {
+            return !this.separates(that) && !that.separates(this);
+        }
+
+        // General case, for non-convex polygons
+        final Area area = new Area(this);
+        area.intersect(new Area(that));
+
+        return !area.isEmpty();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName());
+        sb.append("{");
+
+        for (int i = 0; i < n; i++) {
+            sb.append(String.format("(%.1f,%.1f)", xs[i], ys[i]));
+        }
+
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+    //-------------//
+    // checkConvex //
+    //-------------//
+    /**
+     * Check that all turns are made in the same direction and that the polygon
+     * winds only once (abscissa direction changes at most twice).
+     *
+     * @return true if convex
+     */
+    private boolean checkConvex ()
+    {
+        int turnSign = 0;
+        int dxSign = 0;
+        int dxChanges = 0;
+
+        for (int i = 0; i < n; i++) {
+            final int j = (i + 1) % n;
+            final int k = (i + 2) % n;
+            final double dx1 = xs[j] - xs[i];
+            final double dy1 = ys[j] - ys[i];
+            final double dx2 = xs[k] - xs[j];
+            final double dy2 = ys[k] - ys[j];
+            final int turn = (int) Math.signum((dx1 * dy2) - (dy1 * dx2));
+
+            if (turn != 0) {
+                if ((turnSign != 0) && (turn != turnSign)) {
+                    return false;
+                }
+
+                turnSign = turn;
+            }
+
+            final int dx = (int) Math.signum(dx1);
+
+            if (dx != 0) {
+                if ((dxSign != 0) && (dx != dxSign)) {
+                    dxChanges++;
+                }
+
+                dxSign = dx;
+            }
+        }
+
+        return dxChanges <= 2;
+    }
+
+    //---------------//
+    // computeBounds //
+    //---------------//
+    private Rectangle2D computeBounds ()
+    {
+        if (n == 0) {
+            return new Rectangle2D.Double();
+        }
+
+        double xMin = xs[0];
+        double xMax = xs[0];
+        double yMin = ys[0];
+        double yMax = ys[0];
+
+        for (int i = 1; i < n; i++) {
+            xMin = Math.min(xMin, xs[i]);
+            xMax = Math.max(xMax, xs[i]);
+            yMin = Math.min(yMin, ys[i]);
+            yMax = Math.max(yMax, ys[i]);
+        }
+
+        return new Rectangle2D.Double(xMin, yMin, xMax - xMin, yMax - yMin);
+    }
+
+    //------------------//
+    // crossesRectangle //
+    //------------------//
+    /**
+     * Check whether any polygon side goes through the interior of the provided
+     * rectangle.
+     */
+    private boolean crossesRectangle (double x0,
+                                      double y0,
+                                      double x1,
+                                      double y1)
+    {
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            if (crossesRectangle(xs[j], ys[j], xs[i], ys[i], x0, y0, x1, y1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //------------------//
+    // crossesRectangle //
+    //------------------//
+    /**
+     * Check whether segment (a,b) goes through the interior of rectangle (x0,y0)-(x1,y1).
+     * This is a Liang-Barsky clipping against the open rectangle.
+     */
+    private static boolean crossesRectangle (double ax,
+                                             double ay,
+                                             double bx,
+                                             double by,
+                                             double x0,
+                                             double y0,
+                                             double x1,
+                                             double y1)
+    {
+        double tMin = 0;
+        double tMax = 1;
+
+        final double dx = bx - ax;
+
+        if (dx == 0) {
+            if ((ax <= x0) || (ax >= x1)) {
+                return false;
+            }
+        } else {
+            final double t0 = (x0 - ax) / dx;
+            final double t1 = (x1 - ax) / dx;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+        }
+
+        final double dy = by - ay;
+
+        if (dy == 0) {
+            if ((ay <= y0) || (ay >= y1)) {
+                return false;
+            }
+        } else {
+            final double t0 = (y0 - ay) / dy;
+            final double t1 = (y1 - ay) / dy;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+        }
+
+        return tMin < tMax;
+    }
+
+    //-----------//
+    // separates //
+    //-----------//
+    /**
+     * Check whether a side of this (convex) polygon separates it from that (convex)
+     * polygon, projections on side normal being at most in contact.
+     */
+    private boolean separates (GeoPolygon that)
+    {
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            final double nx = ys[j] - ys[i];
+            final double ny = xs[i] - xs[j];
+            double thisMin = Double.MAX_VALUE;
+            double thisMax = -Double.MAX_VALUE;
+
+            for (int k = 0; k < n; k++) {
+                final double p = (xs[k] * nx) + (ys[k] * ny);
+                thisMin = Math.min(thisMin, p);
+                thisMax = Math.max(thisMax, p);
+            }
+
+            double thatMin = Double.MAX_VALUE;
+            double thatMax = -Double.MAX_VALUE;
+
+            for (int k = 0; k < that.n; k++) {
+                final double p = (that.xs[k] * nx) + (that.ys[k] * ny);
+                thatMin = Math.min(thatMin, p);
+                thatMax = Math.max(thatMax, p);
+            }
+
+            if ((thisMax <= thatMin) || (thatMax <= thisMin)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //------------//
+    // signedArea //
+    //------------//
+    private double signedArea ()
+    {
+        double sum = 0;
+
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            sum += ((xs[j] * ys[i]) - (xs[i] * ys[j]));
+        }
+
+        return sum / 2;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //----------------//
+    // VertexIterator //
+    //----------------//
+    /**
+     * Path iterator on polygon vertices.
+     */
+    private class VertexIterator
+            implements PathIterator
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final AffineTransform at;
+
+        /** Current index, n being for the closing segment. */
+        private int index;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public VertexIterator (AffineTransform at)
+        {
+            this.at = at;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public int currentSegment (float[] coords)
+        {
+            final double[] dCoords = new double[6];
+            final int segment = currentSegment(dCoords);
+            coords[0] = (float) dCoords[0];
+            coords[1] = (float) dCoords[1];
+
+            return segment;
+        }
+
+        @Override
+        public int currentSegment (double[] coords)
+        {
+            if (isDone()) {
+                throw new NoSuchElementException("GeoPolygon iterator out of bounds");
+            }
+
+            if (index == n) {
+                return SEG_CLOSE;
+            }
+
+            coords[0] = xs[index];
+            coords[1] = ys[index];
+
+            if (at != null) {
+                at.transform(coords, 0, coords, 0, 1);
+            }
+
+            return (index == 0) ? SEG_MOVETO : SEG_LINETO;
+        }
+
+        @Override
+        public int getWindingRule ()
+        {
+            return WIND_NON_ZERO;
+        }
+
+        @Override
+        public boolean isDone ()
+        {
+            return (n == 0) || (index > n);
+        }
+
+        @Override
+        public void next ()
+        {
+            index++;
+        }
+    }
+}
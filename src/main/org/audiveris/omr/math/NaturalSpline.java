@@ -72,6 +72,9 @@ public class NaturalSpline
 
     private Point2D last; // Cached for faster access. Really useful???
 
+    /** Segments data, cached for direct access. */
+    private Segments segments;
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates a new NaturalSpline object from a sequence of connected shapes.
@@ -268,6 +271,35 @@ public class NaturalSpline
         return (int) Math.rint(xAtY((double) y));
     }
 
+    //------//
+    // xAtY //
+    //------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The containing segment is found by a binary search on the cached segments, with no
+     * allocation.
+     */
+    @Override
+    public double xAtY (double y)
+    {
+        final Segments segs = getSegments();
+
+        if (!segs.yIncreasing) {
+            return super.xAtY(y);
+        }
+
+        final int i = segs.indexOf(segs.ys, y);
+
+        if (i == -1) {
+            throw new RuntimeException("Ordinate not in range: " + y);
+        }
+
+        final double t = (y - segs.ys[i - 1]) / (segs.ys[i] - segs.ys[i - 1]);
+
+        return segs.valueAt(segs.xs, segs.cxs, i, t);
+    }
+
     //----------------//
     // xDerivativeAtY //
     //----------------//
@@ -321,6 +353,35 @@ public class NaturalSpline
         return (int) Math.rint(yAtX((double) x));
     }
 
+    //------//
+    // yAtX //
+    //------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The containing segment is found by a binary search on the cached segments, with no
+     * allocation.
+     */
+    @Override
+    public double yAtX (double x)
+    {
+        final Segments segs = getSegments();
+
+        if (!segs.xIncreasing) {
+            return super.yAtX(x);
+        }
+
+        final int i = segs.indexOf(segs.xs, x);
+
+        if (i == -1) {
+            throw new RuntimeException("Abscissa not in range: " + x);
+        }
+
+        final double t = (x - segs.xs[i - 1]) / (segs.xs[i] - segs.xs[i - 1]);
+
+        return segs.valueAt(segs.ys, segs.cys, i, t);
+    }
+
     //----------------//
     // yDerivativeAtX //
     //----------------//
@@ -423,4 +484,187 @@ public class NaturalSpline
 
         return D;
     }
+
+    //-------------//
+    // getSegments //
+    //-------------//
+    private Segments getSegments ()
+    {
+        if (segments == null) {
+            segments = new Segments(this);
+        }
+
+        return segments;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //----------//
+    // Segments //
+    //----------//
+    /**
+     * Flat copy of spline segments.
+     * All segments of a natural spline share the same kind (line, quad or cubic).
+     */
+    private static class Segments
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Kind shared by all segments. */
+        final int kind;
+
+        /** Number of control points per segment. */
+        final int ctrl;
+
+        /** Knots abscissae, segment i going from knot i-1 to knot i. */
+        final double[] xs;
+
+        /** Knots ordinates. */
+        final double[] ys;
+
+        /** Control points abscissae. */
+        final double[] cxs;
+
+        /** Control points ordinates. */
+        final double[] cys;
+
+        /** True if knots abscissae never decrease. */
+        final boolean xIncreasing;
+
+        /** True if knots ordinates never decrease. */
+        final boolean yIncreasing;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Segments (NaturalSpline spline)
+        {
+            final double[] coords = new double[6];
+            int n = -1; // Number of segments
+            int k = SEG_LINETO;
+
+            for (PathIterator it = spline.getPathIterator(null); !it.isDone(); it.next()) {
+                final int segmentKind = it.currentSegment(coords);
+
+                if (segmentKind != SEG_CLOSE) {
+                    n++;
+
+                    if (segmentKind != SEG_MOVETO) {
+                        k = segmentKind;
+                    }
+                }
+            }
+
+            kind = k;
+            ctrl = (countOf(kind) / 2) - 1;
+            xs = new double[n + 1];
+            ys = new double[n + 1];
+            cxs = new double[n * ctrl];
+            cys = new double[n * ctrl];
+
+            int i = 0;
+
+            for (PathIterator it = spline.getPathIterator(null); !it.isDone(); it.next()) {
+                final int segmentKind = it.currentSegment(coords);
+
+                if (segmentKind != SEG_CLOSE) {
+                    final int count = countOf(segmentKind);
+
+                    for (int c = 0; c < ((count / 2) - 1); c++) {
+                        cxs[((i - 1) * ctrl) + c] = coords[2 * c];
+                        cys[((i - 1) * ctrl) + c] = coords[(2 * c) + 1];
+                    }
+
+                    xs[i] = coords[count - 2];
+                    ys[i] = coords[count - 1];
+                    i++;
+                }
+            }
+
+            xIncreasing = isIncreasing(xs);
+            yIncreasing = isIncreasing(ys);
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        /**
+         * Report the first segment whose end knot is not lower than the provided value.
+         *
+         * @param ends knots coordinates
+         * @param v    provided value
+         * @return the segment index, or -1 if none
+         */
+        public int indexOf (double[] ends,
+                            double v)
+        {
+            final int last = ends.length - 1;
+
+            if ((last < 1) || (v > ends[last])) {
+                return -1;
+            }
+
+            int lo = 1;
+            int hi = last;
+
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+
+                if (v > ends[mid]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            return lo;
+        }
+
+        /**
+         * Evaluate a coordinate on segment i.
+         *
+         * @param knots    knots coordinates
+         * @param controls control points coordinates
+         * @param i        segment index
+         * @param t        parameter on segment
+         * @return the coordinate value
+         */
+        public double valueAt (double[] knots,
+                               double[] controls,
+                               int i,
+                               double t)
+        {
+            final double u = 1 - t;
+            final double p1 = knots[i - 1];
+            final double p2 = knots[i];
+
+            switch (kind) {
+            case SEG_LINETO:
+                return p1 + (t * (p2 - p1));
+
+            case SEG_QUADTO: {
+                final double cp = controls[i - 1];
+
+                return (p1 * u * u) + (2 * cp * t * u) + (p2 * t * t);
+            }
+
+            case SEG_CUBICTO: {
+                final double cp1 = controls[2 * (i - 1)];
+                final double cp2 = controls[(2 * (i - 1)) + 1];
+
+                return (p1 * u * u * u) + (3 * cp1 * t * u * u) + (3 * cp2 * t * t * u)
+                       + (p2 * t * t * t);
+            }
+
+            default:
+                throw new RuntimeException("Illegal segmentKind " + kind);
+            }
+        }
+
+        private static boolean isIncreasing (double[] values)
+        {
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] < values[i - 1]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
@@ -22,7 +22,9 @@
 package org.audiveris.omr.math;
 
 import org.audiveris.omr.classifier.TrainingMonitor;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.util.Jaxb;
+import org.audiveris.omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,10 +32,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -56,6 +64,11 @@ import javax.xml.stream.XMLStreamException;
  * <p>
  * The class also allows in-memory {@link #backup} and {@link #restore} operation, mainly used to
  * save the most efficient weight values during the network training.
+ * <p>
+ * Weights are kept in flat arrays, one contiguous row per target cell.
+ * Training is performed by mini-batches: each batch is cut into fixed-size slices whose gradients
+ * are computed in parallel, each slice in its own buffers, and then summed in slice order.
+ * Results thus do not depend on the number of threads.
  *
  * @author Hervé Bitteur
  */
@@ -72,6 +85,12 @@ public class NeuralNetwork
     /** Un/marshalling context for use with JAXB */
     private static volatile JAXBContext jaxbContext;
 
+    /** Number of patterns per training slice. */
+    private static final int TRAIN_SLICE = 8;
+
+    /** Number of patterns per evaluation slice. */
+    private static final int EVAL_SLICE = 256;
+
     //~ Instance fields ----------------------------------------------------------------------------
     //
     /** Size of input layer. */
@@ -94,15 +113,21 @@ public class NeuralNetwork
     @XmlElement(name = "output-labels")
     private final StringArray outputLabels;
 
-    /** Weights to hidden layer. */
+    /** Weights to hidden layer, as rows for XML only. */
     @XmlElementWrapper(name = "hidden-weights")
     @XmlElement(name = "row")
-    private double[][] hiddenWeights;
+    private double[][] hiddenRows;
 
-    /** Weights to output layer. */
+    /** Weights to output layer, as rows for XML only. */
     @XmlElementWrapper(name = "output-weights")
     @XmlElement(name = "row")
-    private double[][] outputWeights;
+    private double[][] outputRows;
+
+    /** Weights to hidden layer: one row of (1 + inputSize) per hidden cell, bias first. */
+    private transient double[] hiddenWeights;
+
+    /** Weights to output layer: one row of (1 + hiddenSize) per output cell, bias first. */
+    private transient double[] outputWeights;
 
     /** Default learning Rate parameter. */
     private transient volatile double learningRate = 0.40;
@@ -113,6 +138,9 @@ public class NeuralNetwork
     /** Default number of epochs when training. */
     private transient volatile int epochs = 10;
 
+    /** Default number of patterns per mini-batch. */
+    private transient volatile int batchSize = 1;
+
     /** To trigger training stop. */
     private transient volatile boolean stopping = false;
 
@@ -142,11 +170,11 @@ public class NeuralNetwork
 
         // Allocate weights (from input) to hidden layer
         // +1 for bias
-        hiddenWeights = createMatrix(hiddenSize, inputSize + 1, amplitude);
+        hiddenWeights = createWeights(hiddenSize, inputSize + 1, amplitude);
 
         // Allocate weights (from hidden) to output layer
         // +1 for bias
-        outputWeights = createMatrix(outputSize, hiddenSize + 1, amplitude);
+        outputWeights = createWeights(outputSize, hiddenSize + 1, amplitude);
 
         // Labels for input, if any
         this.inputLabels = new StringArray(inputLabels);
@@ -241,16 +269,17 @@ public class NeuralNetwork
         sb.append(String.format("LearningRate = %f%n", learningRate));
         sb.append(String.format("Momentum     = %f%n", momentum));
         sb.append(String.format("Epochs       = %d%n", epochs));
+        sb.append(String.format("BatchSize    = %d%n", batchSize));
 
         // Input
         sb.append(String.format("%nInputs  : %d cells%n", inputSize));
 
         // Hidden
-        sb.append(dumpOfMatrix(hiddenWeights));
+        sb.append(dumpOfMatrix(hiddenWeights, inputSize + 1));
         sb.append(String.format("%nHidden  : %d cells%n", hiddenSize));
 
         // Output
-        sb.append(dumpOfMatrix(outputWeights));
+        sb.append(dumpOfMatrix(outputWeights, hiddenSize + 1));
         sb.append(String.format("%nOutputs : %d cells%n", outputSize));
 
         logger.info(sb.toString());
@@ -344,8 +373,8 @@ public class NeuralNetwork
     //---------//
     /**
      * Restore the internal memory of a Network, from a previous Backup.
-     * This does not reset the current parameters such as learning rate, momentum, maxError or
-     * epochs.
+     * This does not reset the current parameters such as learning rate, momentum, maxError,
+     * epochs or batch size.
      *
      * @param backup a backup previously made
      */
@@ -357,16 +386,14 @@ public class NeuralNetwork
         }
 
         // Make sure backup is compatible with this neural network
-        if ((backup.hiddenWeights.length != hiddenSize)
-            || (backup.hiddenWeights[0].length != (inputSize + 1))
-            || (backup.outputWeights.length != outputSize)
-            || (backup.outputWeights[0].length != (hiddenSize + 1))) {
+        if ((backup.hiddenWeights.length != (hiddenSize * (inputSize + 1)))
+            || (backup.outputWeights.length != (outputSize * (hiddenSize + 1)))) {
             throw new IllegalArgumentException("Incompatible backup");
         }
 
         logger.debug("Network memory restore");
-        this.hiddenWeights = cloneMatrix(backup.hiddenWeights);
-        this.outputWeights = cloneMatrix(backup.outputWeights);
+        this.hiddenWeights = backup.hiddenWeights.clone();
+        this.outputWeights = backup.outputWeights.clone();
     }
 
     //-----//
@@ -404,7 +431,7 @@ public class NeuralNetwork
         }
 
         // Compute the hidden values
-        forward(inputs, hiddenWeights, hiddens);
+        forward(inputs, hiddenWeights, inputSize + 1, hiddens);
 
         // Allocate the outputs if not done yet
         if (outputs == null) {
@@ -417,11 +444,25 @@ public class NeuralNetwork
         }
 
         // Then, compute the output values
-        forward(hiddens, outputWeights, outputs);
+        forward(hiddens, outputWeights, hiddenSize + 1, outputs);
 
         return outputs;
     }
 
+    //--------------//
+    // setBatchSize //
+    //--------------//
+    /**
+     * Set the number of patterns per mini-batch, when training the network.
+     * A value of 1 gives the classical online training, pattern after pattern.
+     *
+     * @param batchSize number of patterns per mini-batch
+     */
+    public void setBatchSize (int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
     //-----------//
     // setEpochs //
     //-----------//
@@ -475,6 +516,11 @@ public class NeuralNetwork
     //-------//
     /**
      * Train the neural network on a collection of input patterns.
+     * <p>
+     * Patterns are processed by mini-batches of {@code batchSize} patterns. The weights are
+     * updated after each batch, using the batch mean gradient and the momentum of the previous
+     * update. Gradient computation and network evaluation are run in parallel, with a
+     * deterministic result which does not depend on the number of threads.
      *
      * @param inputs         the provided patterns of values for input cells
      * @param desiredOutputs the corresponding desired values for output cells
@@ -490,18 +536,26 @@ public class NeuralNetwork
 
         Objects.requireNonNull(inputs, "inputs array is null");
         Objects.requireNonNull(desiredOutputs, "desiredOutputs array is null");
-        logger.info("Network is being trained on {} epochs...", epochs);
 
         final int patterns = inputs.length;
+        final int batch = Math.max(1, Math.min(batchSize, patterns));
+        logger.info("Network is being trained on {} epochs, batch size {}...", epochs, batch);
+
         final long startTime = System.currentTimeMillis();
 
-        // Allocate needed arrays
-        final double[] gottenOutputs = new double[outputSize];
-        final double[] hiddenGrads = new double[hiddenSize];
-        final double[] outputGrads = new double[outputSize];
-        final double[][] hiddenDeltas = createMatrix(hiddenSize, inputSize + 1, 0);
-        final double[][] outputDeltas = createMatrix(outputSize, hiddenSize + 1, 0);
-        final double[] hiddens = new double[hiddenSize];
+        // Allocate needed arrays, with one slice (and its gradient buffers) per batch part
+        final int sliceCount = (batch + TRAIN_SLICE - 1) / TRAIN_SLICE;
+        final List<Slice> slices = new ArrayList<Slice>(sliceCount);
+
+        for (int i = 0; i < sliceCount; i++) {
+            slices.add(new Slice(inputs, desiredOutputs, true));
+        }
+
+        final double[] hiddenSums = new double[hiddenWeights.length];
+        final double[] outputSums = new double[outputWeights.length];
+        final double[] hiddenDeltas = new double[hiddenWeights.length];
+        final double[] outputDeltas = new double[outputWeights.length];
+        final List<Slice> batchSlices = new ArrayList<Slice>(sliceCount);
         int iter = 0;
 
         for (int ie = 1; ie <= epochs; ie++) {
@@ -511,84 +565,36 @@ public class NeuralNetwork
                 listener.epochStarted(ie);
             }
 
-            // Loop on all input patterns
-            for (int ip = 0; ip < patterns; ip++) {
-                // Run the network with input values and current weights
-                run(inputs[ip], hiddens, gottenOutputs);
+            // Loop on all mini-batches
+            for (int start = 0; (start < patterns) && !stopping; start += batch) {
+                final int stop = Math.min(patterns, start + batch);
+                batchSlices.clear();
 
-                // Compute the output layer error terms
-                for (int io = outputSize - 1; io >= 0; io--) {
-                    double out = gottenOutputs[io];
-                    double dif = desiredOutputs[ip][io] - out;
-                    ///outputGrads[io] = dif * out * (1 - out); // Sigmoid'
-                    outputGrads[io] = dif * sigmoidDif(out); // Sigmoid'
-                    ///outputGrads[io] = dif * reluDif(out); // ReLU'
+                for (int from = start; from < stop; from += TRAIN_SLICE) {
+                    final Slice slice = slices.get(batchSlices.size());
+                    slice.setRange(from, Math.min(stop, from + TRAIN_SLICE));
+                    batchSlices.add(slice);
                 }
 
-                // Compute the hidden layer error terms
-                for (int ih = hiddenSize - 1; ih >= 0; ih--) {
-                    double sum = 0;
-                    double hid = hiddens[ih];
+                // Compute gradients of all slices, then sum them in slice order
+                invoke(batchSlices);
+                Arrays.fill(hiddenSums, 0);
+                Arrays.fill(outputSums, 0);
 
-                    for (int o = outputSize - 1; o >= 0; o--) {
-                        sum += (outputGrads[o] * outputWeights[o][ih + 1]);
-                    }
-
-                    ///hiddenGrads[h] = sum * hid * (1 - hid); // Sigmoid'
-                    hiddenGrads[ih] = sum * sigmoidDif(hid); // Sigmoid'
-                    ///hiddenGrads[h] = sum * reluDif(hid); // ReLU'
-                }
-
-                // Update the output weights
-                for (int io = outputSize - 1; io >= 0; io--) {
-                    for (int ih = hiddenSize - 1; ih >= 0; ih--) {
-                        double dw = (learningRate * outputGrads[io] * hiddens[ih])
-                                    + (momentum * outputDeltas[io][ih + 1]);
-                        outputWeights[io][ih + 1] += dw;
-                        outputDeltas[io][ih + 1] = dw;
-                    }
-
-                    // Bias
-                    double dw = (learningRate * outputGrads[io])
-                                + (momentum * outputDeltas[io][0]);
-                    outputWeights[io][0] += dw;
-                    outputDeltas[io][0] = dw;
+                for (Slice slice : batchSlices) {
+                    add(slice.hiddenGrads, hiddenSums);
+                    add(slice.outputGrads, outputSums);
                 }
 
-                // Update the hidden weights
-                for (int ih = hiddenSize - 1; ih >= 0; ih--) {
-                    for (int i = inputSize - 1; i >= 0; i--) {
-                        double dw = (learningRate * hiddenGrads[ih] * inputs[ip][i])
-                                    + (momentum * hiddenDeltas[ih][i + 1]);
-                        hiddenWeights[ih][i + 1] += dw;
-                        hiddenDeltas[ih][i + 1] = dw;
-                    }
-
-                    // Bias
-                    double dw = (learningRate * hiddenGrads[ih])
-                                + (momentum * hiddenDeltas[ih][0]);
-                    hiddenWeights[ih][0] += dw;
-                    hiddenDeltas[ih][0] = dw;
-                }
+                // Update the weights, using batch mean gradient
+                final double rate = learningRate / (stop - start);
+                update(outputWeights, outputSums, outputDeltas, rate);
+                update(hiddenWeights, hiddenSums, hiddenDeltas, rate);
             }
 
             if (listener != null) {
                 if ((iter % iterPeriod) == 0) {
-                    double mse = 0d; // Mean Squared Error
-
-                    for (int ip = 0; ip < patterns; ip++) {
-                        final double[] patternDesiredOutputs = desiredOutputs[ip];
-                        run(inputs[ip], hiddens, gottenOutputs);
-
-                        for (int o = outputSize - 1; o >= 0; o--) {
-                            double out = gottenOutputs[o];
-                            double dif = patternDesiredOutputs[o] - out;
-                            mse += (dif * dif);
-                        }
-                    }
-
-                    mse /= patterns;
-                    listener.iterationPeriodDone(iter, mse);
+                    listener.iterationPeriodDone(iter, evaluate(inputs, desiredOutputs));
                 }
             }
 
@@ -632,58 +638,67 @@ public class NeuralNetwork
         return nn;
     }
 
-    //-------------//
-    // cloneMatrix //
-    //-------------//
+    //-----//
+    // add //
+    //-----//
     /**
-     * Create a clone of the provided matrix.
+     * Add the values of source array to the target array.
      *
-     * @param matrix the matrix to clone
-     * @return the clone
+     * @param source the values to add
+     * @param target the array to augment
      */
-    private static double[][] cloneMatrix (double[][] matrix)
+    private static void add (double[] source,
+                             double[] target)
     {
-        final int rowNb = matrix.length;
-        final int colNb = matrix[0].length;
-
-        double[][] clone = new double[rowNb][];
-
-        for (int row = rowNb - 1; row >= 0; row--) {
-            clone[row] = new double[colNb];
-            System.arraycopy(matrix[row], 0, clone[row], 0, colNb);
+        for (int i = source.length - 1; i >= 0; i--) {
+            target[i] += source[i];
         }
-
-        return clone;
     }
 
-    //--------------//
-    // createMatrix //
-    //--------------//
+    //---------------//
+    // createWeights //
+    //---------------//
     /**
-     * Create and initialize a matrix, with random values.
+     * Create and initialize a flat matrix, with random values.
      * Random values are between -amplitude and +amplitude
      *
      * @param rowNb number of rows
      * @param colNb number of columns
      *
-     * @return the properly initialized matrix
+     * @return the properly initialized flat matrix
      */
-    private static double[][] createMatrix (int rowNb,
-                                            int colNb,
-                                            double amplitude)
+    private static double[] createWeights (int rowNb,
+                                           int colNb,
+                                           double amplitude)
     {
-        double[][] matrix = new double[rowNb][];
+        double[] weights = new double[rowNb * colNb];
 
-        for (int row = rowNb - 1; row >= 0; row--) {
-            double[] vector = new double[colNb];
-            matrix[row] = vector;
+        for (int i = weights.length - 1; i >= 0; i--) {
+            weights[i] = amplitude * (1.0 - (2 * Math.random()));
+        }
 
-            for (int col = colNb - 1; col >= 0; col--) {
-                vector[col] = amplitude * (1.0 - (2 * Math.random()));
-            }
+        return weights;
+    }
+
+    //---------//
+    // flatten //
+    //---------//
+    /**
+     * Copy the provided matrix rows into a flat array.
+     *
+     * @param rows the matrix rows (assumed to be all of the same length)
+     * @return the flat matrix
+     */
+    private static double[] flatten (double[][] rows)
+    {
+        final int colNb = rows[0].length;
+        final double[] flat = new double[rows.length * colNb];
+
+        for (int row = 0; row < rows.length; row++) {
+            System.arraycopy(rows[row], 0, flat, row * colNb, colNb);
         }
 
-        return matrix;
+        return flat;
     }
 
     //----------------//
@@ -700,31 +715,114 @@ public class NeuralNetwork
         return jaxbContext;
     }
 
+    //--------//
+    // rowsOf //
+    //--------//
+    /**
+     * Copy the provided flat matrix into separate rows.
+     *
+     * @param flat  the flat matrix
+     * @param colNb number of columns
+     * @return the matrix rows
+     */
+    private static double[][] rowsOf (double[] flat,
+                                      int colNb)
+    {
+        final double[][] rows = new double[flat.length / colNb][];
+
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = Arrays.copyOfRange(flat, row * colNb, (row + 1) * colNb);
+        }
+
+        return rows;
+    }
+
+    //--------//
+    // update //
+    //--------//
+    /**
+     * Update the weights, according to the provided gradients and previous deltas.
+     *
+     * @param weights   the weights to update
+     * @param gradients the gradients summed over the batch
+     * @param deltas    the previous deltas, to be updated
+     * @param rate      the learning rate divided by the batch size
+     */
+    private void update (double[] weights,
+                         double[] gradients,
+                         double[] deltas,
+                         double rate)
+    {
+        for (int i = weights.length - 1; i >= 0; i--) {
+            double dw = (rate * gradients[i]) + (momentum * deltas[i]);
+            weights[i] += dw;
+            deltas[i] = dw;
+        }
+    }
+
+    //--------------//
+    // afterMarshal //
+    //--------------//
+    @SuppressWarnings("unused")
+    private void afterMarshal (Marshaller m)
+    {
+        hiddenRows = null;
+        outputRows = null;
+    }
+
+    //----------------//
+    // afterUnmarshal //
+    //----------------//
+    /**
+     * Called after all the properties (except IDREF) are unmarshalled for this object,
+     * but before this object is set to the parent object.
+     */
+    @SuppressWarnings("unused")
+    private void afterUnmarshal (Unmarshaller um,
+                                 Object parent)
+    {
+        hiddenWeights = flatten(hiddenRows);
+        outputWeights = flatten(outputRows);
+        hiddenRows = null;
+        outputRows = null;
+    }
+
+    //---------------//
+    // beforeMarshal //
+    //---------------//
+    @SuppressWarnings("unused")
+    private void beforeMarshal (Marshaller m)
+    {
+        hiddenRows = rowsOf(hiddenWeights, inputSize + 1);
+        outputRows = rowsOf(outputWeights, hiddenSize + 1);
+    }
+
     //------------//
     // dumpMatrix //
     //------------//
     /**
-     * Dump a matrix (assumed to be a true rectangular matrix,
-     * with all rows of the same length).
+     * Dump a flat matrix.
      *
      * @param matrix the matrix to dump
+     * @param colNb  number of columns
      * @return the matrix representation
      */
-    private String dumpOfMatrix (double[][] matrix)
+    private String dumpOfMatrix (double[] matrix,
+                                 int colNb)
     {
         StringBuilder sb = new StringBuilder();
 
-        for (int col = 0; col < matrix[0].length; col++) {
+        for (int col = 0; col < colNb; col++) {
             sb.append(String.format("%14d", col));
         }
 
         sb.append(String.format("%n"));
 
-        for (int row = 0; row < matrix.length; row++) {
+        for (int row = 0; row < (matrix.length / colNb); row++) {
             sb.append(String.format("%2d:", row));
 
-            for (int col = 0; col < matrix[0].length; col++) {
-                sb.append(String.format("%14e", matrix[row][col]));
+            for (int col = 0; col < colNb; col++) {
+                sb.append(String.format("%14e", matrix[(row * colNb) + col]));
             }
 
             sb.append(String.format("%n"));
@@ -733,6 +831,39 @@ public class NeuralNetwork
         return sb.toString();
     }
 
+    //----------//
+    // evaluate //
+    //----------//
+    /**
+     * Compute the network mean squared error on the provided patterns.
+     *
+     * @param inputs         the patterns of values for input cells
+     * @param desiredOutputs the corresponding desired values for output cells
+     * @return the mean squared error
+     */
+    private double evaluate (double[][] inputs,
+                             double[][] desiredOutputs)
+    {
+        final int patterns = inputs.length;
+        final List<Slice> slices = new ArrayList<Slice>();
+
+        for (int from = 0; from < patterns; from += EVAL_SLICE) {
+            final Slice slice = new Slice(inputs, desiredOutputs, false);
+            slice.setRange(from, Math.min(patterns, from + EVAL_SLICE));
+            slices.add(slice);
+        }
+
+        invoke(slices);
+
+        double mse = 0d; // Mean Squared Error
+
+        for (Slice slice : slices) {
+            mse += slice.sse;
+        }
+
+        return mse / patterns;
+    }
+
     //---------//
     // forward //
     //---------//
@@ -740,26 +871,28 @@ public class NeuralNetwork
      * Re-entrant method.
      *
      * @param ins     input cells
-     * @param weights applied weights
+     * @param weights applied weights, as a flat matrix
+     * @param colNb   number of columns in weights matrix
      * @param outs    output cells
      */
     private void forward (double[] ins,
-                          double[][] weights,
+                          double[] weights,
+                          int colNb,
                           double[] outs)
     {
         double sum;
-        double[] ws;
+        int base;
 
         for (int o = outs.length - 1; o >= 0; o--) {
             sum = 0;
-            ws = weights[o];
+            base = o * colNb;
 
             for (int i = ins.length - 1; i >= 0; i--) {
-                sum += (ws[i + 1] * ins[i]);
+                sum += (weights[base + i + 1] * ins[i]);
             }
 
             // Bias
-            sum += ws[0];
+            sum += weights[base];
 
             outs[o] = sigmoid(sum);
 
@@ -767,6 +900,35 @@ public class NeuralNetwork
         }
     }
 
+    //--------//
+    // invoke //
+    //--------//
+    /**
+     * Run the provided slices, in parallel if allowed.
+     *
+     * @param slices the slices to process
+     */
+    private void invoke (List<Slice> slices)
+    {
+        try {
+            if ((slices.size() < 2) || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+                for (Slice slice : slices) {
+                    slice.call();
+                }
+            } else {
+                for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(slices)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ex) {
+            throw new ProcessingCancellationException(ex);
+        } catch (ProcessingCancellationException pce) {
+            throw pce;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private double relu (double val)
     {
         return Math.max(0, val);
@@ -812,17 +974,170 @@ public class NeuralNetwork
     {
         //~ Instance fields ------------------------------------------------------------------------
 
-        private double[][] hiddenWeights;
+        private double[] hiddenWeights;
 
-        private double[][] outputWeights;
+        private double[] outputWeights;
 
         //~ Constructors ---------------------------------------------------------------------------
         // Private constructor
-        private Backup (double[][] hiddenWeights,
-                        double[][] outputWeights)
+        private Backup (double[] hiddenWeights,
+                        double[] outputWeights)
         {
-            this.hiddenWeights = cloneMatrix(hiddenWeights);
-            this.outputWeights = cloneMatrix(outputWeights);
+            this.hiddenWeights = hiddenWeights.clone();
+            this.outputWeights = outputWeights.clone();
+        }
+    }
+
+    //-------//
+    // Slice //
+    //-------//
+    /**
+     * A contiguous range of patterns, processed by one task, with its own buffers.
+     * <p>
+     * When training, the slice computes the sum over its patterns of weight gradients.
+     * Otherwise, it computes the sum over its patterns of squared errors.
+     */
+    private class Slice
+            implements Callable<Void>
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final double[][] inputs;
+
+        private final double[][] desiredOutputs;
+
+        private final boolean training;
+
+        private final double[] hiddens = new double[hiddenSize];
+
+        private final double[] outputs = new double[outputSize];
+
+        /** Error terms of current pattern, for hidden cells. */
+        private final double[] hiddenErrors;
+
+        /** Error terms of current pattern, for output cells. */
+        private final double[] outputErrors;
+
+        /** Gradients of hidden weights, summed over the slice patterns. */
+        private final double[] hiddenGrads;
+
+        /** Gradients of output weights, summed over the slice patterns. */
+        private final double[] outputGrads;
+
+        /** Sum of squared errors over the slice patterns. */
+        private double sse;
+
+        private int from;
+
+        private int to;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Slice (double[][] inputs,
+                      double[][] desiredOutputs,
+                      boolean training)
+        {
+            this.inputs = inputs;
+            this.desiredOutputs = desiredOutputs;
+            this.training = training;
+
+            hiddenErrors = training ? new double[hiddenSize] : null;
+            outputErrors = training ? new double[outputSize] : null;
+            hiddenGrads = training ? new double[hiddenWeights.length] : null;
+            outputGrads = training ? new double[outputWeights.length] : null;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public Void call ()
+        {
+            if (training) {
+                computeGradients();
+            } else {
+                computeErrors();
+            }
+
+            return null;
+        }
+
+        public void setRange (int from,
+                              int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        private void computeErrors ()
+        {
+            sse = 0;
+
+            for (int ip = from; ip < to; ip++) {
+                final double[] patternDesiredOutputs = desiredOutputs[ip];
+                run(inputs[ip], hiddens, outputs);
+
+                for (int o = outputSize - 1; o >= 0; o--) {
+                    double out = outputs[o];
+                    double dif = patternDesiredOutputs[o] - out;
+                    sse += (dif * dif);
+                }
+            }
+        }
+
+        private void computeGradients ()
+        {
+            final int hiddenCols = inputSize + 1;
+            final int outputCols = hiddenSize + 1;
+            Arrays.fill(hiddenGrads, 0);
+            Arrays.fill(outputGrads, 0);
+
+            for (int ip = from; ip < to; ip++) {
+                final double[] ins = inputs[ip];
+                final double[] patternDesiredOutputs = desiredOutputs[ip];
+
+                // Run the network with input values and current weights
+                run(ins, hiddens, outputs);
+
+                // Compute the output layer error terms
+                for (int io = outputSize - 1; io >= 0; io--) {
+                    double out = outputs[io];
+                    double dif = patternDesiredOutputs[io] - out;
+                    outputErrors[io] = dif * sigmoidDif(out); // Sigmoid'
+                }
+
+                // Compute the hidden layer error terms
+                for (int ih = hiddenSize - 1; ih >= 0; ih--) {
+                    double sum = 0;
+
+                    for (int o = outputSize - 1; o >= 0; o--) {
+                        sum += (outputErrors[o] * outputWeights[(o * outputCols) + ih + 1]);
+                    }
+
+                    hiddenErrors[ih] = sum * sigmoidDif(hiddens[ih]); // Sigmoid'
+                }
+
+                // Cumulate the output weights gradients
+                for (int io = outputSize - 1; io >= 0; io--) {
+                    final int base = io * outputCols;
+                    final double err = outputErrors[io];
+
+                    for (int ih = hiddenSize - 1; ih >= 0; ih--) {
+                        outputGrads[base + ih + 1] += (err * hiddens[ih]);
+                    }
+
+                    outputGrads[base] += err; // Bias
+                }
+
+                // Cumulate the hidden weights gradients
+                for (int ih = hiddenSize - 1; ih >= 0; ih--) {
+                    final int base = ih * hiddenCols;
+                    final double err = hiddenErrors[ih];
+
+                    for (int i = inputSize - 1; i >= 0; i--) {
+                        hiddenGrads[base + i + 1] += (err * ins[i]);
+                    }
+
+                    hiddenGrads[base] += err; // Bias
+                }
+            }
         }
     }
 
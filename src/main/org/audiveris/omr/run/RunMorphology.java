@@ -0,0 +1,568 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    R u n M o r p h o l o g y                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.image.StructureElement;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code RunMorphology} performs the closing of a gray-level image by a flat
+ * structuring element, directly on runs.
+ * <p>
+ * For a flat structuring element, morphology commutes with thresholding. Hence, the runs of
+ * pixels whose value is below a given level in the closed gray image are exactly the runs of the
+ * binary opening of foreground (pixels below the level in original image).
+ * This allows to skip the costly per-pixel gray-level closing, by working on runs only:
+ * <ol>
+ * <li>Runs of foreground are retrieved from the source, for the provided level.</li>
+ * <li>Foreground is eroded: each sequence is the intersection of the neighboring sequences,
+ * shrunk by the related structuring element segment. Outside of image is foreground.</li>
+ * <li>Result is dilated: each sequence is the union of the neighboring eroded sequences, grown by
+ * the related structuring element segment.</li>
+ * </ol>
+ * Each step processes sequences on parallel bands.
+ * <p>
+ * The structuring element must be symmetric and composed of contiguous segments along the runs
+ * orientation, which is the case for a disk.
+ * Results are identical to a {@link org.audiveris.omr.image.MorphoProcessor#close} followed by a
+ * {@link ByteProcessor#threshold} and a {@link RunTableFactory#createTable}.
+ *
+ * @author Hervé Bitteur
+ */
+public class RunMorphology
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Minimum number of sequences per band. */
+    private static final int MIN_BAND_SIZE = 32;
+
+    /** Empty runs. */
+    private static final int[] NO_RUNS = new int[0];
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Orientation of runs. */
+    private final Orientation orientation;
+
+    /** Maximum shift across sequences. */
+    private final int span;
+
+    /** For each shift across (-span..span), minimum shift along sequence. */
+    private final int[] alongMin;
+
+    /** For each shift across (-span..span), maximum shift along sequence. */
+    private final int[] alongMax;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code RunMorphology} object.
+     *
+     * @param se          the (flat and symmetric) structuring element
+     * @param orientation the orientation of runs to work with
+     */
+    public RunMorphology (StructureElement se,
+                          Orientation orientation)
+    {
+        this.orientation = orientation;
+
+        final int[][] vect = se.getVect(); // Each entry: dy, dx, value, distance
+        int maxAcross = 0;
+
+        for (int[] v : vect) {
+            maxAcross = Math.max(maxAcross, Math.abs(orientation.isVertical() ? v[1] : v[0]));
+        }
+
+        span = maxAcross;
+        alongMin = new int[(2 * span) + 1];
+        alongMax = new int[(2 * span) + 1];
+        Arrays.fill(alongMin, Integer.MAX_VALUE);
+        Arrays.fill(alongMax, Integer.MIN_VALUE);
+
+        final int[] counts = new int[(2 * span) + 1];
+
+        for (int[] v : vect) {
+            final int across = span + (orientation.isVertical() ? v[1] : v[0]);
+            final int along = orientation.isVertical() ? v[0] : v[1];
+            alongMin[across] = Math.min(alongMin[across], along);
+            alongMax[across] = Math.max(alongMax[across], along);
+            counts[across]++;
+        }
+
+        for (int k = 0; k < counts.length; k++) {
+            if ((counts[k] != 0) && (counts[k] != (alongMax[k] - alongMin[k] + 1))) {
+                throw new IllegalArgumentException("Structure element segments are not contiguous");
+            }
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Report the runs of pixels which, in the gray-level closing of source, have a value
+     * lower than or equal to the provided level.
+     *
+     * @param source the gray-level source, left unmodified
+     * @param level  the binarization level
+     * @return the table of resulting runs
+     */
+    public RunTable close (final ByteProcessor source,
+                           final int level)
+    {
+        final RunTable table = new RunTable(orientation, source.getWidth(), source.getHeight());
+        final int seqNb = orientation.isVertical() ? source.getWidth() : source.getHeight();
+        final int seqLength = orientation.isVertical() ? source.getHeight() : source.getWidth();
+        final int[][] fores = new int[seqNb][];
+        final int[][] erodeds = new int[seqNb][];
+
+        processAll(
+                seqNb,
+                new Phase()
+        {
+            @Override
+            public void process (int index)
+            {
+                fores[index] = retrieveRuns(source, level, index);
+            }
+        });
+
+        processAll(
+                seqNb,
+                new Phase()
+        {
+            @Override
+            public void process (int index)
+            {
+                erodeds[index] = erode(fores, index, seqLength);
+            }
+        });
+
+        processAll(
+                seqNb,
+                new Phase()
+        {
+            @Override
+            public void process (int index)
+            {
+                table.setSequence(index, encode(dilate(erodeds, index, seqLength)));
+            }
+        });
+
+        return table;
+    }
+
+    //--------//
+    // dilate //
+    //--------//
+    /**
+     * Dilate the sequence at provided index.
+     *
+     * @param erodeds   the eroded sequences
+     * @param index     index of sequence to process
+     * @param seqLength length of any sequence
+     * @return the dilated runs
+     */
+    private int[] dilate (int[][] erodeds,
+                          int index,
+                          int seqLength)
+    {
+        int[] acc = NO_RUNS;
+
+        for (int k = 0; k < alongMin.length; k++) {
+            final int i = (index + k) - span;
+
+            if ((i < 0) || (i >= erodeds.length) || (alongMin[k] > alongMax[k])) {
+                continue;
+            }
+
+            final int[] runs = erodeds[i];
+
+            if (runs.length > 0) {
+                acc = union(acc, shift(runs, -alongMax[k], -alongMin[k], seqLength));
+            }
+        }
+
+        return acc;
+    }
+
+    //-------//
+    // erode //
+    //-------//
+    /**
+     * Erode the sequence at provided index.
+     * Pixels outside image are considered as foreground.
+     *
+     * @param fores     the original sequences
+     * @param index     index of sequence to process
+     * @param seqLength length of any sequence
+     * @return the eroded runs
+     */
+    private int[] erode (int[][] fores,
+                         int index,
+                         int seqLength)
+    {
+        int[] acc = null;
+
+        for (int k = 0; k < alongMin.length; k++) {
+            final int i = (index + k) - span;
+
+            if ((i < 0) || (i >= fores.length) || (alongMin[k] > alongMax[k])) {
+                continue;
+            }
+
+            final int[] shrunk = shrink(fores[i], alongMin[k], alongMax[k], seqLength);
+            acc = (acc == null) ? shrunk : intersection(acc, shrunk);
+
+            if (acc.length == 0) {
+                break;
+            }
+        }
+
+        return (acc != null) ? acc : new int[]{0, seqLength - 1};
+    }
+
+    //--------//
+    // encode //
+    //--------//
+    /**
+     * Encode runs as a table sequence.
+     *
+     * @param runs sequence of (start, stop) pairs
+     * @return the RLE sequence, or null if empty
+     */
+    private static RunTable.RunSequence encode (int[] runs)
+    {
+        if (runs.length == 0) {
+            return null;
+        }
+
+        final boolean fromZero = runs[0] == 0;
+        final short[] rle = new short[(runs.length - 1) + (fromZero ? 0 : 2)];
+        int cursor = 0;
+        int loc = 0;
+
+        if (!fromZero) {
+            rle[cursor++] = 0;
+        }
+
+        for (int r = 0; r < runs.length; r += 2) {
+            if ((r > 0) || !fromZero) {
+                rle[cursor++] = (short) (runs[r] - loc);
+            }
+
+            rle[cursor++] = (short) (runs[r + 1] - runs[r] + 1);
+            loc = runs[r + 1] + 1;
+        }
+
+        return new RunTable.RunSequence(rle);
+    }
+
+    //--------------//
+    // intersection //
+    //--------------//
+    /**
+     * Report the intersection of two run sequences.
+     */
+    private static int[] intersection (int[] a,
+                                       int[] b)
+    {
+        final int[] res = new int[a.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+
+        while ((i < a.length) && (j < b.length)) {
+            final int start = Math.max(a[i], b[j]);
+            final int stop = Math.min(a[i + 1], b[j + 1]);
+
+            if (start <= stop) {
+                res[n++] = start;
+                res[n++] = stop;
+            }
+
+            if (a[i + 1] < b[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+
+        return Arrays.copyOf(res, n);
+    }
+
+    //------------//
+    // processAll //
+    //------------//
+    /**
+     * Apply the provided phase on all sequences, using parallel bands if possible.
+     *
+     * @param seqNb the number of sequences
+     * @param phase the processing to apply on each sequence
+     */
+    private void processAll (int seqNb,
+                             final Phase phase)
+    {
+        final int bandCount = Math.min(OmrExecutors.getNumberOfCpus(), seqNb / MIN_BAND_SIZE);
+
+        if ((bandCount < 2) || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+            for (int i = 0; i < seqNb; i++) {
+                phase.process(i);
+            }
+
+            return;
+        }
+
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(bandCount);
+
+            for (int b = 0; b < bandCount; b++) {
+                final int iMin = (int) (((long) seqNb * b) / bandCount);
+                final int iMax = (int) (((long) seqNb * (b + 1)) / bandCount) - 1;
+                tasks.add(
+                        new Callable<Void>()
+                {
+                    @Override
+                    public Void call ()
+                            throws Exception
+                    {
+                        for (int i = iMin; i <= iMax; i++) {
+                            phase.process(i);
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            // Launch the tasks and wait for their completion
+            for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            throw new ProcessingCancellationException(ex);
+        } catch (ProcessingCancellationException pce) {
+            throw pce;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //--------------//
+    // retrieveRuns //
+    //--------------//
+    /**
+     * Retrieve the runs of pixels lower than or equal to level, in the sequence at provided
+     * index.
+     *
+     * @param source gray-level source
+     * @param level  binarization level
+     * @param index  sequence index
+     * @return sequence of (start, stop) pairs
+     */
+    private int[] retrieveRuns (ByteProcessor source,
+                                int level,
+                                int index)
+    {
+        final byte[] pixels = (byte[]) source.getPixels();
+        final int width = source.getWidth();
+        final int seqLength;
+        final int step;
+        int p;
+
+        if (orientation.isVertical()) {
+            seqLength = source.getHeight();
+            step = width;
+            p = index;
+        } else {
+            seqLength = width;
+            step = 1;
+            p = index * width;
+        }
+
+        int[] runs = new int[16];
+        int n = 0;
+        int start = -1;
+
+        for (int c = 0; c < seqLength; c++, p += step) {
+            if ((pixels[p] & 0xFF) <= level) {
+                if (start == -1) {
+                    start = c;
+                }
+            } else if (start != -1) {
+                if (n == runs.length) {
+                    runs = Arrays.copyOf(runs, 2 * n);
+                }
+
+                runs[n++] = start;
+                runs[n++] = c - 1;
+                start = -1;
+            }
+        }
+
+        if (start != -1) {
+            if (n == runs.length) {
+                runs = Arrays.copyOf(runs, n + 2);
+            }
+
+            runs[n++] = start;
+            runs[n++] = seqLength - 1;
+        }
+
+        return Arrays.copyOf(runs, n);
+    }
+
+    //-------//
+    // shift //
+    //-------//
+    /**
+     * Grow each run by the provided offsets, and merge overlapping runs.
+     *
+     * @param runs      the (non-empty) sequence of runs
+     * @param dStart    offset to apply on run start
+     * @param dStop     offset to apply on run stop
+     * @param seqLength sequence length
+     * @return the grown runs, clipped to sequence length
+     */
+    private static int[] shift (int[] runs,
+                                int dStart,
+                                int dStop,
+                                int seqLength)
+    {
+        final int[] res = new int[runs.length];
+        int n = 0;
+
+        for (int r = 0; r < runs.length; r += 2) {
+            final int start = Math.max(0, runs[r] + dStart);
+            final int stop = Math.min(seqLength - 1, runs[r + 1] + dStop);
+
+            if ((n > 0) && (start <= (res[n - 1] + 1))) {
+                res[n - 1] = Math.max(res[n - 1], stop);
+            } else {
+                res[n++] = start;
+                res[n++] = stop;
+            }
+        }
+
+        return (n == res.length) ? res : Arrays.copyOf(res, n);
+    }
+
+    //--------//
+    // shrink //
+    //--------//
+    /**
+     * Report the locations p for which [p+min, p+max] is fully contained in a run, or
+     * partly outside sequence.
+     *
+     * @param runs      the sequence of runs
+     * @param min       minimum offset along sequence
+     * @param max       maximum offset along sequence
+     * @param seqLength sequence length
+     * @return the shrunk runs
+     */
+    private static int[] shrink (int[] runs,
+                                 int min,
+                                 int max,
+                                 int seqLength)
+    {
+        final int[] res = new int[runs.length];
+        int n = 0;
+
+        for (int r = 0; r < runs.length; r += 2) {
+            final int start = (runs[r] == 0) ? 0 : Math.max(0, runs[r] - min);
+            final int stop = (runs[r + 1] == (seqLength - 1)) ? (seqLength - 1)
+                    : Math.min(seqLength - 1, runs[r + 1] - max);
+
+            if (start <= stop) {
+                res[n++] = start;
+                res[n++] = stop;
+            }
+        }
+
+        return (n == res.length) ? res : Arrays.copyOf(res, n);
+    }
+
+    //-------//
+    // union //
+    //-------//
+    /**
+     * Report the union of two run sequences, with touching runs merged.
+     */
+    private static int[] union (int[] a,
+                                int[] b)
+    {
+        if (a.length == 0) {
+            return b;
+        }
+
+        final int[] res = new int[a.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+
+        while ((i < a.length) || (j < b.length)) {
+            final int start;
+            final int stop;
+
+            if ((j >= b.length) || ((i < a.length) && (a[i] <= b[j]))) {
+                start = a[i];
+                stop = a[i + 1];
+                i += 2;
+            } else {
+                start = b[j];
+                stop = b[j + 1];
+                j += 2;
+            }
+
+            if ((n > 0) && (start <= (res[n - 1] + 1))) {
+                res[n - 1] = Math.max(res[n - 1], stop);
+            } else {
+                res[n++] = start;
+                res[n++] = stop;
+            }
+        }
+
+        return Arrays.copyOf(res, n);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //-------//
+    // Phase //
+    //-------//
+    /**
+     * Processing to apply on each sequence.
+     */
+    private abstract static class Phase
+    {
+        //~ Methods --------------------------------------------------------------------------------
+
+        public abstract void process (int index);
+    }
+}
@@ -28,11 +28,12 @@ import static org.audiveris.omr.image.PixelSource.BACKGROUND;
 import org.audiveris.omr.image.Table;
 import org.audiveris.omr.math.PointsCollector;
 import org.audiveris.omr.moments.ARTMoments;
-import org.audiveris.omr.moments.BasicARTExtractor;
 import org.audiveris.omr.moments.BasicARTMoments;
 import org.audiveris.omr.moments.GeometricMoments;
+import org.audiveris.omr.moments.RunARTExtractor;
 import static org.audiveris.omr.run.Orientation.HORIZONTAL;
 import org.audiveris.omr.util.ByteUtil;
+import org.audiveris.omr.util.Memory;
 import org.audiveris.omr.util.Predicate;
 
 import org.slf4j.Logger;
@@ -44,7 +45,10 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -315,16 +319,31 @@ public class RunTable
     public ARTMoments computeArtMoments (int left,
                                          int top)
     {
-        // Retrieve glyph foreground points
-        final PointsCollector collector = new PointsCollector(null, getWeight());
-        cumulate(collector, new Point(left, top));
+        // Retrieve glyph runs, with absolute coordinates
+        final int count = getTotalRunCount();
+        final int[] positions = new int[count];
+        final int[] starts = new int[count];
+        final int[] lengths = new int[count];
+        final int posOffset = orientation.isVertical() ? left : top;
+        final int startOffset = orientation.isVertical() ? top : left;
+        int i = 0;
+
+        for (int p = 0, iBreak = getSize(); p < iBreak; p++) {
+            for (Iterator<Run> it = iterator(p); it.hasNext();) {
+                Run run = it.next();
+                positions[i] = p + posOffset;
+                starts[i] = run.getStart() + startOffset;
+                lengths[i] = run.getLength();
+                i++;
+            }
+        }
 
         ///ARTMoments artMoments = new QuantizedARTMoments();
         ARTMoments artMoments = new BasicARTMoments();
 
-        BasicARTExtractor extractor = new BasicARTExtractor();
+        RunARTExtractor extractor = new RunARTExtractor();
         extractor.setDescriptor(artMoments);
-        extractor.extract(collector.getXValues(), collector.getYValues(), collector.getSize());
+        extractor.extract(orientation.isVertical(), positions, starts, lengths, count);
 
         return artMoments;
     }
@@ -816,6 +835,32 @@ public class RunTable
         return new Dimension(width, height);
     }
 
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Estimate the heap size retained by this table, that is its sequences of runs.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getFootprint ()
+    {
+        long size = Memory.padded(Memory.OBJECT_HEADER + 32);
+        size += Memory.arraySize(sequences.length, Memory.REFERENCE);
+
+        for (RunSequence seq : sequences) {
+            if (seq != null) {
+                size += Memory.padded(Memory.OBJECT_HEADER + Memory.REFERENCE);
+
+                if (seq.rle != null) {
+                    size += Memory.arraySize(seq.rle.length, 2);
+                }
+            }
+        }
+
+        return size;
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -1227,6 +1272,39 @@ public class RunTable
         return this;
     }
 
+    //------//
+    // read //
+    //------//
+    /**
+     * Read a table from the provided buffer, as written by {@link #write(DataOutput)}.
+     *
+     * @param buffer the buffer to read from, at its current position
+     * @return the table read
+     */
+    public static RunTable read (ByteBuffer buffer)
+    {
+        final Orientation orientation = Orientation.values()[buffer.get()];
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
+        final RunTable table = new RunTable(orientation, width, height);
+
+        for (int i = 0; i < table.sequences.length; i++) {
+            final int length = buffer.getInt();
+
+            if (length > 0) {
+                final short[] rle = new short[length];
+
+                for (int j = 0; j < length; j++) {
+                    rle[j] = buffer.getShort();
+                }
+
+                table.sequences[i] = new RunSequence(rle);
+            }
+        }
+
+        return table;
+    }
+
     //-----------//
     // removeRun //
     //-----------//
@@ -1528,6 +1606,41 @@ public class RunTable
         }
     }
 
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the table in binary form to the provided output.
+     * <p>
+     * Orientation, width and height are followed by the length and content of each run-length
+     * encoded sequence, an empty sequence being written with a 0 length.
+     *
+     * @param out the output to write to
+     * @throws IOException if anything goes wrong
+     * @see #read(ByteBuffer)
+     */
+    public void write (DataOutput out)
+            throws IOException
+    {
+        out.writeByte(orientation.ordinal());
+        out.writeInt(width);
+        out.writeInt(height);
+
+        for (RunSequence seq : sequences) {
+            final short[] rle = (seq != null) ? seq.rle : null;
+
+            if (rle == null) {
+                out.writeInt(0);
+            } else {
+                out.writeInt(rle.length);
+
+                for (short s : rle) {
+                    out.writeShort(s);
+                }
+            }
+        }
+    }
+
     //--------//
     // encode //
     //--------//
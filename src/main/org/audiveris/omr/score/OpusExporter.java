@@ -22,7 +22,11 @@
 package org.audiveris.omr.score;
 
 import org.audiveris.omr.OMR;
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.proxymusic.ScorePartwise;
 import org.audiveris.proxymusic.mxl.Mxl;
 import org.audiveris.proxymusic.mxl.RootFile;
@@ -36,11 +40,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Class {@code OpusExporter} is meant to export an Opus of scores (movements).
+ * <p>
+ * If parallel export is allowed, the movements are built concurrently, each into a temporary
+ * file, and then copied into the opus in movement order.
  *
  * @author Hervé Bitteur
  */
@@ -124,6 +135,7 @@ public class OpusExporter
 
         final List<Score> scores = book.getScores();
         final boolean multi = scores.size() > 1; // Is this a multi-movement book?
+        final List<String> entryNames = new ArrayList<String>();
 
         for (Score score : scores) {
             // Reference each score/movement in opus
@@ -134,11 +146,18 @@ public class OpusExporter
             oScore.setHref(entryName);
             oScore.setNewPage(YesNo.YES);
             opus.getOpusOrOpusLinkOrScore().add(oScore);
+            entryNames.add(entryName);
+        }
 
-            // Marshal the score partwise
-            ScorePartwise scorePartwise = PartwiseBuilder.build(score);
-            mof.addEntry(new RootFile(entryName, RootFile.MUSICXML_MEDIA_TYPE));
-            Marshalling.marshal(scorePartwise, zos, signed, 2);
+        if (multi && BookManager.useParallelExport()) {
+            exportInParallel(scores, entryNames, mof, signed);
+        } else {
+            for (int i = 0; i < scores.size(); i++) {
+                // Marshal the score partwise
+                ScorePartwise scorePartwise = PartwiseBuilder.build(scores.get(i));
+                mof.addEntry(new RootFile(entryNames.get(i), RootFile.MUSICXML_MEDIA_TYPE));
+                Marshalling.marshal(scorePartwise, zos, signed, 2);
+            }
         }
 
         // Store opus as root
@@ -149,4 +168,76 @@ public class OpusExporter
         // The end
         mof.close();
     }
+
+    //------------------//
+    // exportInParallel //
+    //------------------//
+    /**
+     * Export the scores concurrently, each to a temporary file, and then copy these
+     * files as opus entries, in score order.
+     *
+     * @param scores     the scores to export
+     * @param entryNames the entry name for each score
+     * @param mof        the opus output
+     * @param signed     should we inject ProxyMusic signature?
+     * @throws Exception if something goes wrong
+     */
+    private void exportInParallel (List<Score> scores,
+                                   List<String> entryNames,
+                                   Mxl.Output mof,
+                                   final boolean signed)
+            throws Exception
+    {
+        final List<Callable<Path>> tasks = new ArrayList<Callable<Path>>();
+
+        for (final Score score : scores) {
+            tasks.add(
+                    new Callable<Path>()
+            {
+                @Override
+                public Path call ()
+                        throws Exception
+                {
+                    LogUtil.start(book);
+
+                    final Path temp = Files.createTempFile(
+                            WellKnowns.TEMP_FOLDER,
+                            "movement-",
+                            OMR.SCORE_EXTENSION);
+
+                    try {
+                        // Stream gets closed before any deletion of the temporary file
+                        try (OutputStream os = new FileOutputStream(temp.toFile())) {
+                            new ScoreExporter(score).export(os, signed, null, false);
+                        }
+
+                        return temp;
+                    } catch (Exception ex) {
+                        Files.delete(temp);
+                        throw ex;
+                    } finally {
+                        LogUtil.stopBook();
+                    }
+                }
+            });
+        }
+
+        final List<Future<Path>> futures = OmrExecutors.getCachedLowExecutor().invokeAll(tasks);
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                final Path temp = futures.get(i).get();
+                mof.addEntry(new RootFile(entryNames.get(i), RootFile.MUSICXML_MEDIA_TYPE));
+                Files.copy(temp, mof.getOutputStream());
+            }
+        } finally {
+            // Delete the temporary files, whether they have been copied or not
+            for (Future<Path> future : futures) {
+                try {
+                    Files.deleteIfExists(future.get());
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
 }
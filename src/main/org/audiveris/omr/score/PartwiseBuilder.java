@@ -178,18 +178,22 @@ import java.awt.Rectangle;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -197,6 +201,7 @@ import java.util.concurrent.Future;
 
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * Class {@code PartwiseBuilder} builds a ProxyMusic MusicXML {@link ScorePartwise}
@@ -267,21 +272,49 @@ public class PartwiseBuilder
     /** Factory for ProxyMusic entities. */
     private final ObjectFactory factory = new ObjectFactory();
 
+    /** Writer to stream measures out, page after page, if any. */
+    private final PartwiseWriter writer;
+
+    /** Per part, last key and last clef per staff, from measures already streamed out. */
+    private final Map<ScorePartwise.Part, Attributes> streamedAttributes;
+
+    /**
+     * Stubs whose sheet was not loaded beforehand, to be released once processed.
+     * A stub shared with another score, perhaps being exported concurrently, is kept loaded.
+     */
+    private final Set<SheetStub> releasableStubs = new HashSet<SheetStub>();
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Create a new PartwiseBuilder object, on a related score instance.
      *
-     * @param score the underlying score
+     * @param score  the underlying score
+     * @param writer the writer to stream measures out, or null
      * @throws InterruptedException if the thread has been interrupted
      * @throws ExecutionException   if a checked exception was thrown
      */
-    private PartwiseBuilder (Score score)
+    private PartwiseBuilder (Score score,
+                             PartwiseWriter writer)
             throws InterruptedException, ExecutionException
     {
         // Make sure the JAXB context is ready
         loading.get();
 
         this.score = score;
+        this.writer = writer;
+        streamedAttributes = new HashMap<ScorePartwise.Part, Attributes>();
+
+        for (SheetStub stub : score.getStubs()) {
+            if (!stub.hasSheet()) {
+                releasableStubs.add(stub);
+            }
+        }
+
+        for (Score other : score.getBook().getScores()) {
+            if (other != score) {
+                releasableStubs.removeAll(other.getStubs());
+            }
+        }
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -298,10 +331,33 @@ public class PartwiseBuilder
      */
     public static ScorePartwise build (Score score)
             throws InterruptedException, ExecutionException
+    {
+        return build(score, null);
+    }
+
+    //-------//
+    // build //
+    //-------//
+    /**
+     * Visit the whole score tree and build the corresponding ScorePartwise, with the
+     * measures of each page streamed out to the provided writer if any.
+     * <p>
+     * With a writer, the returned ScorePartwise contains the score header and the parts, but no
+     * measure, and is meant to be passed to {@link PartwiseWriter#write}.
+     *
+     * @param score  the score to export (cannot be null)
+     * @param writer the writer to stream measures out, or null to keep them in ScorePartwise
+     * @return the populated ScorePartwise
+     * @throws InterruptedException if the thread has been interrupted
+     * @throws ExecutionException   if a checked exception was thrown
+     */
+    public static ScorePartwise build (Score score,
+                                       PartwiseWriter writer)
+            throws InterruptedException, ExecutionException
     {
         Objects.requireNonNull(score, "Trying to export a null score");
 
-        final PartwiseBuilder builder = new PartwiseBuilder(score);
+        final PartwiseBuilder builder = new PartwiseBuilder(score, writer);
 
         builder.processScore();
 
@@ -656,6 +712,13 @@ public class PartwiseBuilder
             }
         }
 
+        // Then the measures already streamed out, if any
+        final Attributes streamed = streamedAttributes.get(current.pmPart);
+
+        if ((streamed != null) && !streamed.getKey().isEmpty()) {
+            return streamed.getKey().get(0);
+        }
+
         return null; // No key found
     }
 
@@ -880,6 +943,17 @@ public class PartwiseBuilder
             }
         }
 
+        // Then the measures already streamed out, if any
+        final Attributes streamed = streamedAttributes.get(current.pmPart);
+
+        if (streamed != null) {
+            for (Clef clef : streamed.getClef()) {
+                if (Objects.equals(clef.getNumber(), newClef.getNumber())) {
+                    return !areEqual(clef, newClef);
+                }
+            }
+        }
+
         return true; // Since no previous clef was found for the same staff
     }
 
@@ -2058,6 +2132,7 @@ public class PartwiseBuilder
     // processPartList //
     //-----------------//
     private void processPartList ()
+            throws IOException, JAXBException, XMLStreamException
     {
         logger.debug("Processing PartList for {}", score);
 
@@ -2074,8 +2149,29 @@ public class PartwiseBuilder
         }
 
         // Then, stub by stub, populate all ScorePartwise.Part instances in parallel
-        for (SheetStub stub : score.getStubs()) {
-            processStub(stub, partMap);
+        final List<SheetStub> stubs = score.getStubs();
+
+        for (int i = 0; i < stubs.size(); i++) {
+            final SheetStub stub = stubs.get(i);
+
+            // Hold stub lock, so that sheet governor does not swap the sheet being processed
+            stub.getLock().lock();
+
+            try {
+                processStub(stub, partMap);
+
+                if (writer != null) {
+                    streamMeasures();
+                }
+
+                // Release a sheet loaded just for this export, once its last page is processed
+                if (releasableStubs.contains(stub)
+                    && ((i == (stubs.size() - 1)) || (stubs.get(i + 1) != stub))) {
+                    stub.swapSheet();
+                }
+            } finally {
+                stub.getLock().unlock();
+            }
         }
     }
 
@@ -2799,6 +2895,55 @@ public class PartwiseBuilder
         }
     }
 
+    //----------------//
+    // streamMeasures //
+    //----------------//
+    /**
+     * Stream out the measures built so far for each part, and remember the last key
+     * and clefs they contain, since following measures are exported against them.
+     *
+     * @throws IOException        if spool file could not be created
+     * @throws JAXBException      if some measure could not be marshalled
+     * @throws XMLStreamException if XML streaming failed
+     */
+    private void streamMeasures ()
+            throws IOException, JAXBException, XMLStreamException
+    {
+        for (ScorePartwise.Part pmPart : scorePartwise.getPart()) {
+            Attributes streamed = streamedAttributes.get(pmPart);
+
+            if (streamed == null) {
+                streamedAttributes.put(pmPart, streamed = new Attributes());
+            }
+
+            for (ScorePartwise.Part.Measure pmMeasure : pmPart.getMeasure()) {
+                for (Object obj : pmMeasure.getNoteOrBackupOrForward()) {
+                    if (obj instanceof Attributes) {
+                        final Attributes attributes = (Attributes) obj;
+                        final List<Key> keys = attributes.getKey();
+
+                        if (!keys.isEmpty()) {
+                            streamed.getKey().clear();
+                            streamed.getKey().add(keys.get(keys.size() - 1));
+                        }
+
+                        for (Clef clef : attributes.getClef()) {
+                            for (Iterator<Clef> it = streamed.getClef().iterator(); it.hasNext();) {
+                                if (Objects.equals(it.next().getNumber(), clef.getNumber())) {
+                                    it.remove();
+                                }
+                            }
+
+                            streamed.getClef().add(clef);
+                        }
+                    }
+                }
+            }
+
+            writer.writeMeasures(pmPart);
+        }
+    }
+
     //----------//
     // toTenths //
     //----------//
@@ -0,0 +1,911 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   P a r t w i s e W r i t e r                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.WellKnowns;
+
+import org.audiveris.proxymusic.Credit;
+import org.audiveris.proxymusic.Defaults;
+import org.audiveris.proxymusic.Encoding;
+import org.audiveris.proxymusic.Identification;
+import org.audiveris.proxymusic.ObjectFactory;
+import org.audiveris.proxymusic.PartList;
+import org.audiveris.proxymusic.ScorePart;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.Work;
+import org.audiveris.proxymusic.util.Marshalling;
+import org.audiveris.proxymusic.util.ProgramId;
+import org.audiveris.proxymusic.util.StreamWriterDelegate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Class {@code PartwiseWriter} writes a MusicXML partwise score, without ever holding
+ * the measures of the whole score in memory.
+ * <p>
+ * While {@link PartwiseBuilder} processes the score page after page, the measures just built for
+ * each part are marshalled to a temporary spool file dedicated to this part, and removed from the
+ * {@link ScorePartwise} instance.
+ * When all pages have been processed, the score header (identification, defaults, credits, part
+ * list) is complete and written, followed by the content of each part spool in turn, since
+ * MusicXML partwise order requires all the measures of a part to be written before the next part.
+ * <p>
+ * The resulting XML text is formatted exactly as {@link Marshalling} does for a whole
+ * {@code ScorePartwise} instance.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseWriter
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(PartwiseWriter.class);
+
+    /** XML declaration line. */
+    private static final String XML_LINE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    /** Document type declaration line. */
+    private static final String DOCTYPE_LINE = "<!DOCTYPE score-partwise PUBLIC"
+                                               + " \"-//Recordare//DTD MusicXML "
+                                               + ProgramId.VERSION
+                                               + " Partwise//EN\""
+                                               + " \"http://www.musicxml.org/dtds/partwise.dtd\">";
+
+    /** Namespace of MusicXML link attributes. */
+    private static final String XLINK_NAMESPACE_URI = "http://www.w3.org/1999/xlink";
+
+    /** Name of root element in a spool file. */
+    private static final String SPOOL = "spool";
+
+    /** Indentation step. */
+    private static final int INDENTATION = 2;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Spool of measures, per part, in part order. */
+    private final Map<ScorePartwise.Part, Spool> spools;
+
+    /** JAXB marshaller for fragments. */
+    private final Marshaller marshaller;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code PartwiseWriter} object.
+     *
+     * @throws JAXBException if JAXB context could not be obtained
+     */
+    public PartwiseWriter ()
+            throws JAXBException
+    {
+        spools = new LinkedHashMap<ScorePartwise.Part, Spool>();
+        marshaller = Marshalling.getContext(ScorePartwise.class).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Release all spool files.
+     */
+    public void close ()
+    {
+        for (Spool spool : spools.values()) {
+            try {
+                spool.close();
+                Files.deleteIfExists(spool.path);
+            } catch (Exception ex) {
+                logger.warn("Error deleting spool {} {}", spool.path, ex.toString(), ex);
+            }
+        }
+
+        spools.clear();
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the whole score to the provided output stream: first the score header
+     * from the provided {@code ScorePartwise} instance, then each part with its spooled
+     * measures.
+     *
+     * @param scorePartwise the score, whose measures have all been spooled
+     * @param os            the output stream where XML data is written
+     * @param signed        should we inject ProxyMusic signature?
+     * @throws IOException                    if some spool could not be read or os written
+     * @throws JAXBException                  if some header element could not be marshalled
+     * @throws XMLStreamException             if XML streaming failed
+     * @throws DatatypeConfigurationException if encoding date could not be created
+     */
+    public void write (ScorePartwise scorePartwise,
+                       OutputStream os,
+                       boolean signed)
+            throws IOException, JAXBException, XMLStreamException,
+                   DatatypeConfigurationException
+    {
+        annotate(scorePartwise, signed);
+
+        final Writer out = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+        out.write(XML_LINE);
+        out.write("\n");
+        out.write(DOCTYPE_LINE);
+
+        final XMLStreamWriter writer = new FormattingWriter(
+                XMLOutputFactory.newFactory().createXMLStreamWriter(out),
+                INDENTATION);
+        writer.writeStartElement("score-partwise");
+        writer.writeAttribute("version", scorePartwise.getVersion());
+
+        // Header
+        marshal(writer, "work", Work.class, scorePartwise.getWork());
+        writeText(writer, "movement-number", scorePartwise.getMovementNumber());
+        writeText(writer, "movement-title", scorePartwise.getMovementTitle());
+        marshal(writer, "identification", Identification.class, scorePartwise.getIdentification());
+        marshal(writer, "defaults", Defaults.class, scorePartwise.getDefaults());
+
+        for (Credit credit : scorePartwise.getCredit()) {
+            marshal(writer, "credit", Credit.class, credit);
+        }
+
+        marshal(writer, "part-list", PartList.class, scorePartwise.getPartList());
+
+        // Parts
+        for (ScorePartwise.Part pmPart : scorePartwise.getPart()) {
+            writer.writeStartElement("part");
+            writer.writeAttribute("id", ((ScorePart) pmPart.getId()).getId());
+
+            final Spool spool = spools.get(pmPart);
+
+            if (spool != null) {
+                spool.close();
+                copy(spool.path, writer);
+            }
+
+            writer.writeEndElement();
+        }
+
+        writer.writeEndElement();
+        writer.flush();
+        out.flush();
+    }
+
+    //---------------//
+    // writeMeasures //
+    //---------------//
+    /**
+     * Append the measures currently built for the provided part to the part spool,
+     * and remove them from the part.
+     *
+     * @param pmPart the part at hand
+     * @throws IOException        if spool file could not be created
+     * @throws JAXBException      if some measure could not be marshalled
+     * @throws XMLStreamException if XML streaming failed
+     */
+    public void writeMeasures (ScorePartwise.Part pmPart)
+            throws IOException, JAXBException, XMLStreamException
+    {
+        final List<ScorePartwise.Part.Measure> measures = pmPart.getMeasure();
+
+        if (measures.isEmpty()) {
+            return;
+        }
+
+        Spool spool = spools.get(pmPart);
+
+        if (spool == null) {
+            spools.put(pmPart, spool = new Spool());
+        }
+
+        for (ScorePartwise.Part.Measure measure : measures) {
+            marshaller.marshal(
+                    new JAXBElement<ScorePartwise.Part.Measure>(
+                            new QName("measure"),
+                            ScorePartwise.Part.Measure.class,
+                            measure),
+                    spool.writer);
+        }
+
+        spool.writer.flush();
+        measures.clear();
+    }
+
+    //----------//
+    // annotate //
+    //----------//
+    /**
+     * Set the MusicXML version and, if so desired, the software signature and the
+     * encoding date, just like {@link Marshalling} does.
+     *
+     * @param scorePartwise the score to annotate
+     * @param signed        true for signature and date
+     * @throws DatatypeConfigurationException if date could not be created
+     */
+    private void annotate (ScorePartwise scorePartwise,
+                           boolean signed)
+            throws DatatypeConfigurationException
+    {
+        final ObjectFactory factory = new ObjectFactory();
+        scorePartwise.setVersion(ProgramId.VERSION);
+
+        if (!signed) {
+            return;
+        }
+
+        Identification identification = scorePartwise.getIdentification();
+
+        if (identification == null) {
+            scorePartwise.setIdentification(identification = factory.createIdentification());
+        }
+
+        Encoding encoding = identification.getEncoding();
+
+        if (encoding == null) {
+            identification.setEncoding(encoding = factory.createEncoding());
+        }
+
+        final List<JAXBElement<?>> items = encoding.getEncodingDateOrEncoderOrSoftware();
+
+        // Software, replacing any previous ProxyMusic signature
+        for (Iterator<JAXBElement<?>> it = items.iterator(); it.hasNext();) {
+            final JAXBElement<?> item = it.next();
+
+            if (item.getName().getLocalPart().equals("software")
+                && (item.getValue() instanceof String)
+                && ((String) item.getValue()).startsWith(ProgramId.NAME)) {
+                it.remove();
+
+                break;
+            }
+        }
+
+        items.add(
+                factory.createEncodingSoftware(
+                        ProgramId.NAME + " " + ProgramId.VERSION + "." + ProgramId.REVISION));
+
+        // Encoding date, replacing any previous one
+        for (Iterator<JAXBElement<?>> it = items.iterator(); it.hasNext();) {
+            if (it.next().getName().getLocalPart().equals("encoding-date")) {
+                it.remove();
+
+                break;
+            }
+        }
+
+        final XMLGregorianCalendar date = DatatypeFactory.newInstance().newXMLGregorianCalendar(
+                new GregorianCalendar());
+        date.setTimezone(DatatypeConstants.FIELD_UNDEFINED);
+        date.setTime(
+                DatatypeConstants.FIELD_UNDEFINED,
+                DatatypeConstants.FIELD_UNDEFINED,
+                DatatypeConstants.FIELD_UNDEFINED);
+        items.add(factory.createEncodingEncodingDate(date));
+    }
+
+    //------//
+    // copy //
+    //------//
+    /**
+     * Copy the measures of a spool file to the provided writer.
+     *
+     * @param path   path to spool file
+     * @param writer the output writer
+     * @throws IOException        if spool file could not be read
+     * @throws XMLStreamException if XML streaming failed
+     */
+    private void copy (Path path,
+                       XMLStreamWriter writer)
+            throws IOException, XMLStreamException
+    {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+
+        final InputStream is = new BufferedInputStream(Files.newInputStream(path));
+
+        try {
+            final XMLStreamReader reader = factory.createXMLStreamReader(is, "UTF-8");
+            int depth = 0; // Depth of current element, spool root being at depth 1
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+
+                    if (++depth > 1) {
+                        writer.writeStartElement(reader.getLocalName());
+
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            final String prefix = reader.getAttributePrefix(i);
+
+                            if ((prefix == null) || prefix.isEmpty()) {
+                                writer.writeAttribute(
+                                        reader.getAttributeLocalName(i),
+                                        reader.getAttributeValue(i));
+                            } else {
+                                writer.writeAttribute(
+                                        prefix,
+                                        reader.getAttributeNamespace(i),
+                                        reader.getAttributeLocalName(i),
+                                        reader.getAttributeValue(i));
+                            }
+                        }
+                    }
+
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+
+                    if (depth-- > 1) {
+                        writer.writeEndElement();
+                    }
+
+                    break;
+
+                case XMLStreamConstants.COMMENT:
+
+                    // Marker of empty text
+                    if (depth > 1) {
+                        writer.writeCharacters("");
+                    }
+
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+
+                    if (depth > 1) {
+                        writer.writeCharacters(
+                                reader.getTextCharacters(),
+                                reader.getTextStart(),
+                                reader.getTextLength());
+                    }
+
+                    break;
+
+                default:
+                }
+            }
+
+            reader.close();
+        } finally {
+            is.close();
+        }
+    }
+
+    //---------//
+    // marshal //
+    //---------//
+    /**
+     * Marshal a header element, if any, as a fragment.
+     *
+     * @param writer the output writer
+     * @param name   element name
+     * @param classe element class
+     * @param value  element value, perhaps null
+     * @throws JAXBException if marshalling failed
+     */
+    private <T> void marshal (XMLStreamWriter writer,
+                              String name,
+                              Class<T> classe,
+                              T value)
+            throws JAXBException
+    {
+        if (value != null) {
+            marshaller.marshal(new JAXBElement<T>(new QName(name), classe, value), writer);
+        }
+    }
+
+    //-----------//
+    // writeText //
+    //-----------//
+    private void writeText (XMLStreamWriter writer,
+                            String name,
+                            String value)
+            throws XMLStreamException
+    {
+        if (value != null) {
+            writer.writeStartElement(name);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //------------------//
+    // FormattingWriter //
+    //------------------//
+    /**
+     * Stream writer which formats XML output as {@link Marshalling} does: one element
+     * per indented line, empty elements written as such, separating comments before
+     * each part and each measure, and no namespace declaration.
+     */
+    private static class FormattingWriter
+            extends StreamWriterDelegate
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Indentation for one level. */
+        private final String indent;
+
+        /** Current indentation level. */
+        private int level;
+
+        /** True when closing elements. */
+        private boolean closing;
+
+        /** Element whose start has not been written yet, if any. */
+        private Pending pending;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public FormattingWriter (XMLStreamWriter writer,
+                                 int indentation)
+                throws XMLStreamException
+        {
+            super(writer);
+            writer.setNamespaceContext(new LinkContext());
+
+            final StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < indentation; i++) {
+                sb.append(' ');
+            }
+
+            indent = sb.toString();
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public void setNamespaceContext (NamespaceContext context)
+        {
+        }
+
+        @Override
+        public void writeAttribute (String localName,
+                                    String value)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeAttribute(localName, value);
+        }
+
+        @Override
+        public void writeAttribute (String namespaceURI,
+                                    String localName,
+                                    String value)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeAttribute(namespaceURI, localName, value);
+        }
+
+        @Override
+        public void writeAttribute (String prefix,
+                                    String namespaceURI,
+                                    String localName,
+                                    String value)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeAttribute(prefix, namespaceURI, localName, value);
+        }
+
+        @Override
+        public void writeCData (String data)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeCData(data);
+        }
+
+        @Override
+        public void writeCharacters (String text)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeCharacters(text);
+        }
+
+        @Override
+        public void writeCharacters (char[] text,
+                                     int start,
+                                     int len)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeCharacters(text, start, len);
+        }
+
+        @Override
+        public void writeComment (String data)
+                throws XMLStreamException
+        {
+            checkPending();
+            doIndent();
+            super.writeComment(data);
+        }
+
+        @Override
+        public void writeDefaultNamespace (String namespaceURI)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeDefaultNamespace(namespaceURI);
+        }
+
+        @Override
+        public void writeEmptyElement (String localName)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeEmptyElement(localName);
+        }
+
+        @Override
+        public void writeEmptyElement (String namespaceURI,
+                                       String localName)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeEmptyElement(namespaceURI, localName);
+        }
+
+        @Override
+        public void writeEmptyElement (String prefix,
+                                       String localName,
+                                       String namespaceURI)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeEmptyElement(prefix, localName, namespaceURI);
+        }
+
+        @Override
+        public void writeEndElement ()
+                throws XMLStreamException
+        {
+            if (pending != null) {
+                pending.writeEmpty(getParent());
+                indentEnd();
+                pending = null;
+            } else {
+                indentEnd();
+                super.writeEndElement();
+            }
+        }
+
+        @Override
+        public void writeEntityRef (String name)
+                throws XMLStreamException
+        {
+            checkPending();
+            super.writeEntityRef(name);
+        }
+
+        @Override
+        public void writeNamespace (String prefix,
+                                    String namespaceURI)
+        {
+        }
+
+        @Override
+        public void writeStartElement (String localName)
+                throws XMLStreamException
+        {
+            checkPending();
+            indentStart(localName);
+            pending = new Pending(null, localName, null);
+        }
+
+        @Override
+        public void writeStartElement (String namespaceURI,
+                                       String localName)
+                throws XMLStreamException
+        {
+            checkPending();
+            indentStart(localName);
+            pending = new Pending(null, localName, namespaceURI);
+        }
+
+        @Override
+        public void writeStartElement (String prefix,
+                                       String localName,
+                                       String namespaceURI)
+                throws XMLStreamException
+        {
+            checkPending();
+            indentStart(localName);
+            pending = new Pending(prefix, localName, namespaceURI);
+        }
+
+        private void checkPending ()
+                throws XMLStreamException
+        {
+            if (pending != null) {
+                pending.writeStart(getParent());
+                pending = null;
+            }
+        }
+
+        private void doIndent ()
+                throws XMLStreamException
+        {
+            super.writeCharacters("\n");
+
+            for (int i = 0; i < level; i++) {
+                super.writeCharacters(indent);
+            }
+        }
+
+        private void indentEnd ()
+                throws XMLStreamException
+        {
+            level--;
+
+            if (closing) {
+                doIndent();
+            }
+
+            closing = true;
+        }
+
+        private void indentStart (String localName)
+                throws XMLStreamException
+        {
+            if (localName.equals("measure")) {
+                doIndent();
+                super.writeComment("=======================================================");
+            } else if (localName.equals("part")) {
+                doIndent();
+                super.writeComment("= = = = = = = = = = = = = = = = = = = = = = = = = = = = =");
+            }
+
+            doIndent();
+            level++;
+            closing = false;
+        }
+    }
+
+    //-------------//
+    // LinkContext //
+    //-------------//
+    /**
+     * Namespace context which uses "xlink" prefix for MusicXML link attributes.
+     */
+    private static class LinkContext
+            implements NamespaceContext
+    {
+        //~ Methods --------------------------------------------------------------------------------
+
+        @Override
+        public String getNamespaceURI (String prefix)
+        {
+            return XMLConstants.DEFAULT_NS_PREFIX.equals(prefix) ? XMLConstants.NULL_NS_URI : null;
+        }
+
+        @Override
+        public String getPrefix (String namespaceURI)
+        {
+            return XLINK_NAMESPACE_URI.equals(namespaceURI) ? "xlink"
+                    : XMLConstants.DEFAULT_NS_PREFIX;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes (String namespaceURI)
+        {
+            return Collections.singletonList(getPrefix(namespaceURI)).iterator();
+        }
+    }
+
+    //---------//
+    // Pending //
+    //---------//
+    /**
+     * Element start, not yet written, since the element may prove to be empty.
+     */
+    private static class Pending
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Element prefix, if any. */
+        final String prefix;
+
+        /** Element local name. */
+        final String localName;
+
+        /** Element namespace URI, if any. */
+        final String namespaceURI;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Pending (String prefix,
+                        String localName,
+                        String namespaceURI)
+        {
+            this.prefix = prefix;
+            this.localName = localName;
+            this.namespaceURI = namespaceURI;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        public void writeEmpty (XMLStreamWriter writer)
+                throws XMLStreamException
+        {
+            if (namespaceURI == null) {
+                writer.writeEmptyElement(localName);
+            } else if (prefix == null) {
+                writer.writeEmptyElement(namespaceURI, localName);
+            } else {
+                writer.writeEmptyElement(prefix, localName, namespaceURI);
+            }
+        }
+
+        public void writeStart (XMLStreamWriter writer)
+                throws XMLStreamException
+        {
+            if (namespaceURI == null) {
+                writer.writeStartElement(localName);
+            } else if (prefix == null) {
+                writer.writeStartElement(namespaceURI, localName);
+            } else {
+                writer.writeStartElement(prefix, localName, namespaceURI);
+            }
+        }
+    }
+
+    //-------//
+    // Spool //
+    //-------//
+    /**
+     * Temporary file where measures of one part are appended, page after page.
+     */
+    private static class Spool
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Spool file. */
+        final Path path;
+
+        /** Underlying stream. */
+        final OutputStream os;
+
+        /** Compact XML writer, with no formatting. */
+        final SpoolWriter writer;
+
+        /** True once spool is closed. */
+        boolean closed;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Spool ()
+                throws IOException, XMLStreamException
+        {
+            Files.createDirectories(WellKnowns.TEMP_FOLDER);
+            path = Files.createTempFile(WellKnowns.TEMP_FOLDER, "part-", ".xml");
+            os = new BufferedOutputStream(Files.newOutputStream(path));
+            writer = new SpoolWriter(
+                    XMLOutputFactory.newFactory().createXMLStreamWriter(os, "UTF-8"));
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(SPOOL);
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        /**
+         * Complete the spool document and close the file.
+         */
+        public void close ()
+                throws IOException, XMLStreamException
+        {
+            if (!closed) {
+                closed = true;
+
+                try {
+                    writer.writeEndElement();
+                    writer.writeEndDocument();
+                    writer.close();
+                } finally {
+                    os.close();
+                }
+            }
+        }
+    }
+
+    //-------------//
+    // SpoolWriter //
+    //-------------//
+    /**
+     * Stream writer which marks any empty text with an empty comment.
+     * <p>
+     * An element with empty text is written with distinct start and end tags, while an element with
+     * no content at all is written as an empty element.
+     * Since the distinction gets lost when the spool is read back, the empty comment tells it.
+     */
+    private static class SpoolWriter
+            extends StreamWriterDelegate
+    {
+        //~ Constructors ---------------------------------------------------------------------------
+
+        public SpoolWriter (XMLStreamWriter writer)
+        {
+            super(writer);
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public void writeCharacters (String text)
+                throws XMLStreamException
+        {
+            if (text.isEmpty()) {
+                super.writeComment("");
+            } else {
+                super.writeCharacters(text);
+            }
+        }
+
+        @Override
+        public void writeCharacters (char[] text,
+                                     int start,
+                                     int len)
+                throws XMLStreamException
+        {
+            if (len == 0) {
+                super.writeComment("");
+            } else {
+                super.writeCharacters(text, start, len);
+            }
+        }
+    }
+}
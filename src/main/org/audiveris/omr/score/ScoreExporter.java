@@ -22,6 +22,8 @@
 package org.audiveris.omr.score;
 
 import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.proxymusic.ScorePartwise;
 import org.audiveris.proxymusic.mxl.Mxl;
 import org.audiveris.proxymusic.mxl.RootFile;
@@ -40,6 +42,10 @@ import java.util.Objects;
 /**
  * Class {@code ScoreExporter} exports the provided score to a MusicXML file, stream or
  * DOM.
+ * <p>
+ * Export to a file or stream is performed page by page, the measures of each page being streamed
+ * out as soon as they are built (see {@link PartwiseWriter}), unless constant
+ * {@code streamedExport} is false.
  *
  * @author Hervé Bitteur
  */
@@ -47,6 +53,8 @@ public class ScoreExporter
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(ScoreExporter.class);
 
     //~ Instance fields ----------------------------------------------------------------------------
@@ -113,25 +121,36 @@ public class ScoreExporter
     {
         Objects.requireNonNull(os, "Trying to export a score to a null output stream");
 
-        // Build the ScorePartwise proxy
-        ScorePartwise scorePartwise = PartwiseBuilder.build(score);
-
-        // Marshal the proxy
-        if (compressed) {
-            Mxl.Output mof = new Mxl.Output(os);
-            OutputStream zos = mof.getOutputStream();
-
-            if (scoreName == null) {
-                scoreName = "score"; // Fall-back value
+        final PartwiseWriter writer = constants.streamedExport.isSet() ? new PartwiseWriter()
+                : null;
+
+        try {
+            // Build the ScorePartwise proxy (with no measure, if they are streamed out)
+            ScorePartwise scorePartwise = PartwiseBuilder.build(score, writer);
+
+            // Marshal the proxy
+            if (compressed) {
+                Mxl.Output mof = new Mxl.Output(os);
+                OutputStream zos = mof.getOutputStream();
+
+                if (scoreName == null) {
+                    scoreName = "score"; // Fall-back value
+                }
+
+                mof.addEntry(
+                        new RootFile(
+                                scoreName + OMR.SCORE_EXTENSION,
+                                RootFile.MUSICXML_MEDIA_TYPE));
+                marshal(scorePartwise, writer, zos, signed);
+                mof.close();
+            } else {
+                marshal(scorePartwise, writer, os, signed);
+                os.close();
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
             }
-
-            mof.addEntry(
-                    new RootFile(scoreName + OMR.SCORE_EXTENSION, RootFile.MUSICXML_MEDIA_TYPE));
-            Marshalling.marshal(scorePartwise, zos, signed, 2);
-            mof.close();
-        } else {
-            Marshalling.marshal(scorePartwise, os, signed, 2);
-            os.close();
         }
     }
 
@@ -160,4 +179,43 @@ public class ScoreExporter
         // Marshal the proxy
         Marshalling.marshal(scorePartwise, node, signed);
     }
+
+    //---------//
+    // marshal //
+    //---------//
+    /**
+     * Marshal the ScorePartwise proxy, together with its streamed measures if any.
+     *
+     * @param scorePartwise the ScorePartwise proxy
+     * @param writer        the writer which holds the streamed measures, or null
+     * @param os            the output stream where XML data is written
+     * @param signed        should we inject ProxyMusic signature?
+     * @throws Exception if something goes wrong
+     */
+    private static void marshal (ScorePartwise scorePartwise,
+                                 PartwiseWriter writer,
+                                 OutputStream os,
+                                 boolean signed)
+            throws Exception
+    {
+        if (writer != null) {
+            writer.write(scorePartwise, os, signed);
+        } else {
+            Marshalling.marshal(scorePartwise, os, signed, 2);
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Boolean streamedExport = new Constant.Boolean(
+                true,
+                "Should measures be streamed out page by page, rather than kept for whole score?");
+    }
 }
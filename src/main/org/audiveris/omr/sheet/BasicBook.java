@@ -45,9 +45,9 @@ import org.audiveris.omr.sheet.ui.BookBrowser;
 import org.audiveris.omr.sheet.ui.StubsController;
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.Step;
-import org.audiveris.omr.step.StepException;
 import org.audiveris.omr.step.ui.StepMonitoring;
 import org.audiveris.omr.text.Language;
+import org.audiveris.omr.text.OcrCache;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
 import org.audiveris.omr.util.Memory;
@@ -163,6 +163,12 @@ public class BasicBook
     /** Project file lock. */
     private final Lock lock = new ReentrantLock();
 
+    /** Governor of memory retained by loaded sheets. */
+    private final SheetGovernor sheetGovernor = new SheetGovernor(this);
+
+    /** Cache of OCR results, loaded on demand. */
+    private volatile OcrCache ocrCache;
+
     /** The related file radix (file name without extension). */
     private String radix;
 
@@ -422,16 +428,54 @@ public class BasicBook
                 logger.warn("Could not export opus " + opusPath, ex);
             }
         } else {
-            // Export the book as one or several movement files
-            for (Score score : scores) {
+            // Export the book as one or several movement files, perhaps in parallel
+            final boolean parallel = multiMovements && BookManager.useParallelExport();
+            final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+            for (final Score score : scores) {
                 final String scoreName = (!multiMovements) ? bookName
                         : (bookName + OMR.MOVEMENT_EXTENSION + score.getId());
                 final Path scorePath = bookPathSansExt.resolveSibling(scoreName + ext);
 
+                if (parallel) {
+                    tasks.add(
+                            new Callable<Void>()
+                    {
+                        @Override
+                        public Void call ()
+                                throws Exception
+                        {
+                            LogUtil.start(BasicBook.this);
+
+                            try {
+                                exportScore(score, scorePath, scoreName, sig, compressed);
+                            } finally {
+                                LogUtil.stopBook();
+                            }
+
+                            return null;
+                        }
+                    });
+                } else {
+                    exportScore(score, scorePath, scoreName, sig, compressed);
+                }
+            }
+
+            if (!tasks.isEmpty()) {
                 try {
-                    new ScoreExporter(score).export(scorePath, scoreName, sig, compressed);
-                } catch (Exception ex) {
-                    logger.warn("Could not export score " + scoreName, ex);
+                    // Each movement goes to its own file, so completion order does not matter
+                    List<Future<Void>> futures = OmrExecutors.getCachedLowExecutor().invokeAll(
+                            tasks);
+
+                    for (Future<Void> future : futures) {
+                        try {
+                            future.get();
+                        } catch (Exception ex) {
+                            logger.warn("Future exception", ex);
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    logger.warn("Error in parallel export", ex);
                 }
             }
         }
@@ -749,6 +793,39 @@ public class BasicBook
         return languageParam;
     }
 
+    //-------------//
+    // getOcrCache //
+    //-------------//
+    @Override
+    public OcrCache getOcrCache ()
+    {
+        if (ocrCache == null) {
+            try {
+                getLock().lock();
+
+                if (ocrCache == null) {
+                    OcrCache cache = null;
+
+                    if ((bookPath != null) && Files.exists(bookPath)) {
+                        try {
+                            final Path root = openBookFile();
+                            cache = OcrCache.load(root);
+                            root.getFileSystem().close();
+                        } catch (Exception ex) {
+                            logger.warn("Error loading OCR cache from " + bookPath, ex);
+                        }
+                    }
+
+                    ocrCache = (cache != null) ? cache : new OcrCache();
+                }
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        return ocrCache;
+    }
+
     //-----------//
     // getOffset //
     //-----------//
@@ -823,6 +900,15 @@ public class BasicBook
         return Collections.unmodifiableList(scores);
     }
 
+    //------------------//
+    // getSheetGovernor //
+    //------------------//
+    @Override
+    public SheetGovernor getSheetGovernor ()
+    {
+        return sheetGovernor;
+    }
+
     //-----------------------------//
     // getSpecificSampleRepository //
     //-----------------------------//
@@ -1097,7 +1183,7 @@ public class BasicBook
                         {
                             @Override
                             public Boolean call ()
-                                    throws StepException
+                                    throws Exception
                             {
                                 LogUtil.start(stub);
 
@@ -1105,7 +1191,7 @@ public class BasicBook
                                     boolean ok = stub.reachStep(target, force);
 
                                     if (ok && (OMR.gui == null)) {
-                                        stub.swapSheet(); // Save sheet & global book info to disk
+                                        stub.storeSheet(); // Save sheet & global book info to disk
                                     }
 
                                     return ok;
@@ -1144,7 +1230,7 @@ public class BasicBook
                         try {
                             if (stub.reachStep(target, force)) {
                                 if (OMR.gui == null) {
-                                    stub.swapSheet(); // Save sheet & global book info to disk
+                                    stub.storeSheet(); // Save sheet & global book info to disk
                                 }
                             } else {
                                 someFailure = true;
@@ -1387,16 +1473,24 @@ public class BasicBook
                     }
                 }
 
+                // OCR cache
+                if ((ocrCache != null) && ocrCache.isModified()) {
+                    ocrCache.store(root);
+                    diskWritten = true;
+                }
+
                 // Separate repository
                 if ((repository != null) && repository.isModified()) {
                     repository.storeRepository();
                 }
             } else {
                 // (Store as): Switch from old to new book file
+                final OcrCache cache = getOcrCache(); // Loaded from old book file if needed
                 root = createBookFile(bookPath);
                 diskWritten = true;
 
                 storeBookInfo(root); // Book info (book.xml)
+                cache.store(root); // OCR cache
 
                 // Contained sheets
                 final Path oldRoot = openBookFile(this.bookPath);
@@ -1753,6 +1847,31 @@ public class BasicBook
         logger.debug("Created scores:{}", scores);
     }
 
+    //-------------//
+    // exportScore //
+    //-------------//
+    /**
+     * Export one score (movement) to its own file.
+     *
+     * @param score      the score to export
+     * @param scorePath  target path
+     * @param scoreName  score name, without extension
+     * @param signed     should we inject ProxyMusic signature?
+     * @param compressed true for compressed output
+     */
+    private void exportScore (Score score,
+                              Path scorePath,
+                              String scoreName,
+                              boolean signed,
+                              boolean compressed)
+    {
+        try {
+            new ScoreExporter(score).export(scorePath, scoreName, signed, compressed);
+        } catch (Exception ex) {
+            logger.warn("Could not export score " + scoreName, ex);
+        }
+    }
+
     //-------------------//
     // getConcernedStubs //
     //-------------------//
@@ -34,8 +34,10 @@ import org.audiveris.omr.glyph.dynamic.FilamentIndex;
 import org.audiveris.omr.glyph.ui.GlyphsController;
 import org.audiveris.omr.glyph.ui.SymbolsEditor;
 import org.audiveris.omr.image.ImageFormatException;
+import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.lag.LagManager;
 import org.audiveris.omr.lag.Lags;
+import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.score.Page;
 import org.audiveris.omr.score.PageRef;
@@ -66,6 +68,7 @@ import org.audiveris.omr.ui.util.WeakItemRenderer;
 import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
+import org.audiveris.omr.util.Memory;
 import org.audiveris.omr.util.Navigable;
 
 import org.slf4j.Logger;
@@ -138,6 +141,21 @@ public class BasicSheet
     /** Un/marshalling context for use with JAXB. */
     private static volatile JAXBContext jaxbContext;
 
+    /** Estimated heap size of a glyph, run table excluded. */
+    private static final long GLYPH_SIZE = 160;
+
+    /** Estimated heap size of a section, runs excluded. */
+    private static final long SECTION_SIZE = 120;
+
+    /** Estimated heap size of a section run, list slot included. */
+    private static final long RUN_SIZE = 24 + Memory.REFERENCE;
+
+    /** Estimated heap size of an inter, with its SIG vertex entry. */
+    private static final long INTER_SIZE = 240;
+
+    /** Estimated heap size of a relation, with its SIG edge entries. */
+    private static final long RELATION_SIZE = 160;
+
     //~ Instance fields ----------------------------------------------------------------------------
     //
     // Persistent data
@@ -615,6 +633,54 @@ public class BasicSheet
         return filamentIndex;
     }
 
+    //--------------//
+    // getFootprint //
+    //--------------//
+    @Override
+    public long getFootprint ()
+    {
+        long size = 0;
+
+        if (picture != null) {
+            size += picture.getFootprint();
+        }
+
+        if (glyphIndex != null) {
+            for (Glyph glyph : glyphIndex.getEntities()) {
+                size += GLYPH_SIZE + glyph.getRunTable().getFootprint();
+            }
+        }
+
+        if (lagManager != null) {
+            for (Lag lag : lagManager.getAllLags()) {
+                if (lag == null) {
+                    continue;
+                }
+
+                if (lag.getRunTable() != null) {
+                    size += lag.getRunTable().getFootprint();
+                }
+
+                for (Section section : lag.getEntities()) {
+                    size += SECTION_SIZE + (section.getRunCount() * RUN_SIZE);
+                }
+            }
+        }
+
+        if (systemManager != null) {
+            for (SystemInfo system : systemManager.getSystems()) {
+                final SIGraph sig = system.getSig();
+
+                if (sig != null) {
+                    size += (sig.vertexSet().size() * INTER_SIZE)
+                            + (sig.edgeSet().size() * RELATION_SIZE);
+                }
+            }
+        }
+
+        return size;
+    }
+
     //---------------//
     // getGlyphIndex //
     //---------------//
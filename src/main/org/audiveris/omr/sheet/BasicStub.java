@@ -460,6 +460,9 @@ public class BasicStub
                     }
                 }
             }
+
+            // Newly loaded sheet may push older ones out of memory
+            book.getSheetGovernor().check(this);
         }
 
         return sheet;
@@ -562,7 +565,7 @@ public class BasicStub
                 watch.start(step.name());
                 StepMonitoring.notifyMsg(step.toString());
                 logger.debug("reachStep {} towards {}", step, target);
-                doOneStep(step);
+                doOneStep(step, target);
             }
 
             ok = true;
@@ -586,6 +589,11 @@ public class BasicStub
                 watch.print();
             }
 
+            // Sources are no longer pinned by processing
+            if ((sheet != null) && sheet.hasPicture()) {
+                sheet.getPicture().releaseSources();
+            }
+
             logger.debug("reachStep releasing lock on {}", this);
             getLock().unlock();
         }
@@ -711,6 +719,15 @@ public class BasicStub
     //-----------//
     @Override
     public void swapSheet ()
+    {
+        swapSheet(true);
+    }
+
+    //-----------//
+    // swapSheet //
+    //-----------//
+    @Override
+    public void swapSheet (boolean gc)
     {
         try {
             if (isModified()) {
@@ -721,7 +738,11 @@ public class BasicStub
             if (sheet != null) {
                 logger.info("{} disposed", sheet);
                 sheet = null;
-                Memory.gc(); // Trigger a garbage collection...
+                book.getSheetGovernor().release(this);
+
+                if (gc) {
+                    Memory.gc(); // Trigger a garbage collection...
+                }
             }
 
             if (OMR.gui != null) {
@@ -789,10 +810,12 @@ public class BasicStub
      * <p>
      * Step duration is guarded by a timeout, so that processing cannot get blocked infinitely.
      *
-     * @param step the step to perform
+     * @param step   the step to perform
+     * @param target the target step of current processing
      * @throws Exception
      */
-    private void doOneStep (final Step step)
+    private void doOneStep (final Step step,
+                            final Step target)
             throws Exception
     {
         final int timeout = Main.getSheetStepTimeOut();
@@ -819,6 +842,11 @@ public class BasicStub
                         StepMonitoring.notifyStep(BasicStub.this, step); // Start monitoring
                         setModified(true); // At beginning of processing
                         sheet.reset(step); // Reset sheet relevant data
+
+                        if (sheet.hasPicture()) {
+                            sheet.getPicture().prepareSources(step, target);
+                        }
+
                         step.doit(sheet); // Standard processing on an existing sheet
                         done(step); // Full completion
                     } finally {
@@ -836,6 +864,9 @@ public class BasicStub
                 logger.debug("calling storeSheet");
                 storeSheet();
             }
+
+            // Keep memory retained by the book sheets within budget
+            book.getSheetGovernor().check(this);
         } catch (TimeoutException tex) {
             logger.warn("Timeout {} seconds for step {}", timeout, step, tex);
 
@@ -860,6 +891,7 @@ public class BasicStub
         pageRefs.clear();
         invalid = false;
         sheet = null;
+        book.getSheetGovernor().release(this);
 
         if (assembly != null) {
             assembly.reset();
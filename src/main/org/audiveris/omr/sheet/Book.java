@@ -25,6 +25,7 @@ import org.audiveris.omr.classifier.SampleRepository;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.score.Score;
 import org.audiveris.omr.step.Step;
+import org.audiveris.omr.text.OcrCache;
 import org.audiveris.omr.util.Param;
 
 import java.awt.image.BufferedImage;
@@ -87,12 +88,14 @@ import org.audiveris.omr.score.Page;
  * <li>{@link #removeStub}</li>
  * <li>{@link #hideInvalidStubs}</li>
  * <li>{@link #swapAllSheets}</li>
+ * <li>{@link #getSheetGovernor}</li>
  * </ul></dd>
  *
  * <dt>Parameters</dt>
  * <dd><ul>
  * <li>{@link #getFilterParam}</li>
  * <li>{@link #getLanguageParam}</li>
+ * <li>{@link #getOcrCache}</li>
  * </ul></dd>
  *
  * <dt>Transcription</dt>
@@ -249,6 +252,13 @@ public interface Book
      */
     Lock getLock ();
 
+    /**
+     * Report (after loading from book file if needed) the cache of OCR results.
+     *
+     * @return the book OCR cache
+     */
+    OcrCache getOcrCache ();
+
     /**
      * Report the offset of this book, with respect to a containing super-book.
      *
@@ -293,6 +303,13 @@ public interface Book
      */
     List<Score> getScores ();
 
+    /**
+     * Report the governor which keeps the memory retained by loaded sheets within budget.
+     *
+     * @return the sheet governor of this book
+     */
+    SheetGovernor getSheetGovernor ();
+
     /**
      * Report (after allocation if needed) the book <b>specific</b> sample repository
      *
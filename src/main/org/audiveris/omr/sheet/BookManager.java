@@ -29,6 +29,7 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.score.Score;
 import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.PathHistory;
 
 import org.slf4j.Logger;
@@ -354,6 +355,21 @@ public class BookManager
         return constants.useOpus.isSet();
     }
 
+    //-------------------//
+    // useParallelExport //
+    //-------------------//
+    /**
+     * Report whether the movements of a book (and the books of a batch export) can be
+     * exported in parallel.
+     *
+     * @return true for parallel export
+     */
+    public static boolean useParallelExport ()
+    {
+        return constants.parallelExport.isSet()
+               && (OmrExecutors.defaultParallelism.getTarget() == true);
+    }
+
     //--------------//
     // useSignature //
     //--------------//
@@ -620,6 +636,10 @@ public class BookManager
                 false,
                 "Should we use Opus notion for export (rather than separate files)?");
 
+        private final Constant.Boolean parallelExport = new Constant.Boolean(
+                true,
+                "Should we export movements (and books in batch) in parallel?");
+
         private final Constant.Boolean useCompression = new Constant.Boolean(
                 true,
                 "Should we compress the MusicXML output?");
@@ -64,8 +64,8 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
+import java.awt.Shape;
 import java.awt.Stroke;
-import java.awt.geom.Area;
 
 /**
  * Class {@code PageCleaner} erases selected inter instances on the provided graphics
@@ -406,7 +406,7 @@ public abstract class PageCleaner
      *
      * @param area the inter underlying area
      */
-    protected void processArea (Area area)
+    protected void processArea (Shape area)
     {
         // Erase area
         g.fill(area);
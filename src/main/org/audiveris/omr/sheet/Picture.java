@@ -27,6 +27,7 @@ import ij.process.ColorProcessor;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.image.DistanceTable;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.GaussianGrayFilter;
 import org.audiveris.omr.image.ImageFormatException;
@@ -38,11 +39,14 @@ import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.run.RunTableFactory;
 import org.audiveris.omr.sheet.grid.LineInfo;
+import org.audiveris.omr.sheet.note.DistancesBuilder.NeutralizedTable;
+import org.audiveris.omr.step.Step;
 import org.audiveris.omr.ui.selection.LocationEvent;
 import org.audiveris.omr.ui.selection.MouseMovement;
 import org.audiveris.omr.ui.selection.PixelEvent;
 import org.audiveris.omr.ui.selection.SelectionService;
 import org.audiveris.omr.util.Jaxb;
+import org.audiveris.omr.util.Memory;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 
@@ -57,14 +61,15 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.SampleModel;
 import java.io.IOException;
-import java.lang.ref.WeakReference;
+import java.lang.ref.SoftReference;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.media.jai.JAI;
 import javax.xml.bind.JAXBContext;
@@ -85,6 +90,8 @@ import javax.xml.bind.annotation.XmlRootElement;
  * Besides the INITIAL source, this class handles a collection of sources, all of the same
  * dimension, with the ability to retrieve them on demand or dispose them, via {@link #getSource}
  * and {@link #disposeSource} methods.
+ * Sources are kept in a {@link SourceCache}, where sources needed by the step at hand are pinned
+ * (see {@link #prepareSources}) until released by {@link #releaseSources}.
  * <p>
  * Any instance of this class is registered on the related Sheet location service, so that each time
  * a location event is received, the corresponding pixel gray value of the INITIAL sources is
@@ -164,8 +171,14 @@ public class Picture
     // Transient data
     //---------------
     //
-    /** Map of all handled sources. */
-    private final ConcurrentSkipListMap<SourceKey, WeakReference<ByteProcessor>> sources = new ConcurrentSkipListMap<SourceKey, WeakReference<ByteProcessor>>();
+    /** Cache of all handled sources. */
+    private final SourceCache sourceCache = new SourceCache();
+
+    /** Distances to foreground of BINARY source, if still available. */
+    private SoftReference<DistanceTable> distanceTable;
+
+    /** Distances with neutralized locations, as last built for HEADS step, if still available. */
+    private SoftReference<NeutralizedTable> neutralizedTable;
 
     /** Related sheet. */
     @Navigable(false)
@@ -289,7 +302,31 @@ public class Picture
     public void checkSources ()
     {
         for (SourceKey key : SourceKey.values()) {
-            logger.info(String.format("%15s ref:%s", key, getStrongRef(key)));
+            logger.info(String.format("%15s ref:%s", key, sourceCache.lookup(key)));
+        }
+    }
+
+    //---------------//
+    // disposeCaches //
+    //---------------//
+    /**
+     * Release the data which can be rebuilt or reloaded on demand: cached sources,
+     * cached distance table and the run tables already saved on disk.
+     * <p>
+     * The initial image, if any, is kept since it cannot be rebuilt.
+     */
+    public void disposeCaches ()
+    {
+        sourceCache.retain(
+                EnumSet.noneOf(SourceKey.class),
+                EnumSet.of(SourceKey.INITIAL));
+        distanceTable = null;
+        neutralizedTable = null;
+
+        for (RunTableHolder holder : tables.values()) {
+            if (holder.hasData() && !holder.isModified()) {
+                holder.setData(null, false); // Will be reloaded from disk if needed
+            }
         }
     }
 
@@ -303,7 +340,7 @@ public class Picture
             initialImage = null;
         }
 
-        sources.remove(key);
+        sourceCache.remove(key);
     }
 
     //
@@ -412,6 +449,58 @@ public class Picture
         }
     }
 
+    //------------------//
+    // getDistanceTable //
+    //------------------//
+    /**
+     * Report the cached table of distances to foreground of BINARY source, if any.
+     *
+     * @return the cached distance table (to be used read-only), or null
+     * @see #setDistanceTable(DistanceTable)
+     */
+    public DistanceTable getDistanceTable ()
+    {
+        return (distanceTable != null) ? distanceTable.get() : null;
+    }
+
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Estimate the heap size currently retained by this picture: loaded run tables,
+     * cached sources, cached distance tables and initial image.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getFootprint ()
+    {
+        long size = 0;
+
+        for (RunTableHolder holder : tables.values()) {
+            if (holder.hasData()) {
+                size += holder.getData(sheet.getStub()).getFootprint();
+            }
+        }
+
+        size += sourceCache.getFootprint();
+
+        size += getFootprint(getDistanceTable());
+
+        final NeutralizedTable neutralized = getNeutralizedTable();
+
+        if (neutralized != null) {
+            size += getFootprint(neutralized.table);
+        }
+
+        if (initialImage != null) {
+            final DataBuffer buffer = initialImage.getRaster().getDataBuffer();
+            final int cellSize = DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+            size += Memory.arraySize(buffer.getSize() * buffer.getNumBanks(), cellSize);
+        }
+
+        return size;
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -520,74 +609,68 @@ public class Picture
         return "Picture";
     }
 
+    //---------------------//
+    // getNeutralizedTable //
+    //---------------------//
+    /**
+     * Report the cached table of distances with neutralized locations, if any.
+     *
+     * @return the cached neutralized table, or null
+     * @see #setNeutralizedTable(NeutralizedTable)
+     */
+    public NeutralizedTable getNeutralizedTable ()
+    {
+        return (neutralizedTable != null) ? neutralizedTable.get() : null;
+    }
+
     //-----------//
     // getSource //
     //-----------//
     /**
      * Report the desired source.
-     * If the source is not yet cached, build the source and store it in cache via weak reference.
+     * If the source is not yet cached, build the source and store it in sources cache.
      *
      * @param key the key of desired source
      * @return the source ready to use
      */
     public ByteProcessor getSource (SourceKey key)
     {
-        ByteProcessor src = getStrongRef(key);
+        ByteProcessor src = sourceCache.get(key);
 
         if (src == null) {
-            switch (key) {
-            case INITIAL:
-                src = getInitialSource(initialImage);
-
-                break;
+            synchronized (sourceCache.getLock(key)) {
+                // Check again, source may have just been built by another thread
+                src = sourceCache.lookup(key);
 
-            case BINARY:
+                if (src == null) {
+                    final long start = System.nanoTime();
+                    src = buildSource(key);
 
-                // Built from binary run table, if available
-                RunTable table = getTable(TableKey.BINARY);
-
-                if (table != null) {
-                    src = table.getBuffer();
-                } else if (initialImage != null) {
-                    // Built via binarization of initial source
-                    src = binarized(getSource(SourceKey.INITIAL));
-                } else {
-                    logger.warn("Cannot provide BINARY source");
-
-                    return null;
+                    if (src != null) {
+                        // Store in cache
+                        sourceCache.put(key, src, System.nanoTime() - start);
+                        logger.debug("{} source built as {}", key, src);
+                    }
                 }
-
-                break;
-
-            case GAUSSIAN:
-                // Built from median
-                src = gaussianFiltered(getSource(SourceKey.MEDIAN));
-
-                break;
-
-            case MEDIAN:
-                // Built from no_staff
-                src = medianFiltered(getSource(SourceKey.NO_STAFF));
-
-                break;
-
-            case NO_STAFF:
-                // Built by erasing StaffLines glyphs from binary source
-                src = buildNoStaffBuffer();
-
-                break;
-            }
-
-            if (src != null) {
-                // Store in cache
-                sources.put(key, new WeakReference<ByteProcessor>(src));
-                logger.debug("{} source built as {}", key, src);
             }
         }
 
         return src;
     }
 
+    //----------------//
+    // getSourceCache //
+    //----------------//
+    /**
+     * Report the cache of sources, with its statistics.
+     *
+     * @return the sources cache
+     */
+    public SourceCache getSourceCache ()
+    {
+        return sourceCache;
+    }
+
     //----------//
     // getTable //
     //----------//
@@ -727,6 +810,45 @@ public class Picture
         }
     }
 
+    //----------------//
+    // prepareSources //
+    //----------------//
+    /**
+     * Prepare sources cache for the provided step: sources needed by this step are pinned,
+     * sources needed by the following steps until target are kept within budget, and all other
+     * sources are released.
+     *
+     * @param step   the step about to be performed
+     * @param target the target step of current processing
+     */
+    public void prepareSources (Step step,
+                                Step target)
+    {
+        final EnumSet<SourceKey> later = EnumSet.noneOf(SourceKey.class);
+
+        if (step.compareTo(target) <= 0) {
+            for (Step s : EnumSet.range(step, target)) {
+                later.addAll(getNeededSources(s));
+            }
+        }
+
+        sourceCache.retain(getNeededSources(step), later);
+    }
+
+    //----------------//
+    // releaseSources //
+    //----------------//
+    /**
+     * Release all cached sources, typically at the end of processing.
+     */
+    public void releaseSources ()
+    {
+        logger.debug("{}", sourceCache);
+
+        final EnumSet<SourceKey> none = EnumSet.noneOf(SourceKey.class);
+        sourceCache.retain(none, none);
+    }
+
     //-------------//
     // removeTable //
     //-------------//
@@ -740,6 +862,38 @@ public class Picture
         tables.remove(key);
     }
 
+    //------------------//
+    // setDistanceTable //
+    //------------------//
+    /**
+     * Cache the table of distances to foreground of BINARY source.
+     * <p>
+     * This table depends only on BINARY source, so it can be reused until BINARY table gets
+     * replaced. It is softly referenced, so memory can be reclaimed if needed.
+     *
+     * @param table the distance table to cache
+     */
+    public void setDistanceTable (DistanceTable table)
+    {
+        distanceTable = new SoftReference<DistanceTable>(table);
+    }
+
+    //---------------------//
+    // setNeutralizedTable //
+    //---------------------//
+    /**
+     * Cache the table of distances with neutralized locations.
+     * <p>
+     * This table is refreshed, system per system, by each new HEADS processing. It is softly
+     * referenced, so memory can be reclaimed if needed.
+     *
+     * @param table the neutralized table to cache
+     */
+    public void setNeutralizedTable (NeutralizedTable table)
+    {
+        neutralizedTable = new SoftReference<NeutralizedTable>(table);
+    }
+
     //----------//
     // setTable //
     //----------//
@@ -761,6 +915,8 @@ public class Picture
         switch (key) {
         case BINARY:
             disposeSource(SourceKey.BINARY);
+            distanceTable = null;
+            neutralizedTable = null;
         }
     }
 
@@ -825,6 +981,62 @@ public class Picture
         this.sheet = sheet;
     }
 
+    //------------------//
+    // getNeededSources //
+    //------------------//
+    /**
+     * Report the sources that the provided step reads.
+     *
+     * @param step the step at hand
+     * @return the keys of sources needed by step
+     */
+    private static EnumSet<SourceKey> getNeededSources (Step step)
+    {
+        switch (step) {
+        case BINARY:
+            return EnumSet.of(SourceKey.INITIAL);
+
+        case GRID:
+        case BEAMS:
+        case CUE_BEAMS:
+            return EnumSet.of(SourceKey.BINARY, SourceKey.NO_STAFF);
+
+        case HEADERS:
+        case STEM_SEEDS:
+        case LEDGERS:
+        case TEXTS:
+        case SYMBOLS:
+            return EnumSet.of(SourceKey.NO_STAFF);
+
+        case HEADS:
+        case CURVES:
+            return EnumSet.of(SourceKey.BINARY);
+
+        default:
+            return EnumSet.noneOf(SourceKey.class);
+        }
+    }
+
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Estimate the heap size of the provided distance table.
+     *
+     * @param table the distance table, perhaps null
+     * @return the estimated size in bytes
+     */
+    private static long getFootprint (DistanceTable table)
+    {
+        if (table == null) {
+            return 0;
+        }
+
+        final int cellSize = (table instanceof DistanceTable.Short) ? 2 : 4;
+
+        return Memory.arraySize(table.getWidth() * table.getHeight(), cellSize);
+    }
+
     //-------------------//
     // adjustImageFormat //
     //-------------------//
@@ -920,6 +1132,53 @@ public class Picture
         return new ByteProcessor(img);
     }
 
+    //-------------//
+    // buildSource //
+    //-------------//
+    /**
+     * Build the source for the provided key.
+     *
+     * @param key the source key
+     * @return the source built, or null
+     */
+    private ByteProcessor buildSource (SourceKey key)
+    {
+        switch (key) {
+        case INITIAL:
+            return getInitialSource(initialImage);
+
+        case BINARY:
+
+            // Built from binary run table, if available
+            RunTable table = getTable(TableKey.BINARY);
+
+            if (table != null) {
+                return table.getBuffer();
+            } else if (initialImage != null) {
+                // Built via binarization of initial source
+                return binarized(getSource(SourceKey.INITIAL));
+            } else {
+                logger.warn("Cannot provide BINARY source");
+
+                return null;
+            }
+
+        case GAUSSIAN:
+            // Built from median
+            return gaussianFiltered(getSource(SourceKey.MEDIAN));
+
+        case MEDIAN:
+            // Built from no_staff
+            return medianFiltered(getSource(SourceKey.NO_STAFF));
+
+        case NO_STAFF:
+            // Built by erasing StaffLines glyphs from binary source
+            return buildNoStaffBuffer();
+        }
+
+        return null;
+    }
+
     //------------//
     // checkImage //
     //------------//
@@ -948,28 +1207,6 @@ public class Picture
         return img;
     }
 
-    //--------------//
-    // getStrongRef //
-    //--------------//
-    /**
-     * Report the actual (strong) reference, if any, of a weak source reference.
-     *
-     * @param key the source key
-     * @return the strong reference, if any
-     */
-    private ByteProcessor getStrongRef (SourceKey key)
-    {
-        // Check if key is referenced
-        WeakReference<ByteProcessor> ref = sources.get(key);
-
-        if (ref != null) {
-            // Actual reference may be null or not (depending on garbage collection)
-            return ref.get();
-        }
-
-        return null;
-    }
-
     //~ Inner Classes ------------------------------------------------------------------------------
     //-----------//
     // Constants //
@@ -57,6 +57,7 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
  * <li>{@link #afterReload}</li>
  * <li>{@link #getLagManager}</li>
  * <li>{@link #getFilamentIndex}</li>
+ * <li>{@link #getFootprint}</li>
  * <li>{@link #getGlyphIndex}</li>
  * <li>{@link #getInterIndex}</li>
  * <li>{@link #getPersistentIdGenerator}</li>
@@ -192,6 +193,14 @@ public interface Sheet
      */
     FilamentIndex getFilamentIndex ();
 
+    /**
+     * Estimate the heap size retained by this sheet: run tables, cached sources,
+     * glyph index, lags and systems SIGs.
+     *
+     * @return the estimated size in bytes
+     */
+    long getFootprint ();
+
     /**
      * Report the global nest for glyphs of this sheet, or null
      *
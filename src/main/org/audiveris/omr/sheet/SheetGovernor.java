@@ -0,0 +1,373 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    S h e e t G o v e r n o r                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.sheet.ui.StubsController;
+import org.audiveris.omr.util.Memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class {@code SheetGovernor} keeps the heap memory retained by the loaded sheets of a
+ * book within a budget.
+ * <p>
+ * It records the estimated footprint of each loaded sheet, in the order sheets were last used.
+ * Since estimating sheet structures (glyphs, sections, SIGs) means walking all of them, this is
+ * done only for a newly recorded sheet or when the total gets close to the budget.
+ * Otherwise, the cheap picture footprint is added to the last estimate of sheet structures.
+ * When the sum of estimates exceeds the budget, the least recently used sheets are first relieved
+ * of their picture data that can be rebuilt or reloaded on demand, and then, in batch mode only,
+ * swapped out completely (stored to disk if needed, to be reloaded on demand).
+ * <p>
+ * The sheet being processed, the sheet displayed in GUI and the sheets locked by some on-going
+ * processing are never evicted.
+ * In interactive mode, sheets are never swapped out behind user's back: this would store and
+ * close sheets the user may still be editing in other tabs.
+ * The budget is a ratio of the maximum heap, shared among all opened books.
+ *
+ * @author Hervé Bitteur
+ */
+public class SheetGovernor
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetGovernor.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Containing book. */
+    private final Book book;
+
+    /** Last footprint estimate of each loaded sheet, least recently used first. */
+    private final LinkedHashMap<SheetStub, Long> footprints = new LinkedHashMap<SheetStub, Long>();
+
+    /** Last estimate of structures footprint (sheet minus picture) of each loaded sheet. */
+    private final Map<SheetStub, Long> structures = new ConcurrentHashMap<SheetStub, Long>();
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code SheetGovernor} object.
+     *
+     * @param book the containing book
+     */
+    public SheetGovernor (Book book)
+    {
+        this.book = book;
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-------//
+    // check //
+    //-------//
+    /**
+     * Record the use of the provided stub sheet and evict other sheets data if the
+     * memory budget is exceeded.
+     *
+     * @param current the stub just used, which will not be evicted
+     */
+    public void check (SheetStub current)
+    {
+        if (!constants.useGovernor.isSet() || !current.hasSheet()) {
+            return;
+        }
+
+        long total = record(current, estimate(current, false), true);
+        final long budget = getBudget();
+
+        if (total >= (constants.refineRatio.getValue() * budget)) {
+            // Close to budget, refine estimate of current sheet structures
+            total = record(current, estimate(current, true), false);
+        }
+
+        if (total <= budget) {
+            return;
+        }
+
+        logger.debug(
+                "{} sheets footprint {} MB exceeds budget {} MB",
+                book.getRadix(),
+                total >> 20,
+                budget >> 20);
+
+        final SheetStub displayed = (OMR.gui != null) ? StubsController.getCurrentStub() : null;
+
+        // Phase 1: release picture data of least recently used sheets
+        for (SheetStub stub : getCandidates(current, displayed)) {
+            if (stub.getLock().tryLock()) {
+                try {
+                    if (disposeCaches(stub)) {
+                        total = record(stub, estimate(stub, false), false);
+                        logger.debug("{} picture caches disposed", stub);
+                    }
+                } finally {
+                    stub.getLock().unlock();
+                }
+
+                if (total <= budget) {
+                    return;
+                }
+            }
+        }
+
+        // Phase 2: swap least recently used sheets (batch only)
+        if (isSwapAllowed()) {
+            boolean swapped = false;
+
+            for (SheetStub stub : getCandidates(current, displayed)) {
+                if (stub.getLock().tryLock()) {
+                    try {
+                        stub.swapSheet(false); // This releases the stub from governor
+                        swapped = true;
+                    } finally {
+                        stub.getLock().unlock();
+                    }
+
+                    total = getTotal();
+
+                    if (total <= budget) {
+                        break;
+                    }
+                }
+            }
+
+            if (swapped) {
+                Memory.gc(); // Just once for all swapped sheets
+            }
+
+            if (total <= budget) {
+                return;
+            }
+        }
+
+        logger.debug("{} sheets footprint still at {} MB", book.getRadix(), total >> 20);
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Forget about the provided stub, whose sheet has been swapped out or reset.
+     *
+     * @param stub the stub to release
+     */
+    public synchronized void release (SheetStub stub)
+    {
+        footprints.remove(stub);
+        structures.remove(stub);
+    }
+
+    //---------------//
+    // disposeCaches //
+    //---------------//
+    /**
+     * Dispose of the picture data of the provided stub sheet, if any.
+     *
+     * @param stub the (locked) stub at hand
+     * @return true if the stub had picture data to dispose of
+     */
+    boolean disposeCaches (SheetStub stub)
+    {
+        if (stub.hasSheet() && stub.getSheet().hasPicture()) {
+            stub.getSheet().getPicture().disposeCaches();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    //----------//
+    // estimate //
+    //----------//
+    /**
+     * Estimate the footprint of the provided stub sheet.
+     *
+     * @param stub the stub at hand, with a loaded sheet
+     * @param full true to re-estimate sheet structures, rather than reuse their last estimate
+     * @return the estimated size in bytes
+     */
+    private long estimate (SheetStub stub,
+                           boolean full)
+    {
+        final long picture = getPictureFootprint(stub);
+        Long structure = structures.get(stub);
+
+        if (full || (structure == null)) {
+            structure = getFootprint(stub) - picture;
+            structures.put(stub, structure);
+        }
+
+        return picture + structure;
+    }
+
+    //-----------//
+    // getBudget //
+    //-----------//
+    /**
+     * Report the heap budget for this book, as its share of the global sheets budget.
+     *
+     * @return the budget in bytes
+     */
+    long getBudget ()
+    {
+        final int bookCount = (OMR.engine != null) ? OMR.engine.getAllBooks().size() : 1;
+        final long global = (long) (constants.heapRatio.getValue() * Memory.max());
+
+        return global / Math.max(1, bookCount);
+    }
+
+    //---------------//
+    // getCandidates //
+    //---------------//
+    /**
+     * Report the stubs which could be evicted, least recently used first.
+     *
+     * @param current   the stub being processed
+     * @param displayed the stub being displayed, if any
+     * @return the eviction candidates
+     */
+    private synchronized List<SheetStub> getCandidates (SheetStub current,
+                                                        SheetStub displayed)
+    {
+        final List<SheetStub> candidates = new ArrayList<SheetStub>(footprints.keySet());
+        candidates.remove(current);
+        candidates.remove(displayed);
+
+        return candidates;
+    }
+
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Estimate the heap size retained by the provided stub sheet.
+     * This walks all sheet structures, and is thus costly.
+     *
+     * @param stub the stub at hand, with a loaded sheet
+     * @return the estimated size in bytes
+     */
+    long getFootprint (SheetStub stub)
+    {
+        return stub.getSheet().getFootprint();
+    }
+
+    //---------------------//
+    // getPictureFootprint //
+    //---------------------//
+    /**
+     * Estimate the heap size retained by the picture of the provided stub sheet.
+     *
+     * @param stub the stub at hand, with a loaded sheet
+     * @return the estimated size in bytes
+     */
+    long getPictureFootprint (SheetStub stub)
+    {
+        final Sheet sheet = stub.getSheet();
+
+        return sheet.hasPicture() ? sheet.getPicture().getFootprint() : 0;
+    }
+
+    //----------//
+    // getTotal //
+    //----------//
+    synchronized long getTotal ()
+    {
+        long total = 0;
+
+        for (long footprint : footprints.values()) {
+            total += footprint;
+        }
+
+        return total;
+    }
+
+    //---------------//
+    // isSwapAllowed //
+    //---------------//
+    /**
+     * Tell whether whole sheets can be swapped out.
+     * This is allowed in batch mode only.
+     *
+     * @return true if so
+     */
+    boolean isSwapAllowed ()
+    {
+        return OMR.gui == null;
+    }
+
+    //--------//
+    // record //
+    //--------//
+    /**
+     * Record the footprint estimate of a stub sheet.
+     *
+     * @param stub      the stub at hand
+     * @param footprint its sheet estimated footprint
+     * @param used      true if the sheet has just been used
+     * @return the resulting total of estimates
+     */
+    private synchronized long record (SheetStub stub,
+                                      long footprint,
+                                      boolean used)
+    {
+        if (used) {
+            footprints.remove(stub); // To move the stub at the end of the LRU order
+        }
+
+        footprints.put(stub, footprint);
+
+        return getTotal();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Boolean useGovernor = new Constant.Boolean(
+                true,
+                "Should we evict sheets data when their memory footprint exceeds budget?");
+
+        private final Constant.Ratio heapRatio = new Constant.Ratio(
+                0.5,
+                "Ratio of maximum heap that loaded sheets may retain");
+
+        private final Constant.Ratio refineRatio = new Constant.Ratio(
+                0.75,
+                "Ratio of budget beyond which sheet structures footprint is estimated again");
+    }
+}
@@ -304,6 +304,15 @@ public interface SheetStub
      */
     void swapSheet ();
 
+    /**
+     * Swap sheet material, with or without a garbage collection.
+     * This is meant for a caller which swaps several sheets in a row and then collects garbage
+     * only once.
+     *
+     * @param gc true to trigger a garbage collection once sheet has been disposed of
+     */
+    void swapSheet (boolean gc);
+
     /**
      * Convenient method to reach last step on this stub.
      * Defined as reachStep(Step.last(), false);
@@ -0,0 +1,444 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                      S o u r c e C a c h e                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.sheet.Picture.SourceKey;
+import org.audiveris.omr.util.Memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.SoftReference;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Class {@code SourceCache} caches the pixel sources of a sheet picture, within a byte
+ * budget.
+ * <p>
+ * Sources are strongly referenced as long as the budget allows.
+ * Beyond budget, the sources cheapest to rebuild (per byte) are demoted to soft references, so
+ * that they survive until memory gets actually short.
+ * Sources pinned for the step at hand are never demoted, and sources no longer needed are
+ * released as soon as told so, rather than left to the garbage collector.
+ * <p>
+ * Hits, misses and rebuild times are recorded per source key.
+ *
+ * @author Hervé Bitteur
+ */
+public class SourceCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceCache.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Maximum size of strongly referenced sources, in bytes. */
+    private final long budget;
+
+    /** Cached sources. */
+    private final EnumMap<SourceKey, CachedSource> entries = new EnumMap<SourceKey, CachedSource>(
+            SourceKey.class);
+
+    /** Sources that cannot be demoted. */
+    private final EnumSet<SourceKey> pinned = EnumSet.noneOf(SourceKey.class);
+
+    /** Locks to serialize the building of each source. */
+    private final EnumMap<SourceKey, Object> locks = new EnumMap<SourceKey, Object>(
+            SourceKey.class);
+
+    /** Number of hits per key. */
+    private final int[] hits = new int[SourceKey.values().length];
+
+    /** Number of misses per key. */
+    private final int[] misses = new int[SourceKey.values().length];
+
+    /** Cumulated rebuild time per key, in nanoseconds. */
+    private final long[] rebuildTimes = new long[SourceKey.values().length];
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code SourceCache} object.
+     */
+    public SourceCache ()
+    {
+        this(constants.budget.getValue() * (1L << 20));
+    }
+
+    /**
+     * Creates a new {@code SourceCache} object with a specific budget.
+     *
+     * @param budget maximum size of strongly referenced sources, in bytes
+     */
+    SourceCache (long budget)
+    {
+        this.budget = budget;
+
+        for (SourceKey key : SourceKey.values()) {
+            locks.put(key, new Object());
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-----//
+    // get //
+    //-----//
+    /**
+     * Report the cached source, if any, for the provided key.
+     *
+     * @param key the source key
+     * @return the cached source, or null if not available
+     */
+    public synchronized ByteProcessor get (SourceKey key)
+    {
+        final ByteProcessor src = lookup(key);
+
+        if (src != null) {
+            hits[key.ordinal()]++;
+        } else {
+            misses[key.ordinal()]++;
+        }
+
+        return src;
+    }
+
+    //--------------//
+    // getFootprint //
+    //--------------//
+    /**
+     * Estimate the heap size of the cached sources still available.
+     *
+     * @return the estimated size in bytes
+     */
+    public synchronized long getFootprint ()
+    {
+        long size = 0;
+
+        for (CachedSource entry : entries.values()) {
+            if (entry.get() != null) {
+                size += entry.bytes;
+            }
+        }
+
+        return size;
+    }
+
+    //---------//
+    // getHits //
+    //---------//
+    /**
+     * Report the number of cache hits for the provided key.
+     *
+     * @param key the source key
+     * @return the number of hits
+     */
+    public synchronized int getHits (SourceKey key)
+    {
+        return hits[key.ordinal()];
+    }
+
+    //---------//
+    // getLock //
+    //---------//
+    /**
+     * Report the lock to hold while building the source for the provided key, so that
+     * concurrent requests do not build the same source several times.
+     *
+     * @param key the source key
+     * @return the build lock for this key
+     */
+    public Object getLock (SourceKey key)
+    {
+        return locks.get(key);
+    }
+
+    //-----------//
+    // getMisses //
+    //-----------//
+    /**
+     * Report the number of cache misses for the provided key.
+     *
+     * @param key the source key
+     * @return the number of misses
+     */
+    public synchronized int getMisses (SourceKey key)
+    {
+        return misses[key.ordinal()];
+    }
+
+    //----------------//
+    // getRebuildTime //
+    //----------------//
+    /**
+     * Report the cumulated time spent in building the source for the provided key.
+     *
+     * @param key the source key
+     * @return the rebuild time, in milliseconds
+     */
+    public synchronized long getRebuildTime (SourceKey key)
+    {
+        return rebuildTimes[key.ordinal()] / 1000000;
+    }
+
+    //-----------//
+    // isDemoted //
+    //-----------//
+    /**
+     * Report whether the source for the provided key is cached via a soft reference only.
+     *
+     * @param key the source key
+     * @return true if demoted
+     */
+    synchronized boolean isDemoted (SourceKey key)
+    {
+        final CachedSource entry = entries.get(key);
+
+        return (entry != null) && (entry.strong == null);
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    /**
+     * Report the cached source, if any, for the provided key, without any impact on
+     * statistics.
+     *
+     * @param key the source key
+     * @return the cached source, or null if not available
+     */
+    public synchronized ByteProcessor lookup (SourceKey key)
+    {
+        final CachedSource entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        final ByteProcessor src = entry.get();
+
+        if (src == null) {
+            entries.remove(key); // Collected by GC
+        } else if (entry.strong == null) {
+            entry.strong = src; // Promote back, within budget
+            enforceBudget();
+        }
+
+        return src;
+    }
+
+    //-----//
+    // put //
+    //-----//
+    /**
+     * Cache a newly built source.
+     *
+     * @param key   the source key
+     * @param src   the source built
+     * @param nanos the time spent to build the source, in nanoseconds
+     */
+    public synchronized void put (SourceKey key,
+                                  ByteProcessor src,
+                                  long nanos)
+    {
+        rebuildTimes[key.ordinal()] += nanos;
+        entries.put(key, new CachedSource(src, nanos));
+        enforceBudget();
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Release the source for the provided key.
+     *
+     * @param key the source key
+     */
+    public synchronized void remove (SourceKey key)
+    {
+        entries.remove(key);
+        pinned.remove(key);
+    }
+
+    //--------//
+    // retain //
+    //--------//
+    /**
+     * Retain only the sources needed now or later, releasing all the other ones.
+     *
+     * @param now   the keys needed now, which get pinned
+     * @param later the keys needed later, kept within budget
+     */
+    public synchronized void retain (Set<SourceKey> now,
+                                     Set<SourceKey> later)
+    {
+        pinned.clear();
+        pinned.addAll(now);
+
+        for (Iterator<SourceKey> it = entries.keySet().iterator(); it.hasNext();) {
+            final SourceKey key = it.next();
+
+            if (!now.contains(key) && !later.contains(key)) {
+                logger.debug("{} source released", key);
+                it.remove();
+            }
+        }
+
+        enforceBudget();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public synchronized String toString ()
+    {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName());
+        sb.append("{");
+
+        for (SourceKey key : SourceKey.values()) {
+            final int i = key.ordinal();
+
+            if ((hits[i] + misses[i]) > 0) {
+                sb.append(" ").append(key).append(":").append(hits[i]).append("/").append(
+                        misses[i]).append("/").append(rebuildTimes[i] / 1000000).append("ms");
+            }
+        }
+
+        sb.append(" footprint:").append(getFootprint() >> 20).append("MB");
+
+        return sb.append("}").toString();
+    }
+
+    //---------------//
+    // enforceBudget //
+    //---------------//
+    /**
+     * Demote strong sources to soft ones until budget is met, beginning with the sources
+     * that are cheapest to rebuild per byte.
+     * Pinned sources are never demoted.
+     */
+    private void enforceBudget ()
+    {
+        long total = 0;
+
+        for (CachedSource entry : entries.values()) {
+            if (entry.strong != null) {
+                total += entry.bytes;
+            }
+        }
+
+        while (total > budget) {
+            Entry<SourceKey, CachedSource> cheapest = null;
+
+            for (Entry<SourceKey, CachedSource> e : entries.entrySet()) {
+                final CachedSource entry = e.getValue();
+
+                if ((entry.strong != null) && !pinned.contains(e.getKey())) {
+                    if ((cheapest == null) || (entry.density() < cheapest.getValue().density())) {
+                        cheapest = e;
+                    }
+                }
+            }
+
+            if (cheapest == null) {
+                return; // Only pinned sources are left
+            }
+
+            logger.debug("{} source demoted", cheapest.getKey());
+            cheapest.getValue().strong = null;
+            total -= cheapest.getValue().bytes;
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //--------------//
+    // CachedSource //
+    //--------------//
+    /**
+     * A cached source, strongly referenced unless demoted.
+     */
+    private static class CachedSource
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Fallback reference, always set. */
+        final SoftReference<ByteProcessor> soft;
+
+        /** Source size in bytes. */
+        final long bytes;
+
+        /** Time spent to build the source, in nanoseconds. */
+        final long cost;
+
+        /** Strong reference, null when demoted. */
+        ByteProcessor strong;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public CachedSource (ByteProcessor src,
+                             long cost)
+        {
+            this.soft = new SoftReference<ByteProcessor>(src);
+            this.bytes = Memory.arraySize(src.getPixelCount(), 1);
+            this.cost = cost;
+            strong = src;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        /**
+         * Report the rebuild cost per byte.
+         *
+         * @return cost density
+         */
+        public double density ()
+        {
+            return (double) cost / bytes;
+        }
+
+        public ByteProcessor get ()
+        {
+            return (strong != null) ? strong : soft.get();
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Integer budget = new Constant.Integer(
+                "MB",
+                64,
+                "Maximum size of sources strongly cached per sheet");
+    }
+}
@@ -89,6 +89,9 @@ public class StaffLine
     /** Bounding box. */
     protected Rectangle bounds;
 
+    /** Ordinate at each integer abscissa within line abscissa range. */
+    protected volatile double[] ordinates;
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates a new {@code StaffLine} object.
@@ -217,17 +220,52 @@ public class StaffLine
     @Override
     public double yAt (double x)
     {
-        Point2D start = getEndPoint(LEFT);
-        Point2D stop = getEndPoint(RIGHT);
+        final Point2D start = points.get(0);
+        final Point2D stop = points.get(points.size() - 1);
 
         if ((x < start.getX()) || (x > stop.getX())) {
             // Extrapolate beyond spline abscissa range, using spline global slope
             double slope = (stop.getY() - start.getY()) / (stop.getX() - start.getX());
 
             return start.getY() + (slope * (x - start.getX()));
-        } else {
-            return getSpline().yAtX(x);
         }
+
+        final int ix = (int) x;
+
+        if (ix == x) {
+            return getOrdinates()[ix - (int) Math.ceil(start.getX())];
+        }
+
+        return getSpline().yAtX(x);
+    }
+
+    //--------------//
+    // getOrdinates //
+    //--------------//
+    /**
+     * Report the table of line ordinates, computed once for every integer abscissa
+     * within line abscissa range.
+     *
+     * @return the ordinates table, starting at first integer abscissa
+     */
+    private double[] getOrdinates ()
+    {
+        double[] table = ordinates;
+
+        if (table == null) {
+            final NaturalSpline line = getSpline();
+            final int xMin = (int) Math.ceil(points.get(0).getX());
+            final int xMax = (int) Math.floor(points.get(points.size() - 1).getX());
+            table = new double[Math.max(0, xMax - xMin + 1)];
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = line.yAtX((double) (xMin + i));
+            }
+
+            ordinates = table;
+        }
+
+        return table;
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
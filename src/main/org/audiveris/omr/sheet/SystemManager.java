@@ -89,6 +89,9 @@ public class SystemManager
     /** Sheet retrieved systems. */
     private final List<SystemInfo> systems = new ArrayList<SystemInfo>();
 
+    /** Rasterized systems areas, lazily built. */
+    private volatile SystemsMap systemsMap;
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates a new SystemManager object.
@@ -186,13 +189,7 @@ public class SystemManager
             found = new ArrayList<SystemInfo>();
         }
 
-        for (SystemInfo system : systems) {
-            Area area = system.getArea();
-
-            if ((area != null) && area.contains(rect)) {
-                found.add(system);
-            }
-        }
+        getSystemsMap().containingSystems(rect, found);
 
         return found;
     }
@@ -347,13 +344,7 @@ public class SystemManager
             found = new ArrayList<SystemInfo>();
         }
 
-        for (SystemInfo system : systems) {
-            Area area = system.getArea();
-
-            if ((area != null) && area.contains(point)) {
-                found.add(system);
-            }
-        }
+        getSystemsMap().getSystemsOf(point.getX(), point.getY(), found);
 
         return found;
     }
@@ -377,15 +368,36 @@ public class SystemManager
             found = new ArrayList<SystemInfo>();
         }
 
-        for (SystemInfo system : systems) {
-            Area area = system.getArea();
+        getSystemsMap().getSystemsOf(rect, found);
+
+        return found;
+    }
+
+    //---------------//
+    // getSystemsMap //
+    //---------------//
+    /**
+     * Report the rasterized map of systems areas, built on first call.
+     *
+     * @return the systems map
+     */
+    public SystemsMap getSystemsMap ()
+    {
+        SystemsMap map = systemsMap;
+
+        if (map == null) {
+            synchronized (this) {
+                map = systemsMap;
 
-            if ((area != null) && area.intersects(rect)) {
-                found.add(system);
+                if (map == null) {
+                    systemsMap = map = new SystemsMap(
+                            new ArrayList<SystemInfo>(systems),
+                            sheet.getWidth());
+                }
             }
         }
 
-        return found;
+        return map;
     }
 
     //------------------//
@@ -471,6 +483,8 @@ public class SystemManager
             computeSystemArea(system);
         }
 
+        systemsMap = null; // To be rebuilt from the new areas
+
         // Compute staves areas
         StaffManager staffManager = sheet.getStaffManager();
 
@@ -500,6 +514,7 @@ public class SystemManager
     public void reset ()
     {
         systems.clear();
+        systemsMap = null;
     }
 
     //------------//
@@ -515,6 +530,7 @@ public class SystemManager
         if (this.systems != systems) {
             this.systems.clear();
             this.systems.addAll(systems);
+            systemsMap = null;
         }
     }
 
@@ -0,0 +1,467 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       S y s t e m s M a p                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class {@code SystemsMap} is a rasterized view of systems areas, meant to quickly
+ * find out which systems contain a given point or rectangle.
+ * <p>
+ * The area of each system is sampled at the center of every sheet column, which gives for this
+ * column an interval of ordinates [top, bottom].
+ * In each column, the covering systems are sorted by ordinate, so that systems containing a point
+ * are found by a binary search, followed by a short walk through the gutter band where the
+ * intervals of two consecutive systems overlap.
+ * <p>
+ * No area operation and no allocation is needed at query time.
+ * The map is meant to be built once systems areas are known, that is at the end of GRID step.
+ *
+ * @author Hervé Bitteur
+ */
+public class SystemsMap
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemsMap.class);
+
+    /** Flatness used to approximate area boundary curves. */
+    private static final double FLATNESS = 0.25;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Mapped systems, in sheet order. */
+    private final List<SystemInfo> systems;
+
+    /** Sheet width, which is the number of columns. */
+    private final int width;
+
+    /** Per system, top ordinate of system area at each column. */
+    private final float[][] tops;
+
+    /** Per system, bottom ordinate of system area at each column. */
+    private final float[][] bottoms;
+
+    /** Per system, first column covered. */
+    private final int[] firstColumns;
+
+    /** Per system, last column covered. */
+    private final int[] lastColumns;
+
+    /** Per column, starting index in columnSystems. (Size is width + 1) */
+    private final int[] columnStarts;
+
+    /** For each column in turn, indices of the covering systems, sorted by ordinate. */
+    private final int[] columnSystems;
+
+    /** True if, in every column, bottoms are sorted as tops are. */
+    private final boolean monotonic;
+
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code SystemsMap} object.
+     *
+     * @param systems the sheet systems, with their area
+     * @param width   the sheet width
+     */
+    public SystemsMap (List<SystemInfo> systems,
+                       int width)
+    {
+        this.systems = systems;
+        this.width = width;
+
+        final int count = systems.size();
+        tops = new float[count][];
+        bottoms = new float[count][];
+        firstColumns = new int[count];
+        lastColumns = new int[count];
+
+        int total = 0;
+
+        for (int s = 0; s < count; s++) {
+            tops[s] = new float[width];
+            bottoms[s] = new float[width];
+            Arrays.fill(tops[s], Float.POSITIVE_INFINITY);
+            Arrays.fill(bottoms[s], Float.NEGATIVE_INFINITY);
+
+            final Area area = systems.get(s).getArea();
+
+            if (area != null) {
+                sample(area, tops[s], bottoms[s]);
+            }
+
+            firstColumns[s] = width;
+            lastColumns[s] = -1;
+
+            for (int c = 0; c < width; c++) {
+                if (tops[s][c] <= bottoms[s][c]) {
+                    firstColumns[s] = Math.min(firstColumns[s], c);
+                    lastColumns[s] = c;
+                    total++;
+                }
+            }
+        }
+
+        // Column index
+        columnStarts = new int[width + 1];
+        columnSystems = new int[total];
+
+        boolean sorted = true;
+        int index = 0;
+
+        for (int c = 0; c < width; c++) {
+            columnStarts[c] = index;
+
+            for (int s = 0; s < count; s++) {
+                if (tops[s][c] <= bottoms[s][c]) {
+                    // Insert system index, sorted by top ordinate
+                    int i = index++;
+
+                    while ((i > columnStarts[c]) && (tops[columnSystems[i - 1]][c] > tops[s][c])) {
+                        columnSystems[i] = columnSystems[i - 1];
+                        i--;
+                    }
+
+                    columnSystems[i] = s;
+                }
+            }
+
+            for (int i = columnStarts[c] + 1; i < index; i++) {
+                if (bottoms[columnSystems[i]][c] < bottoms[columnSystems[i - 1]][c]) {
+                    sorted = false;
+                }
+            }
+        }
+
+        columnStarts[width] = index;
+        monotonic = sorted;
+
+        if (!monotonic) {
+            logger.info("Systems areas are not vertically ordered");
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //----------//
+    // contains //
+    //----------//
+    /**
+     * Report whether the provided system contains the provided point.
+     *
+     * @param system the system at hand
+     * @param x      point abscissa
+     * @param y      point ordinate
+     * @return true if point is within system area
+     */
+    public boolean contains (SystemInfo system,
+                             double x,
+                             double y)
+    {
+        final int s = indexOf(system);
+
+        if (s == -1) {
+            return false;
+        }
+
+        final int c = (int) Math.floor(x);
+
+        if ((c < 0) || (c >= width)) {
+            return false;
+        }
+
+        return (tops[s][c] <= y) && (y <= bottoms[s][c]);
+    }
+
+    //-------------------//
+    // containingSystems //
+    //-------------------//
+    /**
+     * Populate the provided list with the systems that contain the whole provided
+     * rectangle.
+     *
+     * @param rect  the provided rectangle
+     * @param found (output) list to be populated, in sheet order
+     */
+    public void containingSystems (Rectangle2D rect,
+                                   List<SystemInfo> found)
+    {
+        final int c1 = (int) Math.floor(rect.getMinX());
+        final int c2 = Math.max(c1, (int) Math.ceil(rect.getMaxX()) - 1);
+        final double y1 = rect.getMinY();
+        final double y2 = rect.getMaxY();
+
+        NextSystem:
+        for (int s = 0; s < tops.length; s++) {
+            if ((c1 < firstColumns[s]) || (c2 > lastColumns[s])) {
+                continue;
+            }
+
+            for (int c = c1; c <= c2; c++) {
+                if ((tops[s][c] > y1) || (bottoms[s][c] < y2)) {
+                    continue NextSystem;
+                }
+            }
+
+            found.add(systems.get(s));
+        }
+    }
+
+    //-----------//
+    // getGutter //
+    //-----------//
+    /**
+     * Report the bounds of the gutter band, where the areas of the two provided systems
+     * overlap.
+     *
+     * @param above the system above
+     * @param below the system below
+     * @return the gutter bounds, or null if the two system areas do not overlap
+     */
+    public Rectangle getGutter (SystemInfo above,
+                                SystemInfo below)
+    {
+        final int a = indexOf(above);
+        final int b = indexOf(below);
+
+        if ((a == -1) || (b == -1)) {
+            return null;
+        }
+
+        final int c1 = Math.max(firstColumns[a], firstColumns[b]);
+        final int c2 = Math.min(lastColumns[a], lastColumns[b]);
+        int left = width;
+        int right = -1;
+        float top = Float.POSITIVE_INFINITY;
+        float bottom = Float.NEGATIVE_INFINITY;
+
+        for (int c = c1; c <= c2; c++) {
+            final float t = Math.max(tops[a][c], tops[b][c]);
+            final float bot = Math.min(bottoms[a][c], bottoms[b][c]);
+
+            if (t <= bot) {
+                left = Math.min(left, c);
+                right = c;
+                top = Math.min(top, t);
+                bottom = Math.max(bottom, bot);
+            }
+        }
+
+        if (right == -1) {
+            return null;
+        }
+
+        final int y1 = (int) Math.floor(top);
+        final int y2 = (int) Math.ceil(bottom);
+
+        return new Rectangle(left, y1, right - left + 1, y2 - y1 + 1);
+    }
+
+    //--------------//
+    // getSystemsOf //
+    //--------------//
+    /**
+     * Populate the provided list with the systems that contain the provided point.
+     *
+     * @param x     point abscissa
+     * @param y     point ordinate
+     * @param found (output) list to be populated, in sheet order
+     */
+    public void getSystemsOf (double x,
+                              double y,
+                              List<SystemInfo> found)
+    {
+        final int c = (int) Math.floor(x);
+
+        if ((c < 0) || (c >= width)) {
+            return;
+        }
+
+        final int start = columnStarts[c];
+        final int stop = columnStarts[c + 1];
+
+        if (!monotonic) {
+            for (int s = 0; s < tops.length; s++) {
+                if ((tops[s][c] <= y) && (y <= bottoms[s][c])) {
+                    found.add(systems.get(s));
+                }
+            }
+
+            return;
+        }
+
+        // Binary search of last system whose top is not below y
+        int lo = start;
+        int hi = stop - 1;
+        int last = start - 1;
+
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+
+            if (tops[columnSystems[mid]][c] <= y) {
+                last = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        // Walk back through the gutter band, if any
+        int first = last + 1;
+
+        for (int i = last; i >= start; i--) {
+            if (bottoms[columnSystems[i]][c] < y) {
+                break;
+            }
+
+            first = i;
+        }
+
+        for (int i = first; i <= last; i++) {
+            found.add(systems.get(columnSystems[i]));
+        }
+    }
+
+    //--------------//
+    // getSystemsOf //
+    //--------------//
+    /**
+     * Populate the provided list with the systems that intersect the provided rectangle.
+     *
+     * @param rect  the provided rectangle
+     * @param found (output) list to be populated, in sheet order
+     */
+    public void getSystemsOf (Rectangle2D rect,
+                              List<SystemInfo> found)
+    {
+        final int c1 = Math.max(0, (int) Math.floor(rect.getMinX()));
+        final int c2 = Math.min(width, (int) Math.ceil(rect.getMaxX())) - 1;
+        final double y1 = rect.getMinY();
+        final double y2 = rect.getMaxY();
+
+        for (int s = 0; s < tops.length; s++) {
+            final int from = Math.max(c1, firstColumns[s]);
+            final int to = Math.min(c2, lastColumns[s]);
+
+            for (int c = from; c <= to; c++) {
+                if ((tops[s][c] <= y2) && (bottoms[s][c] >= y1)) {
+                    found.add(systems.get(s));
+
+                    break;
+                }
+            }
+        }
+    }
+
+    //---------//
+    // indexOf //
+    //---------//
+    private int indexOf (SystemInfo system)
+    {
+        for (int s = 0; s < tops.length; s++) {
+            if (systems.get(s) == system) {
+                return s;
+            }
+        }
+
+        return -1;
+    }
+
+    //--------//
+    // sample //
+    //--------//
+    /**
+     * Sample the boundary of an area at the center of each column, to record the
+     * ordinate interval covered by the area in this column.
+     *
+     * @param area    the area to sample
+     * @param tops    (output) minimum ordinate per column
+     * @param bottoms (output) maximum ordinate per column
+     */
+    private void sample (Area area,
+                         float[] tops,
+                         float[] bottoms)
+    {
+        final double[] coords = new double[6];
+        double xStart = 0;
+        double yStart = 0;
+        double xPrev = 0;
+        double yPrev = 0;
+
+        for (PathIterator it = area.getPathIterator(null, FLATNESS); !it.isDone(); it.next()) {
+            switch (it.currentSegment(coords)) {
+            case PathIterator.SEG_MOVETO:
+                xStart = xPrev = coords[0];
+                yStart = yPrev = coords[1];
+
+                break;
+
+            case PathIterator.SEG_LINETO:
+                sampleEdge(xPrev, yPrev, coords[0], coords[1], tops, bottoms);
+                xPrev = coords[0];
+                yPrev = coords[1];
+
+                break;
+
+            case PathIterator.SEG_CLOSE:
+                sampleEdge(xPrev, yPrev, xStart, yStart, tops, bottoms);
+                xPrev = xStart;
+                yPrev = yStart;
+
+                break;
+            }
+        }
+    }
+
+    //------------//
+    // sampleEdge //
+    //------------//
+    private void sampleEdge (double x1,
+                             double y1,
+                             double x2,
+                             double y2,
+                             float[] tops,
+                             float[] bottoms)
+    {
+        if (x1 == x2) {
+            return; // Vertical edges are implied by the other ones
+        }
+
+        final double xMin = Math.min(x1, x2);
+        final double xMax = Math.max(x1, x2);
+        final double slope = (y2 - y1) / (x2 - x1);
+        final int cMin = Math.max(0, (int) Math.ceil(xMin - 0.5));
+        final int cMax = Math.min(width - 1, (int) Math.ceil(xMax - 0.5) - 1);
+
+        for (int c = cMin; c <= cMax; c++) {
+            final float y = (float) (y1 + (slope * ((c + 0.5) - x1)));
+            tops[c] = Math.min(tops[c], y);
+            bottoms[c] = Math.max(bottoms[c], y);
+        }
+    }
+}
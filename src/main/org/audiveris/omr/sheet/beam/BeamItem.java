@@ -22,6 +22,7 @@
 package org.audiveris.omr.sheet.beam;
 
 import org.audiveris.omr.math.AreaUtil;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.util.Vip;
 
@@ -65,7 +66,7 @@ public class BeamItem
     //-------------//
     // getBeltArea //
     //-------------//
-    public Area getBeltArea (Area coreArea,
+    public Area getBeltArea (GeoPolygon coreArea,
                              int dx,
                              int topDy,
                              int bottomDy)
@@ -79,8 +80,8 @@ public class BeamItem
         Point2D p2 = LineUtil.intersectionAtX(median, median.getX2() + dx);
         p2.setLocation(p2.getX(), p2.getY() + shiftY);
 
-        Area beltArea = AreaUtil.horizontalParallelogram(p1, p2, beltHeight);
-        beltArea.subtract(coreArea);
+        Area beltArea = new Area(AreaUtil.horizontalParallelogram(p1, p2, beltHeight));
+        beltArea.subtract(new Area(coreArea));
 
         return beltArea;
     }
@@ -88,7 +89,7 @@ public class BeamItem
     //-------------//
     // getCoreArea //
     //-------------//
-    public Area getCoreArea ()
+    public GeoPolygon getCoreArea ()
     {
         return AreaUtil.horizontalParallelogram(median.getP1(), median.getP2(), height);
     }
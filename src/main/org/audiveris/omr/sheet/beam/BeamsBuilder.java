@@ -35,6 +35,7 @@ import org.audiveris.omr.image.AreaMask;
 import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.math.Population;
@@ -275,7 +276,7 @@ public class BeamsBuilder
         final double height = beam.getHeight();
         final double dy = 1.5 * ((side == TOP) ? (-height) : height);
 
-        Area luArea = AreaUtil.horizontalParallelogram(
+        GeoPolygon luArea = AreaUtil.horizontalParallelogram(
                 new Point2D.Double(median.getX1(), median.getY1() + dy),
                 new Point2D.Double(median.getX2(), median.getY2() + dy),
                 height);
@@ -554,7 +555,7 @@ public class BeamsBuilder
                                     double minWidthHigh,
                                     double distImpact)
     {
-        Area coreArea = item.getCoreArea();
+        GeoPolygon coreArea = item.getCoreArea();
         AreaMask coreMask = new AreaMask(coreArea);
         WrappedInteger core = new WrappedInteger(0);
         int coreCount = coreMask.fore(core, pixelFilter);
@@ -837,7 +838,7 @@ public class BeamsBuilder
         final double height = beam.getHeight();
         final double slope = LineUtil.getSlope(median);
 
-        Area luArea = AreaUtil.horizontalParallelogram(
+        GeoPolygon luArea = AreaUtil.horizontalParallelogram(
                 median.getP1(),
                 median.getP2(),
                 3 * height);
@@ -859,7 +860,7 @@ public class BeamsBuilder
                 }
 
                 // Check concrete intersection (using areas rather than rectangles)
-                if (!AreaUtil.intersection(other.getArea(), luArea)) {
+                if (!other.getArea().intersects(luArea)) {
                     if (logging) {
                         logger.info("VIP too distant beams {} and {}", beam, other);
                     }
@@ -947,7 +948,7 @@ public class BeamsBuilder
                 : (beamMedian.getX1() - otherMedian.getX2());
 
         if (gap >= params.minBeamsGapX) {
-            Area middleArea = middleArea(beam, other);
+            GeoPolygon middleArea = middleArea(beam, other);
             AreaMask coreMask = new AreaMask(middleArea);
             WrappedInteger core = new WrappedInteger(0);
             int coreCount = coreMask.fore(core, pixelFilter);
@@ -1016,7 +1017,7 @@ public class BeamsBuilder
         }
 
         // Check we have a high enough black ratio in the extension zone
-        Area extArea = sideAreaOf("+", beam, side, 0, extDx, 0);
+        GeoPolygon extArea = sideAreaOf("+", beam, side, 0, extDx, 0);
         AreaMask extMask = new AreaMask(extArea);
         WrappedInteger extCore = new WrappedInteger(0);
         int extCoreCount = extMask.fore(extCore, pixelFilter);
@@ -1092,7 +1093,7 @@ public class BeamsBuilder
         final boolean logging = beam.isVip() || logger.isDebugEnabled();
         final int dx = (maxDx == null) ? params.maxExtensionToSpot
                 : Math.min(params.maxExtensionToSpot, maxDx);
-        final Area luArea = sideAreaOf("O", beam, side, 0, dx, 0);
+        final GeoPolygon luArea = sideAreaOf("O", beam, side, 0, dx, 0);
         final List<Glyph> spots = new ArrayList<Glyph>(
                 Glyphs.intersectedGlyphs(sortedBeamSpots, luArea));
         Collections.sort(spots, Glyphs.byAbscissa);
@@ -1140,7 +1141,7 @@ public class BeamsBuilder
         final int dx = (maxDx == null) ? params.maxExtensionToStem
                 : Math.min(params.maxExtensionToStem, maxDx);
         final int dy = params.maxStemBeamGapY;
-        final Area luArea = sideAreaOf("|", beam, side, dy, dx, 0);
+        final GeoPolygon luArea = sideAreaOf("|", beam, side, dy, dx, 0);
         List<Glyph> seeds = new ArrayList<Glyph>(
                 Glyphs.intersectedGlyphs(sortedSystemSeeds, luArea));
         Collections.sort(seeds, Glyphs.byAbscissa);
@@ -1268,7 +1269,7 @@ public class BeamsBuilder
                                            final HorizontalSide side,
                                            Double maxGapDx)
     {
-        Area luArea = (maxGapDx != null) ? sideAreaOf(null, beam, side, 0, maxGapDx, 0)
+        GeoPolygon luArea = (maxGapDx != null) ? sideAreaOf(null, beam, side, 0, maxGapDx, 0)
                 : sideAreaOf("-", beam, side, 0, params.maxSideBeamDx, 0);
 
         List<Inter> others = sig.intersectedInters(rawSystemBeams, GeoOrder.NONE, luArea);
@@ -1419,8 +1420,8 @@ public class BeamsBuilder
      * @param two another beam
      * @return the area between them
      */
-    private Area middleArea (AbstractBeamInter one,
-                             AbstractBeamInter two)
+    private GeoPolygon middleArea (AbstractBeamInter one,
+                                   AbstractBeamInter two)
     {
         final Line2D oneMedian = one.getMedian();
         final Line2D twoMedian = two.getMedian();
@@ -1458,7 +1459,7 @@ public class BeamsBuilder
     private boolean overlap (BeamItem item)
     {
         // First filtering using rough intersection (area / rectangle)
-        Area itemCore = item.getCoreArea();
+        GeoPolygon itemCore = item.getCoreArea();
         List<Inter> beams = sig.intersectedInters(rawSystemBeams, GeoOrder.NONE, itemCore);
 
         if (beams.isEmpty()) {
@@ -1557,12 +1558,12 @@ public class BeamsBuilder
      * @param double intDx abscissa offset towards beam interior
      * @return the area
      */
-    private Area sideAreaOf (String kind,
-                             AbstractBeamInter beam,
-                             HorizontalSide side,
-                             double extDy,
-                             double extDx,
-                             double intDx)
+    private GeoPolygon sideAreaOf (String kind,
+                                   AbstractBeamInter beam,
+                                   HorizontalSide side,
+                                   double extDy,
+                                   double extDx,
+                                   double intDx)
     {
         final Line2D median = beam.getMedian();
         final double height = beam.getHeight() + (2 * extDy);
@@ -1571,7 +1572,7 @@ public class BeamsBuilder
         final Point2D intPt = LineUtil.intersectionAtX(median, intX);
         final double extX = (side == LEFT) ? (median.getX1() - extDx) : (median.getX2() + extDx);
         final Point2D extPt = LineUtil.intersectionAtX(median, extX);
-        Area area = (side == LEFT)
+        GeoPolygon area = (side == LEFT)
                 ? AreaUtil.horizontalParallelogram(extPt, intPt, height)
                 : AreaUtil.horizontalParallelogram(intPt, extPt, height);
 
@@ -35,6 +35,7 @@ import org.audiveris.omr.image.MorphoProcessor;
 import org.audiveris.omr.image.StructureElement;
 import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunMorphology;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.run.RunTableFactory;
 import org.audiveris.omr.sheet.Picture;
@@ -146,7 +147,7 @@ public class SpotsBuilder
     /**
      * Build spots out of the provided buffer.
      *
-     * @param buffer provided buffer (it will be modified)
+     * @param buffer provided buffer (it may be modified)
      * @param offset buffer offset WRT sheet coordinates, or null
      * @param beam   typical beam height
      * @param cueId  cue id for cue buffer, null for whole sheet buffer
@@ -173,8 +174,19 @@ public class SpotsBuilder
 
         final int[] seOffset = {0, 0};
         StructureElement se = new StructureElement(0, 1, radius, seOffset);
-        watch.start("close");
-        new MorphoProcessor(se).close(buffer);
+
+        // Gray-level closing is needed only for visual check of gray spots
+        final boolean grayNeeded = (cueId == null)
+                ? (constants.keepBeamSpots.isSet()
+                   || ((OMR.gui != null) && constants.displayGraySpots.isSet()))
+                : constants.keepCueSpots.isSet();
+        final RunMorphology morpho = (grayNeeded || !constants.useRunClosing.isSet()) ? null
+                : new RunMorphology(se, SPOT_ORIENTATION);
+
+        if (morpho == null) {
+            watch.start("close");
+            new MorphoProcessor(se).close(buffer);
+        }
 
         // For visual check
         watch.start("visualCheck");
@@ -201,21 +213,19 @@ public class SpotsBuilder
             }
 
             // Save a specific binarized version for HEADS step
-            saveHeadRuns((ByteProcessor) buffer.duplicate());
+            saveHeadRuns(buffer, morpho);
         } else if (constants.keepCueSpots.isSet()) {
             BufferedImage img = buffer.getBufferedImage();
             ImageUtil.saveOnDisk(img, sheet.getId() + "." + cueId + ".spots");
         }
 
-        // Binarize the spots via a global filter (no illumination problem)
-        watch.start("binarize");
-        buffer.threshold(constants.beamBinarizationThreshold.getValue());
-
         // Runs
         watch.start("createTable");
 
-        RunTableFactory runFactory = new RunTableFactory(SPOT_ORIENTATION);
-        RunTable spotTable = runFactory.createTable(buffer);
+        RunTable spotTable = getSpotTable(
+                buffer,
+                morpho,
+                constants.beamBinarizationThreshold.getValue());
 
         // Glyphs
         watch.start("buildGlyphs");
@@ -347,22 +357,48 @@ public class SpotsBuilder
         }
     }
 
+    //--------------//
+    // getSpotTable //
+    //--------------//
+    /**
+     * Binarize the closed spots and report their runs.
+     *
+     * @param buffer the buffer, already closed if morpho is null
+     * @param morpho the closing to perform on runs, or null
+     * @param level  the binarization threshold
+     * @return the table of spot runs
+     */
+    private RunTable getSpotTable (ByteProcessor buffer,
+                                   RunMorphology morpho,
+                                   int level)
+    {
+        if (morpho != null) {
+            return morpho.close(buffer, level);
+        }
+
+        // Binarize the spots via a global filter (no illumination problem)
+        buffer.threshold(level);
+
+        return new RunTableFactory(SPOT_ORIENTATION).createTable(buffer);
+    }
+
     //--------------//
     // saveHeadRuns //
     //--------------//
     /**
      * To ease (future) HEADS step, save the runs of the properly binarized buffer.
      *
-     * @param buffer the buffer copy to binarize
+     * @param buffer the buffer, already closed if morpho is null
+     * @param morpho the closing to perform on runs, or null
      */
-    private void saveHeadRuns (ByteProcessor buffer)
+    private void saveHeadRuns (ByteProcessor buffer,
+                               RunMorphology morpho)
     {
         // Binarize the spots with threshold for heads
-        buffer.threshold(constants.headBinarizationThreshold.getValue());
-
-        // Runs
-        RunTableFactory runFactory = new RunTableFactory(SPOT_ORIENTATION);
-        RunTable runs = runFactory.createTable(buffer);
+        RunTable runs = getSpotTable(
+                (morpho != null) ? buffer : (ByteProcessor) buffer.duplicate(),
+                morpho,
+                constants.headBinarizationThreshold.getValue());
 
         // For visual check
         if (constants.keepHeadSpots.isSet()) {
@@ -407,6 +443,10 @@ public class SpotsBuilder
                 false,
                 "Should we store cue spot images on disk?");
 
+        private final Constant.Boolean useRunClosing = new Constant.Boolean(
+                true,
+                "Should we close beam spots directly on runs rather than on gray pixels?");
+
         private final Constant.Ratio beamCircleDiameterRatio = new Constant.Ratio(
                 0.8,
                 "Diameter of circle used to close beam spots, as ratio of beam height");
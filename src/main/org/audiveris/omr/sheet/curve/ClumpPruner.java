@@ -21,6 +21,7 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.curve;
 
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sheet.SystemManager;
@@ -38,7 +39,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -99,7 +99,7 @@ public class ClumpPruner
     {
         // Compute lookup areas for each slur in clump
         // If we cannot compute areas for a slur, we simply discard the slur
-        Map<Inter, Map<HorizontalSide, Area>> areas = new LinkedHashMap<Inter, Map<HorizontalSide, Area>>();
+        Map<Inter, Map<HorizontalSide, GeoPolygon>> areas = new LinkedHashMap<Inter, Map<HorizontalSide, GeoPolygon>>();
 
         for (Iterator<Inter> it = clump.iterator(); it.hasNext();) {
             SlurInter slur = (SlurInter) it.next();
@@ -184,7 +184,7 @@ public class ClumpPruner
      * @return the global bounds
      */
     private Map<HorizontalSide, Rectangle> getBounds (Set<Inter> clump,
-                                                      Map<Inter, Map<HorizontalSide, Area>> areas)
+                                                      Map<Inter, Map<HorizontalSide, GeoPolygon>> areas)
     {
         Map<HorizontalSide, Rectangle> bounds = new EnumMap<HorizontalSide, Rectangle>(
                 HorizontalSide.class);
@@ -371,7 +371,7 @@ public class ClumpPruner
          * @param the lookup areas for each candidate
          * @return the entry for best slur and its best links
          */
-        public SlurEntry selectSlur (Map<Inter, Map<HorizontalSide, Area>> areas)
+        public SlurEntry selectSlur (Map<Inter, Map<HorizontalSide, GeoPolygon>> areas)
         {
             // Determine the pair of best links for every slur candidate
             List<SlurEntry> entries = new ArrayList<SlurEntry>();
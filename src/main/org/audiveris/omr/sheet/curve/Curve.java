@@ -23,6 +23,7 @@ package org.audiveris.omr.sheet.curve;
 
 import org.audiveris.omr.glyph.BasicGlyph;
 import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.math.GeoPolygon;
 import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.run.Run;
 import org.audiveris.omr.run.RunTable;
@@ -37,7 +38,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -92,10 +92,10 @@ public abstract class Curve
     private final Set<Arc> parts = new LinkedHashSet<Arc>();
 
     /** Area for extension on first side. */
-    protected Area firstExtArea;
+    protected GeoPolygon firstExtArea;
 
     /** Area for extension on last side. */
-    protected Area lastExtArea;
+    protected GeoPolygon lastExtArea;
 
     /** Potential attachments, lazily allocated. */
     private AttachmentHolder attachments;
@@ -321,7 +321,7 @@ public abstract class Curve
     //------------//
     // getExtArea //
     //------------//
-    public Area getExtArea (boolean reverse)
+    public GeoPolygon getExtArea (boolean reverse)
     {
         if (reverse) {
             return firstExtArea;
@@ -478,7 +478,7 @@ public abstract class Curve
      * @param area    the extension area on 'reverse' side
      * @param reverse which end
      */
-    public void setExtArea (Area area,
+    public void setExtArea (GeoPolygon area,
                             boolean reverse)
     {
         if (reverse) {
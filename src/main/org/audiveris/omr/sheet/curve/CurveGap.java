@@ -24,13 +24,13 @@ package org.audiveris.omr.sheet.curve;
 import ij.process.ByteProcessor;
 
 import org.audiveris.omr.math.GeoPath;
+import org.audiveris.omr.math.GeoPolygon;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 
 /**
@@ -55,7 +55,7 @@ public abstract class CurveGap
     protected final Point p2;
 
     /** Underlying area for the gap, which excludes both end points. */
-    protected Area area;
+    protected GeoPolygon area;
 
     /** Gap vector to check empty locations. */
     protected int[] vector;
@@ -120,7 +120,7 @@ public abstract class CurveGap
         return vector;
     }
 
-    public Area getArea ()
+    public GeoPolygon getArea ()
     {
         return area;
     }
@@ -202,7 +202,7 @@ public abstract class CurveGap
             vector[x] = 1;
         }
 
-        private Area computeArea ()
+        private GeoPolygon computeArea ()
         {
             final GeoPath path;
 
@@ -216,7 +216,7 @@ public abstract class CurveGap
 
             path.closePath();
 
-            return new Area(path);
+            return new GeoPolygon(path);
         }
     }
 
@@ -250,7 +250,7 @@ public abstract class CurveGap
             vector[y] = 1;
         }
 
-        private Area computeArea ()
+        private GeoPolygon computeArea ()
         {
             final GeoPath path;
 
@@ -264,7 +264,7 @@ public abstract class CurveGap
 
             path.closePath();
 
-            return new Area(path);
+            return new GeoPolygon(path);
         }
     }
 }
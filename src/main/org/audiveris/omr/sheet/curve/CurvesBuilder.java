@@ -26,8 +26,8 @@ import ij.process.ByteProcessor;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import static org.audiveris.omr.image.PixelSource.BACKGROUND;
-import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.GeoPath;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.PointUtil;
 import org.audiveris.omr.sheet.Picture;
 import org.audiveris.omr.sheet.Scale;
@@ -47,7 +47,6 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -420,7 +419,7 @@ public abstract class CurvesBuilder
      * @param curve the curve to extend
      * @return the extension lookup area
      */
-    protected Area defineExtArea (Curve curve)
+    protected GeoPolygon defineExtArea (Curve curve)
     {
         Point ce = curve.getEnd(reverse); // Curve End
         Point2D uv = getEndVector(curve); // Unit Vector
@@ -466,7 +465,7 @@ public abstract class CurvesBuilder
         //        }
         path.closePath();
 
-        Area area = new Area(path);
+        GeoPolygon area = new GeoPolygon(path);
         curve.setExtArea(area, reverse);
         curve.addAttachment(reverse ? "t" : "f", area);
 
@@ -545,7 +544,7 @@ public abstract class CurvesBuilder
 
         for (Inter inter : inters) {
             if (inter.getBounds().intersects(box)) {
-                Area area = inter.getArea();
+                GeoPolygon area = inter.getArea();
 
                 if ((area == null) || area.intersects(box)) {
                     found.add(inter);
@@ -699,7 +698,7 @@ public abstract class CurvesBuilder
             for (Iterator<ArcView> it = reachableArcs.iterator(); it.hasNext();) {
                 final ArcView arcView = it.next();
                 final Point ae = arcView.getEnd(!reverse); // Arc end
-                Area lineArea = null; // Lazily computed
+                GeoPolygon lineArea = null; // Lazily computed
 
                 for (Inter nc : ncs) {
                     // Check extension line would cross item bounds
@@ -707,14 +706,14 @@ public abstract class CurvesBuilder
                         final boolean crossing;
 
                         // Have a closer look (for beams mainly)
-                        Area ncArea = nc.getArea();
+                        GeoPolygon ncArea = nc.getArea();
 
                         if (ncArea != null) {
                             if (lineArea == null) {
                                 lineArea = getLineArea(ce, ae);
                             }
 
-                            crossing = AreaUtil.intersection(lineArea, ncArea);
+                            crossing = lineArea.intersects(ncArea);
                         } else {
                             crossing = true;
                         }
@@ -743,7 +742,7 @@ public abstract class CurvesBuilder
     private Set<ArcView> findReachableArcs (Extension ext)
     {
         final Set<ArcView> reachableArcs = new LinkedHashSet<ArcView>();
-        final Area area = defineExtArea(ext.curve);
+        final GeoPolygon area = defineExtArea(ext.curve);
 
         if (area != null) {
             // Check for reachable arcs in the extension area
@@ -818,7 +817,7 @@ public abstract class CurvesBuilder
      * @param p2 another point
      * @return a line area with a thickness of approximately 2 pixels
      */
-    private Area getLineArea (Point p1,
+    private GeoPolygon getLineArea (Point p1,
                               Point p2)
     {
         // Determine if line is rather horizontal or vertical to infer margin values to apply
@@ -832,7 +831,7 @@ public abstract class CurvesBuilder
         path.append(new Line2D.Double(p2.x + mx, p2.y + my, p1.x + mx, p1.y + my), true);
         path.closePath();
 
-        return new Area(path);
+        return new GeoPolygon(path);
     }
 
     //-----------------//
@@ -872,7 +871,7 @@ public abstract class CurvesBuilder
         }
 
         CurveGap gap = CurveGap.create(ce, ae);
-        Area lArea = gap.getArea();
+        GeoPolygon lArea = gap.getArea();
         curve.addAttachment("G", lArea);
 
         int[] vector = gap.computeVector(binaryBuf);
@@ -24,6 +24,7 @@ package org.audiveris.omr.sheet.curve;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.math.GeoPath;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
 import static org.audiveris.omr.math.LineUtil.bisector;
@@ -52,7 +53,6 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import static java.lang.Math.abs;
@@ -121,7 +121,7 @@ public class SlurLinker
      * @param slur the slur being processed
      * @return the area on both slur sides
      */
-    public Map<HorizontalSide, Area> defineAreaPair (SlurInter slur)
+    public Map<HorizontalSide, GeoPolygon> defineAreaPair (SlurInter slur)
     {
         final SlurInfo info = slur.getInfo();
         final Point first = info.getEnd(true);
@@ -222,13 +222,14 @@ public class SlurLinker
         firstPath.closePath();
         lastPath.closePath();
 
-        Map<HorizontalSide, Area> areaMap = new EnumMap<HorizontalSide, Area>(HorizontalSide.class);
-        Area firstArea = new Area(firstPath);
+        Map<HorizontalSide, GeoPolygon> areaMap = new EnumMap<HorizontalSide, GeoPolygon>(
+                HorizontalSide.class);
+        GeoPolygon firstArea = new GeoPolygon(firstPath);
         ///info.setArea(firstArea, true);
         areaMap.put(LEFT, firstArea);
         slur.addAttachment("F", firstArea);
 
-        Area lastArea = new Area(lastPath);
+        GeoPolygon lastArea = new GeoPolygon(lastPath);
         ///info.setArea(lastArea, false);
         areaMap.put(RIGHT, lastArea);
         slur.addAttachment("L", lastArea);
@@ -267,7 +268,7 @@ public class SlurLinker
      * @return the pair of links if acceptable (only half-filled for orphan), null if not
      */
     public Map<HorizontalSide, SlurHeadLink> lookupLinkPair (SlurInter slur,
-                                                             Map<HorizontalSide, Area> areas,
+                                                             Map<HorizontalSide, GeoPolygon> areas,
                                                              SystemInfo system,
                                                              Map<HorizontalSide, List<Inter>> chords)
     {
@@ -483,7 +484,7 @@ public class SlurLinker
      */
     private Map<Inter, SlurHeadLink> lookup (SlurInter slur,
                                              HorizontalSide side,
-                                             Area area,
+                                             GeoPolygon area,
                                              List<Inter> chords)
     {
         final Map<Inter, SlurHeadLink> found = new HashMap<Inter, SlurHeadLink>();
@@ -529,7 +530,7 @@ public class SlurLinker
                                       Point end,
                                       Point target,
                                       Point2D bisUnit,
-                                      Area area)
+                                      GeoPolygon area)
     {
         final boolean horizontal = slur.getInfo().isHorizontal();
         final boolean above = slur.isAbove();
@@ -22,9 +22,9 @@
 package org.audiveris.omr.sheet.grid;
 
 import org.audiveris.omr.math.AreaUtil;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.sig.BasicImpacts;
 
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 
 /**
@@ -41,7 +41,7 @@ public class BarConnection
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Physical portion of the connection line, excluding portions within staves. */
-    private Area area;
+    private GeoPolygon area;
 
     /** Rather vertical median line. */
     private Line2D median;
@@ -70,7 +70,7 @@ public class BarConnection
     //---------//
     // getArea //
     //---------//
-    public Area getArea ()
+    public GeoPolygon getArea ()
     {
         if (area == null) {
             area = AreaUtil.verticalRibbon(getMedian(), getWidth());
@@ -32,7 +32,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphCluster;
 import org.audiveris.omr.glyph.GlyphFactory;
-import org.audiveris.omr.glyph.GlyphLink;
+import org.audiveris.omr.glyph.GlyphGraph;
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
@@ -64,9 +64,6 @@ import static org.audiveris.omr.util.HorizontalSide.*;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.VerticalSide;
 
-import org.jgrapht.alg.ConnectivityInspector;
-import org.jgrapht.graph.SimpleGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -240,8 +237,8 @@ public class ClefBuilder
         List<Glyph> parts = getParts(isFirstPass);
 
         // Formalize parts relationships in a global graph
-        SimpleGraph<Glyph, GlyphLink> graph = Glyphs.buildLinks(parts, params.maxPartGap);
-        List<Set<Glyph>> sets = new ConnectivityInspector<Glyph, GlyphLink>(graph).connectedSets();
+        GlyphGraph graph = Glyphs.buildLinks(parts, params.maxPartGap);
+        List<Set<Glyph>> sets = graph.connectedSets();
         logger.debug("Staff#{} sets: {}", staff.getId(), sets.size());
 
         // Best inter per clef kind
@@ -249,7 +246,7 @@ public class ClefBuilder
 
         for (Set<Glyph> set : sets) {
             // Use only the subgraph for this set
-            SimpleGraph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph, false);
+            GlyphGraph subGraph = graph.subGraph(set);
             ClefAdapter adapter = new ClefAdapter(subGraph, bestMap);
             new GlyphCluster(adapter, null).decompose();
 
@@ -660,7 +657,7 @@ public class ClefBuilder
         private final Map<ClefKind, ClefInter> bestMap;
 
         //~ Constructors ---------------------------------------------------------------------------
-        public ClefAdapter (SimpleGraph<Glyph, GlyphLink> graph,
+        public ClefAdapter (GlyphGraph graph,
                             Map<ClefKind, ClefInter> bestMap)
         {
             super(graph);
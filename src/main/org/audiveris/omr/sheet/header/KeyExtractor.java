@@ -31,7 +31,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphCluster;
 import org.audiveris.omr.glyph.GlyphFactory;
-import org.audiveris.omr.glyph.GlyphLink;
+import org.audiveris.omr.glyph.GlyphGraph;
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
@@ -51,9 +51,6 @@ import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sig.SIGraph;
 import org.audiveris.omr.sig.inter.KeyAlterInter;
 
-import org.jgrapht.alg.ConnectivityInspector;
-import org.jgrapht.graph.SimpleGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -355,15 +352,15 @@ public class KeyExtractor
         system.registerGlyphs(parts, null);
 
         // Formalize parts relationships in a global graph
-        SimpleGraph<Glyph, GlyphLink> graph = Glyphs.buildLinks(parts, params.maxPartGap);
-        List<Set<Glyph>> sets = new ConnectivityInspector<Glyph, GlyphLink>(graph).connectedSets();
+        GlyphGraph graph = Glyphs.buildLinks(parts, params.maxPartGap);
+        List<Set<Glyph>> sets = graph.connectedSets();
         logger.debug("Staff#{} sets:{}", id, sets.size());
 
         List<Candidate> allCandidates = new ArrayList<Candidate>();
 
         for (Set<Glyph> set : sets) {
             // Use only the subgraph for this set
-            SimpleGraph<Glyph, GlyphLink> subGraph = GlyphCluster.getSubGraph(set, graph, false);
+            GlyphGraph subGraph = graph.subGraph(set);
             MultipleAdapter adapter = new MultipleAdapter(
                     roi,
                     peaks,
@@ -632,7 +629,7 @@ public class KeyExtractor
         protected final EnumSet<Shape> targetShapes = EnumSet.noneOf(Shape.class);
 
         //~ Constructors ---------------------------------------------------------------------------
-        public AbstractKeyAdapter (SimpleGraph<Glyph, GlyphLink> graph,
+        public AbstractKeyAdapter (GlyphGraph graph,
                                    List<KeyPeak> peaks,
                                    Set<Shape> targetShapes,
                                    double minGrade)
@@ -809,7 +806,7 @@ public class KeyExtractor
         //~ Constructors ---------------------------------------------------------------------------
         public MultipleAdapter (KeyRoi roi,
                                 List<KeyPeak> peaks,
-                                SimpleGraph<Glyph, GlyphLink> graph,
+                                GlyphGraph graph,
                                 Set<Shape> targetShapes,
                                 double minGrade)
         {
@@ -45,6 +45,7 @@ import org.audiveris.omr.sig.inter.LedgerInter;
 import org.audiveris.omr.ui.BoardsPane;
 import org.audiveris.omr.ui.selection.AnchoredTemplateEvent;
 import org.audiveris.omr.ui.selection.SelectionService;
+import org.audiveris.omr.util.OmrExecutors;
 
 import static org.audiveris.omr.util.HorizontalSide.LEFT;
 import static org.audiveris.omr.util.HorizontalSide.RIGHT;
@@ -52,14 +53,29 @@ import static org.audiveris.omr.util.HorizontalSide.RIGHT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 
 /**
  * Class {@code DistancesBuilder} provides the distance table to be used for notes
  * retrieval.
+ * <p>
+ * The table is made of the distances to foreground of BINARY source, in which the locations of
+ * staff lines, ledgers and stems are then "neutralized".
+ * <p>
+ * Raw distances depend only on BINARY source, they are computed on parallel bands and cached in
+ * sheet {@link Picture}, so that a new HEADS processing does not compute them again.
+ * Neutralized locations depend on systems content, the resulting table is cached as well, with
+ * the neutralized glyphs of each system. A new HEADS processing then refreshes via
+ * {@link #refreshSystem(NeutralizedTable, SystemInfo)} just the systems whose staff lines,
+ * ledgers or stem seeds have changed.
  *
  * @author Hervé Bitteur
  */
@@ -95,13 +111,33 @@ public class DistancesBuilder
     //----------------//
     public DistanceTable buildDistances ()
     {
-        // Compute the distance-to-foreground transform image
-        Picture picture = sheet.getPicture();
-        ByteProcessor buffer = picture.getSource(Picture.SourceKey.BINARY);
-        table = new ChamferDistance.Short().computeToFore(buffer);
+        final Picture picture = sheet.getPicture();
+        final List<SystemInfo> systems = sheet.getSystems();
+        NeutralizedTable neutralized = picture.getNeutralizedTable();
 
-        // "Erase" staff lines, ledgers, stems
-        paintLines();
+        if ((neutralized != null)
+            && neutralized.painted.keySet().equals(new HashSet<SystemInfo>(systems))) {
+            // Same systems, refresh just the modified ones
+            table = neutralized.table;
+
+            for (SystemInfo system : systems) {
+                if (!getNeutralizedGlyphs(system).equals(neutralized.painted.get(system))) {
+                    refreshSystem(neutralized, system);
+                }
+            }
+        } else {
+            // Copy the distance-to-foreground transform image
+            table = (DistanceTable) getRawTable().getCopy(null);
+            neutralized = new NeutralizedTable(table);
+
+            // "Erase" staff lines, ledgers, stems
+            for (SystemInfo system : systems) {
+                paintSystem(system);
+                neutralized.painted.put(system, getNeutralizedGlyphs(system));
+            }
+
+            picture.setNeutralizedTable(neutralized);
+        }
 
         // Display distances image in a template view?
         if ((OMR.gui != null) && constants.displayTemplates.isSet()) {
@@ -120,6 +156,125 @@ public class DistancesBuilder
         return table;
     }
 
+    //---------------//
+    // refreshSystem //
+    //---------------//
+    /**
+     * Refresh the provided neutralized table, for the rows of the provided system only.
+     * <p>
+     * Raw distances are restored in system rows, and the neutralized locations of all systems
+     * that share these rows are painted again.
+     * This is meant for updates of the system staff lines, ledgers or stems.
+     *
+     * @param neutralized the neutralized table, as built by {@link #buildDistances()}
+     * @param system      the system to refresh
+     */
+    public void refreshSystem (NeutralizedTable neutralized,
+                               SystemInfo system)
+    {
+        table = neutralized.table;
+
+        // Impacted rows: system rows, plus rows of former and new neutralized glyphs
+        final List<Glyph> glyphs = getNeutralizedGlyphs(system);
+        final Rectangle box = getPaintedBounds(system, neutralized.painted.get(system));
+        box.add(getPaintedBounds(system, glyphs));
+        neutralized.painted.put(system, glyphs);
+
+        final DistanceTable raw = getRawTable();
+        final int yMin = Math.max(0, box.y);
+        final int yMax = Math.min(table.getHeight(), box.y + box.height) - 1;
+
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = 0, w = table.getWidth(); x < w; x++) {
+                table.setValue(x, y, raw.getValue(x, y));
+            }
+        }
+
+        for (SystemInfo other : sheet.getSystems()) {
+            final Rectangle otherBox = getPaintedBounds(other, neutralized.painted.get(other));
+
+            if ((otherBox.y <= yMax) && ((otherBox.y + otherBox.height) > yMin)) {
+                paintSystem(other);
+            }
+        }
+    }
+
+    //----------------------//
+    // getNeutralizedGlyphs //
+    //----------------------//
+    /**
+     * Report the glyphs neutralized in system: staff lines, ledgers and stem seeds.
+     *
+     * @param system the system to process
+     * @return the neutralized glyphs
+     */
+    private List<Glyph> getNeutralizedGlyphs (SystemInfo system)
+    {
+        final List<Glyph> glyphs = new ArrayList<Glyph>();
+
+        for (Staff staff : system.getStaves()) {
+            for (LineInfo line : staff.getLines()) {
+                glyphs.add(line.getGlyph());
+            }
+
+            for (List<LedgerInter> ledgers : staff.getLedgerMap().values()) {
+                for (LedgerInter ledger : ledgers) {
+                    glyphs.add(ledger.getGlyph());
+                }
+            }
+        }
+
+        glyphs.addAll(system.getGroupedGlyphs(Group.VERTICAL_SEED));
+
+        return glyphs;
+    }
+
+    //------------------//
+    // getPaintedBounds //
+    //------------------//
+    /**
+     * Report the bounds of system, extended to the provided neutralized glyphs.
+     *
+     * @param system the system at hand
+     * @param glyphs the system neutralized glyphs
+     * @return the bounds of system painting
+     */
+    private Rectangle getPaintedBounds (SystemInfo system,
+                                        List<Glyph> glyphs)
+    {
+        final Rectangle box = system.getBounds();
+
+        for (Glyph glyph : glyphs) {
+            box.add(glyph.getBounds());
+        }
+
+        return box;
+    }
+
+    //-------------//
+    // getRawTable //
+    //-------------//
+    /**
+     * Report the raw distances to foreground, computing them if not yet cached.
+     *
+     * @return the raw distance table, to be used read-only
+     */
+    private DistanceTable getRawTable ()
+    {
+        final Picture picture = sheet.getPicture();
+        DistanceTable raw = picture.getDistanceTable();
+
+        if (raw == null) {
+            ByteProcessor buffer = picture.getSource(Picture.SourceKey.BINARY);
+            raw = new ChamferDistance.Short().computeToFore(
+                    buffer,
+                    OmrExecutors.getNumberOfCpus());
+            picture.setDistanceTable(raw);
+        }
+
+        return raw;
+    }
+
     //------------//
     // paintGlyph //
     //------------//
@@ -128,59 +283,59 @@ public class DistancesBuilder
         glyph.getRunTable().render(table, ChamferDistance.VALUE_UNKNOWN, glyph.getTopLeft());
     }
 
-    //------------//
-    // paintLines //
-    //------------//
+    //-------------//
+    // paintSystem //
+    //-------------//
     /**
-     * Paint the "neutralized" lines (staff lines, ledgers, stems) with a special value,
-     * so that template matching can ignore these locations.
+     * Paint the "neutralized" lines (staff lines, ledgers, stems) of a system with a
+     * special value, so that template matching can ignore these locations.
+     *
+     * @param system the system to process
      */
-    private void paintLines ()
+    private void paintSystem (SystemInfo system)
     {
         // Neutralize foreground due to staff lines / ledgers and stems
-        for (SystemInfo system : sheet.getSystems()) {
-            for (Staff staff : system.getStaves()) {
-                // "Erase" staff lines
-                for (LineInfo line : staff.getLines()) {
-                    // Paint the line glyph
-                    Glyph glyph = line.getGlyph();
-                    paintGlyph(glyph);
-
-                    // Also paint this line even at crossings with vertical objects
-                    double halfLine = 0.5 * glyph.getMeanThickness(Orientation.HORIZONTAL);
-                    Point2D leftPt = line.getEndPoint(LEFT);
-                    Point2D rightPt = line.getEndPoint(RIGHT);
-                    int xMin = (int) Math.floor(leftPt.getX());
-                    int xMax = (int) Math.ceil(rightPt.getX());
-
-                    for (int x = xMin; x <= xMax; x++) {
-                        double yl = line.yAt((double) x);
-                        int yMin = (int) Math.rint(yl - halfLine);
-                        int yMax = (int) Math.rint(yl + halfLine);
-
-                        for (int y = yMin; y <= yMax; y++) {
-                            table.setValue(x, y, ChamferDistance.VALUE_UNKNOWN);
-                        }
-                    }
-                }
+        for (Staff staff : system.getStaves()) {
+            // "Erase" staff lines
+            for (LineInfo line : staff.getLines()) {
+                // Paint the line glyph
+                Glyph glyph = line.getGlyph();
+                paintGlyph(glyph);
 
-                // "Erase" ledgers
-                SortedMap<Integer, List<LedgerInter>> ledgerMap = staff.getLedgerMap();
+                // Also paint this line even at crossings with vertical objects
+                double halfLine = 0.5 * glyph.getMeanThickness(Orientation.HORIZONTAL);
+                Point2D leftPt = line.getEndPoint(LEFT);
+                Point2D rightPt = line.getEndPoint(RIGHT);
+                int xMin = (int) Math.floor(leftPt.getX());
+                int xMax = (int) Math.ceil(rightPt.getX());
 
-                for (List<LedgerInter> ledgers : ledgerMap.values()) {
-                    for (LedgerInter ledger : ledgers) {
-                        paintGlyph(ledger.getGlyph());
+                for (int x = xMin; x <= xMax; x++) {
+                    double yl = line.yAt((double) x);
+                    int yMin = (int) Math.rint(yl - halfLine);
+                    int yMax = (int) Math.rint(yl + halfLine);
+
+                    for (int y = yMin; y <= yMax; y++) {
+                        table.setValue(x, y, ChamferDistance.VALUE_UNKNOWN);
                     }
                 }
             }
 
-            // "Erase" stem seeds
-            List<Glyph> systemSeeds = system.getGroupedGlyphs(Group.VERTICAL_SEED);
+            // "Erase" ledgers
+            SortedMap<Integer, List<LedgerInter>> ledgerMap = staff.getLedgerMap();
 
-            for (Glyph seed : systemSeeds) {
-                paintGlyph(seed);
+            for (List<LedgerInter> ledgers : ledgerMap.values()) {
+                for (LedgerInter ledger : ledgers) {
+                    paintGlyph(ledger.getGlyph());
+                }
             }
         }
+
+        // "Erase" stem seeds
+        List<Glyph> systemSeeds = system.getGroupedGlyphs(Group.VERTICAL_SEED);
+
+        for (Glyph seed : systemSeeds) {
+            paintGlyph(seed);
+        }
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -196,4 +351,28 @@ public class DistancesBuilder
                 false,
                 "Should we display the templates tab?");
     }
+
+    //------------------//
+    // NeutralizedTable //
+    //------------------//
+    /**
+     * Distance table with neutralized locations, together with the glyphs neutralized
+     * for each system.
+     */
+    public static class NeutralizedTable
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Distances, with neutralized locations. */
+        public final DistanceTable table;
+
+        /** Neutralized glyphs, per system. */
+        private final Map<SystemInfo, List<Glyph>> painted = new HashMap<SystemInfo, List<Glyph>>();
+
+        //~ Constructors ---------------------------------------------------------------------------
+        NeutralizedTable (DistanceTable table)
+        {
+            this.table = table;
+        }
+    }
 }
@@ -23,7 +23,11 @@ package org.audiveris.omr.sheet.note;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.image.DistanceTable;
+import org.audiveris.omr.image.PackedTable;
+import org.audiveris.omr.image.TemplateFactory;
+import org.audiveris.omr.image.TemplateFactory.Catalog;
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.step.AbstractSystemStep;
 import org.audiveris.omr.step.StepException;
@@ -31,6 +35,7 @@ import org.audiveris.omr.step.StepException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -66,7 +71,12 @@ public class HeadsStep
             throws StepException
     {
         final List<Glyph> spots = context.sheetSpots.get(system);
-        new NoteHeadsBuilder(system, context.distanceTable, spots).buildHeads();
+        new NoteHeadsBuilder(
+                system,
+                context.distanceTable,
+                context.packedTable,
+                context.catalogs,
+                spots).buildHeads();
     }
 
     //----------//
@@ -79,10 +89,25 @@ public class HeadsStep
         // Build proper distance table and make it available for system-level processing
         DistanceTable distances = new DistancesBuilder(sheet).buildDistances();
 
+        // Bit-packed version, for fast template matching
+        PackedTable packedTable = NoteHeadsBuilder.useCompiledTemplates()
+                ? new PackedTable(distances) : null;
+
+        // Template catalogs, shared by all systems and staves of the sheet
+        Map<Integer, Catalog> catalogs = new HashMap<Integer, Catalog>();
+
+        for (Staff staff : sheet.getStaffManager().getStaves()) {
+            final int pointSize = staff.getHeadPointSize();
+
+            if (!catalogs.containsKey(pointSize)) {
+                catalogs.put(pointSize, TemplateFactory.getInstance().getCatalog(pointSize));
+            }
+        }
+
         // Retrieve spots for (black) notes
         Map<SystemInfo, List<Glyph>> sheetSpots = new HeadSpotsBuilder(sheet).getSpots();
 
-        return new Context(distances, sheetSpots);
+        return new Context(distances, packedTable, catalogs, sheetSpots);
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -95,13 +120,21 @@ public class HeadsStep
 
         public final DistanceTable distanceTable;
 
+        public final PackedTable packedTable;
+
+        public final Map<Integer, Catalog> catalogs;
+
         public final Map<SystemInfo, List<Glyph>> sheetSpots;
 
         //~ Constructors ---------------------------------------------------------------------------
         public Context (DistanceTable distanceTable,
+                        PackedTable packedTable,
+                        Map<Integer, Catalog> catalogs,
                         Map<SystemInfo, List<Glyph>> sheetSpots)
         {
             this.distanceTable = distanceTable;
+            this.packedTable = packedTable;
+            this.catalogs = catalogs;
             this.sheetSpots = sheetSpots;
         }
     }
@@ -35,13 +35,14 @@ import org.audiveris.omr.image.Anchored.Anchor;
 import static org.audiveris.omr.image.Anchored.Anchor.*;
 
 import org.audiveris.omr.image.DistanceTable;
+import org.audiveris.omr.image.PackedTable;
 import org.audiveris.omr.image.PixelDistance;
 import org.audiveris.omr.image.ShapeDescriptor;
 import org.audiveris.omr.image.Template;
-import org.audiveris.omr.image.TemplateFactory;
 import org.audiveris.omr.image.TemplateFactory.Catalog;
 import org.audiveris.omr.math.GeoOrder;
 import org.audiveris.omr.math.GeoPath;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.math.NaturalSpline;
@@ -62,11 +63,13 @@ import org.audiveris.omr.sig.inter.Inter;
 import org.audiveris.omr.sig.inter.Inters;
 import org.audiveris.omr.sig.inter.LedgerInter;
 import org.audiveris.omr.sig.relation.HeadStemRelation;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.util.Dumping;
 
 import static org.audiveris.omr.util.HorizontalSide.*;
 
 import org.audiveris.omr.util.Navigable;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.Predicate;
 import org.audiveris.omr.util.StopWatch;
 
@@ -76,7 +79,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -84,9 +86,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Class {@code NoteHeadsBuilder} retrieves the void note heads, the black note heads,
@@ -104,6 +108,18 @@ import java.util.Set;
  * <li>We can reasonably skip the locations where a really good beam or a really good bar line has
  * been detected.</li>
  * </ul>
+ * <p>
+ * Staves are processed one after the other. Within a staff, each staff line or ledger is handled
+ * by a separate {@link Scanner}, and scanners are run in parallel when allowed. Scanners only
+ * compute head candidates, they never modify the SIG. Candidates are then merged into the SIG,
+ * scanner after scanner, so that the result does not depend on task scheduling:<ol>
+ * <li>Seed-based scanners are run for the staff.
+ * Their heads are merged and become competitors for x-based heads of this staff and of the
+ * following staves.</li>
+ * <li>X-based (range) scanners are run for the staff, and merged as well.</li>
+ * <li>Duplicates are purged for the staff.</li>
+ * </ol>
+ * Hence each scanner sees the same competitors as in a fully sequential processing.
  *
  * @author Hervé Bitteur
  */
@@ -151,6 +167,12 @@ public class NoteHeadsBuilder
     /** The distance table to use. */
     private final DistanceTable distances;
 
+    /** The bit-packed version of distance table, if any. */
+    private final PackedTable packedTable;
+
+    /** The <b>properly scaled</b> templates to use, mapped by head point size. */
+    private final Map<Integer, Catalog> catalogs;
+
     /** The note-oriented spots for this system. */
     private final List<Glyph> systemSpots;
 
@@ -160,9 +182,6 @@ public class NoteHeadsBuilder
     /** Minimum width of templates. */
     private int minTemplateWidth = 0; // TODO
 
-    /** The <b>properly scaled</b> templates to use, based on <b>current</b> staff. */
-    private Catalog catalog;
-
     /** The competing interpretations for the system. */
     private List<Inter> systemCompetitors;
 
@@ -186,14 +205,21 @@ public class NoteHeadsBuilder
      *
      * @param system      the system to process
      * @param distances   the distance table
+     * @param packedTable the bit-packed distance table, or null if not
+     *                    {@link #useCompiledTemplates()}
+     * @param catalogs    the template catalogs, mapped by head point size
      * @param systemSpots spots detected for this system
      */
     public NoteHeadsBuilder (SystemInfo system,
                              DistanceTable distances,
+                             PackedTable packedTable,
+                             Map<Integer, Catalog> catalogs,
                              List<Glyph> systemSpots)
     {
         this.system = system;
         this.distances = distances;
+        this.packedTable = packedTable;
+        this.catalogs = catalogs;
         this.systemSpots = systemSpots;
 
         sig = system.getSig();
@@ -227,18 +253,22 @@ public class NoteHeadsBuilder
         Collections.sort(systemSpots, Glyphs.byOrdinate);
         image = sheet.getPicture().getSource(Picture.SourceKey.BINARY);
 
+        // Seed lines are lazily computed, do it now before scanners may run concurrently
+        for (Glyph seed : systemSeeds) {
+            seed.getLine();
+        }
+
         for (Staff staff : system.getStaves()) {
             logger.debug("Staff #{}", staff.getId());
 
-            // Determine the proper catalog, based on staff size
-            final int pointSize = staff.getHeadPointSize();
-            catalog = TemplateFactory.getInstance().getCatalog(pointSize);
-
             List<Inter> ch = new ArrayList<Inter>(); // Created Heads for this staff
 
             // First, process all seed-based heads for the staff
             watch.start("Staff #" + staff.getId() + " seed");
-            ch.addAll(processStaff(staff, true));
+
+            final List<Scanner> seedScanners = createStaffScanners(staff, true);
+            runScanners(seedScanners);
+            ch.addAll(merge(seedScanners));
 
             // Consider seed-based heads as special competitors for x-based notes
             systemCompetitors.addAll(ch);
@@ -246,7 +276,10 @@ public class NoteHeadsBuilder
 
             // Second, process x-based notes for the staff
             watch.start("Staff #" + staff.getId() + " range");
-            ch.addAll(processStaff(staff, false));
+
+            final List<Scanner> rangeScanners = createStaffScanners(staff, false);
+            runScanners(rangeScanners);
+            ch.addAll(merge(rangeScanners));
 
             // Finally, detect notes overlaps for current staff
             Collections.sort(ch, Inters.byFullAbscissa);
@@ -277,6 +310,19 @@ public class NoteHeadsBuilder
         logger.debug("    range {}", rangePerf);
     }
 
+    //----------------------//
+    // useCompiledTemplates //
+    //----------------------//
+    /**
+     * Report whether matching uses bit-packed templates, and thus needs a packed table.
+     *
+     * @return true if so
+     */
+    public static boolean useCompiledTemplates ()
+    {
+        return constants.useCompiledTemplates.isSet();
+    }
+
     //------------------//
     // aggregateMatches //
     //------------------//
@@ -353,6 +399,79 @@ public class NoteHeadsBuilder
         return NO_OFFSETS;
     }
 
+    //---------------------//
+    // createStaffScanners //
+    //---------------------//
+    /**
+     * Create the scanners for all lines and ledgers of the provided staff.
+     * <p>
+     * Scanners are created sequentially, so that any data lazily computed (line splines,
+     * attachments, competitors slices) is available before scanners are run.
+     * <p>
+     * Pay attention to adjust ordinate as precisely as possible in the middle
+     * of staff or ledger lines.
+     *
+     * @param staff the staff to process
+     * @param seeds should we stick to stem seeds or not?
+     * @return the list of scanners for the staff
+     */
+    private List<Scanner> createStaffScanners (Staff staff,
+                                               boolean seeds)
+    {
+        final List<Scanner> scanners = new ArrayList<Scanner>();
+
+        // Use all staff lines
+        int pitch = -5; // Current pitch
+        LineAdapter prevAdapter = null;
+
+        for (LineInfo line : staff.getLines()) {
+            LineAdapter adapter = new StaffLineAdapter(staff, line);
+
+            // Look above line
+            scanners.add(new Scanner(adapter, prevAdapter, -1, pitch++, seeds));
+
+            // Look exactly on line
+            scanners.add(new Scanner(adapter, null, 0, pitch++, seeds));
+
+            // For the last line only, look just below line
+            if (pitch == 5) {
+                scanners.add(new Scanner(adapter, null, 1, pitch++, seeds));
+            }
+
+            prevAdapter = adapter;
+        }
+
+        // Use all ledgers, above staff, then below staff
+        for (int dir : new int[]{-1, 1}) {
+            pitch = dir * 4;
+
+            for (int i = dir;; i += dir) {
+                List<LedgerInter> set = staff.getLedgers(i);
+
+                if ((set == null) || set.isEmpty()) {
+                    break;
+                }
+
+                char c = 'a';
+                pitch += (2 * dir);
+
+                for (LedgerInter ledger : set) {
+                    String p = "" + c++;
+                    Glyph glyph = ledger.getGlyph();
+                    LineAdapter adapter = new LedgerAdapter(staff, p, glyph);
+                    // Look right on ledger
+                    scanners.add(new Scanner(adapter, null, 0, pitch, seeds));
+
+                    // Look just further from staff
+                    int pitch2 = pitch + dir;
+                    scanners.add(new Scanner(adapter, null, dir, pitch2, seeds));
+                }
+            }
+        }
+
+        return scanners;
+    }
+
     //-------------//
     // createInter //
     //-------------//
@@ -381,7 +500,7 @@ public class NoteHeadsBuilder
             return null;
         }
 
-        final ShapeDescriptor desc = catalog.getDescriptor(shape);
+        final ShapeDescriptor desc = getCatalog(staff).getDescriptor(shape);
         final Rectangle box = desc.getSymbolBoundsAt(loc.x, loc.y, anchor);
         final Point pivot = new Point(loc.x, loc.y);
 
@@ -413,6 +532,20 @@ public class NoteHeadsBuilder
         return filtered;
     }
 
+    //------------//
+    // getCatalog //
+    //------------//
+    /**
+     * Report the catalog of templates suitable for the provided staff.
+     *
+     * @param staff the staff at hand
+     * @return the catalog for staff head size
+     */
+    private Catalog getCatalog (Staff staff)
+    {
+        return catalogs.get(staff.getHeadPointSize());
+    }
+
     //---------------------//
     // getCompetitorsSlice //
     //---------------------//
@@ -422,7 +555,7 @@ public class NoteHeadsBuilder
      * @param area the horizontal slice
      * @return the list of competitors, sorted by abscissa.
      */
-    private List<Inter> getCompetitorsSlice (Area area)
+    private List<Inter> getCompetitorsSlice (GeoPolygon area)
     {
         List<Inter> rawComps = SIGraph.intersectedInters(
                 systemCompetitors,
@@ -456,7 +589,7 @@ public class NoteHeadsBuilder
      * @return the list of selected glyph instances, sorted by abscissa
      */
     private List<Glyph> getGlyphsSlice (List<Glyph> glyphs,
-                                        Area area)
+                                        GeoPolygon area)
     {
         List<Glyph> slice = new ArrayList<Glyph>(Glyphs.intersectedGlyphs(glyphs, area));
         Collections.sort(slice, Glyphs.byAbscissa);
@@ -558,6 +691,38 @@ public class NoteHeadsBuilder
         return comps;
     }
 
+    //-------//
+    // merge //
+    //-------//
+    /**
+     * Merge the candidates of the (completed) scanners into SIG, in scanners order.
+     * <p>
+     * A candidate is kept only if its underlying glyph can be retrieved.
+     * Scanners statistics are cumulated as well.
+     *
+     * @param scanners the completed scanners
+     * @return all kept heads
+     */
+    private List<Inter> merge (List<Scanner> scanners)
+    {
+        final List<Inter> kept = new ArrayList<Inter>();
+
+        for (Scanner scanner : scanners) {
+            (scanner.useSeeds ? seedsPerf : rangePerf).include(scanner.perf);
+
+            for (HeadInter inter : scanner.inters) {
+                Glyph glyph = inter.retrieveGlyph(image);
+
+                if (glyph != null) {
+                    sig.addVertex(inter);
+                    kept.add(inter);
+                }
+            }
+        }
+
+        return kept;
+    }
+
     //---------//
     // overlap //
     //---------//
@@ -633,76 +798,6 @@ public class NoteHeadsBuilder
         return false;
     }
 
-    //--------------//
-    // processStaff //
-    //--------------//
-    /**
-     * Retrieve notes along the provided staff.
-     * <p>
-     * Pay attention to adjust ordinate as precisely as possible in the middle
-     * of staff or ledger lines.
-     *
-     * @param staff the staff to process
-     * @param seeds should we stick to stem seeds or not?
-     * @return the list of created notes
-     */
-    private List<Inter> processStaff (Staff staff,
-                                      boolean seeds)
-    {
-        List<Inter> ch = new ArrayList<Inter>(); // Created heads
-
-        // Use all staff lines
-        int pitch = -5; // Current pitch
-        LineAdapter prevAdapter = null;
-
-        for (LineInfo line : staff.getLines()) {
-            LineAdapter adapter = new StaffLineAdapter(staff, line);
-
-            // Look above line
-            ch.addAll(new Scanner(adapter, prevAdapter, -1, pitch++, seeds).lookup());
-
-            // Look exactly on line
-            ch.addAll(new Scanner(adapter, null, 0, pitch++, seeds).lookup());
-
-            // For the last line only, look just below line
-            if (pitch == 5) {
-                ch.addAll(new Scanner(adapter, null, 1, pitch++, seeds).lookup());
-            }
-
-            prevAdapter = adapter;
-        }
-
-        // Use all ledgers, above staff, then below staff
-        for (int dir : new int[]{-1, 1}) {
-            pitch = dir * 4;
-
-            for (int i = dir;; i += dir) {
-                List<LedgerInter> set = staff.getLedgers(i);
-
-                if ((set == null) || set.isEmpty()) {
-                    break;
-                }
-
-                char c = 'a';
-                pitch += (2 * dir);
-
-                for (LedgerInter ledger : set) {
-                    String p = "" + c++;
-                    Glyph glyph = ledger.getGlyph();
-                    LineAdapter adapter = new LedgerAdapter(staff, p, glyph);
-                    // Look right on ledger
-                    ch.addAll(new Scanner(adapter, null, 0, pitch, seeds).lookup());
-
-                    // Look just further from staff
-                    int pitch2 = pitch + dir;
-                    ch.addAll(new Scanner(adapter, null, dir, pitch2, seeds).lookup());
-                }
-            }
-        }
-
-        return ch;
-    }
-
     //-----------------//
     // purgeDuplicates //
     //-----------------//
@@ -759,6 +854,62 @@ public class NoteHeadsBuilder
         return removed.size();
     }
 
+    //-------------//
+    // runScanners //
+    //-------------//
+    /**
+     * Run the provided scanners, in parallel if allowed.
+     * <p>
+     * Scanners only read shared data (competitors, seeds, spots, distances), hence they can be
+     * run concurrently.
+     *
+     * @param scanners the scanners to run
+     */
+    private void runScanners (List<Scanner> scanners)
+    {
+        if ((scanners.size() < 2)
+            || !constants.parallelScans.isSet()
+            || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+            // Sequential
+            for (Scanner scanner : scanners) {
+                scanner.lookup();
+            }
+        } else {
+            // Parallel
+            try {
+                final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(scanners.size());
+
+                for (final Scanner scanner : scanners) {
+                    tasks.add(
+                            new Callable<Void>()
+                    {
+                        @Override
+                        public Void call ()
+                                throws Exception
+                        {
+                            scanner.lookup();
+
+                            return null;
+                        }
+                    });
+                }
+
+                // Launch the tasks and wait for their completion
+                for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                logger.warn("Head scanners got interrupted");
+                throw new ProcessingCancellationException(ex);
+            } catch (ProcessingCancellationException pce) {
+                throw pce;
+            } catch (Throwable ex) {
+                logger.warn("Exception raised in head scanners", ex);
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
     //-------------//
     // LineAdapter //
@@ -792,8 +943,8 @@ public class NoteHeadsBuilder
          * @param above offset (positive or negative) from line to top limit.
          * @param below offset (positive or negative) from line to bottom limit.
          */
-        public abstract Area getArea (double above,
-                                      double below);
+        public abstract GeoPolygon getArea (double above,
+                                            double below);
 
         /** Report the abscissa at beginning of line. */
         public abstract int getLeftAbscissa ();
@@ -866,6 +1017,14 @@ public class NoteHeadsBuilder
         private final Constant.Ratio minHoleWhiteRatio = new Constant.Ratio(
                 0.2,
                 "Minimum ratio of hole white pixel to reassign Black to Void");
+
+        private final Constant.Boolean useCompiledTemplates = new Constant.Boolean(
+                true,
+                "Should we use bit-packed templates for matching?");
+
+        private final Constant.Boolean parallelScans = new Constant.Boolean(
+                true,
+                "Should we run line and ledger scanners in parallel?");
     }
 
     //-----------//
@@ -935,6 +1094,8 @@ public class NoteHeadsBuilder
 
         final double reallyBadDistance;
 
+        final double maxFirstDistance;
+
         final int maxTemplateDx;
 
         final int maxOpenDy;
@@ -952,6 +1113,7 @@ public class NoteHeadsBuilder
             maxDistanceLow = Template.maxDistanceLow();
             maxDistanceHigh = Template.maxDistanceHigh();
             reallyBadDistance = Template.reallyBadDistance();
+            maxFirstDistance = Math.max(maxDistanceLow, reallyBadDistance);
 
             maxTemplateDx = scale.toPixels(constants.maxTemplateDx);
             maxOpenDy = Math.max(1, scale.toPixels(constants.maxOpenDy));
@@ -989,8 +1151,8 @@ public class NoteHeadsBuilder
 
         //~ Methods --------------------------------------------------------------------------------
         @Override
-        public Area getArea (double above,
-                             double below)
+        public GeoPolygon getArea (double above,
+                                   double below)
         {
             Path2D path = new Path2D.Double();
             path.moveTo(left.getX(), left.getY() + above);
@@ -999,7 +1161,7 @@ public class NoteHeadsBuilder
             path.lineTo(left.getX(), left.getY() + below + 1);
             path.closePath();
 
-            return new Area(path);
+            return new GeoPolygon(path);
         }
 
         @Override
@@ -1041,6 +1203,13 @@ public class NoteHeadsBuilder
         int abandons;
 
         //~ Methods --------------------------------------------------------------------------------
+        public void include (Perf that)
+        {
+            overlaps += that.overlaps;
+            evals += that.evals;
+            abandons += that.abandons;
+        }
+
         @Override
         public String toString ()
         {
@@ -1071,16 +1240,23 @@ public class NoteHeadsBuilder
 
         private final boolean useSeeds;
 
-        private final Area competitorsArea;
+        private final GeoPolygon competitorsArea;
 
-        private final Area seedsArea;
+        private final GeoPolygon seedsArea;
 
         private final List<Inter> competitors;
 
         private final List<LedgerAdapter> ledgers;
 
+        /** Templates for the staff at hand. */
+        private final Catalog catalog;
+
+        /** Head candidates found, not yet inserted in SIG. */
         private List<HeadInter> inters = new ArrayList<HeadInter>();
 
+        /** Statistics for this scanner. */
+        private final Perf perf = new Perf();
+
         /** Offsets tried around a given ordinate. */
         private final int[] yOffsets;
 
@@ -1113,6 +1289,7 @@ public class NoteHeadsBuilder
             final Staff staff = line.getStaff();
             interline = staff.getSpecificInterline();
             ledgers = getLedgerAdapters(staff, pitch);
+            catalog = getCatalog(staff);
 
             {
                 // Horizontal slice to detect stem seeds
@@ -1196,10 +1373,21 @@ public class NoteHeadsBuilder
         //------//
         // eval //
         //------//
+        /**
+         * Evaluate the provided shape at provided location.
+         *
+         * @param shape     the shape to test
+         * @param x         pivot abscissa
+         * @param y         pivot ordinate
+         * @param anchor    precise anchor
+         * @param threshold distance above which the exact value is not needed
+         * @return the (valued) location, or null if overlapping a competitor
+         */
         private PixelDistance eval (Shape shape,
                                     int x,
                                     int y,
-                                    Anchor anchor)
+                                    Anchor anchor,
+                                    double threshold)
         {
             final ShapeDescriptor desc = catalog.getDescriptor(shape);
             final Rectangle symBox = desc.getSymbolBoundsAt(x, y, anchor);
@@ -1207,23 +1395,17 @@ public class NoteHeadsBuilder
             // Skip if location already used by really good object (beam, etc)
             //TODO: perhaps use a slightly fattened box?
             if (overlap(symBox, competitors)) {
-                if (useSeeds) {
-                    seedsPerf.overlaps++;
-                } else {
-                    rangePerf.overlaps++;
-                }
+                perf.overlaps++;
 
                 return null;
             }
 
             // Then try (all variants for) the shape and keep the best dist
-            double dist = desc.evaluate(x, y, anchor, distances);
+            final double dist = (packedTable != null)
+                    ? desc.evaluate(x, y, anchor, packedTable, threshold)
+                    : desc.evaluate(x, y, anchor, distances);
 
-            if (useSeeds) {
-                seedsPerf.evals++;
-            } else {
-                rangePerf.evals++;
-            }
+            perf.evals++;
 
             return new PixelDistance(x, y, dist);
         }
@@ -1245,7 +1427,9 @@ public class NoteHeadsBuilder
                                        Anchor anchor)
         {
             final ShapeDescriptor desc = catalog.getDescriptor(Shape.NOTEHEAD_VOID);
-            final double holeWhiteRatio = desc.evaluateHole(x, y, anchor, distances);
+            final double holeWhiteRatio = (packedTable != null)
+                    ? desc.evaluateHole(x, y, anchor, packedTable)
+                    : desc.evaluateHole(x, y, anchor, distances);
 
             if (holeWhiteRatio >= constants.minHoleWhiteRatio.getValue()) {
                 return Shape.NOTEHEAD_VOID;
@@ -1380,7 +1564,10 @@ public class NoteHeadsBuilder
 
                     for (int yOffset : yOffsets) {
                         final int y = y0 + yOffset;
-                        PixelDistance loc = eval(shape, x0, y, MIDDLE_LEFT);
+                        // First location tried needs exact value up to reallyBadDistance
+                        final double threshold = (y == y0) ? params.maxFirstDistance
+                                : params.maxDistanceLow;
+                        PixelDistance loc = eval(shape, x0, y, MIDDLE_LEFT, threshold);
 
                         if ((loc != null) && (loc.d <= params.maxDistanceLow)) {
                             if ((bestLoc == null) || (bestLoc.d > loc.d)) {
@@ -1390,7 +1577,7 @@ public class NoteHeadsBuilder
                             // This is the very first (best guess) location tried.
                             // If eval is really bad, stop immediately
                             if ((loc == null) || (loc.d >= params.reallyBadDistance)) {
-                                rangePerf.abandons++;
+                                perf.abandons++;
 
                                 continue ShapeLoop;
                             }
@@ -1427,17 +1614,6 @@ public class NoteHeadsBuilder
             // Check conflict with seed-based instances
             inters = filterSeedConflicts(inters, competitors);
 
-            for (Iterator<HeadInter> it = inters.iterator(); it.hasNext();) {
-                HeadInter inter = it.next();
-                Glyph glyph = inter.retrieveGlyph(image);
-
-                if (glyph != null) {
-                    sig.addVertex(inter);
-                } else {
-                    it.remove();
-                }
-            }
-
             return inters;
         }
 
@@ -1480,7 +1656,10 @@ public class NoteHeadsBuilder
 
                             for (int xOffset : xOffsets) {
                                 final int x = x0 + xOffset;
-                                PixelDistance loc = eval(shape, x, y, anchor);
+                                // First location tried needs exact value up to reallyBadDistance
+                                final double threshold = ((x == x0) && (y == y0))
+                                        ? params.maxFirstDistance : params.maxDistanceLow;
+                                PixelDistance loc = eval(shape, x, y, anchor, threshold);
 
                                 if ((loc != null) && (loc.d <= params.maxDistanceLow)) {
                                     if ((bestLoc == null) || (bestLoc.d > loc.d)) {
@@ -1490,7 +1669,7 @@ public class NoteHeadsBuilder
                                     // This is the very first (best guess) location tried.
                                     // If eval is really bad, stop immediately
                                     if ((loc == null) || (loc.d >= params.reallyBadDistance)) {
-                                        seedsPerf.abandons++;
+                                        perf.abandons++;
 
                                         continue ShapeLoop;
                                     }
@@ -1516,12 +1695,7 @@ public class NoteHeadsBuilder
                                     pitch);
 
                             if (inter != null) {
-                                Glyph glyph = inter.retrieveGlyph(image);
-
-                                if (glyph != null) {
-                                    sig.addVertex(inter);
-                                    inters.add(inter);
-                                }
+                                inters.add(inter);
                             }
                         }
                     }
@@ -1555,8 +1729,8 @@ public class NoteHeadsBuilder
 
         //~ Methods --------------------------------------------------------------------------------
         @Override
-        public Area getArea (double above,
-                             double below)
+        public GeoPolygon getArea (double above,
+                                   double below)
         {
             NaturalSpline spline = line.getSpline();
             GeoPath path = new GeoPath();
@@ -1572,7 +1746,7 @@ public class NoteHeadsBuilder
 
             path.closePath();
 
-            return new Area(path);
+            return new GeoPolygon(path);
         }
 
         @Override
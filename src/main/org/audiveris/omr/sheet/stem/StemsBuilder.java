@@ -35,6 +35,7 @@ import org.audiveris.omr.glyph.dynamic.SectionCompound;
 import org.audiveris.omr.glyph.dynamic.StraightFilament;
 import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.run.Orientation;
@@ -76,7 +77,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
@@ -735,7 +735,7 @@ public class StemsBuilder
             private Point2D targetPt;
 
             /** The look up area for the corner. */
-            private Area area;
+            private GeoPolygon area;
 
             /** The stems seeds found in the corner. */
             private List<Glyph> seeds;
@@ -1164,7 +1164,7 @@ public class StemsBuilder
              *
              * @return the lookup area
              */
-            private Area getLuArea ()
+            private GeoPolygon getLuArea ()
             {
                 final double slope = skew.getSlope();
                 final double dSlope = -xDir * yDir * params.slopeMargin;
@@ -1191,7 +1191,7 @@ public class StemsBuilder
                 sb.append((corner.hSide == LEFT) ? "L" : "R");
                 head.addAttachment(sb.toString(), lu);
 
-                return new Area(lu);
+                return new GeoPolygon(lu);
             }
 
             //-------------//
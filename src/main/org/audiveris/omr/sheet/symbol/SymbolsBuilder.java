@@ -28,7 +28,7 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphCluster;
-import org.audiveris.omr.glyph.GlyphLink;
+import org.audiveris.omr.glyph.GlyphGraph;
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Symbol.Group;
@@ -43,9 +43,6 @@ import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 
-import org.jgrapht.alg.ConnectivityInspector;
-import org.jgrapht.graph.SimpleGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -157,7 +154,7 @@ public class SymbolsBuilder
         // Formalize glyphs relationships in a system-level graph
         watch.start("buildLinks");
 
-        final SimpleGraph<Glyph, GlyphLink> systemGraph = Glyphs.buildLinks(glyphs, params.maxGap);
+        final GlyphGraph systemGraph = Glyphs.buildLinks(glyphs, params.maxGap);
 
         // Process all sets of connected glyphs
         watch.start("processClusters");
@@ -310,13 +307,11 @@ public class SymbolsBuilder
      *
      * @param systemGraph the graph of candidate glyphs, with their mutual distances
      */
-    private void processClusters (SimpleGraph<Glyph, GlyphLink> systemGraph)
+    private void processClusters (GlyphGraph systemGraph)
     {
         // Retrieve all the clusters of glyphs (sets of connected glyphs)
-        final ConnectivityInspector<Glyph, GlyphLink> inspector = new ConnectivityInspector<Glyph, GlyphLink>(
-                systemGraph);
-        final List<Set<Glyph>> sets = inspector.connectedSets();
-        logger.debug("symbols sets: {}", sets.size());
+        final List<Set<Glyph>> sets = systemGraph.connectedSets();
+        logger.debug("symbols {} sets: {}", systemGraph, sets.size());
 
         final int interline = sheet.getInterline();
         final int maxPartCount = constants.maxPartCount.getValue();
@@ -339,8 +334,7 @@ public class SymbolsBuilder
                 }
 
                 // Use just the subgraph for this (sub)set
-                final SimpleGraph<Glyph, GlyphLink> subGraph;
-                subGraph = GlyphCluster.getSubGraph(subSet, systemGraph, true);
+                final GlyphGraph subGraph = systemGraph.subGraph(subSet);
                 new GlyphCluster(new SymbolAdapter(subGraph), Group.SYMBOL).decompose();
             } else {
                 // The set is just an isolated glyph, to be evaluated directly
@@ -464,7 +458,7 @@ public class SymbolsBuilder
         private final Scale scale = sheet.getScale();
 
         //~ Constructors ---------------------------------------------------------------------------
-        public SymbolAdapter (SimpleGraph<Glyph, GlyphLink> graph)
+        public SymbolAdapter (GlyphGraph graph)
         {
             super(graph);
         }
@@ -61,7 +61,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.Shape;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -456,7 +456,7 @@ public class SymbolsFilter
         // processArea //
         //-------------//
         @Override
-        protected void processArea (Area area)
+        protected void processArea (Shape area)
         {
             // Save the area corresponding glyph(s)?
             if (systemWeaks != null) {
@@ -22,18 +22,22 @@
 package org.audiveris.omr.sig;
 
 import org.audiveris.omr.classifier.Evaluation;
+import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sheet.SystemManager;
+import org.audiveris.omr.sheet.SystemsMap;
 import org.audiveris.omr.sig.inter.DeletedInterException;
 import org.audiveris.omr.sig.inter.Inter;
 import org.audiveris.omr.sig.inter.Inters;
 import org.audiveris.omr.sig.inter.SentenceInter;
 import org.audiveris.omr.sig.relation.Relation;
 import org.audiveris.omr.sig.relation.Support;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.Predicate;
 import org.audiveris.omr.util.VerticalSide;
 
@@ -42,9 +46,11 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Class {@code CrossDetector} browses the horizontal gutters between systems for inters
@@ -82,114 +88,72 @@ public class CrossDetector
     public void process ()
     {
         final SystemManager manager = sheet.getSystemManager();
+        final List<Gutter> gutters = new ArrayList<Gutter>();
 
         for (SystemInfo above : sheet.getSystems()) {
             for (SystemInfo below : manager.verticalNeighbors(above, VerticalSide.BOTTOM)) {
-                detect(above, below);
+                gutters.add(new Gutter(above, below));
             }
         }
-    }
-
-    //--------//
-    // detect //
-    //--------//
-    private void detect (SystemInfo aboveSystem,
-                         SystemInfo belowSystem)
-    {
-        // Gutter area
-        final Area gutter = new Area(aboveSystem.getArea());
-        gutter.intersect(belowSystem.getArea());
-
-        final Rectangle gutterBounds = gutter.getBounds();
 
-        // Build lists of candidates for above and for below
-        Predicate<Inter> predicate = new Predicate<Inter>()
-        {
-            @Override
-            public boolean check (Inter inter)
-            {
-                if (inter instanceof SentenceInter) {
-                    return false;
-                }
-
-                final Point center = inter.getCenter();
-
-                return gutterBounds.contains(center) && gutter.contains(center);
-            }
-        };
+        // Broad phase, which only reads the SIGs, can be run in parallel
+        collectCandidates(gutters);
 
-        List<Inter> aboveInters = aboveSystem.getSig().inters(predicate);
-
-        if (aboveInters.isEmpty()) {
-            return;
-        }
-
-        List<Inter> belowInters = belowSystem.getSig().inters(predicate);
-
-        if (belowInters.isEmpty()) {
-            return;
+        // Precise checks may remove inters, hence they are run sequentially
+        for (Gutter gutter : gutters) {
+            gutter.detectCrossOverlaps();
         }
-
-        // Cross exclusions
-        logger.debug(
-                "Cross detection between {}: {} inters and {}: {} inters",
-                aboveSystem,
-                aboveInters.size(),
-                belowSystem,
-                belowInters.size());
-        detectCrossOverlaps(aboveInters, belowInters);
     }
 
-    //---------------------//
-    // detectCrossOverlaps //
-    //---------------------//
+    //-------------------//
+    // collectCandidates //
+    //-------------------//
     /**
-     * Detect all cases where 2 Inters actually overlap while being in separate systems.
+     * Collect the candidate pairs of every gutter, in parallel if allowed.
      *
-     * @param aboves the collection of inters to process from system above
-     * @param belows the collection of inters to process from system below
+     * @param gutters the gutters to process
      */
-    private void detectCrossOverlaps (List<Inter> aboves,
-                                      List<Inter> belows)
+    private void collectCandidates (List<Gutter> gutters)
     {
-        Collections.sort(aboves, Inters.byAbscissa);
-        Collections.sort(belows, Inters.byAbscissa);
-
-        NextLeft:
-        for (Inter above : aboves) {
-            if (above.isRemoved()) {
-                continue;
+        if ((gutters.size() < 2)
+            || !constants.parallelGutters.isSet()
+            || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+            // Sequential
+            for (Gutter gutter : gutters) {
+                gutter.collectCandidates();
             }
-
-            final Rectangle aboveBox = above.getBounds();
-
-            final double xMax = aboveBox.getMaxX();
-
-            for (Inter below : belows) {
-                if (below.isRemoved()) {
-                    continue;
+        } else {
+            // Parallel
+            try {
+                final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(gutters.size());
+
+                for (final Gutter gutter : gutters) {
+                    tasks.add(
+                            new Callable<Void>()
+                    {
+                        @Override
+                        public Void call ()
+                                throws Exception
+                        {
+                            gutter.collectCandidates();
+
+                            return null;
+                        }
+                    });
                 }
 
-                Rectangle belowBox = below.getBounds();
-
-                if (aboveBox.intersects(belowBox)) {
-                    // Have a more precise look
-                    try {
-                        if (above.overlaps(below) && below.overlaps(above)) {
-                            Inter removedInter = resolveConflict(above, below);
-
-                            if (removedInter == above) {
-                                continue NextLeft;
-                            }
-                        }
-                    } catch (DeletedInterException diex) {
-                        if (diex.inter == above) {
-                            continue NextLeft;
-                        }
-                    }
-                } else if (belowBox.x > xMax) {
-                    break; // Since below list is sorted by abscissa
+                // Launch the tasks and wait for their completion
+                for (Future<Void> future : OmrExecutors.getHighExecutor().invokeAll(tasks)) {
+                    future.get();
                 }
+            } catch (InterruptedException ex) {
+                logger.warn("Gutter scans got interrupted");
+                throw new ProcessingCancellationException(ex);
+            } catch (ProcessingCancellationException pce) {
+                throw pce;
+            } catch (Throwable ex) {
+                logger.warn("Exception raised in gutter scans", ex);
+                throw new RuntimeException(ex);
             }
         }
     }
@@ -290,5 +254,161 @@ public class CrossDetector
         private final Evaluation.Grade minGradeDiff = new Evaluation.Grade(
                 0.1,
                 "Minimum difference in ctx-grade to be relevant");
+
+        private final Constant.Boolean parallelGutters = new Constant.Boolean(
+                true,
+                "Should we scan the gutters between systems in parallel?");
+    }
+
+    //--------//
+    // Gutter //
+    //--------//
+    /**
+     * The gutter between two vertically neighboring systems.
+     * <p>
+     * Inters located in the gutter band are swept by increasing abscissa, so that only the pairs
+     * of inters with intersecting bounds are retained as candidates for precise checks.
+     */
+    private class Gutter
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final SystemInfo aboveSystem;
+
+        private final SystemInfo belowSystem;
+
+        /** Candidate pairs, as aboves.get(i) vs belows.get(i). */
+        private final List<Inter> aboves = new ArrayList<Inter>();
+
+        private final List<Inter> belows = new ArrayList<Inter>();
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Gutter (SystemInfo aboveSystem,
+                       SystemInfo belowSystem)
+        {
+            this.aboveSystem = aboveSystem;
+            this.belowSystem = belowSystem;
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        //-------------------//
+        // collectCandidates //
+        //-------------------//
+        /**
+         * Collect the pairs of inters, one from each system, whose bounds intersect.
+         */
+        public void collectCandidates ()
+        {
+            // Gutter area is the intersection of both system areas
+            final SystemsMap map = sheet.getSystemManager().getSystemsMap();
+            final Rectangle band = map.getGutter(aboveSystem, belowSystem);
+
+            if (band == null) {
+                return;
+            }
+
+            // Build lists of candidates for above and for below
+            Predicate<Inter> predicate = new Predicate<Inter>()
+            {
+                @Override
+                public boolean check (Inter inter)
+                {
+                    if (inter instanceof SentenceInter) {
+                        return false;
+                    }
+
+                    final Point center = inter.getCenter();
+
+                    return band.contains(center)
+                           && map.contains(aboveSystem, center.x, center.y)
+                           && map.contains(belowSystem, center.x, center.y);
+                }
+            };
+
+            final List<Inter> aboveInters = aboveSystem.getSig().inters(predicate);
+
+            if (aboveInters.isEmpty()) {
+                return;
+            }
+
+            final List<Inter> belowInters = belowSystem.getSig().inters(predicate);
+
+            if (belowInters.isEmpty()) {
+                return;
+            }
+
+            logger.debug(
+                    "Cross detection between {}: {} inters and {}: {} inters",
+                    aboveSystem,
+                    aboveInters.size(),
+                    belowSystem,
+                    belowInters.size());
+
+            Collections.sort(aboveInters, Inters.byAbscissa);
+            Collections.sort(belowInters, Inters.byAbscissa);
+
+            final Rectangle[] belowBoxes = new Rectangle[belowInters.size()];
+            int maxWidth = 0;
+
+            for (int i = 0; i < belowBoxes.length; i++) {
+                belowBoxes[i] = belowInters.get(i).getBounds();
+                maxWidth = Math.max(maxWidth, belowBoxes[i].width);
+            }
+
+            // Sweep by increasing abscissa
+            int first = 0;
+
+            for (Inter above : aboveInters) {
+                final Rectangle aboveBox = above.getBounds();
+                final int xMax = aboveBox.x + aboveBox.width;
+
+                // Skip belows too far on left, they can't reach this above nor the next ones
+                while ((first < belowBoxes.length)
+                       && ((belowBoxes[first].x + maxWidth) <= aboveBox.x)) {
+                    first++;
+                }
+
+                for (int i = first; i < belowBoxes.length; i++) {
+                    final Rectangle belowBox = belowBoxes[i];
+
+                    if (belowBox.x >= xMax) {
+                        break; // Since belows are sorted by abscissa
+                    }
+
+                    if (aboveBox.intersects(belowBox)) {
+                        aboves.add(above);
+                        belows.add(belowInters.get(i));
+                    }
+                }
+            }
+        }
+
+        //---------------------//
+        // detectCrossOverlaps //
+        //---------------------//
+        /**
+         * Detect all cases where 2 candidate Inters actually overlap while being in
+         * separate systems.
+         */
+        public void detectCrossOverlaps ()
+        {
+            for (int i = 0; i < aboves.size(); i++) {
+                final Inter above = aboves.get(i);
+                final Inter below = belows.get(i);
+
+                if (above.isRemoved() || below.isRemoved()) {
+                    continue;
+                }
+
+                // Have a more precise look
+                try {
+                    if (above.overlaps(below) && below.overlaps(above)) {
+                        resolveConflict(above, below);
+                    }
+                } catch (DeletedInterException ignored) {
+                    // One of the two inters has just been removed
+                }
+            }
+        }
     }
 }
@@ -24,6 +24,7 @@ package org.audiveris.omr.sig;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.GeoPolygon;
 import static org.audiveris.omr.math.GeoOrder.*;
 import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.SystemInfo;
@@ -48,7 +49,6 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -251,7 +251,7 @@ public class SIGraph
 
             if ((bounds != null) && bounds.contains(point)) {
                 // More precise test if we know inter area
-                Area area = inter.getArea();
+                GeoPolygon area = inter.getArea();
 
                 if ((area == null) || area.contains(point)) {
                     found.add(inter);
@@ -767,7 +767,7 @@ public class SIGraph
      */
     public static List<Inter> intersectedInters (List<Inter> inters,
                                                  GeoOrder order,
-                                                 Area area)
+                                                 GeoPolygon area)
     {
         List<Inter> found = new ArrayList<Inter>();
         Rectangle bounds = area.getBounds();
@@ -1345,6 +1345,10 @@ public class SigReducer
      * <p>
      * This method is key!
      *
+     * Candidate pairs are found by a sweep over inters sorted by abscissa: the right candidates
+     * of a left inter are only the following inters which start before the left inter ends.
+     * Shape compatibility is checked before ordinate filtering and precise overlap check.
+     *
      * @param inters the collection of inters to process
      */
     private void detectOverlaps (List<Inter> inters,
@@ -1353,15 +1357,25 @@ public class SigReducer
         logger.debug("S#{} detectOverlaps", system.getId());
         Collections.sort(inters, Inters.byAbscissa);
 
+        final int count = inters.size();
+        final Rectangle[] boxes = new Rectangle[count];
+
+        for (int i = 0; i < count; i++) {
+            boxes[i] = inters.get(i).getBounds();
+        }
+
+        int candidates = 0; // Pairs submitted to precise check
+        int exclusions = 0; // Exclusions inserted
+
         NextLeft:
-        for (int i = 0, iBreak = inters.size() - 1; i < iBreak; i++) {
-            Inter left = inters.get(i);
+        for (int i = 0, iBreak = count - 1; i < iBreak; i++) {
+            final Inter left = inters.get(i);
+            final Rectangle leftBox = boxes[i];
 
-            if (left.isRemoved()) {
+            if (left.isRemoved() || leftBox.isEmpty()) {
                 continue;
             }
 
-            final Rectangle leftBox = left.getBounds();
             Set<Inter> mirrors = null;
 
             final Inter leftMirror = left.getMirror();
@@ -1384,9 +1398,18 @@ public class SigReducer
                 }
             }
 
-            final double xMax = leftBox.getMaxX();
+            final int xMax = leftBox.x + leftBox.width;
+            final int yMax = leftBox.y + leftBox.height;
+
+            for (int j = i + 1; j < count; j++) {
+                final Rectangle rightBox = boxes[j];
+
+                if (rightBox.x >= xMax) {
+                    break; // Since inters list is sorted by abscissa
+                }
+
+                final Inter right = inters.get(j);
 
-            for (Inter right : inters.subList(i + 1, inters.size())) {
                 if (right.isRemoved()) {
                     continue;
                 }
@@ -1401,40 +1424,51 @@ public class SigReducer
                     continue;
                 }
 
-                Rectangle rightBox = right.getBounds();
+                // Abscissa intervals overlap, check ordinate intervals
+                if (rightBox.isEmpty() || (rightBox.y >= yMax)
+                    || ((rightBox.y + rightBox.height) <= leftBox.y)) {
+                    continue;
+                }
 
-                if (leftBox.intersects(rightBox)) {
-                    // Have a more precise look
-                    if (left.isVip() && right.isVip()) {
-                        logger.info("VIP check overlap {} vs {}", left, right);
-                    }
+                // Have a more precise look
+                candidates++;
 
-                    try {
-                        if (left.overlaps(right) && right.overlaps(left)) {
-                            // Specific case: Word vs "string" Symbol
-                            if (left instanceof WordInter && right instanceof StringSymbolInter) {
-                                if (wordMatchesSymbol((WordInter) left, (StringSymbolInter) right)) {
-                                    left.decrease(0.5);
-                                }
-                            } else if (left instanceof StringSymbolInter
-                                       && right instanceof WordInter) {
-                                if (wordMatchesSymbol((WordInter) right, (StringSymbolInter) left)) {
-                                    right.decrease(0.5);
-                                }
-                            }
+                if (left.isVip() && right.isVip()) {
+                    logger.info("VIP check overlap {} vs {}", left, right);
+                }
 
-                            exclude(left, right);
+                try {
+                    if (left.overlaps(right) && right.overlaps(left)) {
+                        // Specific case: Word vs "string" Symbol
+                        if (left instanceof WordInter && right instanceof StringSymbolInter) {
+                            if (wordMatchesSymbol((WordInter) left, (StringSymbolInter) right)) {
+                                left.decrease(0.5);
+                            }
+                        } else if (left instanceof StringSymbolInter
+                                   && right instanceof WordInter) {
+                            if (wordMatchesSymbol((WordInter) right, (StringSymbolInter) left)) {
+                                right.decrease(0.5);
+                            }
                         }
-                    } catch (DeletedInterException diex) {
-                        if (diex.inter == left) {
-                            continue NextLeft;
+
+                        if (exclude(left, right)) {
+                            exclusions++;
                         }
                     }
-                } else if (rightBox.x > xMax) {
-                    break; // Since inters list is sorted by abscissa
+                } catch (DeletedInterException diex) {
+                    if (diex.inter == left) {
+                        continue NextLeft;
+                    }
                 }
             }
         }
+
+        logger.debug(
+                "S#{} overlaps: {} inters, {} candidate pairs, {} exclusions",
+                system.getId(),
+                count,
+                candidates,
+                exclusions);
     }
 
     //---------//
@@ -1459,14 +1493,21 @@ public class SigReducer
     //---------//
     // exclude //
     //---------//
-    private void exclude (Inter left,
-                          Inter right)
+    /**
+     * Insert an overlap exclusion between the 2 provided inters, if relevant.
+     *
+     * @param left  one inter
+     * @param right the other inter
+     * @return true if an exclusion has been inserted
+     */
+    private boolean exclude (Inter left,
+                             Inter right)
     {
         // Special overlap case between a stem and a standard-size note head
         if ((left instanceof StemInter && right instanceof HeadInter
              && !right.getShape().isSmall())
             || (right instanceof StemInter && left instanceof HeadInter && !left.getShape().isSmall())) {
-            return;
+            return false;
         }
 
         // If there is no support between left & right, insert an exclusion
@@ -1474,7 +1515,11 @@ public class SigReducer
 
         if (leftSig.noSupport(left, right)) {
             leftSig.insertExclusion(left, right, Exclusion.Cause.OVERLAP);
+
+            return true;
         }
+
+        return false;
     }
 
     //------------------//
@@ -1485,9 +1530,9 @@ public class SigReducer
      *
      * @return the headers inters
      */
-    private List<Inter> getHeadersInters ()
+    private Set<Inter> getHeadersInters ()
     {
-        List<Inter> inters = new ArrayList<Inter>();
+        Set<Inter> inters = new LinkedHashSet<Inter>();
 
         for (Staff staff : system.getStaves()) {
             StaffHeader header = staff.getHeader();
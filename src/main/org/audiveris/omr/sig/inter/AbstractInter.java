@@ -25,7 +25,7 @@ import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
-import org.audiveris.omr.math.AreaUtil;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.sheet.Part;
 import org.audiveris.omr.sheet.Staff;
@@ -52,7 +52,6 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.font.TextLayout;
-import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -160,7 +159,7 @@ public abstract class AbstractInter
     protected SIGraph sig;
 
     /** Object precise area, if any. */
-    protected Area area;
+    protected GeoPolygon area;
 
     /** Details about grade. */
     protected GradeImpacts impacts;
@@ -399,7 +398,7 @@ public abstract class AbstractInter
      * @return the area, if any
      */
     @Override
-    public Area getArea ()
+    public GeoPolygon getArea ()
     {
         return area;
     }
@@ -873,7 +872,7 @@ public abstract class AbstractInter
         if (this.area != null) {
             if (that.getArea() != null) {
                 // Area <--> Area?
-                return AreaUtil.intersection(this.area, that.getArea());
+                return this.area.intersects(that.getArea());
             } else if (that.getGlyph() != null) {
                 // Area <--> Glyph?
                 return that.getGlyph().intersects(this.area);
@@ -1179,7 +1178,7 @@ public abstract class AbstractInter
     /**
      * @param area the area to set
      */
-    protected void setArea (Area area)
+    protected void setArea (GeoPolygon area)
     {
         this.area = area;
     }
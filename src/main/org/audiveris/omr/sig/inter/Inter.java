@@ -23,6 +23,7 @@ package org.audiveris.omr.sig.inter;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.sheet.Part;
 import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.SystemInfo;
@@ -36,7 +37,6 @@ import org.audiveris.omr.util.Entity;
 import java.awt.Color;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
 import java.util.Collection;
 import java.util.Set;
@@ -112,7 +112,7 @@ public interface Inter
      *
      * @return the inter area, if any
      */
-    Area getArea ();
+    GeoPolygon getArea ();
 
     /**
      * Report the best grade (either contextual or intrinsic) assigned to interpretation
@@ -27,6 +27,7 @@ import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.math.CubicUtil;
 import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.GeoPolygon;
 import org.audiveris.omr.math.PointUtil;
 import org.audiveris.omr.sheet.Part;
 import org.audiveris.omr.sheet.Scale;
@@ -56,7 +57,6 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -840,7 +840,7 @@ public class SlurInter
         SlurLinker slurLinker = new SlurLinker(system.getSheet());
 
         // Define slur side areas
-        Map<HorizontalSide, Area> sideAreas = slurLinker.defineAreaPair(this);
+        Map<HorizontalSide, GeoPolygon> sideAreas = slurLinker.defineAreaPair(this);
 
         // Retrieve candidate chords
         Map<HorizontalSide, List<Inter>> chords = new EnumMap<HorizontalSide, List<Inter>>(
@@ -130,7 +130,8 @@ public class GlyphScanner
                 origin,
                 language,
                 OCR.LayoutMode.SINGLE_BLOCK,
-                sheet.getId() + "-g" + id);
+                sheet.getId() + "-g" + id,
+                sheet.getStub().getBook().getOcrCache());
     }
 
     //-----------//
@@ -182,7 +183,8 @@ public class GlyphScanner
                 origin,
                 language,
                 OCR.LayoutMode.SINGLE_BLOCK,
-                sheet.getId() + "-g" + glyph.getId());
+                sheet.getId() + "-g" + glyph.getId(),
+                sheet.getStub().getBook().getOcrCache());
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -79,6 +79,7 @@ public interface OCR
      * @param layoutMode   how the image layout should be analyzed
      * @param label        an optional label related to the image, null otherwise.
      *                     This is meant for keeping track of the temporary image files.
+     * @param cache        the cache of OCR results to consult and feed, or null
      * @return a list of TextLine instances, or null.
      *         The coordinates of any returned TextLine are absolute coordinates thanks to the topLeft
      *         parameter.
@@ -88,7 +89,8 @@ public interface OCR
                               Point topLeft,
                               String languageCode,
                               LayoutMode layoutMode,
-                              String label);
+                              String label,
+                              OcrCache cache);
 
     //~ Inner Classes ------------------------------------------------------------------------------
     /**
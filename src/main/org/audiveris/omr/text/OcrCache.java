@@ -0,0 +1,562 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                         O c r C a c h e                                        //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.text.OCR.LayoutMode;
+import org.audiveris.omr.util.Jaxb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class {@code OcrCache} keeps the raw results of OCR recognitions for a book, so that
+ * an image already recognized is not submitted again to the OCR engine.
+ * <p>
+ * An entry is keyed by a hash of the binarized image pixels, the language specification, the
+ * layout mode and the OCR engine version.
+ * Hence, re-running TEXTS step (after a language change or the edition of other symbols) or
+ * re-OCR'ing a glyph only reaches the engine for the images actually modified.
+ * <p>
+ * The cache is bounded, the least recently used entries being discarded first.
+ * It is stored in the book file, next to book.xml.
+ *
+ * @author Hervé Bitteur
+ */
+@XmlAccessorType(XmlAccessType.NONE)
+@XmlRootElement(name = "ocr-cache")
+public class OcrCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrCache.class);
+
+    /** Name of cache file within book file. */
+    public static final String FILE_NAME = "ocr-cache.xml";
+
+    /** Un/marshalling context for use with JAXB. */
+    private static volatile JAXBContext jaxbContext;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    //
+    // Persistent data
+    //----------------
+    //
+    /** Entries, least recently used first. Used only for marshalling. */
+    @XmlElement(name = "entry")
+    private List<Entry> entries;
+
+    // Transient data
+    //---------------
+    //
+    /** Entries per key, in access order. */
+    private final LinkedHashMap<String, Entry> map = new LinkedHashMap<String, Entry>(
+            16,
+            0.75f,
+            true);
+
+    /** Has cache been modified since loaded or stored?. */
+    private boolean modified;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //-----//
+    // get //
+    //-----//
+    /**
+     * Report the raw lines cached for the provided key.
+     *
+     * @param key the entry key
+     * @return the raw lines, or null if not cached
+     */
+    public synchronized List<Line> get (String key)
+    {
+        final Entry entry = map.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        logger.debug("OCR cache hit {}", key);
+
+        return entry.lines;
+    }
+
+    //------------//
+    // isModified //
+    //------------//
+    /**
+     * Report whether the cache has been modified since loaded or stored.
+     *
+     * @return true if modified
+     */
+    public synchronized boolean isModified ()
+    {
+        return modified;
+    }
+
+    //-------//
+    // keyOf //
+    //-------//
+    /**
+     * Build the key for an OCR recognition.
+     *
+     * @param image    the image to recognize (only its first band is considered)
+     * @param language the language specification
+     * @param mode     the layout mode
+     * @param engine   the OCR engine identification, including its version
+     * @return the entry key
+     */
+    public static String keyOf (BufferedImage image,
+                                String language,
+                                LayoutMode mode,
+                                String engine)
+    {
+        try {
+            final Raster raster = image.getRaster();
+            final int width = raster.getWidth();
+            final int height = raster.getHeight();
+            final int[] row = new int[width];
+            final byte[] bits = new byte[(width + 7) / 8];
+            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(new byte[]{
+                (byte) (width >>> 24), (byte) (width >>> 16), (byte) (width >>> 8), (byte) width,
+                (byte) (height >>> 24), (byte) (height >>> 16), (byte) (height >>> 8),
+                (byte) height
+            });
+
+            for (int y = 0; y < height; y++) {
+                raster.getSamples(raster.getMinX(), raster.getMinY() + y, width, 1, 0, row);
+
+                Arrays.fill(bits, (byte) 0);
+
+                for (int x = 0; x < width; x++) {
+                    if (row[x] <= 127) {
+                        bits[x >> 3] |= (1 << (x & 7));
+                    }
+                }
+
+                md.update(bits);
+            }
+
+            final StringBuilder sb = new StringBuilder();
+
+            for (byte b : md.digest()) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+
+            sb.append('|').append(language).append('|').append(mode).append('|').append(engine);
+
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex); // SHA-1 is always available
+        }
+    }
+
+    //------//
+    // load //
+    //------//
+    /**
+     * Load the cache stored in a book file, if any.
+     *
+     * @param root root path of book file system
+     * @return the loaded cache, or an empty cache if none was stored
+     * @throws Exception if cache file could not be read
+     */
+    public static OcrCache load (Path root)
+            throws Exception
+    {
+        final Path path = root.resolve(FILE_NAME);
+
+        if (!Files.exists(path)) {
+            return new OcrCache();
+        }
+
+        final OcrCache cache = (OcrCache) Jaxb.unmarshal(path, getJaxbContext());
+        logger.debug("Loaded {} with {} entries", path, cache.size());
+
+        return cache;
+    }
+
+    //-----//
+    // put //
+    //-----//
+    /**
+     * Cache the raw lines for the provided key, discarding the least recently used
+     * entries if needed.
+     *
+     * @param key   the entry key
+     * @param lines the raw lines
+     */
+    public synchronized void put (String key,
+                                  List<Line> lines)
+    {
+        map.put(key, new Entry(key, lines));
+        modified = true;
+
+        final int max = constants.maxEntries.getValue();
+
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext() && (map.size() > max);) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size ()
+    {
+        return map.size();
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Store the cache into a book file.
+     *
+     * @param root root path of book file system
+     * @throws Exception if cache file could not be written
+     */
+    public synchronized void store (Path root)
+            throws Exception
+    {
+        final Path path = root.resolve(FILE_NAME);
+        Files.deleteIfExists(path);
+        Jaxb.marshal(this, path, getJaxbContext());
+        modified = false;
+        logger.debug("Stored {} with {} entries", path, map.size());
+    }
+
+    //----------------//
+    // afterUnmarshal //
+    //----------------//
+    @SuppressWarnings("unused")
+    private void afterUnmarshal (Unmarshaller um,
+                                 Object parent)
+    {
+        if (entries != null) {
+            for (Entry entry : entries) {
+                map.put(entry.key, entry);
+            }
+
+            entries = null;
+        }
+    }
+
+    //---------------//
+    // beforeMarshal //
+    //---------------//
+    @SuppressWarnings("unused")
+    private void beforeMarshal (Marshaller m)
+    {
+        entries = new ArrayList<Entry>(map.values());
+    }
+
+    //----------------//
+    // getJaxbContext //
+    //----------------//
+    private static JAXBContext getJaxbContext ()
+            throws JAXBException
+    {
+        // Lazy creation
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(OcrCache.class);
+        }
+
+        return jaxbContext;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //------//
+    // Char //
+    //------//
+    /**
+     * Raw OCR symbol, whose value may contain several characters.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static class Char
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        @XmlAttribute
+        private int x;
+
+        @XmlAttribute
+        private int y;
+
+        @XmlAttribute
+        private int w;
+
+        @XmlAttribute
+        private int h;
+
+        @XmlAttribute
+        private String value;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Char (Rectangle bounds,
+                     String value)
+        {
+            x = bounds.x;
+            y = bounds.y;
+            w = bounds.width;
+            h = bounds.height;
+            this.value = value;
+        }
+
+        private Char ()
+        {
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        public Rectangle getBounds ()
+        {
+            return new Rectangle(x, y, w, h);
+        }
+
+        public String getValue ()
+        {
+            return value;
+        }
+    }
+
+    //------//
+    // Line //
+    //------//
+    /**
+     * Raw OCR line.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static class Line
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        @XmlElement(name = "word")
+        private final List<Word> words = new ArrayList<Word>();
+
+        //~ Methods --------------------------------------------------------------------------------
+        public List<Word> getWords ()
+        {
+            return words;
+        }
+    }
+
+    //------//
+    // Word //
+    //------//
+    /**
+     * Raw OCR word.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static class Word
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        @XmlAttribute
+        private int x;
+
+        @XmlAttribute
+        private int y;
+
+        @XmlAttribute
+        private int w;
+
+        @XmlAttribute
+        private int h;
+
+        @XmlAttribute
+        private String value;
+
+        @XmlAttribute
+        private double confidence;
+
+        /** Font attributes, as letters of a font mnemo. */
+        @XmlAttribute(name = "font-attributes")
+        private String fontAttributes;
+
+        @XmlAttribute(name = "font-size")
+        private int fontSize;
+
+        @XmlAttribute(name = "font-name")
+        private String fontName;
+
+        /** Baseline, if any, as x1 y1 x2 y2. */
+        @XmlAttribute
+        private String baseline;
+
+        @XmlElement(name = "char")
+        private final List<Char> chars = new ArrayList<Char>();
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Word (Rectangle bounds,
+                     String value,
+                     Line2D baseline,
+                     double confidence,
+                     FontInfo fontInfo)
+        {
+            x = bounds.x;
+            y = bounds.y;
+            w = bounds.width;
+            h = bounds.height;
+            this.value = value;
+            this.confidence = confidence;
+            fontAttributes = fontInfo.getMnemo().replaceAll("[^A-Z]", "");
+            fontSize = fontInfo.pointsize;
+            fontName = fontInfo.fontName;
+
+            if (baseline != null) {
+                this.baseline = baseline.getX1() + " " + baseline.getY1() + " " + baseline
+                        .getX2() + " " + baseline.getY2();
+            }
+        }
+
+        private Word ()
+        {
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        public Line2D getBaseline ()
+        {
+            if (baseline == null) {
+                return null;
+            }
+
+            final String[] tokens = baseline.split(" ");
+
+            return new Line2D.Double(
+                    Double.parseDouble(tokens[0]),
+                    Double.parseDouble(tokens[1]),
+                    Double.parseDouble(tokens[2]),
+                    Double.parseDouble(tokens[3]));
+        }
+
+        public Rectangle getBounds ()
+        {
+            return new Rectangle(x, y, w, h);
+        }
+
+        public List<Char> getChars ()
+        {
+            return chars;
+        }
+
+        public double getConfidence ()
+        {
+            return confidence;
+        }
+
+        public FontInfo getFontInfo ()
+        {
+            return new FontInfo(
+                    fontAttributes.indexOf('B') != -1,
+                    fontAttributes.indexOf('I') != -1,
+                    fontAttributes.indexOf('U') != -1,
+                    fontAttributes.indexOf('M') != -1,
+                    fontAttributes.indexOf('S') != -1,
+                    fontAttributes.indexOf('C') != -1,
+                    fontSize,
+                    fontName);
+        }
+
+        public String getValue ()
+        {
+            return value;
+        }
+    }
+
+    //-------//
+    // Entry //
+    //-------//
+    /**
+     * Cached result of one recognition.
+     */
+    @XmlAccessorType(XmlAccessType.NONE)
+    private static class Entry
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        @XmlAttribute
+        private String key;
+
+        @XmlElement(name = "line")
+        private List<Line> lines = new ArrayList<Line>();
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Entry (String key,
+                      List<Line> lines)
+        {
+            this.key = key;
+            this.lines = lines;
+        }
+
+        private Entry ()
+        {
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Integer maxEntries = new Constant.Integer(
+                "entries",
+                5000,
+                "Maximum number of OCR results cached per book");
+    }
+}
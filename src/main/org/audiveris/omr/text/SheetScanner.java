@@ -49,8 +49,10 @@ import org.audiveris.omr.sig.SIGraph;
 import org.audiveris.omr.sig.inter.HeadInter;
 import org.audiveris.omr.sig.inter.Inter;
 import org.audiveris.omr.sig.inter.LedgerInter;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.ui.BoardsPane;
 import org.audiveris.omr.util.LiveParam;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 
 import org.slf4j.Logger;
@@ -65,12 +67,21 @@ import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Class {@code SheetScanner} runs OCR on the whole sheet, where good inters and
  * staves core areas have been blanked.
  * <p>
- * Tesseract is used in MULTI_BLOCK layout mode, meaning that the sheet main contain several blocks
+ * The clean sheet image is cut into horizontal regions that contain ink, separated by blank rows.
+ * A region never spans two systems bands, so that texts above, between and below staves get
+ * recognized separately, and blank parts of the sheet are not submitted to OCR at all.
+ * Regions are recognized concurrently, and the lines found are translated back to sheet
+ * coordinates.
+ * <p>
+ * Tesseract is used in MULTI_BLOCK layout mode, meaning that a region may contain several blocks
  * of text.
  * <p>
  * The raw OCR output will later be processed at system level by dedicated TextBuilder instances.
@@ -119,9 +130,9 @@ public class SheetScanner
     // scanSheet //
     //-----------//
     /**
-     * Get a clean image of whole sheet and run OCR on it.
+     * Get a clean image of whole sheet and run OCR on its inked regions.
      *
-     * @return the list of OCR'ed lines found
+     * @return the list of OCR'ed lines found, or null if OCR failed on every region
      */
     public List<TextLine> scanSheet ()
     {
@@ -139,16 +150,16 @@ public class SheetScanner
             logger.debug("scanSheet lan:{} on {}", language, sheet);
             textParam.setActual(language);
 
-            // Perform OCR on whole image
+            // Cut image into inked regions
+            watch.start("getRegions");
+
+            final List<Rectangle> regions = getRegions();
+            logger.debug("{} OCR regions: {}", sheet.getId(), regions);
+
+            // Perform OCR on each region
             watch.start("OCR recognize");
 
-            return TextBuilder.getOcr().recognize(
-                    sheet.getScale().getInterline(),
-                    image,
-                    null,
-                    language,
-                    OCR.LayoutMode.MULTI_BLOCK,
-                    sheet.getId());
+            return recognizeRegions(image, regions, language);
         } finally {
             if (constants.printWatch.isSet()) {
                 watch.print();
@@ -195,6 +206,213 @@ public class SheetScanner
         return img;
     }
 
+    //------------//
+    // getRegions //
+    //------------//
+    /**
+     * Cut the clean buffer into horizontal regions that contain ink.
+     * <p>
+     * A region ends when a sufficient height of blank rows is met, or when a blank row is met past
+     * the boundary between two systems bands.
+     * Each region is then limited horizontally to its inked columns, and given a margin that
+     * never reaches the ink of neighboring regions.
+     *
+     * @return the sequence of regions, from top to bottom
+     */
+    private List<Rectangle> getRegions ()
+    {
+        final Scale scale = sheet.getScale();
+        final int width = buffer.getWidth();
+        final int height = buffer.getHeight();
+        final int minGap = Math.max(1, scale.toPixels(constants.minRegionGap));
+        final int margin = scale.toPixels(constants.regionMargin);
+
+        // Inked columns range for each row (xMin > xMax for a blank row)
+        final int[] xMins = new int[height];
+        final int[] xMaxs = new int[height];
+
+        for (int y = 0; y < height; y++) {
+            xMins[y] = width;
+            xMaxs[y] = -1;
+
+            for (int x = 0; x < width; x++) {
+                if (buffer.get(x, y) <= 127) {
+                    xMins[y] = Math.min(xMins[y], x);
+                    xMaxs[y] = x;
+                }
+            }
+        }
+
+        // Boundaries between systems bands, from top to bottom
+        final List<SystemInfo> systems = sheet.getSystems();
+        final int[] bounds = new int[Math.max(0, systems.size() - 1)];
+
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = (systems.get(i).getBottom() + systems.get(i + 1).getTop()) / 2;
+        }
+
+        // Vertical ranges of ink
+        final List<int[]> ranges = new ArrayList<int[]>();
+        int iBound = 0;
+        int start = -1; // First inked row of current range, if any
+        int stop = -1; // Last inked row of current range, if any
+
+        for (int y = 0; y < height; y++) {
+            while ((iBound < bounds.length) && (bounds[iBound] < y)) {
+                iBound++;
+            }
+
+            if (xMins[y] <= xMaxs[y]) {
+                if (start == -1) {
+                    start = y;
+                }
+
+                stop = y;
+            } else if (start != -1) {
+                final boolean pastBound = (iBound > 0) && (bounds[iBound - 1] >= stop);
+
+                if ((y - stop >= minGap) || pastBound) {
+                    ranges.add(new int[]{start, stop});
+                    start = -1;
+                }
+            }
+        }
+
+        if (start != -1) {
+            ranges.add(new int[]{start, stop});
+        }
+
+        // Regions, with margins
+        final List<Rectangle> regions = new ArrayList<Rectangle>();
+
+        for (int i = 0; i < ranges.size(); i++) {
+            final int[] range = ranges.get(i);
+            final int above = (i > 0) ? (ranges.get(i - 1)[1] + 1) : 0;
+            final int below = (i < (ranges.size() - 1)) ? (ranges.get(i + 1)[0] - 1) : (height - 1);
+            int left = width;
+            int right = -1;
+
+            for (int y = range[0]; y <= range[1]; y++) {
+                left = Math.min(left, xMins[y]);
+                right = Math.max(right, xMaxs[y]);
+            }
+
+            final int x1 = Math.max(0, left - margin);
+            final int y1 = Math.max(above, range[0] - margin);
+            final int x2 = Math.min(width - 1, right + margin);
+            final int y2 = Math.min(below, range[1] + margin);
+            regions.add(new Rectangle(x1, y1, x2 - x1 + 1, y2 - y1 + 1));
+        }
+
+        return regions;
+    }
+
+    //-----------------//
+    // recognizeRegion //
+    //-----------------//
+    /**
+     * Run OCR on one region.
+     *
+     * @param image    the clean sheet image
+     * @param region   the region to process
+     * @param index    region index in sheet
+     * @param language the language specification
+     * @return the lines found, in sheet coordinates, or null if OCR failed
+     */
+    private List<TextLine> recognizeRegion (BufferedImage image,
+                                            Rectangle region,
+                                            int index,
+                                            String language)
+    {
+        return TextBuilder.getOcr().recognize(
+                sheet.getScale().getInterline(),
+                image.getSubimage(region.x, region.y, region.width, region.height),
+                region.getLocation(),
+                language,
+                OCR.LayoutMode.MULTI_BLOCK,
+                sheet.getId() + "-r" + (index + 1),
+                sheet.getStub().getBook().getOcrCache());
+    }
+
+    //------------------//
+    // recognizeRegions //
+    //------------------//
+    /**
+     * Run OCR on each region, in parallel if allowed.
+     *
+     * @param image    the clean sheet image
+     * @param regions  the inked regions
+     * @param language the language specification
+     * @return the lines found, in sheet coordinates, or null if OCR failed on every region
+     */
+    private List<TextLine> recognizeRegions (final BufferedImage image,
+                                             List<Rectangle> regions,
+                                             final String language)
+    {
+        final List<List<TextLine>> results = new ArrayList<List<TextLine>>();
+
+        if ((regions.size() < 2)
+            || !constants.parallelRegions.isSet()
+            || (OmrExecutors.defaultParallelism.getSpecific() == false)) {
+            // Sequential
+            for (int i = 0; i < regions.size(); i++) {
+                results.add(recognizeRegion(image, regions.get(i), i, language));
+            }
+        } else {
+            // Parallel
+            try {
+                final List<Callable<List<TextLine>>> tasks;
+                tasks = new ArrayList<Callable<List<TextLine>>>(regions.size());
+
+                for (int i = 0; i < regions.size(); i++) {
+                    final Rectangle region = regions.get(i);
+                    final int index = i;
+                    tasks.add(
+                            new Callable<List<TextLine>>()
+                    {
+                        @Override
+                        public List<TextLine> call ()
+                                throws Exception
+                        {
+                            return recognizeRegion(image, region, index, language);
+                        }
+                    });
+                }
+
+                // Launch the tasks and wait for their completion
+                for (Future<List<TextLine>> future : OmrExecutors.getHighExecutor().invokeAll(
+                        tasks)) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException ex) {
+                logger.warn("OCR of sheet regions got interrupted");
+                throw new ProcessingCancellationException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause(); // As in sequential mode
+                }
+
+                logger.warn("Exception raised in OCR of sheet regions", ex);
+                throw new RuntimeException(ex);
+            }
+        }
+
+        // Merge lines, region after region
+        List<TextLine> lines = regions.isEmpty() ? new ArrayList<TextLine>() : null;
+
+        for (List<TextLine> result : results) {
+            if (result != null) {
+                if (lines == null) {
+                    lines = new ArrayList<TextLine>();
+                }
+
+                lines.addAll(result);
+            }
+        }
+
+        return lines;
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
     //-----------//
     // Constants //
@@ -216,6 +434,18 @@ public class SheetScanner
                 false,
                 "Should we store texts buffer on disk?");
 
+        private final Constant.Boolean parallelRegions = new Constant.Boolean(
+                true,
+                "Should we run OCR on sheet regions in parallel?");
+
+        private final Scale.Fraction minRegionGap = new Scale.Fraction(
+                0.75,
+                "Minimum height of blank rows between two OCR regions");
+
+        private final Scale.Fraction regionMargin = new Scale.Fraction(
+                0.5,
+                "Blank margin around each OCR region");
+
         private final Scale.Fraction staffHorizontalMargin = new Scale.Fraction(
                 0.25,
                 "Horizontal margin around staff core area");
@@ -26,6 +26,7 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.text.OCR;
+import org.audiveris.omr.text.OcrCache;
 import org.audiveris.omr.text.TextChar;
 import org.audiveris.omr.text.TextLine;
 import org.audiveris.omr.text.TextWord;
@@ -76,6 +77,9 @@ public class TesseractOCR
     /** To assign a serial number to each image processing order. */
     private final AtomicInteger serial = new AtomicInteger(0);
 
+    /** Pool of initialized Tesseract APIs. */
+    private final TesseractPool pool = new TesseractPool();
+
     //~ Constructors -------------------------------------------------------------------------------
     /**
      * Creates the TesseractOCR singleton.
@@ -163,7 +167,8 @@ public class TesseractOCR
                                      Point topLeft,
                                      String languageCode,
                                      LayoutMode layoutMode,
-                                     String label)
+                                     String label,
+                                     OcrCache cache)
     {
         // Make sure we have an OCR engine available
         if (!isAvailable()) {
@@ -171,17 +176,31 @@ public class TesseractOCR
         }
 
         try {
-            // Allocate a processing order
-            TesseractOrder order = new TesseractOrder(
-                    label,
-                    serial.incrementAndGet(),
-                    constants.keepImages.isSet(),
-                    languageCode,
-                    getMode(layoutMode),
-                    bufferedImage);
-
-            // Process the order
-            List<TextLine> lines = order.process();
+            // Look for results of a previous recognition of the same image
+            final String key = (cache != null)
+                    ? OcrCache.keyOf(bufferedImage, languageCode, layoutMode, identify()) : null;
+            List<OcrCache.Line> rawLines = (key != null) ? cache.get(key) : null;
+
+            if (rawLines == null) {
+                // Allocate a processing order
+                TesseractOrder order = new TesseractOrder(
+                        label,
+                        serial.incrementAndGet(),
+                        constants.keepImages.isSet(),
+                        languageCode,
+                        getMode(layoutMode),
+                        bufferedImage,
+                        pool);
+
+                // Process the order
+                rawLines = order.process();
+
+                if ((rawLines != null) && (key != null)) {
+                    cache.put(key, rawLines);
+                }
+            }
+
+            List<TextLine> lines = (rawLines != null) ? TesseractOrder.buildLines(rawLines) : null;
 
             // Post-processing
             if (lines != null) {
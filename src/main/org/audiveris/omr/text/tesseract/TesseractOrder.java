@@ -23,6 +23,7 @@ package org.audiveris.omr.text.tesseract;
 
 import org.audiveris.omr.WellKnowns;
 import org.audiveris.omr.text.FontInfo;
+import org.audiveris.omr.text.OcrCache;
 import org.audiveris.omr.text.TextChar;
 import org.audiveris.omr.text.TextLine;
 import org.audiveris.omr.text.TextWord;
@@ -94,6 +95,9 @@ public class TesseractOrder
     /** Desired handling of layout. */
     private final int segMode;
 
+    /** Pool of Tesseract APIs. */
+    private final TesseractPool pool;
+
     /** The dedicated API. */
     private TessBaseAPI api;
 
@@ -114,6 +118,7 @@ public class TesseractOrder
      * @param lang          The language specification
      * @param segMode       The desired page segmentation mode
      * @param bufferedImage The image to process
+     * @param pool          The pool of Tesseract APIs
      *
      * @throws UnsatisfiedLinkError When bridge to C++ could not be loaded
      * @throws IOException          When temporary Tiff buffer failed
@@ -124,7 +129,8 @@ public class TesseractOrder
                            boolean keepImage,
                            String lang,
                            int segMode,
-                           BufferedImage bufferedImage)
+                           BufferedImage bufferedImage,
+                           TesseractPool pool)
             throws UnsatisfiedLinkError, IOException
     {
         this.label = label;
@@ -132,6 +138,7 @@ public class TesseractOrder
         this.keepImage = keepImage;
         this.lang = lang;
         this.segMode = segMode;
+        this.pool = pool;
 
         // Build a PIX from the image provided
         ByteBuffer buf = toTiffBuffer(bufferedImage);
@@ -146,22 +153,66 @@ public class TesseractOrder
 
     //~ Methods ------------------------------------------------------------------------------------
     //
+    //------------//
+    // buildLines //
+    //------------//
+    /**
+     * Build the hierarchy of TextLine / TextWord / TextChar instances out of the raw
+     * lines of OCR recognition.
+     *
+     * @param rawLines the raw lines, as recognized or cached
+     * @return the sequence of lines, or null if lines could not be built
+     */
+    public static List<TextLine> buildLines (List<OcrCache.Line> rawLines)
+    {
+        try {
+            final List<TextLine> lines = new ArrayList<TextLine>();
+
+            for (OcrCache.Line rawLine : rawLines) {
+                final TextLine line = new TextLine();
+                lines.add(line);
+
+                for (OcrCache.Word rawWord : rawLine.getWords()) {
+                    final TextWord word = new TextWord(
+                            rawWord.getBounds(),
+                            rawWord.getValue(),
+                            rawWord.getBaseline(),
+                            rawWord.getConfidence(),
+                            rawWord.getFontInfo(),
+                            line);
+                    line.appendWord(word);
+
+                    for (OcrCache.Char rawChar : rawWord.getChars()) {
+                        wordAddChars(word, rawChar.getBounds(), rawChar.getValue());
+                    }
+                }
+
+                logger.debug("raw {}", line);
+            }
+
+            return lines;
+        } catch (Exception ex) {
+            logger.warn("Error building tesseract lines", ex);
+
+            return null;
+        }
+    }
+
     //---------//
     // process //
     //---------//
     /**
-     * Actually allocate a Tesseract API and recognize the image.
+     * Actually acquire a Tesseract API and recognize the image.
      *
-     * @return the sequence of lines found
+     * @return the sequence of raw lines found
      */
-    public List<TextLine> process ()
+    public List<OcrCache.Line> process ()
     {
         try {
-            //api = new TessBaseAPI(WellKnowns.OCR_FOLDER.toString());
-            api = new TessBaseAPI();
+            // Get an API initialized with proper language
+            api = pool.acquire(lang);
 
-            // Init API with proper language
-            if (api.Init(WellKnowns.OCR_FOLDER.toString(), lang) != 0) {
+            if (api == null) {
                 logger.warn("Could not initialize Tesseract with lang {}", lang);
 
                 return finish(null);
@@ -182,7 +233,7 @@ public class TesseractOrder
             }
 
             // Extract lines
-            return finish(getLines());
+            return finish(getRawLines());
         } catch (UnsatisfiedLinkError ex) {
             if (!userWarned) {
                 logger.warn("Could not link Tesseract engine", ex);
@@ -233,18 +284,26 @@ public class TesseractOrder
     //--------//
     /**
      * Convenient way to cleanup Tesseract resources while ending the current processing
+     * <p>
+     * After a successful processing, the API is given back to the pool for reuse.
      *
      * @param lines the lines found, if any
      * @return the lines found, if nay
      */
-    private List<TextLine> finish (List<TextLine> lines)
+    private List<OcrCache.Line> finish (List<OcrCache.Line> lines)
     {
         if (image != null) {
             pixDestroy(image);
         }
 
         if (api != null) {
-            api.End();
+            if (lines != null) {
+                pool.release(lang, api);
+            } else {
+                api.End();
+            }
+
+            api = null;
         }
 
         return lines;
@@ -302,21 +361,20 @@ public class TesseractOrder
         }
     }
 
-    //----------//
-    // getLines //
-    //----------//
+    //-------------//
+    // getRawLines //
+    //-------------//
     /**
-     * Build the hierarchy of TextLine / TextWord / TextChar instances out of the raw
-     * results of OCR recognition.
+     * Extract the raw lines, words and symbols out of the results of OCR recognition.
      *
-     * @return the sequence of lines
+     * @return the sequence of raw lines
      */
-    private List<TextLine> getLines ()
+    private List<OcrCache.Line> getRawLines ()
     {
         final ResultIterator it = api.GetIterator();
-        final List<TextLine> lines = new ArrayList<TextLine>(); // All lines built so far
-        TextLine line = null; // The line being built
-        TextWord word = null; // The word being built
+        final List<OcrCache.Line> lines = new ArrayList<OcrCache.Line>(); // All lines so far
+        OcrCache.Line line = null; // The line being built
+        OcrCache.Word word = null; // The word being built
         int nextLevel;
 
         try {
@@ -330,8 +388,7 @@ public class TesseractOrder
 
                 // Start of line?
                 if (it.IsAtBeginningOf(RIL_TEXTLINE)) {
-                    line = new TextLine();
-                    logger.debug("{} {}", label, line);
+                    line = new OcrCache.Line();
                     lines.add(line);
                 }
 
@@ -346,15 +403,13 @@ public class TesseractOrder
                         continue;
                     }
 
-                    word = new TextWord(
+                    word = new OcrCache.Word(
                             BoundingBox(it, RIL_WORD),
                             it.GetUTF8Text(RIL_WORD).getString(UTF8),
                             Baseline(it, RIL_WORD),
                             it.Confidence(RIL_WORD) / 100.0,
-                            fontInfo,
-                            line);
-                    logger.debug("    {}", word);
-                    line.appendWord(word);
+                            fontInfo);
+                    line.getWords().add(word);
 
                     // // Heuristic... (just to test)
                     // boolean isDict = it.WordIsFromDictionary();
@@ -368,16 +423,13 @@ public class TesseractOrder
                 }
 
                 // Char/symbol to be processed
-                wordAddChars(
-                        word,
-                        BoundingBox(it, RIL_SYMBOL),
-                        it.GetUTF8Text(RIL_SYMBOL).getString(UTF8));
+                word.getChars().add(
+                        new OcrCache.Char(
+                                BoundingBox(it, RIL_SYMBOL),
+                                it.GetUTF8Text(RIL_SYMBOL).getString(UTF8)));
             } while (it.Next(nextLevel));
 
-            // Print raw lines, right out of Tesseract OCR
-            for (TextLine textLine : lines) {
-                logger.debug("raw {}", textLine);
-            }
+            logger.debug("{} raw lines: {}", label, lines.size());
 
             return lines;
         } catch (Exception ex) {
@@ -465,9 +517,9 @@ public class TesseractOrder
      * @param bounds the char/symbol bounds
      * @param str    the char/symbol value
      */
-    private void wordAddChars (TextWord word,
-                               Rectangle bounds,
-                               String value)
+    private static void wordAddChars (TextWord word,
+                                      Rectangle bounds,
+                                      String value)
     {
         final int len = value.length();
 
@@ -0,0 +1,143 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    T e s s e r a c t P o o l                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text.tesseract;
+
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.bytedeco.javacpp.tesseract.TessBaseAPI;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class {@code TesseractPool} keeps initialized Tesseract APIs, per language
+ * specification, so that they can be reused by successive or concurrent orders.
+ * <p>
+ * Initializing an API loads the language trained data, which costs much more than the
+ * recognition of a small image.
+ * An API is used by one order at a time, concurrent orders thus get distinct APIs.
+ *
+ * @author Hervé Bitteur
+ */
+public class TesseractPool
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractPool.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Idle APIs, per language specification. */
+    private final Map<String, List<TessBaseAPI>> idles = new HashMap<String, List<TessBaseAPI>>();
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //---------//
+    // acquire //
+    //---------//
+    /**
+     * Report an API initialized for the provided language specification, either an
+     * idle one or a new one.
+     *
+     * @param lang the language specification
+     * @return the API ready for use, or null if API could not be initialized
+     * @throws UnsatisfiedLinkError When bridge to C++ could not be loaded
+     */
+    public TessBaseAPI acquire (String lang)
+            throws UnsatisfiedLinkError
+    {
+        synchronized (idles) {
+            final List<TessBaseAPI> list = idles.get(lang);
+
+            if ((list != null) && !list.isEmpty()) {
+                return list.remove(list.size() - 1);
+            }
+        }
+
+        final TessBaseAPI api = new TessBaseAPI();
+
+        if (api.Init(WellKnowns.OCR_FOLDER.toString(), lang) != 0) {
+            api.End();
+
+            return null;
+        }
+
+        logger.debug("New Tesseract API for {}", lang);
+
+        return api;
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Give back an API, after use by an order.
+     * The API is kept for reuse, unless there are enough idle APIs for this language.
+     *
+     * @param lang the language specification used for API initialization
+     * @param api  the API to give back
+     */
+    public void release (String lang,
+                         TessBaseAPI api)
+    {
+        api.Clear();
+
+        synchronized (idles) {
+            List<TessBaseAPI> list = idles.get(lang);
+
+            if (list == null) {
+                list = new ArrayList<TessBaseAPI>();
+                idles.put(lang, list);
+            }
+
+            if (list.size() < constants.maxIdleApis.getValue()) {
+                list.add(api);
+
+                return;
+            }
+        }
+
+        api.End();
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final Constant.Integer maxIdleApis = new Constant.Integer(
+                "apis",
+                4,
+                "Maximum number of idle Tesseract APIs kept per language");
+    }
+}
@@ -31,6 +31,12 @@ public abstract class Memory
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    /** Estimated size in bytes of an object header (compressed class pointers). */
+    public static final int OBJECT_HEADER = 12;
+
+    /** Estimated size in bytes of an object reference (compressed oops). */
+    public static final int REFERENCE = 4;
+
     private static final Runtime rt = Runtime.getRuntime();
 
     //~ Constructors -------------------------------------------------------------------------------
@@ -40,6 +46,22 @@ public abstract class Memory
     }
 
     //~ Methods ------------------------------------------------------------------------------------
+    //-----------//
+    // arraySize //
+    //-----------//
+    /**
+     * Estimate the heap size of an array, including its header and padding.
+     *
+     * @param length      number of array elements
+     * @param elementSize size in bytes of each element
+     * @return the estimated array size in bytes
+     */
+    public static long arraySize (int length,
+                                  int elementSize)
+    {
+        return padded(OBJECT_HEADER + 4 + ((long) length * elementSize));
+    }
+
     //------//
     // free //
     //------//
@@ -82,6 +104,19 @@ public abstract class Memory
         return String.format("%,d", occupied());
     }
 
+    //-----//
+    // max //
+    //-----//
+    /**
+     * Get the maximum memory the JVM will attempt to use.
+     *
+     * @return the maximum heap size
+     */
+    public static long max ()
+    {
+        return rt.maxMemory();
+    }
+
     //----------//
     // occupied //
     //----------//
@@ -95,6 +130,20 @@ public abstract class Memory
         return total() - free();
     }
 
+    //--------//
+    // padded //
+    //--------//
+    /**
+     * Round an object size up to the 8-byte alignment of heap objects.
+     *
+     * @param size raw object size in bytes
+     * @return the aligned size
+     */
+    public static long padded (long size)
+    {
+        return (size + 7) & ~7L;
+    }
+
     //-----------//
     // printFree //
     //-----------//
@@ -0,0 +1,566 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                        P e r f S u i t e                                       //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.step.Step;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Class {@code PerfSuite} is an end-to-end performance regression suite, which
+ * transcribes input files (by default the PNG and PDF files of data/examples) and compares the
+ * measurements against a stored baseline.
+ * <p>
+ * Each valid sheet is processed one step at a time, as in batch mode. For each (input, sheet, step)
+ * the suite records:
+ * <ul>
+ * <li>wall time,</li>
+ * <li>CPU time of the whole process,</li>
+ * <li>bytes allocated by all live threads,</li>
+ * <li>peak heap usage (sum of heap pools peaks).</li>
+ * </ul>
+ * A measurement is a regression when it exceeds its baseline value by more than the relative
+ * tolerance, and by more than a noise floor. Missing or failed steps are regressions as well.
+ * <p>
+ * Results are written to build/perf/results.csv. The JVM exits with status 1 if any regression is
+ * found. Without baseline file, or with -record option, results are recorded as the new baseline.
+ * <p>
+ * This class is meant to be launched from project root through the 'perf' Gradle task.
+ *
+ * @author Hervé Bitteur
+ */
+public class PerfSuite
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    static {
+        // We need class WellKnowns to be elaborated before anything else
+        WellKnowns.ensureLoaded();
+    }
+
+    /** Folder of default inputs. */
+    private static final Path EXAMPLES = Paths.get("data", "examples");
+
+    /** CSV header. */
+    private static final String HEADER = "input;sheet;step;wall_ms;cpu_ms;alloc_mb;peak_mb";
+
+    /** Metrics names. */
+    private static final String[] METRICS = new String[]{"wall", "cpu", "alloc", "peak"};
+
+    /** Noise floor per metric (ms, ms, MB, MB), below which no difference is reported. */
+    private static final long[] FLOORS = new long[]{100, 100, 32, 32};
+
+    /** Step value for a failed step. */
+    private static final String FAILED = "FAILED";
+
+    /** Step value for the sum of all steps of a sheet. */
+    private static final String ALL = "ALL";
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    /** Suite parameters. */
+    private final Parameters params;
+
+    /** Measurement probe. */
+    private final Probe probe = new Probe();
+
+    //~ Constructors -------------------------------------------------------------------------------
+    private PerfSuite (Parameters params)
+    {
+        this.params = params;
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    //------//
+    // main //
+    //------//
+    /**
+     * Run the suite.
+     *
+     * @param args [-baseline file] [-record] [-tolerance ratio] [-runs n] [-warmup n] [inputs...]
+     */
+    public static void main (String[] args)
+    {
+        final Parameters params = new Parameters();
+        final CmdLineParser parser = new CmdLineParser(params);
+
+        try {
+            parser.parseArgument(args);
+        } catch (CmdLineException ex) {
+            System.err.println(ex.getMessage());
+            parser.printUsage(System.err);
+            System.exit(2);
+        }
+
+        boolean ok = false;
+
+        try {
+            ok = new PerfSuite(params).process();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            OmrExecutors.shutdown();
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    //---------//
+    // compare //
+    //---------//
+    /**
+     * Compare results with baseline.
+     *
+     * @return the report lines, one per regression
+     */
+    private List<String> compare (Map<String, long[]> results,
+                                  Map<String, long[]> baseline)
+    {
+        final List<String> regressions = new ArrayList<String>();
+
+        for (Entry<String, long[]> entry : baseline.entrySet()) {
+            final String key = entry.getKey();
+            final long[] base = entry.getValue();
+            final long[] current = results.get(key);
+
+            if (current == null) {
+                regressions.add(String.format("%-40s missing", key));
+
+                continue;
+            }
+
+            for (int i = 0; i < METRICS.length; i++) {
+                final long limit = Math.max(
+                        (long) Math.floor(base[i] * (1 + params.tolerance)),
+                        base[i] + FLOORS[i]);
+
+                if (current[i] > limit) {
+                    regressions.add(
+                            String.format(
+                                    Locale.US,
+                                    "%-40s %-5s %8d -> %8d (%+.0f%%)",
+                                    key,
+                                    METRICS[i],
+                                    base[i],
+                                    current[i],
+                                    (100.0 * (current[i] - base[i])) / Math.max(1, base[i])));
+                }
+            }
+        }
+
+        for (String key : results.keySet()) {
+            if (key.endsWith(";" + FAILED)) {
+                regressions.add(String.format("%-40s failed", key));
+            }
+        }
+
+        return regressions;
+    }
+
+    //-----------//
+    // getInputs //
+    //-----------//
+    private List<Path> getInputs ()
+            throws IOException
+    {
+        if (!params.inputs.isEmpty()) {
+            return params.inputs;
+        }
+
+        final List<Path> inputs = new ArrayList<Path>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(EXAMPLES, "*.{png,pdf}")) {
+            for (Path path : stream) {
+                inputs.add(path);
+            }
+        }
+
+        Collections.sort(inputs);
+
+        return inputs;
+    }
+
+    //-------//
+    // merge //
+    //-------//
+    /**
+     * Merge a run into results, keeping the minimum value of each metric.
+     */
+    private static void merge (Map<String, long[]> run,
+                               Map<String, long[]> results)
+    {
+        for (Entry<String, long[]> entry : run.entrySet()) {
+            final long[] previous = results.get(entry.getKey());
+
+            if (previous == null) {
+                results.put(entry.getKey(), entry.getValue());
+            } else {
+                for (int i = 0; i < METRICS.length; i++) {
+                    previous[i] = Math.min(previous[i], entry.getValue()[i]);
+                }
+            }
+        }
+    }
+
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Run the suite and check results against baseline.
+     *
+     * @return true if no regression was found
+     */
+    private boolean process ()
+            throws IOException
+    {
+        OmrExecutors.restart();
+        OMR.engine = BookManager.getInstance();
+
+        final List<Path> inputs = getInputs();
+
+        if (inputs.isEmpty()) {
+            System.out.println("No input found");
+
+            return false;
+        }
+
+        // Unmeasured processing, for class loading and JIT compilation
+        for (int i = 0; i < params.warmup; i++) {
+            System.out.println("Warmup on " + inputs.get(0));
+            transcribe(inputs.get(0), new LinkedHashMap<String, long[]>());
+        }
+
+        final Map<String, long[]> results = new LinkedHashMap<String, long[]>();
+
+        for (int r = 1; r <= params.runs; r++) {
+            final Map<String, long[]> run = new LinkedHashMap<String, long[]>();
+
+            for (Path input : inputs) {
+                System.out.println("Run " + r + "/" + params.runs + " on " + input);
+                transcribe(input, run);
+            }
+
+            merge(run, results);
+        }
+
+        write(results, params.output);
+        System.out.println("Results written to " + params.output);
+
+        if (params.record || !Files.exists(params.baseline)) {
+            write(results, params.baseline);
+            System.out.println("Baseline recorded in " + params.baseline);
+
+            return true;
+        }
+
+        final List<String> regressions = compare(results, read(params.baseline));
+
+        if (regressions.isEmpty()) {
+            System.out.printf(
+                    Locale.US,
+                    "No regression against %s (tolerance %.0f%%)%n",
+                    params.baseline,
+                    100 * params.tolerance);
+
+            return true;
+        }
+
+        System.out.printf(
+                Locale.US,
+                "%d regression(s) against %s (tolerance %.0f%%):%n",
+                regressions.size(),
+                params.baseline,
+                100 * params.tolerance);
+
+        for (String line : regressions) {
+            System.out.println("  " + line);
+        }
+
+        return false;
+    }
+
+    //------//
+    // read //
+    //------//
+    private static Map<String, long[]> read (Path path)
+            throws IOException
+    {
+        final Map<String, long[]> map = new LinkedHashMap<String, long[]>();
+
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty() || line.startsWith(HEADER)) {
+                continue;
+            }
+
+            final String[] tokens = line.split(";");
+            final long[] values = new long[METRICS.length];
+
+            for (int i = 0; i < METRICS.length; i++) {
+                values[i] = Long.parseLong(tokens[3 + i].trim());
+            }
+
+            map.put(tokens[0] + ";" + tokens[1] + ";" + tokens[2], values);
+        }
+
+        return map;
+    }
+
+    //------------//
+    // transcribe //
+    //------------//
+    /**
+     * Transcribe all valid sheets of an input, step by step, recording measurements.
+     *
+     * @param input   the input file
+     * @param results (output) the map of measurements
+     */
+    private void transcribe (Path input,
+                             Map<String, long[]> results)
+            throws IOException
+    {
+        final Book book = OMR.engine.loadInput(input.toAbsolutePath());
+        final Path folder = Files.createTempDirectory("perf-");
+
+        try {
+            book.createStubs(null);
+            book.store(folder.resolve(book.getRadix() + OMR.BOOK_EXTENSION), false);
+
+            for (SheetStub stub : book.getStubs()) {
+                final String prefix = input.getFileName() + ";" + stub.getNumber() + ";";
+                final long[] total = new long[METRICS.length];
+
+                for (Step step : Step.values()) {
+                    if (!stub.isValid()) {
+                        break; // Sheet discarded (no staves, ...)
+                    }
+
+                    probe.start();
+
+                    final boolean ok = stub.reachStep(step, false);
+                    final long[] values = probe.stop();
+
+                    if (!ok) {
+                        results.put(prefix + FAILED, values);
+
+                        break;
+                    }
+
+                    results.put(prefix + step, values);
+
+                    // Sum of times and allocations, max of peaks
+                    for (int i = 0; i < 3; i++) {
+                        total[i] += values[i];
+                    }
+
+                    total[3] = Math.max(total[3], values[3]);
+                }
+
+                results.put(prefix + ALL, total);
+            }
+        } finally {
+            book.close();
+            FileUtil.deleteDirectory(folder);
+        }
+    }
+
+    //-------//
+    // write //
+    //-------//
+    private static void write (Map<String, long[]> results,
+                               Path path)
+            throws IOException
+    {
+        final List<String> lines = new ArrayList<String>();
+        lines.add(HEADER);
+
+        for (Entry<String, long[]> entry : results.entrySet()) {
+            final StringBuilder sb = new StringBuilder(entry.getKey());
+
+            for (long value : entry.getValue()) {
+                sb.append(';').append(value);
+            }
+
+            lines.add(sb.toString());
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //------------//
+    // Parameters //
+    //------------//
+    /**
+     * Suite parameters.
+     */
+    private static class Parameters
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        /** Baseline file. */
+        @Option(name = "-baseline", usage = "Baseline file", metaVar = "<file>")
+        Path baseline = Paths.get("dev", "perf", "baseline.csv");
+
+        /** Results file. */
+        @Option(name = "-output", usage = "Results file", metaVar = "<file>")
+        Path output = Paths.get("build", "perf", "results.csv");
+
+        /** Should results replace baseline?. */
+        @Option(name = "-record", usage = "Record results as the new baseline")
+        boolean record;
+
+        /** Number of measured runs. */
+        @Option(name = "-runs", usage = "Number of runs, keeping the minimum of each value")
+        int runs = 1;
+
+        /** Relative tolerance. */
+        @Option(name = "-tolerance", usage = "Relative tolerance, 0.25 meaning 25%")
+        double tolerance = 0.25;
+
+        /** Number of warmup transcriptions. */
+        @Option(name = "-warmup", usage = "Number of unmeasured transcriptions of first input")
+        int warmup = 1;
+
+        /** Specific inputs. */
+        @Argument
+        List<Path> inputs = new ArrayList<Path>();
+    }
+
+    //-------//
+    // Probe //
+    //-------//
+    /**
+     * Measures wall time, process CPU time, allocated bytes and heap peak between
+     * {@link #start} and {@link #stop}.
+     */
+    private static class Probe
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory
+                .getOperatingSystemMXBean();
+
+        private final List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+
+        /** Allocated bytes per thread ID, at start. */
+        private final Map<Long, Long> allocations = new HashMap<Long, Long>();
+
+        private long wall;
+
+        private long cpu;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public Probe ()
+        {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool);
+                }
+            }
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        public void start ()
+        {
+            for (MemoryPoolMXBean pool : heapPools) {
+                pool.resetPeakUsage();
+            }
+
+            allocations.clear();
+
+            final long[] ids = threadBean.getAllThreadIds();
+            final long[] bytes = threadBean.getThreadAllocatedBytes(ids);
+
+            for (int i = 0; i < ids.length; i++) {
+                allocations.put(ids[i], bytes[i]);
+            }
+
+            cpu = osBean.getProcessCpuTime();
+            wall = System.nanoTime();
+        }
+
+        /**
+         * @return wall (ms), cpu (ms), allocated (MB) and peak heap (MB) since start
+         */
+        public long[] stop ()
+        {
+            final long wallNs = System.nanoTime() - wall;
+            final long cpuNs = osBean.getProcessCpuTime() - cpu;
+
+            // Threads ended meanwhile are ignored
+            final long[] ids = threadBean.getAllThreadIds();
+            final long[] bytes = threadBean.getThreadAllocatedBytes(ids);
+            long allocated = 0;
+
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] > 0) {
+                    final Long before = allocations.get(ids[i]);
+                    allocated += (bytes[i] - ((before != null) ? Math.max(0, before) : 0));
+                }
+            }
+
+            long peak = 0;
+
+            for (MemoryPoolMXBean pool : heapPools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+
+            return new long[]{
+                wallNs / 1000000, cpuNs / 1000000, allocated >> 20, peak >> 20
+            };
+        }
+    }
+}
@@ -0,0 +1,151 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       D a e m o n T e s t                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code DaemonTest} checks the processing of spool jobs.
+ *
+ * @author Hervé Bitteur
+ */
+public class DaemonTest
+{
+    //~ Constructors -------------------------------------------------------------------------------
+    /**
+     * Creates a new {@code DaemonTest} object.
+     */
+    public DaemonTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Test
+    public void testJobs ()
+            throws Exception
+    {
+        System.out.println("\n+++ testJobs");
+
+        final Path spool = Files.createTempDirectory("spool");
+        writeJob(spool, "missing", "-transcribe", "", "/no/such/input.png");
+        writeJob(spool, "output", "-output", "/tmp", "/no/such/input.png");
+        writeJob(spool, "empty", "# No input");
+
+        final Daemon daemon = new Daemon(spool);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<Boolean> failure = executor.submit(
+                new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call ()
+                    throws Exception
+            {
+                return daemon.run();
+            }
+        });
+
+        // Request stop once all jobs are completed
+        for (String name : Arrays.asList("missing", "output", "empty")) {
+            waitFor(spool.resolve(name + Daemon.FAILED_EXTENSION));
+        }
+
+        Files.createFile(spool.resolve(Daemon.STOP_FILE_NAME));
+        assertFalse(failure.get());
+        executor.shutdown();
+
+        for (String name : Arrays.asList("missing", "output", "empty")) {
+            assertFalse(Files.exists(spool.resolve(name + Daemon.JOB_EXTENSION)));
+            assertFalse(Files.exists(spool.resolve(name + Daemon.RUNNING_EXTENSION)));
+            assertTrue(Files.exists(spool.resolve(name + Daemon.FAILED_EXTENSION)));
+
+            final List<String> status = Files.readAllLines(
+                    spool.resolve(name + Daemon.STATUS_EXTENSION),
+                    StandardCharsets.UTF_8);
+            System.out.println(status);
+            assertEquals("job: " + name, status.get(0));
+            assertEquals("state: FAILED", status.get(1));
+        }
+
+        final List<String> status = Files.readAllLines(
+                spool.resolve("missing" + Daemon.STATUS_EXTENSION),
+                StandardCharsets.UTF_8);
+        assertTrue(status.get(status.size() - 1).startsWith("task: Input"));
+        assertFalse(Files.exists(spool.resolve(Daemon.STOP_FILE_NAME)));
+    }
+
+    @Test
+    public void testStopWithBacklog ()
+            throws Exception
+    {
+        System.out.println("\n+++ testStopWithBacklog");
+
+        final Path spool = Files.createTempDirectory("spool");
+        writeJob(spool, "pending", "-transcribe", "/no/such/input.png");
+        Files.createFile(spool.resolve(Daemon.STOP_FILE_NAME));
+
+        final Daemon daemon = new Daemon(spool);
+        assertFalse(daemon.run());
+
+        // Stop requested before job could be claimed
+        assertTrue(Files.exists(spool.resolve("pending" + Daemon.JOB_EXTENSION)));
+        assertFalse(Files.exists(spool.resolve("pending" + Daemon.RUNNING_EXTENSION)));
+        assertFalse(Files.exists(spool.resolve(Daemon.STOP_FILE_NAME)));
+    }
+
+    private void waitFor (Path path)
+            throws Exception
+    {
+        for (int i = 0; i < 600; i++) {
+            if (Files.exists(path)) {
+                return;
+            }
+
+            Thread.sleep(100);
+        }
+
+        throw new AssertionError("No " + path);
+    }
+
+    private void writeJob (Path spool,
+                           String name,
+                           String... lines)
+            throws Exception
+    {
+        Files.write(
+                spool.resolve(name + Daemon.JOB_EXTENSION),
+                Arrays.asList(lines),
+                StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,186 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 F e a t u r e C a c h e T e s t                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class {@code FeatureCacheTest} checks that cached features are the extracted ones.
+ *
+ * @author Hervé Bitteur
+ */
+public class FeatureCacheTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of cache file compaction, once superseded records outnumber live ones.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    @Test
+    public void testCompaction ()
+            throws Exception
+    {
+        final Path folder = Files.createTempDirectory("features");
+        final SampleRepository repository = createRepository(folder);
+        final List<Sample> samples = selectSamples(repository);
+        final GlyphDescriptor descriptor = new MixGlyphDescriptor();
+        final Path cacheFile = folder.resolve("features-" + descriptor.getName() + ".bin");
+
+        final float[] extracted = new FeatureCache(cacheFile, descriptor, repository).getFeatures(
+                samples);
+        final long size = Files.size(cacheFile);
+
+        // All records superseded once: file grows
+        invalidate(cacheFile);
+        assertArrayEquals(
+                extracted,
+                new FeatureCache(cacheFile, descriptor, repository).getFeatures(samples),
+                0f);
+        assertTrue(Files.size(cacheFile) > size);
+
+        // All records superseded twice: file is compacted
+        invalidate(cacheFile);
+        assertArrayEquals(
+                extracted,
+                new FeatureCache(cacheFile, descriptor, repository).getFeatures(samples),
+                0f);
+        assertEquals(size, Files.size(cacheFile));
+
+        // No temporary file is left behind
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(folder, "*.tmp")) {
+            assertFalse(temps.iterator().hasNext());
+        }
+
+        // Compacted file is still readable
+        assertArrayEquals(
+                extracted,
+                new FeatureCache(cacheFile, descriptor, repository).getFeatures(samples),
+                0f);
+        assertEquals(size, Files.size(cacheFile));
+    }
+
+    /**
+     * Test of getFeatures method, first extracting then reading the cache file.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    @Test
+    public void testGetFeatures ()
+            throws Exception
+    {
+        final Path folder = Files.createTempDirectory("features");
+        final SampleRepository repository = createRepository(folder);
+        final List<Sample> samples = selectSamples(repository);
+        final GlyphDescriptor descriptor = new MixGlyphDescriptor();
+        final int length = descriptor.length();
+
+        // Extraction, then read from memory-mapped file by a brand new cache
+        final float[] extracted = repository.getFeatureCache(descriptor).getFeatures(samples);
+        final Path cacheFile = folder.resolve("features-" + descriptor.getName() + ".bin");
+        assertTrue(Files.exists(cacheFile));
+
+        final FeatureCache cache = new FeatureCache(cacheFile, descriptor, repository);
+        final float[] cached = cache.getFeatures(samples);
+        assertArrayEquals(extracted, cached, 0f);
+
+        for (int index = 0; index < samples.size(); index++) {
+            final Sample sample = samples.get(index);
+            final double[] expected = descriptor.getFeatures(sample, sample.getInterline());
+
+            for (int j = 0; j < length; j++) {
+                assertEquals((float) expected[j], cached[(index * length) + j], 0f);
+            }
+        }
+
+        // File is not extended by a second use
+        final long size = Files.size(cacheFile);
+        cache.getFeatures(samples);
+        assertEquals(size, Files.size(cacheFile));
+    }
+
+    private SampleRepository createRepository (Path folder)
+            throws Exception
+    {
+        final Path samplesFile = folder.resolve(SampleRepository.SAMPLES_FILE_NAME);
+        Files.copy(
+                Paths.get("data/train/samples.zip"),
+                samplesFile,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        return SampleRepository.getInstance(samplesFile, true);
+    }
+
+    /**
+     * Corrupt the check value of every record in cache file.
+     */
+    private void invalidate (Path cacheFile)
+            throws Exception
+    {
+        try (FileChannel channel = FileChannel.open(
+                cacheFile,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+
+            final int length = header.getInt(12);
+            final int count = header.getInt(16);
+            final int recordSize = 8 + 4 + (4 * length);
+            final ByteBuffer check = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (int record = 0; record < count; record++) {
+                final long position = 20 + ((long) record * recordSize) + 8;
+                check.clear();
+                channel.read(check, position);
+                check.putInt(0, ~check.getInt(0)).rewind();
+                channel.write(check, position);
+            }
+        }
+    }
+
+    private List<Sample> selectSamples (SampleRepository repository)
+    {
+        final List<Sample> all = repository.getAllSamples();
+        final List<Sample> samples = new ArrayList<Sample>();
+
+        for (int i = 0; i < all.size(); i += 50) {
+            samples.add(all.get(i));
+        }
+
+        return samples;
+    }
+}
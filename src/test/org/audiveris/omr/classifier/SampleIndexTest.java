@@ -0,0 +1,122 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                  S a m p l e I n d e x T e s t                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.classifier.SheetContainer.Descriptor;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Class {@code SampleIndexTest} checks that a repository loaded from its binary index
+ * is identical to the repository loaded from its samples archive.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleIndexTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of index writing and reading, via repository loading.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    @Test
+    public void testLoadRepository ()
+            throws Exception
+    {
+        final Path folder = Files.createTempDirectory("index");
+        final Path samplesFile = folder.resolve(SampleRepository.SAMPLES_FILE_NAME);
+        final Path indexFile = folder.resolve("samples.bin");
+        Files.copy(
+                Paths.get("data/train/samples.zip"),
+                samplesFile,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // Loaded from archive, index is then written
+        final SampleRepository xmlRepo = SampleRepository.getInstance(samplesFile, true);
+        assertTrue(Files.exists(indexFile));
+        assertNotNull(SampleIndex.open(indexFile, samplesFile));
+
+        // Loaded from index
+        final SampleRepository binRepo = SampleRepository.getInstance(samplesFile, true);
+        final List<Descriptor> xmlDescs = xmlRepo.getAllDescriptors();
+        final List<Descriptor> binDescs = binRepo.getAllDescriptors();
+        assertEquals(xmlDescs.size(), binDescs.size());
+
+        for (int i = 0; i < xmlDescs.size(); i++) {
+            final Descriptor xmlDesc = xmlDescs.get(i);
+            final Descriptor binDesc = binDescs.get(i);
+            assertEquals(xmlDesc.getName(), binDesc.getName());
+            assertEquals(xmlDesc.getHash(), binDesc.getHash());
+            assertEquals(xmlDesc.getAliases(), binDesc.getAliases());
+            assertEquals(xmlRepo.getShapes(xmlDesc), binRepo.getShapes(binDesc));
+        }
+
+        final List<Sample> xmlSamples = xmlRepo.getAllSamples();
+        final List<Sample> binSamples = binRepo.getAllSamples();
+        assertEquals(xmlSamples.size(), binSamples.size());
+
+        for (int i = 0; i < xmlSamples.size(); i++) {
+            final Sample xml = xmlSamples.get(i);
+            final Sample bin = binSamples.get(i);
+            assertEquals(xmlRepo.getSheetName(xml), binRepo.getSheetName(bin));
+            assertEquals(xml.getShape(), bin.getShape());
+            assertEquals(xml.getInterline(), bin.getInterline());
+            assertEquals(xml.getId(), bin.getId());
+            assertEquals(xml.getBounds(), bin.getBounds());
+            assertEquals(xml.getPitch(), bin.getPitch());
+            assertEquals(xml.isSymbol(), bin.isSymbol());
+            assertEquals(xml.getRunTable(), bin.getRunTable());
+        }
+
+        // An index written for other shapes is obsolete
+        final byte[] original = Files.readAllBytes(indexFile);
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            final ByteBuffer signature = ByteBuffer.allocate(8);
+            signature.putLong(SampleIndex.getShapesSignature() + 1).flip();
+            channel.write(signature, 8); // Right after magic and format
+        }
+
+        assertNull(SampleIndex.open(indexFile, samplesFile));
+        Files.write(indexFile, original);
+        assertNotNull(SampleIndex.open(indexFile, samplesFile));
+
+        // A modified archive makes the index obsolete
+        Files.setLastModifiedTime(
+                samplesFile,
+                FileTime.fromMillis(Files.getLastModifiedTime(samplesFile).toMillis() + 2000));
+        assertNull(SampleIndex.open(indexFile, samplesFile));
+    }
+}
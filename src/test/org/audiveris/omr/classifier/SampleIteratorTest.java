@@ -0,0 +1,145 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               S a m p l e I t e r a t o r T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import static org.audiveris.omr.classifier.Classifier.SHAPE_COUNT;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Class {@code SampleIteratorTest} checks the mini-batches provided by
+ * {@link SampleIterator}.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleIteratorTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of next method, on two shuffled epochs.
+     */
+    @Test
+    public void testNext ()
+    {
+        final SampleRepository repository = SampleRepository.getInstance(
+                Paths.get("data/train/samples.zip"),
+                true);
+        final List<Sample> all = repository.getAllSamples();
+        final List<Sample> samples = new ArrayList<Sample>();
+
+        for (int i = 0; i < all.size(); i += 100) {
+            samples.add(all.get(i));
+        }
+
+        final GlyphDescriptor descriptor = new MixGlyphDescriptor();
+        final int length = descriptor.length();
+        final int batchSize = 16;
+        final SampleIterator iterator = new SampleIterator(
+                descriptor,
+                samples,
+                batchSize,
+                new Random(123));
+        assertEquals(samples.size(), iterator.totalExamples());
+        assertEquals(length, iterator.inputColumns());
+        assertEquals(SHAPE_COUNT, iterator.totalOutcomes());
+
+        final List<Sample> firstOrder = new ArrayList<Sample>();
+
+        for (int epoch = 1; epoch <= 2; epoch++) {
+            final List<Sample> order = new ArrayList<Sample>();
+            final List<Sample> pool = new ArrayList<Sample>(samples);
+
+            while (iterator.hasNext()) {
+                final DataSet batch = iterator.next();
+                final INDArray features = batch.getFeatures();
+                final INDArray labels = batch.getLabels();
+                final int rows = features.rows();
+                assertTrue(rows == batchSize || !iterator.hasNext());
+
+                for (int r = 0; r < rows; r++) {
+                    // Retrieve the sample through its features
+                    final Sample sample = findSample(pool, descriptor, features.getRow(r));
+                    assertNotNull(sample);
+                    order.add(sample);
+
+                    final int ordinal = sample.getShape().getPhysicalShape().ordinal();
+
+                    for (int s = 0; s < SHAPE_COUNT; s++) {
+                        assertEquals((s == ordinal) ? 1f : 0f, labels.getFloat(r, s), 0f);
+                    }
+                }
+            }
+
+            // Each sample appears exactly once per epoch
+            assertEquals(samples.size(), order.size());
+            assertEquals(new HashSet<Sample>(samples), new HashSet<Sample>(order));
+
+            if (epoch == 1) {
+                firstOrder.addAll(order);
+            } else {
+                assertFalse(firstOrder.equals(order));
+            }
+
+            iterator.reset();
+        }
+    }
+
+    //------------//
+    // findSample //
+    //------------//
+    /**
+     * Find (and remove) in pool a sample with the provided features.
+     */
+    private static Sample findSample (List<Sample> pool,
+                                      GlyphDescriptor descriptor,
+                                      INDArray row)
+    {
+        for (Sample sample : pool) {
+            final double[] expected = descriptor.getFeatures(sample, sample.getInterline());
+            boolean same = true;
+
+            for (int j = 0; same && (j < expected.length); j++) {
+                same = (float) expected[j] == row.getFloat(j);
+            }
+
+            if (same) {
+                pool.remove(sample);
+
+                return sample;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               G l y p h D i s t a n c e s T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.Run;
+import org.audiveris.omr.run.RunTable;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link GlyphDistances}, checked against a brute-force 3-4 chamfer
+ * distance between glyph pixels.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphDistancesTest
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private final Random random = new Random(456);
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Test
+    public void testDistanceTo ()
+    {
+        for (int k = 0; k < 100; k++) {
+            final Orientation orientation = random.nextBoolean() ? Orientation.VERTICAL
+                    : Orientation.HORIZONTAL;
+            final List<Glyph> glyphs = GlyphFactory.buildGlyphs(
+                    createTable(orientation),
+                    new Point(100, 200));
+            final int gap = 1 + random.nextInt(10);
+
+            for (Glyph glyph : glyphs) {
+                final Rectangle fatBox = glyph.getBounds();
+                fatBox.grow(gap, gap);
+
+                final GlyphDistances distances = new GlyphDistances(glyph, fatBox);
+
+                for (Glyph other : glyphs) {
+                    if (other != glyph) {
+                        assertEquals(
+                                bruteDistance(glyph, other, fatBox),
+                                distances.distanceTo(other),
+                                0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    private double bruteDistance (Glyph glyph,
+                                  Glyph other,
+                                  Rectangle box)
+    {
+        int best = Integer.MAX_VALUE;
+
+        for (Point p : pixelsOf(glyph)) {
+            for (Point q : pixelsOf(other)) {
+                if (box.contains(q)) {
+                    final int dx = Math.abs(p.x - q.x);
+                    final int dy = Math.abs(p.y - q.y);
+                    best = Math.min(best, (3 * Math.max(dx, dy)) + Math.min(dx, dy));
+                }
+            }
+        }
+
+        return (double) best / 3;
+    }
+
+    private RunTable createTable (Orientation orientation)
+    {
+        final int width = 40;
+        final int height = 40;
+        final boolean[][] pixels = new boolean[width][height];
+
+        for (int b = 0; b < 5; b++) {
+            final int cx = random.nextInt(width);
+            final int cy = random.nextInt(height);
+            final int rx = 1 + random.nextInt(6);
+            final int ry = 1 + random.nextInt(6);
+
+            for (int x = Math.max(0, cx - rx); x < Math.min(width, cx + rx); x++) {
+                for (int y = Math.max(0, cy - ry); y < Math.min(height, cy + ry); y++) {
+                    pixels[x][y] = random.nextInt(5) > 0;
+                }
+            }
+        }
+
+        final RunTable table = new RunTable(orientation, width, height);
+        final boolean vertical = orientation.isVertical();
+        final int seqCount = vertical ? width : height;
+        final int length = vertical ? height : width;
+
+        for (int iSeq = 0; iSeq < seqCount; iSeq++) {
+            int start = -1;
+
+            for (int c = 0; c <= length; c++) {
+                final boolean on = (c < length) && (vertical ? pixels[iSeq][c] : pixels[c][iSeq]);
+
+                if (on && (start == -1)) {
+                    start = c;
+                } else if (!on && (start != -1)) {
+                    table.addRun(iSeq, new Run(start, c - start));
+                    start = -1;
+                }
+            }
+        }
+
+        return table;
+    }
+
+    private List<Point> pixelsOf (Glyph glyph)
+    {
+        final List<Point> pixels = new ArrayList<Point>();
+        final RunTable table = glyph.getRunTable();
+        final boolean vertical = table.getOrientation().isVertical();
+
+        for (int iSeq = 0; iSeq < table.getSize(); iSeq++) {
+            for (Iterator<Run> it = table.iterator(iSeq); it.hasNext();) {
+                final Run run = it.next();
+
+                for (int c = run.getStart(); c <= run.getStop(); c++) {
+                    pixels.add(
+                            vertical ? new Point(glyph.getLeft() + iSeq, glyph.getTop() + c)
+                                    : new Point(glyph.getLeft() + c, glyph.getTop() + iSeq));
+                }
+            }
+        }
+
+        return pixels;
+    }
+}
@@ -0,0 +1,119 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   G l y p h G r a p h T e s t                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link GlyphGraph}.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphGraphTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Test
+    public void testConnectedSets ()
+    {
+        final List<Glyph> glyphs = createGlyphs(6);
+        final GlyphGraph graph = createGraph(glyphs);
+
+        final List<Set<Glyph>> sets = graph.connectedSets();
+        assertEquals(3, sets.size());
+        assertEquals(
+                Arrays.asList(glyphs.get(0), glyphs.get(1), glyphs.get(3)),
+                new ArrayList<Glyph>(sets.get(0)));
+        assertEquals(
+                Arrays.asList(glyphs.get(2), glyphs.get(4)),
+                new ArrayList<Glyph>(sets.get(1)));
+        assertEquals(Collections.singletonList(glyphs.get(5)), new ArrayList<Glyph>(sets.get(2)));
+    }
+
+    @Test
+    public void testNeighbors ()
+    {
+        final List<Glyph> glyphs = createGlyphs(6);
+        final GlyphGraph graph = createGraph(glyphs);
+
+        assertEquals(4, graph.getLinkCount());
+        assertEquals(glyphs, graph.getGlyphs());
+        assertEquals(
+                Arrays.asList(glyphs.get(1), glyphs.get(3)),
+                graph.getNeighbors(glyphs.get(0)));
+        assertEquals(
+                Arrays.asList(glyphs.get(0), glyphs.get(3)),
+                graph.getNeighbors(glyphs.get(1)));
+        assertEquals(
+                Arrays.asList(glyphs.get(0), glyphs.get(1)),
+                graph.getNeighbors(glyphs.get(3)));
+        assertTrue(graph.getNeighbors(glyphs.get(5)).isEmpty());
+    }
+
+    @Test
+    public void testSubGraph ()
+    {
+        final List<Glyph> glyphs = createGlyphs(6);
+        final GlyphGraph graph = createGraph(glyphs);
+        final Set<Glyph> set = new LinkedHashSet<Glyph>(
+                Arrays.asList(glyphs.get(3), glyphs.get(0), glyphs.get(4)));
+
+        final GlyphGraph subGraph = graph.subGraph(set);
+        assertEquals(new ArrayList<Glyph>(set), subGraph.getGlyphs());
+        assertEquals(1, subGraph.getLinkCount());
+        assertEquals(
+                Collections.singletonList(glyphs.get(0)),
+                subGraph.getNeighbors(glyphs.get(3)));
+        assertTrue(subGraph.getNeighbors(glyphs.get(4)).isEmpty());
+        assertEquals(2, subGraph.connectedSets().size());
+    }
+
+    private List<Glyph> createGlyphs (int count)
+    {
+        final List<Glyph> glyphs = new ArrayList<Glyph>();
+
+        for (int i = 0; i < count; i++) {
+            glyphs.add(new BasicGlyph(10 * i, 0, null));
+        }
+
+        return glyphs;
+    }
+
+    /**
+     * Links: 0-1, 0-3, 1-3, 2-4 (while 5 is isolated).
+     */
+    private GlyphGraph createGraph (List<Glyph> glyphs)
+    {
+        final int[] sources = new int[]{0, 1, 0, 2, 0};
+        final int[] ends = new int[]{1, 3, 3, 4, 0};
+
+        return new GlyphGraph(glyphs, sources, ends, 4);
+    }
+}
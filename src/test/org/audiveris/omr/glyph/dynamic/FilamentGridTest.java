@@ -0,0 +1,100 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 F i l a m e n t G r i d T e s t                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.glyph.dynamic;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class {@code FilamentGridTest} checks that {@link FilamentGrid} lookups report all
+ * intersecting rectangles, in rank order.
+ *
+ * @author Hervé Bitteur
+ */
+public class FilamentGridTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of lookup method, with random rectangles, some of them growing over time.
+     */
+    @Test
+    public void testLookup ()
+    {
+        final Random random = new Random(123);
+        final int count = 300;
+        final Rectangle[] rects = new Rectangle[count];
+        final FilamentGrid grid = new FilamentGrid(40, 5, count);
+
+        for (int i = 0; i < count; i++) {
+            rects[i] = new Rectangle(
+                    random.nextInt(1000) - 100,
+                    random.nextInt(200) - 20,
+                    1 + random.nextInt(150),
+                    1 + random.nextInt(8));
+            grid.include(i, rects[i]);
+        }
+
+        for (int iter = 0; iter < 500; iter++) {
+            // Grow some rectangle
+            final int grown = random.nextInt(count);
+            rects[grown].add(
+                    new Rectangle(random.nextInt(1000) - 100, random.nextInt(200) - 20, 10, 3));
+            grid.include(grown, rects[grown]);
+
+            final Rectangle box = new Rectangle(
+                    random.nextInt(1000) - 100,
+                    random.nextInt(200) - 20,
+                    1 + random.nextInt(200),
+                    1 + random.nextInt(20));
+            final int maxRank = random.nextInt(count + 1);
+            final int[] ranks = grid.lookup(box, maxRank);
+
+            // Ascending order, no duplicate, below maxRank
+            for (int i = 0; i < ranks.length; i++) {
+                assertTrue(ranks[i] < maxRank);
+
+                if (i > 0) {
+                    assertTrue(ranks[i - 1] < ranks[i]);
+                }
+            }
+
+            // Nothing missing
+            final List<Integer> found = new ArrayList<Integer>();
+
+            for (int rank : ranks) {
+                found.add(rank);
+            }
+
+            for (int i = 0; i < maxRank; i++) {
+                if (rects[i].intersects(box)) {
+                    assertTrue("missing " + i, found.contains(i));
+                }
+            }
+        }
+    }
+}
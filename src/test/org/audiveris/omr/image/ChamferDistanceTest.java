@@ -25,8 +25,12 @@ import ij.process.ByteProcessor;
 
 import org.audiveris.omr.math.TableUtil;
 
+import static org.junit.Assert.*;
+
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  *
  * @author Hervé Bitteur
@@ -63,6 +67,78 @@ public class ChamferDistanceTest
         TableUtil.dump("Distances to back:", toBack);
     }
 
+    /**
+     * Test of processBanded method, which must give the same results as process.
+     */
+    @Test
+    public void testProcessBanded ()
+    {
+        System.out.println("processBanded");
+
+        final ChamferDistance.Abstract chamfer3 = new ChamferDistance.Short();
+        final ChamferDistance.Abstract chessboard = new ChamferDistance.Abstract(
+                ChamferDistance.chessboard)
+        {
+            @Override
+            protected DistanceTable allocateOutput (int width,
+                                                    int height,
+                                                    int normalizer)
+            {
+                return new DistanceTable.Integer(width, height, normalizer);
+            }
+        };
+
+        final Random random = new Random(123);
+
+        for (ChamferDistance.Abstract instance : new ChamferDistance.Abstract[]{
+            chamfer3, chessboard
+        }) {
+            // Dense image, sparse image, empty band, empty image
+            for (int blobs : new int[]{60, 3, 1, 0}) {
+                final ByteProcessor input = createRandomImage(random, 150, 400, blobs);
+                final DistanceTable expected = instance.computeToFore(input);
+
+                for (int bands : new int[]{2, 3, 7, 25}) {
+                    final DistanceTable actual = instance.computeToFore(input, bands);
+
+                    for (int y = 0; y < input.getHeight(); y++) {
+                        for (int x = 0; x < input.getWidth(); x++) {
+                            assertEquals(
+                                    "x:" + x + " y:" + y + " bands:" + bands,
+                                    expected.getValue(x, y),
+                                    actual.getValue(x, y));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private ByteProcessor createRandomImage (Random random,
+                                             int width,
+                                             int height,
+                                             int blobs)
+    {
+        final ByteProcessor img = new ByteProcessor(width, height);
+        img.setValue(255);
+        img.fill();
+
+        // Blobs are kept out of upper quarter, to exercise long propagations
+        for (int i = 0; i < blobs; i++) {
+            final int x0 = random.nextInt(width);
+            final int y0 = (height / 4) + random.nextInt((3 * height) / 4);
+            final int r = 1 + random.nextInt(6);
+
+            for (int y = Math.max(0, y0 - r); y < Math.min(height, y0 + r); y++) {
+                for (int x = Math.max(0, x0 - r); x < Math.min(width, x0 + r); x++) {
+                    img.set(x, y, 0);
+                }
+            }
+        }
+
+        return img;
+    }
+
     private ByteProcessor createImage ()
     {
         String[] rows = new String[]{
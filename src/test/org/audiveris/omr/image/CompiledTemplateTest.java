@@ -0,0 +1,155 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             C o m p i l e d T e m p l a t e T e s t                            //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.glyph.ShapeSet;
+import org.audiveris.omr.image.Anchored.Anchor;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Class {@code CompiledTemplateTest} checks that bit-packed template matching gives the
+ * same results as plain template matching.
+ *
+ * @author Hervé Bitteur
+ */
+public class CompiledTemplateTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final double EPSILON = 1e-9;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of evaluate method, for small templates (a single word per row).
+     */
+    @Test
+    public void testEvaluateSmall ()
+    {
+        checkAll(56, 90, 60);
+    }
+
+    /**
+     * Test of evaluate method, for large templates (several words per row).
+     */
+    @Test
+    public void testEvaluateLarge ()
+    {
+        checkAll(200, 180, 110);
+    }
+
+    /**
+     * Compare plain and compiled evaluations, for all template shapes, at all locations.
+     */
+    private void checkAll (int pointSize,
+                           int width,
+                           int height)
+    {
+        final DistanceTable distances = createDistances(width, height);
+        final PackedTable packed = new PackedTable(distances);
+        final TemplateFactory.Catalog catalog = TemplateFactory.getInstance().getCatalog(
+                pointSize);
+
+        for (Shape shape : ShapeSet.TemplateNotes) {
+            final Template template = catalog.getTemplate(shape);
+            final CompiledTemplate compiled = template.compile();
+            final int tw = template.getWidth();
+            final int th = template.getHeight();
+
+            for (int y = -th; y <= height; y += 3) {
+                for (int x = -tw; x <= width; x += 3) {
+                    final double exp = template.evaluate(x, y, null, distances);
+                    assertEquals(exp, compiled.evaluate(x, y, null, packed), EPSILON);
+
+                    final double expHole = template.evaluateHole(x, y, null, distances);
+                    assertEquals(expHole, compiled.evaluateHole(x, y, null, packed), EPSILON);
+
+                    // Early exit
+                    for (double threshold : new double[]{0.0, 0.2, 0.4, 1.0}) {
+                        final double val = compiled.evaluate(x, y, null, packed, threshold);
+
+                        if (val <= threshold) {
+                            assertEquals(exp, val, EPSILON);
+                        } else {
+                            assertTrue(exp >= (val - EPSILON));
+                        }
+                    }
+                }
+            }
+
+            // Anchored evaluation
+            final int cx = width / 2;
+            final int cy = height / 2;
+
+            for (Anchor anchor : new Anchor[]{Anchor.MIDDLE_LEFT, Anchor.CENTER}) {
+                assertEquals(
+                        template.evaluate(cx, cy, anchor, distances),
+                        compiled.evaluate(cx, cy, anchor, packed),
+                        EPSILON);
+            }
+        }
+    }
+
+    /**
+     * Build a distance table with random blobs and a horizontal band of neutralized
+     * locations.
+     */
+    private DistanceTable createDistances (int width,
+                                           int height)
+    {
+        final Random random = new Random(1234);
+        final ByteProcessor img = new ByteProcessor(width, height);
+        img.setValue(255);
+        img.fill();
+
+        for (int i = 0; i < 40; i++) {
+            final int x0 = random.nextInt(width);
+            final int y0 = random.nextInt(height);
+            final int r = 2 + random.nextInt(height / 4);
+
+            for (int y = Math.max(0, y0 - r); y < Math.min(height, y0 + r); y++) {
+                for (int x = Math.max(0, x0 - r); x < Math.min(width, x0 + r); x++) {
+                    if (((x - x0) * (x - x0)) + ((y - y0) * (y - y0)) <= (r * r)) {
+                        img.set(x, y, 0);
+                    }
+                }
+            }
+        }
+
+        final DistanceTable distances = new ChamferDistance.Short().computeToFore(img);
+
+        for (int y = height / 3; y < ((height / 3) + 3); y++) {
+            for (int x = 0; x < width; x++) {
+                distances.setValue(x, y, ChamferDistance.VALUE_UNKNOWN);
+            }
+        }
+
+        return distances;
+    }
+}
@@ -0,0 +1,163 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   G e o P o l y g o n T e s t                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link GeoPolygon}, checked against {@link Area}.
+ *
+ * @author Hervé Bitteur
+ */
+public class GeoPolygonTest
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private final Random random = new Random(123);
+
+    //~ Methods ------------------------------------------------------------------------------------
+    @Test
+    public void testBounds ()
+    {
+        for (int i = 0; i < 100; i++) {
+            final Path2D path = createQuad();
+
+            assertEquals(new Area(path).getBounds(), new GeoPolygon(path).getBounds());
+        }
+    }
+
+    @Test
+    public void testContains ()
+    {
+        for (int i = 0; i < 200; i++) {
+            final Path2D path = (i % 4 == 0) ? createConcave() : createQuad();
+            final Area area = new Area(path);
+            final GeoPolygon polygon = new GeoPolygon(path);
+            final Rectangle2D box = area.getBounds2D();
+
+            for (int y = (int) box.getMinY() - 2; y <= (box.getMaxY() + 2); y++) {
+                for (int x = (int) box.getMinX() - 2; x <= (box.getMaxX() + 2); x++) {
+                    assertEquals(area.contains(x, y), polygon.contains(x, y));
+                    assertEquals(
+                            area.contains(x + 0.5, y + 0.25),
+                            polygon.contains(x + 0.5, y + 0.25));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty ()
+    {
+        final Path2D flat = new Path2D.Double();
+        flat.moveTo(10, 10);
+        flat.lineTo(20, 20);
+        flat.lineTo(30, 30);
+        flat.closePath();
+
+        final GeoPolygon polygon = new GeoPolygon(flat);
+        assertFalse(polygon.intersects(0, 0, 100, 100));
+        assertFalse(polygon.contains(20, 20));
+    }
+
+    @Test
+    public void testIntersectsPolygon ()
+    {
+        for (int i = 0; i < 2000; i++) {
+            final Path2D p1 = (i % 10 == 0) ? createConcave() : createQuad();
+            final Path2D p2 = createQuad();
+            final Area area = new Area(p1);
+            area.intersect(new Area(p2));
+
+            assertEquals(!area.isEmpty(), new GeoPolygon(p1).intersects(new GeoPolygon(p2)));
+        }
+    }
+
+    @Test
+    public void testIntersectsRectangle ()
+    {
+        for (int i = 0; i < 200; i++) {
+            final Path2D path = (i % 4 == 0) ? createConcave() : createQuad();
+            final Area area = new Area(path);
+            final GeoPolygon polygon = new GeoPolygon(path);
+
+            for (int j = 0; j < 200; j++) {
+                // Rectangles of integer coordinates, such as runs or glyph bounds
+                final int x = random.nextInt(80);
+                final int y = random.nextInt(80);
+                final int w = 1 + random.nextInt(15);
+                final int h = 1 + random.nextInt(3);
+
+                assertEquals(area.intersects(x, y, w, h), polygon.intersects(x, y, w, h));
+                assertEquals(area.contains(x, y, w, h), polygon.contains(x, y, w, h));
+            }
+        }
+    }
+
+    private Path2D createConcave ()
+    {
+        // An arrow head, pointing to the right
+        final double x = random.nextInt(40);
+        final double y = random.nextInt(40);
+        final Path2D path = new Path2D.Double();
+        path.moveTo(x, y);
+        path.lineTo(x + 30, y + 15);
+        path.lineTo(x, y + 30);
+        path.lineTo(x + 10.5, y + 15);
+        path.closePath();
+
+        return path;
+    }
+
+    private Path2D createQuad ()
+    {
+        // A parallelogram, mostly horizontal or mostly vertical, like beams or stems
+        final double x1 = random.nextInt(60) + ((random.nextInt(4) == 0) ? 0.5 : 0);
+        final double y1 = random.nextInt(60);
+        final double length = 5 + random.nextInt(30);
+        final double shift = random.nextInt(11) - 5 + random.nextDouble();
+        final double thickness = 1 + random.nextInt(6);
+        final Path2D path = new Path2D.Double();
+
+        if (random.nextBoolean()) {
+            path.moveTo(x1, y1);
+            path.lineTo(x1 + length, y1 + shift);
+            path.lineTo(x1 + length, y1 + shift + thickness);
+            path.lineTo(x1, y1 + thickness);
+        } else {
+            path.moveTo(x1, y1);
+            path.lineTo(x1 + thickness, y1);
+            path.lineTo(x1 + thickness + shift, y1 + length);
+            path.lineTo(x1 + shift, y1 + length);
+        }
+
+        path.closePath();
+
+        return path;
+    }
+}
@@ -181,4 +181,38 @@ public class NaturalSplineTest
             System.out.println("x=" + x + " y=" + (float) y);
         }
     }
+
+    /**
+     * Check that segment lookup by binary search gives same results as a walk along
+     * the path.
+     */
+    @Test
+    public void testSegmentLookup ()
+    {
+        double[][] xxs = new double[][]{
+            {0, 10}, {0, 20, 30}, {1, 11, 20, 30, 40, 57, 80}, {0, 10, 10, 20}
+        };
+        double[][] yys = new double[][]{
+            {0, 1}, {0, 10, 10}, {1, 2, 3, 4, 3, 5, 4}, {0, 2, 2, 2}
+        };
+
+        for (int k = 0; k < xxs.length; k++) {
+            double[] xx = xxs[k];
+            double[] yy = yys[k];
+            NaturalSpline spline = NaturalSpline.interpolate(xx, yy);
+            GeoPath path = new GeoPath(spline);
+
+            for (double x = xx[0] - 2; x <= xx[xx.length - 1]; x += 0.25) {
+                assertEquals(path.yAtX(x), spline.yAtX(x), 0.0);
+            }
+
+            // Vertical spline
+            NaturalSpline vSpline = NaturalSpline.interpolate(yy, xx);
+            GeoPath vPath = new GeoPath(vSpline);
+
+            for (double y = xx[0]; y <= xx[xx.length - 1]; y += 0.25) {
+                assertEquals(vPath.xAtY(y), vSpline.xAtY(y), 0.0);
+            }
+        }
+    }
 }
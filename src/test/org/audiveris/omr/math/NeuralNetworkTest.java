@@ -0,0 +1,185 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                N e u r a l N e t w o r k T e s t                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import org.audiveris.omr.util.OmrExecutors;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+/**
+ * Class {@code NeuralNetworkTest} checks the mini-batch training and the XML
+ * marshalling of {@link NeuralNetwork}.
+ *
+ * @author Hervé Bitteur
+ */
+@SuppressWarnings("deprecation")
+public class NeuralNetworkTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int INPUTS = 6;
+
+    private static final int CLASSES = 3;
+
+    private static final int PATTERNS = 300;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    private final double[][] inputs = new double[PATTERNS][INPUTS];
+
+    private final double[][] desiredOutputs = new double[PATTERNS][CLASSES];
+
+    //~ Constructors -------------------------------------------------------------------------------
+    public NeuralNetworkTest ()
+    {
+        // Noisy patterns around one center per class
+        final Random random = new Random(456);
+
+        for (int ip = 0; ip < PATTERNS; ip++) {
+            final int c = ip % CLASSES;
+
+            for (int i = 0; i < INPUTS; i++) {
+                inputs[ip][i] = (((i % CLASSES) == c) ? 1 : -1) + (0.3 * random.nextGaussian());
+            }
+
+            desiredOutputs[ip][c] = 1;
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Check that training results do not depend on parallelism.
+     */
+    @Test
+    public void testDeterminism ()
+    {
+        final NeuralNetwork nn = createNetwork(40);
+        final NeuralNetwork.Backup initial = nn.backup();
+        final boolean parallel = OmrExecutors.defaultParallelism.getSpecific();
+        final double[][] first;
+        final double[][] second;
+
+        try {
+            // Sequential run, within the calling thread
+            OmrExecutors.defaultParallelism.setSpecific(false);
+            nn.train(inputs, desiredOutputs, null, 1);
+            first = runAll(nn);
+
+            // Parallel run, slices being scheduled by the executor
+            OmrExecutors.defaultParallelism.setSpecific(true);
+            nn.restore(initial);
+            nn.train(inputs, desiredOutputs, null, 1);
+            second = runAll(nn);
+        } finally {
+            OmrExecutors.defaultParallelism.setSpecific(parallel);
+        }
+
+        for (int ip = 0; ip < PATTERNS; ip++) {
+            assertArrayEquals(first[ip], second[ip], 0);
+        }
+    }
+
+    /**
+     * Check that marshalling then unmarshalling gives the same network.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    @Test
+    public void testMarshal ()
+            throws Exception
+    {
+        final NeuralNetwork nn = createNetwork(5);
+        nn.train(inputs, desiredOutputs, null, 1);
+
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        nn.marshal(os);
+
+        final NeuralNetwork copy = NeuralNetwork.unmarshal(
+                new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(INPUTS, copy.getInputSize());
+        assertEquals(CLASSES, copy.getOutputSize());
+
+        final double[][] expected = runAll(nn);
+        final double[][] result = runAll(copy);
+
+        for (int ip = 0; ip < PATTERNS; ip++) {
+            assertArrayEquals(expected[ip], result[ip], 0);
+        }
+    }
+
+    /**
+     * Check that mini-batch training does learn the patterns.
+     */
+    @Test
+    public void testTrain ()
+    {
+        final NeuralNetwork nn = createNetwork(100);
+        nn.train(inputs, desiredOutputs, null, 1);
+
+        final double[][] outputs = runAll(nn);
+
+        for (int ip = 0; ip < PATTERNS; ip++) {
+            int best = 0;
+
+            for (int o = 1; o < CLASSES; o++) {
+                if (outputs[ip][o] > outputs[ip][best]) {
+                    best = o;
+                }
+            }
+
+            assertEquals("pattern " + ip, ip % CLASSES, best);
+        }
+    }
+
+    private NeuralNetwork createNetwork (int epochs)
+    {
+        final NeuralNetwork nn = new NeuralNetwork(
+                INPUTS,
+                4,
+                CLASSES,
+                0.5,
+                new String[]{"a", "b", "c", "d", "e", "f"},
+                new String[]{"x", "y", "z"},
+                1.0,
+                0.2,
+                epochs);
+        nn.setBatchSize(20);
+
+        return nn;
+    }
+
+    private double[][] runAll (NeuralNetwork nn)
+    {
+        final double[][] outputs = new double[PATTERNS][];
+
+        for (int ip = 0; ip < PATTERNS; ip++) {
+            outputs[ip] = nn.run(inputs[ip], null, null);
+        }
+
+        return outputs;
+    }
+}
@@ -0,0 +1,124 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                              R u n A R T E x t r a c t o r T e s t                             //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.moment;
+
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.glyph.ShapeSet;
+import org.audiveris.omr.glyph.SymbolSample;
+import org.audiveris.omr.math.PointsCollector;
+import org.audiveris.omr.moments.ARTMoments;
+import org.audiveris.omr.moments.BasicARTExtractor;
+import org.audiveris.omr.moments.BasicARTMoments;
+import org.audiveris.omr.moments.RunARTExtractor;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.run.RunTableFactory;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.ui.symbol.ShapeSymbol;
+import org.audiveris.omr.ui.symbol.Symbols;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.awt.Point;
+
+/**
+ * Class {@code RunARTExtractorTest} checks that run-based ART extraction gives the same
+ * moments as the point-based {@link BasicARTExtractor}.
+ *
+ * @author Hervé Bitteur
+ */
+public class RunARTExtractorTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of extract method, on symbols of all physical shapes, using both run
+     * orientations and some offset.
+     */
+    @Test
+    public void testAllShapes ()
+    {
+        int count = 0;
+
+        for (Shape shape : ShapeSet.allPhysicalShapes) {
+            ShapeSymbol symbol = Symbols.getSymbol(shape);
+
+            if (symbol == null) {
+                symbol = Symbols.getSymbol(shape, true);
+            }
+
+            if (symbol == null) {
+                continue;
+            }
+
+            final SymbolSample sample = SymbolSample.create(
+                    shape,
+                    symbol,
+                    MusicFont.DEFAULT_INTERLINE);
+            final RunTable vertTable = sample.getRunTable();
+            final RunTable horiTable = new RunTableFactory(
+                    vertTable.getOrientation().opposite()).createTable(vertTable.getBuffer());
+
+            for (RunTable table : new RunTable[]{vertTable, horiTable}) {
+                final int left = 123;
+                final int top = 45;
+
+                // Reference, using points
+                final PointsCollector collector = new PointsCollector(null, table.getWeight());
+                table.cumulate(collector, new Point(left, top));
+
+                final ARTMoments expected = new BasicARTMoments();
+                final BasicARTExtractor basic = new BasicARTExtractor();
+                basic.setDescriptor(expected);
+                basic.extract(
+                        collector.getXValues(),
+                        collector.getYValues(),
+                        collector.getSize());
+
+                // Using runs
+                final ARTMoments result = table.computeArtMoments(left, top);
+
+                // Using points, with flat LUT
+                final ARTMoments flat = new BasicARTMoments();
+                final RunARTExtractor extractor = new RunARTExtractor();
+                extractor.setDescriptor(flat);
+                extractor.extract(
+                        collector.getXValues(),
+                        collector.getYValues(),
+                        collector.getSize());
+
+                for (int p = 0; p < ARTMoments.ANGULAR; p++) {
+                    for (int r = 0; r < ARTMoments.RADIAL; r++) {
+                        final String msg = shape + " " + table.getOrientation() + " p:" + p
+                                           + " r:" + r;
+                        assertEquals(msg, expected.getMoment(p, r), result.getMoment(p, r), 0);
+                        assertEquals(msg, expected.getMoment(p, r), flat.getMoment(p, r), 0);
+                    }
+                }
+            }
+
+            count++;
+        }
+
+        assertTrue(count > 0);
+    }
+}
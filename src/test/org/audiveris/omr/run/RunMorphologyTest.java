@@ -0,0 +1,112 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                R u n M o r p h o l o g y T e s t                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.run;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.image.MorphoProcessor;
+import org.audiveris.omr.image.StructureElement;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Class {@code RunMorphologyTest} checks that closing on runs gives the same results as
+ * gray-level closing followed by binarization.
+ *
+ * @author Hervé Bitteur
+ */
+public class RunMorphologyTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of close method, of class RunMorphology.
+     */
+    @Test
+    public void testClose ()
+    {
+        final Random random = new Random(4321);
+
+        for (float radius : new float[]{1.5f, 3.5f, 6f}) {
+            final StructureElement se = new StructureElement(0, 1, radius, new int[]{0, 0});
+
+            for (int blobs : new int[]{0, 5, 40}) {
+                final ByteProcessor gray = createGrayImage(random, 137, 101, blobs);
+
+                for (int level : new int[]{140, 170}) {
+                    // Reference: gray-level closing, thresholding, then runs
+                    final ByteProcessor closed = (ByteProcessor) gray.duplicate();
+                    new MorphoProcessor(se).close(closed);
+                    closed.threshold(level);
+
+                    for (Orientation orientation : Orientation.values()) {
+                        final RunTable expected = new RunTableFactory(orientation).createTable(
+                                closed);
+                        final RunTable result = new RunMorphology(se, orientation).close(
+                                gray,
+                                level);
+                        assertEquals(
+                                "radius:" + radius + " blobs:" + blobs + " level:" + level + " "
+                                + orientation,
+                                expected.dumpOf(),
+                                result.dumpOf());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a gray image with random dark blobs, some touching image borders, and a few holes.
+     */
+    private ByteProcessor createGrayImage (Random random,
+                                           int width,
+                                           int height,
+                                           int blobs)
+    {
+        final ByteProcessor img = new ByteProcessor(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                img.set(x, y, 150 + random.nextInt(106));
+            }
+        }
+
+        for (int i = 0; i < blobs; i++) {
+            final int x0 = random.nextInt(width);
+            final int y0 = random.nextInt(height);
+            final int rx = 1 + random.nextInt(20);
+            final int ry = 1 + random.nextInt(20);
+
+            for (int y = Math.max(0, y0 - ry); y <= Math.min(height - 1, y0 + ry); y++) {
+                for (int x = Math.max(0, x0 - rx); x <= Math.min(width - 1, x0 + rx); x++) {
+                    img.set(x, y, (random.nextInt(400) == 0) ? 255 : random.nextInt(180));
+                }
+            }
+        }
+
+        return img;
+    }
+}
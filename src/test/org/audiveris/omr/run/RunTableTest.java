@@ -190,6 +190,25 @@ public class RunTableTest
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of getFootprint method, of class RunTable.
+     */
+    @Test
+    public void testGetFootprint ()
+    {
+        System.out.println("\n+++ getFootprint");
+
+        RunTable empty = new RunTable(HORIZONTAL, dim.width, dim.height);
+        RunTable instance = createHorizontalInstance();
+        long footprint = instance.getFootprint();
+        System.out.println("empty: " + empty.getFootprint() + " instance: " + footprint);
+        assertTrue(empty.getFootprint() < footprint);
+        assertEquals(footprint, instance.copy().getFootprint());
+
+        instance.addRun(2, new Run(3, 4));
+        assertTrue(instance.getFootprint() > footprint);
+    }
+
     /**
      * Test of getHeight method, of class RunTable.
      */
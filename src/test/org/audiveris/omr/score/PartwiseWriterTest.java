@@ -0,0 +1,183 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               P a r t w i s e W r i t e r T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.proxymusic.Attributes;
+import org.audiveris.proxymusic.Clef;
+import org.audiveris.proxymusic.ClefSign;
+import org.audiveris.proxymusic.Direction;
+import org.audiveris.proxymusic.DirectionType;
+import org.audiveris.proxymusic.Empty;
+import org.audiveris.proxymusic.FormattedText;
+import org.audiveris.proxymusic.Key;
+import org.audiveris.proxymusic.Note;
+import org.audiveris.proxymusic.ObjectFactory;
+import org.audiveris.proxymusic.PartList;
+import org.audiveris.proxymusic.PartName;
+import org.audiveris.proxymusic.Pitch;
+import org.audiveris.proxymusic.ScorePart;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.Step;
+import org.audiveris.proxymusic.util.Marshalling;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Unit tests for {@link PartwiseWriter}.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseWriterTest
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private final ObjectFactory factory = new ObjectFactory();
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Measures streamed out page after page must result in the very same XML text as
+     * the marshalling of the whole score.
+     */
+    @Test
+    public void testSameOutput ()
+            throws Exception
+    {
+        // Whole score
+        final ScorePartwise whole = createScore();
+
+        for (ScorePartwise.Part pmPart : whole.getPart()) {
+            if (pmPart != whole.getPart().get(1)) {
+                for (int i = 1; i <= 4; i++) {
+                    pmPart.getMeasure().add(createMeasure(i));
+                }
+            }
+        }
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Marshalling.marshal(whole, expected, false, 2);
+
+        // Score streamed out, as two pages of two measures, second part being empty
+        final ScorePartwise streamed = createScore();
+        final PartwiseWriter writer = new PartwiseWriter();
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        try {
+            for (int page = 0; page < 2; page++) {
+                for (ScorePartwise.Part pmPart : streamed.getPart()) {
+                    if (pmPart != streamed.getPart().get(1)) {
+                        for (int i = 1; i <= 2; i++) {
+                            pmPart.getMeasure().add(createMeasure((2 * page) + i));
+                        }
+                    }
+
+                    writer.writeMeasures(pmPart);
+                    assertTrue(pmPart.getMeasure().isEmpty());
+                }
+            }
+
+            writer.write(streamed, actual, false);
+        } finally {
+            writer.close();
+        }
+
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    private ScorePartwise.Part.Measure createMeasure (int number)
+    {
+        final ScorePartwise.Part.Measure measure = factory.createScorePartwisePartMeasure();
+        measure.setNumber("" + number);
+
+        if (number == 1) {
+            final Attributes attributes = factory.createAttributes();
+            attributes.setDivisions(new BigDecimal(1));
+
+            final Key key = factory.createKey();
+            key.setFifths(new BigInteger("-2"));
+            attributes.getKey().add(key);
+
+            final Clef clef = factory.createClef();
+            clef.setSign(ClefSign.G);
+            clef.setLine(new BigInteger("2"));
+            attributes.getClef().add(clef);
+            measure.getNoteOrBackupOrForward().add(attributes);
+
+            // Words with empty text
+            final Direction direction = factory.createDirection();
+            final DirectionType directionType = factory.createDirectionType();
+            final FormattedText words = factory.createFormattedText();
+            words.setValue("");
+            directionType.getWords().add(words);
+            direction.getDirectionType().add(directionType);
+            measure.getNoteOrBackupOrForward().add(direction);
+        }
+
+        // A chord of two notes
+        for (Step step : new Step[]{Step.C, Step.E}) {
+            final Note note = factory.createNote();
+
+            if (step != Step.C) {
+                note.setChord(new Empty()); // Empty element
+            }
+
+            final Pitch pitch = factory.createPitch();
+            pitch.setStep(step);
+            pitch.setOctave(4);
+            note.setPitch(pitch);
+            note.setDuration(new BigDecimal(4));
+            note.setVoice("1");
+            measure.getNoteOrBackupOrForward().add(note);
+        }
+
+        return measure;
+    }
+
+    private ScorePartwise createScore ()
+    {
+        final ScorePartwise scorePartwise = factory.createScorePartwise();
+        scorePartwise.setMovementTitle("Title & <subtitle>");
+
+        final PartList partList = factory.createPartList();
+        scorePartwise.setPartList(partList);
+
+        for (int i = 1; i <= 2; i++) {
+            final ScorePart scorePart = factory.createScorePart();
+            scorePart.setId("P" + i);
+
+            final PartName partName = factory.createPartName();
+            partName.setValue("Part " + i);
+            scorePart.setPartName(partName);
+            partList.getPartGroupOrScorePart().add(scorePart);
+
+            final ScorePartwise.Part pmPart = factory.createScorePartwisePart();
+            pmPart.setId(scorePart);
+            scorePartwise.getPart().add(pmPart);
+        }
+
+        return scorePartwise;
+    }
+}
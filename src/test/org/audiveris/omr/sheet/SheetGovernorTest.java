@@ -0,0 +1,288 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                S h e e t G o v e r n o r T e s t                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link SheetGovernor}.
+ *
+ * @author Hervé Bitteur
+ */
+public class SheetGovernorTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final long BUDGET = 100;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+    private final Book book = new BasicBook(Paths.get("governor-test.png"));
+
+    /** Structure footprint of each stub sheet. */
+    private final Map<SheetStub, Long> sizes = new HashMap<SheetStub, Long>();
+
+    /** Picture caches footprint of each stub sheet. */
+    private final Map<SheetStub, Long> caches = new HashMap<SheetStub, Long>();
+
+    /** Stubs whose picture caches have been disposed of, in disposal order. */
+    private final List<SheetStub> disposed = new ArrayList<SheetStub>();
+
+    /** Stubs swapped out, in swap order. */
+    private final List<SheetStub> swapped = new ArrayList<SheetStub>();
+
+    private boolean swapAllowed = true;
+
+    /** Number of full footprint estimates. */
+    private int fullCount;
+
+    private final SheetGovernor governor = new SheetGovernor(book)
+    {
+        @Override
+        boolean disposeCaches (SheetStub stub)
+        {
+            if (caches.remove(stub) != null) {
+                disposed.add(stub);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        long getBudget ()
+        {
+            return BUDGET;
+        }
+
+        @Override
+        long getFootprint (SheetStub stub)
+        {
+            fullCount++;
+
+            return sizes.get(stub) + getPictureFootprint(stub);
+        }
+
+        @Override
+        long getPictureFootprint (SheetStub stub)
+        {
+            final Long cache = caches.get(stub);
+
+            return (cache != null) ? cache : 0;
+        }
+
+        @Override
+        boolean isSwapAllowed ()
+        {
+            return swapAllowed;
+        }
+    };
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Picture caches are disposed of before any sheet gets swapped.
+     */
+    @Test
+    public void testCachesFirst ()
+    {
+        SheetStub s1 = createStub(1, 20, 20);
+        SheetStub s2 = createStub(2, 40, 0);
+        SheetStub s3 = createStub(3, 40, 0);
+        governor.check(s1);
+        governor.check(s2);
+        governor.check(s3);
+
+        assertEquals(Arrays.asList(s1), disposed);
+        assertTrue(swapped.isEmpty());
+        assertEquals(100, governor.getTotal());
+    }
+
+    /**
+     * The stub being processed is never evicted, even beyond budget.
+     */
+    @Test
+    public void testCurrentKept ()
+    {
+        SheetStub s1 = createStub(1, 200, 50);
+        governor.check(s1);
+
+        assertTrue(disposed.isEmpty());
+        assertTrue(swapped.isEmpty());
+        assertEquals(250, governor.getTotal());
+    }
+
+    /**
+     * Least recently used sheets are swapped first, just enough to get within budget.
+     */
+    @Test
+    public void testLeastRecentlyUsed ()
+    {
+        SheetStub s1 = createStub(1, 30, 0);
+        SheetStub s2 = createStub(2, 30, 0);
+        SheetStub s3 = createStub(3, 30, 0);
+        SheetStub s4 = createStub(4, 30, 0);
+        governor.check(s1);
+        governor.check(s2);
+        governor.check(s3);
+        governor.check(s1); // s1 is now the most recently used
+        assertTrue(swapped.isEmpty());
+
+        governor.check(s4);
+
+        assertEquals(Arrays.asList(s2), swapped);
+        assertFalse(s2.hasSheet());
+        assertEquals(90, governor.getTotal());
+    }
+
+    /**
+     * Sheets are never swapped when swap is not allowed (interactive mode).
+     */
+    @Test
+    public void testNoSwap ()
+    {
+        swapAllowed = false;
+
+        SheetStub s1 = createStub(1, 60, 10);
+        SheetStub s2 = createStub(2, 60, 0);
+        governor.check(s1);
+        governor.check(s2);
+
+        assertEquals(Arrays.asList(s1), disposed);
+        assertTrue(swapped.isEmpty());
+        assertTrue(s1.hasSheet());
+        assertEquals(120, governor.getTotal());
+    }
+
+    /**
+     * Sheet structures are estimated again only when total gets close to budget.
+     */
+    @Test
+    public void testRefine ()
+    {
+        SheetStub s1 = createStub(1, 50, 0);
+        SheetStub s2 = createStub(2, 20, 0);
+        governor.check(s1);
+        governor.check(s2);
+        assertEquals(2, fullCount);
+
+        sizes.put(s1, 55L);
+        governor.check(s1); // Cheap estimate, still using former structures estimate
+        assertEquals(2, fullCount);
+        assertEquals(70, governor.getTotal());
+
+        caches.put(s1, 10L);
+        governor.check(s1); // Close to budget, structures estimated again
+        assertEquals(3, fullCount);
+        assertEquals(85, governor.getTotal());
+        assertTrue(swapped.isEmpty());
+    }
+
+    /**
+     * A released stub no longer counts.
+     */
+    @Test
+    public void testRelease ()
+    {
+        SheetStub s1 = createStub(1, 30, 0);
+        SheetStub s2 = createStub(2, 30, 0);
+        governor.check(s1);
+        governor.check(s2);
+        governor.release(s1);
+
+        assertEquals(30, governor.getTotal());
+    }
+
+    /**
+     * Several sheets may have to be swapped, still in LRU order.
+     */
+    @Test
+    public void testSeveralSwaps ()
+    {
+        SheetStub s1 = createStub(1, 40, 0);
+        SheetStub s2 = createStub(2, 40, 0);
+        SheetStub s3 = createStub(3, 90, 0);
+        governor.check(s1);
+        governor.check(s2);
+        governor.check(s3);
+
+        assertEquals(Arrays.asList(s1, s2), swapped);
+        assertEquals(90, governor.getTotal());
+    }
+
+    private SheetStub createStub (int number,
+                                  long size,
+                                  long cache)
+    {
+        SheetStub stub = new FakeStub(number);
+        sizes.put(stub, size);
+
+        if (cache > 0) {
+            caches.put(stub, cache);
+        }
+
+        return stub;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+    //----------//
+    // FakeStub //
+    //----------//
+    /**
+     * A stub with a pretended sheet.
+     */
+    private class FakeStub
+            extends BasicStub
+    {
+        //~ Instance fields ------------------------------------------------------------------------
+
+        private boolean loaded = true;
+
+        //~ Constructors ---------------------------------------------------------------------------
+        public FakeStub (int number)
+        {
+            super(book, number);
+        }
+
+        //~ Methods --------------------------------------------------------------------------------
+        @Override
+        public boolean hasSheet ()
+        {
+            return loaded;
+        }
+
+        @Override
+        public void swapSheet (boolean gc)
+        {
+            loaded = false;
+            swapped.add(this);
+            governor.release(this);
+        }
+    }
+}
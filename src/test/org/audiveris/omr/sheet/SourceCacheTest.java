@@ -0,0 +1,100 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                  S o u r c e C a c h e T e s t                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.sheet.Picture.SourceKey;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+/**
+ * Unit tests for {@link SourceCache}.
+ *
+ * @author Hervé Bitteur
+ */
+public class SourceCacheTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Budget room for just one source. */
+    private static final long BUDGET = 1000000;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * The source cheapest to rebuild is demoted first.
+     */
+    @Test
+    public void testDemoteCheapest ()
+    {
+        SourceCache cache = new SourceCache(BUDGET);
+        cache.put(SourceKey.NO_STAFF, createSource(), 10000000);
+        cache.put(SourceKey.BINARY, createSource(), 1000000);
+        System.out.println(cache);
+
+        assertFalse(cache.isDemoted(SourceKey.NO_STAFF));
+        assertTrue(cache.isDemoted(SourceKey.BINARY));
+        assertNotNull(cache.lookup(SourceKey.BINARY)); // Still softly available
+    }
+
+    /**
+     * A pinned source is never demoted.
+     */
+    @Test
+    public void testPinned ()
+    {
+        SourceCache cache = new SourceCache(BUDGET);
+        cache.retain(EnumSet.of(SourceKey.BINARY), EnumSet.of(SourceKey.NO_STAFF));
+        cache.put(SourceKey.NO_STAFF, createSource(), 10000000);
+        cache.put(SourceKey.BINARY, createSource(), 1000000);
+
+        assertTrue(cache.isDemoted(SourceKey.NO_STAFF));
+        assertFalse(cache.isDemoted(SourceKey.BINARY));
+    }
+
+    /**
+     * Sources not retained are released, and metrics are recorded.
+     */
+    @Test
+    public void testRetain ()
+    {
+        SourceCache cache = new SourceCache(BUDGET);
+        cache.put(SourceKey.NO_STAFF, createSource(), 2000000);
+        cache.put(SourceKey.MEDIAN, createSource(), 3000000);
+        cache.retain(EnumSet.of(SourceKey.NO_STAFF), EnumSet.noneOf(SourceKey.class));
+
+        assertNotNull(cache.get(SourceKey.NO_STAFF));
+        assertNull(cache.get(SourceKey.MEDIAN));
+        assertEquals(1, cache.getHits(SourceKey.NO_STAFF));
+        assertEquals(1, cache.getMisses(SourceKey.MEDIAN));
+        assertEquals(2, cache.getRebuildTime(SourceKey.NO_STAFF));
+        assertTrue(cache.getFootprint() < BUDGET);
+    }
+
+    private ByteProcessor createSource ()
+    {
+        return new ByteProcessor(1000, 600);
+    }
+}
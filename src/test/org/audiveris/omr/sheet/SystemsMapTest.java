@@ -0,0 +1,330 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   S y s t e m s M a p T e s t                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.sheet.grid.LineInfo;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class {@code SystemsMapTest} compares {@link SystemsMap} queries with the
+ * {@link Area} operations they replace, on random slanted systems.
+ *
+ * @author Hervé Bitteur
+ */
+public class SystemsMapTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int WIDTH = 400;
+
+    /** Half width of the vertical strip that stands for a column center. */
+    private static final double EPS = 1e-6;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of getGutter method.
+     */
+    @Test
+    public void testGutter ()
+    {
+        for (int seed = 0; seed < 20; seed++) {
+            final List<SystemInfo> systems = createSystems(new Random(seed));
+            final SystemsMap map = new SystemsMap(systems, WIDTH);
+
+            for (int i = 0; i < systems.size(); i++) {
+                for (int j = i + 1; j < systems.size(); j++) {
+                    final Area common = new Area(systems.get(i).getArea());
+                    common.intersect(systems.get(j).getArea());
+
+                    final Rectangle gutter = map.getGutter(systems.get(i), systems.get(j));
+
+                    if (common.isEmpty()) {
+                        assertNull(gutter);
+                    } else {
+                        // Gutter is sampled at column centers, and rounded outwards to pixels
+                        final Rectangle2D expected = common.getBounds2D();
+                        assertNotNull(gutter);
+                        assertEquals(expected.getMinX(), gutter.getMinX(), 1);
+                        assertEquals(expected.getMaxX(), gutter.getMaxX(), 1);
+                        assertEquals(expected.getMinY(), gutter.getMinY(), 2);
+                        assertEquals(expected.getMaxY(), gutter.getMaxY(), 2);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of point queries, with systems not vertically ordered.
+     */
+    @Test
+    public void testNestedPoints ()
+    {
+        // A short system within the height of a taller one
+        final List<SystemInfo> systems = Arrays.asList(
+                createSystem(1, 10, WIDTH - 10, 0, 0, 600, 0),
+                createSystem(2, 50, WIDTH - 50, 100, 0.05, 100, 0.05),
+                createSystem(3, 10, WIDTH - 10, 580, 0, 200, 0));
+        checkPoints(systems, new Random(0));
+    }
+
+    /**
+     * Test of point queries, getSystemsOf(x,y) and contains(system,x,y).
+     */
+    @Test
+    public void testPoints ()
+    {
+        for (int seed = 0; seed < 20; seed++) {
+            final Random random = new Random(seed);
+            checkPoints(createSystems(random), random);
+        }
+    }
+
+    /**
+     * Test of rectangle queries, getSystemsOf(rect) and containingSystems(rect).
+     */
+    @Test
+    public void testRectangles ()
+    {
+        for (int seed = 0; seed < 20; seed++) {
+            final Random random = new Random(seed);
+            final List<SystemInfo> systems = createSystems(random);
+            final SystemsMap map = new SystemsMap(systems, WIDTH);
+            final double height = getHeight(systems);
+
+            for (int n = 0; n < 2000; n++) {
+                final int x = random.nextInt(WIDTH + 20) - 10;
+                final int w = 1 + random.nextInt(60);
+                final double y = (random.nextDouble() * height) - 10;
+                final double h = random.nextDouble() * 200;
+                final Rectangle2D rect = new Rectangle2D.Double(x, y, w, h);
+
+                final List<SystemInfo> intersected = new ArrayList<SystemInfo>();
+                final List<SystemInfo> containing = new ArrayList<SystemInfo>();
+
+                for (SystemInfo system : systems) {
+                    final Area area = system.getArea();
+                    boolean intersects = false;
+                    boolean contains = true;
+
+                    for (int c = Math.max(0, x); c < Math.min(WIDTH, x + w); c++) {
+                        final double xc = (c + 0.5) - EPS;
+                        intersects |= area.intersects(xc, y, 2 * EPS, h);
+                        contains &= area.contains(xc, y, 2 * EPS, h);
+                    }
+
+                    if (intersects) {
+                        intersected.add(system);
+                    }
+
+                    if (contains && (x >= 0) && ((x + w) <= WIDTH)) {
+                        containing.add(system);
+                    }
+                }
+
+                final List<SystemInfo> found = new ArrayList<SystemInfo>();
+                map.getSystemsOf(rect, found);
+                assertEquals(rect.toString(), intersected, found);
+
+                found.clear();
+                map.containingSystems(rect, found);
+                assertEquals(rect.toString(), containing, found);
+            }
+        }
+    }
+
+    //-------------//
+    // checkPoints //
+    //-------------//
+    /**
+     * Compare map point queries with area containment, at column centers.
+     */
+    private void checkPoints (List<SystemInfo> systems,
+                              Random random)
+    {
+        final SystemsMap map = new SystemsMap(systems, WIDTH);
+        final double height = getHeight(systems);
+        final List<SystemInfo> found = new ArrayList<SystemInfo>();
+
+        for (int n = 0; n < 20000; n++) {
+            final double x = random.nextInt(WIDTH) + 0.5;
+            final double y = random.nextDouble() * height;
+            final List<SystemInfo> expected = new ArrayList<SystemInfo>();
+
+            for (SystemInfo system : systems) {
+                final boolean inside = system.getArea().contains(x, y);
+                assertEquals(inside, map.contains(system, x, y));
+
+                if (inside) {
+                    expected.add(system);
+                }
+            }
+
+            found.clear();
+            map.getSystemsOf(x, y, found);
+            assertEquals("x:" + x + " y:" + y, expected, found);
+        }
+    }
+
+    //--------------//
+    // createSystem //
+    //--------------//
+    private SystemInfo createSystem (int id,
+                                     int left,
+                                     int right,
+                                     double top,
+                                     double slope,
+                                     double height,
+                                     double skew)
+    {
+        return createSystem(id, left, right, top, slope, height, skew, null);
+    }
+
+    /**
+     * Create a system whose area is a band between two slanted lines.
+     *
+     * @param id     system id
+     * @param left   area left abscissa
+     * @param right  area right abscissa
+     * @param top    top ordinate at left side
+     * @param slope  top line slope
+     * @param height band height at left side
+     * @param skew   slope difference of bottom line
+     * @param random source of jitter on both boundaries, or null
+     * @return the created system
+     */
+    private SystemInfo createSystem (int id,
+                                     int left,
+                                     int right,
+                                     double top,
+                                     double slope,
+                                     double height,
+                                     double skew,
+                                     Random random)
+    {
+        final Path2D path = new Path2D.Double();
+        final int step = 40;
+
+        // Top boundary, from left to right
+        for (int x = left;; x = Math.min(right, x + step)) {
+            final double y = top + (slope * (x - left)) + jitter(random);
+
+            if (x == left) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+
+            if (x == right) {
+                break;
+            }
+        }
+
+        // Bottom boundary, from right to left
+        for (int x = right;; x = Math.max(left, x - step)) {
+            path.lineTo(x, top + height + ((slope + skew) * (x - left)) + jitter(random));
+
+            if (x == left) {
+                break;
+            }
+        }
+
+        path.closePath();
+
+        // A one-line staff, just to define system coordinates
+        final List<Point2D> points = Arrays.asList(
+                (Point2D) new Point2D.Double(left, top),
+                new Point2D.Double(right, top + (slope * (right - left))));
+        final Staff staff = new Staff(
+                id,
+                left,
+                right,
+                20,
+                Arrays.asList((LineInfo) new StaffLine(points, 3)));
+        final SystemInfo system = new SystemInfo(id, null, Arrays.asList(staff));
+        system.setArea(new Area(path));
+
+        return system;
+    }
+
+    //---------------//
+    // createSystems //
+    //---------------//
+    /**
+     * Create a random sequence of slanted systems, where consecutive systems overlap
+     * in a gutter band, or not.
+     */
+    private List<SystemInfo> createSystems (Random random)
+    {
+        final int count = 2 + random.nextInt(5);
+        final List<SystemInfo> systems = new ArrayList<SystemInfo>();
+        double top = 10 + (random.nextDouble() * 20);
+
+        for (int id = 1; id <= count; id++) {
+            final int left = random.nextInt(40);
+            final int right = WIDTH - 1 - random.nextInt(40);
+            final double slope = (random.nextDouble() - 0.5) * 0.04;
+            final double skew = (random.nextDouble() - 0.5) * 0.02;
+            final double height = 150 + (random.nextDouble() * 100);
+            systems.add(createSystem(id, left, right, top, slope, height, skew, random));
+
+            // Next system top: either within the gutter band, or below current system
+            top += (height - 40 + (random.nextDouble() * 60));
+        }
+
+        return systems;
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    private double getHeight (List<SystemInfo> systems)
+    {
+        double height = 0;
+
+        for (SystemInfo system : systems) {
+            height = Math.max(height, system.getArea().getBounds2D().getMaxY());
+        }
+
+        return height + 20;
+    }
+
+    //--------//
+    // jitter //
+    //--------//
+    private double jitter (Random random)
+    {
+        return (random != null) ? ((random.nextDouble() - 0.5) * 6) : 0;
+    }
+}
@@ -0,0 +1,185 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             D i s t a n c e s B u i l d e r T e s t                            //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.note;
+
+import ij.process.ByteProcessor;
+
+import org.audiveris.omr.glyph.BasicGlyph;
+import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.glyph.Symbol.Group;
+import org.audiveris.omr.image.ChamferDistance;
+import org.audiveris.omr.image.DistanceTable;
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.run.RunTableFactory;
+import org.audiveris.omr.sheet.BasicBook;
+import org.audiveris.omr.sheet.BasicSheet;
+import org.audiveris.omr.sheet.BasicStub;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.Staff;
+import org.audiveris.omr.sheet.StaffLine;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sheet.grid.LineInfo;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.Point2D;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class {@code DistancesBuilderTest} checks that refreshing the distance table of a
+ * modified system gives the same table as a full build.
+ *
+ * @author Hervé Bitteur
+ */
+public class DistancesBuilderTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int WIDTH = 300;
+
+    private static final int HEIGHT = 400;
+
+    //~ Methods ------------------------------------------------------------------------------------
+    /**
+     * Test of refreshSystem method, via a new buildDistances on a modified system.
+     */
+    @Test
+    public void testRefreshSystem ()
+    {
+        final Sheet sheet = createSheet();
+
+        // Two systems that share some rows
+        final SystemInfo upper = createSystem(sheet, 1, 0, 220, 60);
+        final SystemInfo lower = createSystem(sheet, 2, 180, HEIGHT - 180, 260);
+        sheet.getSystemManager().setSystems(Arrays.asList(upper, lower));
+
+        final DistanceTable first = new DistancesBuilder(sheet).buildDistances();
+
+        // A new stem seed in lower system, across the rows shared with upper system
+        final Glyph seed = createGlyph(150, 170, 3, 80);
+        seed.addGroup(Group.VERTICAL_SEED);
+        lower.addFreeGlyph(seed);
+
+        final DistanceTable refreshed = new DistancesBuilder(sheet).buildDistances();
+        assertSame(first, refreshed);
+        assertEquals(ChamferDistance.VALUE_UNKNOWN, refreshed.getValue(151, 200));
+
+        // Full build, with no neutralized table to refresh
+        sheet.getPicture().setNeutralizedTable(null);
+
+        final DistanceTable full = new DistancesBuilder(sheet).buildDistances();
+        assertNotSame(refreshed, full);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals("x:" + x + " y:" + y, full.getValue(x, y), refreshed.getValue(x, y));
+            }
+        }
+    }
+
+    //-------------//
+    // createGlyph //
+    //-------------//
+    private Glyph createGlyph (int left,
+                               int top,
+                               int width,
+                               int height)
+    {
+        final ByteProcessor buffer = new ByteProcessor(width, height); // All black
+        final RunTable runTable = new RunTableFactory(Orientation.VERTICAL).createTable(buffer);
+
+        return new BasicGlyph(left, top, runTable);
+    }
+
+    //-------------//
+    // createSheet //
+    //-------------//
+    /**
+     * Create a sheet whose binary image contains random blobs.
+     */
+    private Sheet createSheet ()
+    {
+        final ByteProcessor img = new ByteProcessor(WIDTH, HEIGHT);
+        img.setValue(255);
+        img.fill();
+
+        final Random random = new Random(789);
+
+        for (int i = 0; i < 40; i++) {
+            final int x0 = random.nextInt(WIDTH);
+            final int y0 = random.nextInt(HEIGHT);
+            final int r = 1 + random.nextInt(5);
+
+            for (int y = Math.max(0, y0 - r); y < Math.min(HEIGHT, y0 + r); y++) {
+                for (int x = Math.max(0, x0 - r); x < Math.min(WIDTH, x0 + r); x++) {
+                    img.set(x, y, 0);
+                }
+            }
+        }
+
+        final Book book = new BasicBook(Paths.get("distances-test.png"));
+        final RunTable binary = new RunTableFactory(Orientation.VERTICAL).createTable(img);
+
+        return new BasicSheet(new BasicStub(book, 1), binary);
+    }
+
+    //--------------//
+    // createSystem //
+    //--------------//
+    /**
+     * Create a system with one staff of 5 lines.
+     */
+    private SystemInfo createSystem (Sheet sheet,
+                                     int id,
+                                     int top,
+                                     int height,
+                                     int firstLine)
+    {
+        final List<LineInfo> lines = new ArrayList<LineInfo>();
+
+        for (int i = 0; i < 5; i++) {
+            final int y = firstLine + (20 * i);
+            final StaffLine line = new StaffLine(
+                    Arrays.asList(
+                            (Point2D) new Point2D.Double(10, y + 1),
+                            new Point2D.Double(WIDTH - 11, y + 1)),
+                    3);
+            line.setGlyph(createGlyph(10, y, WIDTH - 20, 3));
+            lines.add(line);
+        }
+
+        final Staff staff = new Staff(id, 10, WIDTH - 11, 20, lines);
+        final SystemInfo system = new SystemInfo(id, sheet, Arrays.asList(staff));
+        system.setArea(new Area(new Rectangle(0, top, WIDTH, height)));
+
+        return system;
+    }
+}
@@ -0,0 +1,148 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     O c r C a c h e T e s t                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2017. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.text;
+
+import org.audiveris.omr.text.OCR.LayoutMode;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link OcrCache}.
+ *
+ * @author Hervé Bitteur
+ */
+public class OcrCacheTest
+{
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Test
+    public void testKeyOf ()
+    {
+        final BufferedImage img = createImage(200);
+        final String key = OcrCache.keyOf(img, "eng", LayoutMode.MULTI_BLOCK, "v1");
+
+        // Same pixels, even from a sub-image, give the same key
+        final BufferedImage big = new BufferedImage(300, 100, BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g = big.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 300, 100);
+        g.drawImage(img, 50, 20, null);
+        final BufferedImage sub = big.getSubimage(50, 20, 100, 40);
+        assertEquals(key, OcrCache.keyOf(sub, "eng", LayoutMode.MULTI_BLOCK, "v1"));
+
+        // Gray levels on the same side of threshold give the same key
+        assertEquals(key, OcrCache.keyOf(createImage(220), "eng", LayoutMode.MULTI_BLOCK, "v1"));
+
+        // Any other parameter gives another key
+        assertFalse(key.equals(OcrCache.keyOf(img, "fra", LayoutMode.MULTI_BLOCK, "v1")));
+        assertFalse(key.equals(OcrCache.keyOf(img, "eng", LayoutMode.SINGLE_BLOCK, "v1")));
+        assertFalse(key.equals(OcrCache.keyOf(img, "eng", LayoutMode.MULTI_BLOCK, "v2")));
+
+        img.setRGB(5, 5, Color.BLACK.getRGB());
+        assertFalse(key.equals(OcrCache.keyOf(img, "eng", LayoutMode.MULTI_BLOCK, "v1")));
+    }
+
+    @Test
+    public void testStoreLoad ()
+            throws Exception
+    {
+        final OcrCache cache = new OcrCache();
+        assertNull(cache.get("k1"));
+        cache.put("k1", createLines());
+        assertTrue(cache.isModified());
+
+        final Path root = Files.createTempDirectory("ocr-cache");
+
+        try {
+            cache.store(root);
+            assertFalse(cache.isModified());
+
+            final OcrCache loaded = OcrCache.load(root);
+            assertEquals(1, loaded.size());
+
+            final OcrCache.Word word = loaded.get("k1").get(0).getWords().get(0);
+            assertEquals("Allegro", word.getValue());
+            assertEquals(new Rectangle(10, 20, 70, 15), word.getBounds());
+            assertEquals(0.87, word.getConfidence(), 0.0);
+            assertEquals(new Line2D.Double(10, 33, 80, 33).getP2(), word.getBaseline().getP2());
+            assertTrue(word.getFontInfo().isBold);
+            assertFalse(word.getFontInfo().isItalic);
+            assertEquals(12, word.getFontInfo().pointsize);
+            assertEquals("Times", word.getFontInfo().fontName);
+            assertEquals(7, word.getChars().size());
+            assertEquals("g", word.getChars().get(4).getValue());
+        } finally {
+            Files.deleteIfExists(root.resolve(OcrCache.FILE_NAME));
+            Files.delete(root);
+        }
+
+        // No file yet
+        assertEquals(0, OcrCache.load(Files.createTempDirectory("ocr-cache")).size());
+    }
+
+    private static BufferedImage createImage (int gray)
+    {
+        final BufferedImage img = new BufferedImage(100, 40, BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g = img.createGraphics();
+        g.setColor(new Color(gray, gray, gray));
+        g.fillRect(0, 0, 100, 40);
+        g.setColor(Color.BLACK);
+        g.fillRect(10, 10, 30, 5);
+        g.fillRect(60, 20, 5, 15);
+
+        return img;
+    }
+
+    private static List<OcrCache.Line> createLines ()
+    {
+        final OcrCache.Word word = new OcrCache.Word(
+                new Rectangle(10, 20, 70, 15),
+                "Allegro",
+                new Line2D.Double(10, 33, 80, 33),
+                0.87,
+                new FontInfo(true, false, false, false, true, false, 12, "Times"));
+
+        for (int i = 0; i < 7; i++) {
+            final Rectangle box = new Rectangle(10 + (10 * i), 20, 10, 15);
+            word.getChars().add(new OcrCache.Char(box, "Allegro".substring(i, i + 1)));
+        }
+
+        final OcrCache.Line line = new OcrCache.Line();
+        line.getWords().add(word);
+
+        final List<OcrCache.Line> lines = new ArrayList<OcrCache.Line>();
+        lines.add(line);
+
+        return lines;
+    }
+}